@@ -0,0 +1,97 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.siddhi.extension.store.elasticsearch.benchmark;
+
+import io.siddhi.extension.store.elasticsearch.utils.ElasticsearchTableUtils;
+import io.siddhi.query.api.definition.Attribute;
+import org.elasticsearch.action.bulk.BulkRequest;
+import org.elasticsearch.action.index.IndexRequest;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks turning the records of an add into the index requests of a bulk request as the table does, generating
+ * the id of each document from its primary key and serializing its source, for narrow and wide records and for
+ * single records and large batches.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ElasticsearchAddBenchmark {
+
+    private static final String INDEX_NAME = "benchmark";
+
+    @Param({"4", "48"})
+    private int attributeCount;
+
+    @Param({"1", "100", "1000"})
+    private int batchSize;
+
+    private List<Attribute> attributes;
+    private List<String> primaryKeys;
+    private List<Object[]> records;
+
+    @Setup
+    public void setup() {
+        attributes = ElasticsearchBenchmarkSchema.createAttributes(attributeCount);
+        primaryKeys = Collections.singletonList(attributes.get(0).getName());
+        records = new ArrayList<>(batchSize);
+        for (int i = 0; i < batchSize; i++) {
+            records.add(ElasticsearchBenchmarkSchema.createRecord(attributes, i));
+        }
+    }
+
+    @Benchmark
+    public BulkRequest buildBulkRequest() throws IOException {
+        BulkRequest bulkRequest = new BulkRequest();
+        for (Object[] record : records) {
+            IndexRequest indexRequest = new IndexRequest(INDEX_NAME);
+            indexRequest.id(ElasticsearchTableUtils.generateRecordIdFromPrimaryKeyValues(attributes, record,
+                    primaryKeys));
+            indexRequest.source(ElasticsearchTableUtils.buildSource(attributes, record));
+            bulkRequest.add(indexRequest);
+        }
+        return bulkRequest;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(ElasticsearchAddBenchmark.class.getSimpleName()).build()).run();
+    }
+}
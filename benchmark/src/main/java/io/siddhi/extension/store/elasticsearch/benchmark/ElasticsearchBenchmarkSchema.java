@@ -0,0 +1,85 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.siddhi.extension.store.elasticsearch.benchmark;
+
+import io.siddhi.query.api.definition.Attribute;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * This class creates the table schemas and records the benchmarks run on, cycling through the attribute types a
+ * table supports so that narrow and wide schemas hold the same mix of values.
+ */
+public class ElasticsearchBenchmarkSchema {
+
+    private static final Attribute.Type[] ATTRIBUTE_TYPES = {Attribute.Type.STRING, Attribute.Type.LONG,
+            Attribute.Type.FLOAT, Attribute.Type.DOUBLE, Attribute.Type.INT, Attribute.Type.BOOL};
+
+    private ElasticsearchBenchmarkSchema() {
+    }
+
+    /**
+     * Creates the attributes of a table.
+     *
+     * @param attributeCount the number of attributes.
+     * @return the attributes named attribute0, attribute1 and so on.
+     */
+    public static List<Attribute> createAttributes(int attributeCount) {
+        List<Attribute> attributes = new ArrayList<>(attributeCount);
+        for (int i = 0; i < attributeCount; i++) {
+            attributes.add(new Attribute("attribute" + i, ATTRIBUTE_TYPES[i % ATTRIBUTE_TYPES.length]));
+        }
+        return attributes;
+    }
+
+    /**
+     * Creates a record of a table, whose values differ from those of the records created with other sequence
+     * numbers.
+     *
+     * @param attributes     the attributes of the table.
+     * @param sequenceNumber the sequence number of the record.
+     * @return the record.
+     */
+    public static Object[] createRecord(List<Attribute> attributes, int sequenceNumber) {
+        Object[] record = new Object[attributes.size()];
+        for (int i = 0; i < record.length; i++) {
+            switch (attributes.get(i).getType()) {
+                case STRING:
+                    record[i] = "value " + sequenceNumber + " of " + attributes.get(i).getName();
+                    break;
+                case LONG:
+                    record[i] = 1000L * sequenceNumber + i;
+                    break;
+                case FLOAT:
+                    record[i] = 55.6F + sequenceNumber + i;
+                    break;
+                case DOUBLE:
+                    record[i] = 1234.5678 * sequenceNumber + i;
+                    break;
+                case INT:
+                    record[i] = sequenceNumber + i;
+                    break;
+                default:
+                    record[i] = (sequenceNumber + i) % 2 == 0;
+            }
+        }
+        return record;
+    }
+}
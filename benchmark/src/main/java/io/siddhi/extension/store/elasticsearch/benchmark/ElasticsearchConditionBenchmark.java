@@ -0,0 +1,137 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.siddhi.extension.store.elasticsearch.benchmark;
+
+import io.siddhi.extension.store.elasticsearch.ElasticsearchCompiledCondition;
+import io.siddhi.extension.store.elasticsearch.ElasticsearchConditionVisitor;
+import io.siddhi.extension.store.elasticsearch.utils.ElasticsearchTableUtils;
+import io.siddhi.query.api.definition.Attribute;
+import io.siddhi.query.api.expression.condition.Compare;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks compiling a condition which compares store attributes with stream variables into a query string,
+ * which is done once per query, and binding the values of the stream variables of an event into the compiled
+ * query string, which is done for every find and contains. The condition is a conjunction of equalities, visited
+ * in the order Siddhi visits the expression "attribute0 == var0 and attribute1 == var1 and ..." in, since Siddhi
+ * does not let the expression builder be created outside of a query.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ElasticsearchConditionBenchmark {
+
+    private static final String STREAM_ID = "BenchmarkStream";
+    private static final String STORE_ID = "BenchmarkTable";
+
+    @Param({"1", "4", "16"})
+    private int compareCount;
+
+    private List<Attribute> attributes;
+    private ElasticsearchCompiledCondition compiledCondition;
+    private Map<String, Object> parameters;
+
+    @Setup
+    public void setup() {
+        attributes = ElasticsearchBenchmarkSchema.createAttributes(compareCount);
+        compiledCondition = compile();
+        Object[] record = ElasticsearchBenchmarkSchema.createRecord(attributes, 1);
+        parameters = new HashMap<>();
+        for (int i = 0; i < compareCount; i++) {
+            parameters.put(getStreamVariableId(i), record[i]);
+        }
+    }
+
+    @Benchmark
+    public ElasticsearchCompiledCondition compile() {
+        ElasticsearchConditionVisitor visitor = new ElasticsearchConditionVisitor();
+        visitConjunction(visitor, compareCount);
+        return new ElasticsearchCompiledCondition(visitor.returnCondition(),
+                visitor.returnEqualityStreamVariables(), visitor.returnEqualityConstants());
+    }
+
+    @Benchmark
+    public String resolve() {
+        return ElasticsearchTableUtils.resolveCondition(compiledCondition, parameters);
+    }
+
+    /**
+     * Visits the conjunction of the first compares, which Siddhi parses as the conjunction of the conjunction of
+     * all but the last compare with the last compare.
+     */
+    private void visitConjunction(ElasticsearchConditionVisitor visitor, int count) {
+        if (count == 1) {
+            visitEquality(visitor, 0);
+            return;
+        }
+        visitor.beginVisitAnd();
+        visitor.beginVisitAndLeftOperand();
+        visitConjunction(visitor, count - 1);
+        visitor.endVisitAndLeftOperand();
+        visitor.beginVisitAndRightOperand();
+        visitEquality(visitor, count - 1);
+        visitor.endVisitAndRightOperand();
+        visitor.endVisitAnd();
+    }
+
+    private void visitEquality(ElasticsearchConditionVisitor visitor, int index) {
+        Attribute attribute = attributes.get(index);
+        String streamVariableId = getStreamVariableId(index);
+        visitor.beginVisitCompare(Compare.Operator.EQUAL);
+        visitor.beginVisitCompareLeftOperand(Compare.Operator.EQUAL);
+        visitor.beginVisitStoreVariable(STORE_ID, attribute.getName(), attribute.getType());
+        visitor.endVisitStoreVariable(STORE_ID, attribute.getName(), attribute.getType());
+        visitor.endVisitCompareLeftOperand(Compare.Operator.EQUAL);
+        visitor.beginVisitCompareRightOperand(Compare.Operator.EQUAL);
+        visitor.beginVisitStreamVariable(streamVariableId, STREAM_ID, "var" + index, attribute.getType());
+        visitor.endVisitStreamVariable(streamVariableId, STREAM_ID, "var" + index, attribute.getType());
+        visitor.endVisitCompareRightOperand(Compare.Operator.EQUAL);
+        visitor.endVisitCompare(Compare.Operator.EQUAL);
+    }
+
+    private static String getStreamVariableId(int index) {
+        return STREAM_ID + ".var" + index;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(ElasticsearchConditionBenchmark.class.getSimpleName()).build())
+                .run();
+    }
+}
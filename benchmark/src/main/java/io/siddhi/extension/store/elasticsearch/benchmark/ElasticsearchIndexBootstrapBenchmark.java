@@ -0,0 +1,167 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.siddhi.extension.store.elasticsearch.benchmark;
+
+import com.sun.net.httpserver.HttpServer;
+import io.siddhi.extension.store.elasticsearch.ElasticsearchIndexBootstrap;
+import org.apache.http.HttpHost;
+import org.elasticsearch.client.RequestOptions;
+import org.elasticsearch.client.RestClient;
+import org.elasticsearch.client.RestHighLevelClient;
+import org.elasticsearch.client.indices.CreateIndexRequest;
+import org.elasticsearch.client.indices.GetIndexRequest;
+import org.elasticsearch.client.indices.PutIndexTemplateRequest;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the startup of a Siddhi app with many tables, each of which has to prepare its index, against a
+ * stand-in HTTP server which answers like a cluster on which no index exists yet, with a fixed round trip time.
+ * Indices are prepared one table after the other with blocking requests as tables used to, in parallel by index
+ * bootstraps, and by index bootstraps which only install an index template.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ElasticsearchIndexBootstrapBenchmark {
+
+    private static final long ROUND_TRIP_MILLIS = 10;
+
+    @Param({"10", "50"})
+    private int tableCount;
+
+    private HttpServer server;
+    private ExecutorService executor;
+    private RestHighLevelClient client;
+
+    @Setup
+    public void setup() throws IOException {
+        // the stand-in writes the headers and the body of a response separately, which without this waits for
+        // the delayed acknowledgement of the headers
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+        executor = Executors.newCachedThreadPool();
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(executor);
+        server.createContext("/", exchange -> {
+            try {
+                Thread.sleep(ROUND_TRIP_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            if (exchange.getRequestMethod().equals("HEAD")) {
+                // the stand-in closes the connection after answering a head request, so the client is told to not
+                // reuse it
+                exchange.getResponseHeaders().add("Connection", "close");
+                exchange.sendResponseHeaders(404, -1);
+                exchange.close();
+                return;
+            }
+            String path = exchange.getRequestURI().getPath();
+            byte[] body = (path.startsWith("/_template/") ? "{\"acknowledged\":true}" :
+                    "{\"acknowledged\":true,\"shards_acknowledged\":true,\"index\":\"" + path.substring(1) + "\"}")
+                    .getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream outputStream = exchange.getResponseBody()) {
+                outputStream.write(body);
+            }
+        });
+        server.start();
+        client = new RestHighLevelClient(RestClient.builder(new HttpHost("127.0.0.1", server.getAddress().getPort(),
+                "http")));
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        client.close();
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    @Benchmark
+    public void createIndicesSerially() throws IOException {
+        for (int i = 0; i < tableCount; i++) {
+            String indexName = "table" + i;
+            if (!client.indices().exists(new GetIndexRequest(indexName), RequestOptions.DEFAULT)) {
+                client.indices().create(new CreateIndexRequest(indexName), RequestOptions.DEFAULT);
+            }
+        }
+    }
+
+    @Benchmark
+    public void bootstrapIndicesInParallel() throws IOException {
+        List<ElasticsearchIndexBootstrap> bootstraps = new ArrayList<>(tableCount);
+        for (int i = 0; i < tableCount; i++) {
+            bootstraps.add(new ElasticsearchIndexBootstrap(client, "table" + i, null,
+                    new CreateIndexRequest("table" + i)));
+        }
+        awaitAll(bootstraps);
+    }
+
+    @Benchmark
+    public void bootstrapIndexTemplatesInParallel() throws IOException {
+        List<ElasticsearchIndexBootstrap> bootstraps = new ArrayList<>(tableCount);
+        for (int i = 0; i < tableCount; i++) {
+            bootstraps.add(new ElasticsearchIndexBootstrap(client, "table" + i, new PutIndexTemplateRequest(
+                    "siddhi-table" + i).patterns(Collections.singletonList("table" + i + "-*")), null));
+        }
+        awaitAll(bootstraps);
+    }
+
+    private static void awaitAll(List<ElasticsearchIndexBootstrap> bootstraps) throws IOException {
+        for (ElasticsearchIndexBootstrap bootstrap : bootstraps) {
+            bootstrap.start();
+        }
+        for (ElasticsearchIndexBootstrap bootstrap : bootstraps) {
+            bootstrap.awaitReady();
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(ElasticsearchIndexBootstrapBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
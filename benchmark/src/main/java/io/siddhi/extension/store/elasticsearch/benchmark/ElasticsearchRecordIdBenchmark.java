@@ -0,0 +1,95 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.siddhi.extension.store.elasticsearch.benchmark;
+
+import io.siddhi.extension.store.elasticsearch.utils.ElasticsearchTableUtils;
+import io.siddhi.query.api.definition.Attribute;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks generating the id of a document from the primary key values of a record, as done for every added or
+ * updated record, and from the primary key values of a condition, as done for every lookup by id. The primary keys
+ * are the last attributes of the table, which the attributes are searched through the longest for.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ElasticsearchRecordIdBenchmark {
+
+    @Param({"4", "48"})
+    private int attributeCount;
+
+    @Param({"1", "4"})
+    private int primaryKeyCount;
+
+    private List<Attribute> attributes;
+    private List<String> primaryKeys;
+    private Object[] record;
+    private Map<String, Object> primaryKeyValues;
+
+    @Setup
+    public void setup() {
+        attributes = ElasticsearchBenchmarkSchema.createAttributes(attributeCount);
+        record = ElasticsearchBenchmarkSchema.createRecord(attributes, 1);
+        primaryKeys = new ArrayList<>(primaryKeyCount);
+        primaryKeyValues = new HashMap<>();
+        for (int i = attributeCount - primaryKeyCount; i < attributeCount; i++) {
+            primaryKeys.add(attributes.get(i).getName());
+            primaryKeyValues.put(attributes.get(i).getName(), record[i]);
+        }
+    }
+
+    @Benchmark
+    public String generateFromRecord() {
+        return ElasticsearchTableUtils.generateRecordIdFromPrimaryKeyValues(attributes, record, primaryKeys);
+    }
+
+    @Benchmark
+    public String generateFromPrimaryKeyValues() {
+        return ElasticsearchTableUtils.generateRecordIdFromPrimaryKeyValues(attributes, primaryKeyValues,
+                primaryKeys);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(ElasticsearchRecordIdBenchmark.class.getSimpleName()).build())
+                .run();
+    }
+}
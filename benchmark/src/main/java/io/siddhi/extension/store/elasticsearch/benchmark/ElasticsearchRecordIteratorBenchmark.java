@@ -0,0 +1,160 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.siddhi.extension.store.elasticsearch.benchmark;
+
+import io.siddhi.extension.store.elasticsearch.ElasticsearchRecordIterator;
+import io.siddhi.extension.store.elasticsearch.ElasticsearchSearchBatcher;
+import io.siddhi.extension.store.elasticsearch.ElasticsearchSourceDecoder;
+import io.siddhi.extension.store.elasticsearch.exceptions.ElasticsearchServiceException;
+import io.siddhi.extension.store.elasticsearch.utils.ElasticsearchTableUtils;
+import io.siddhi.query.api.definition.Attribute;
+import org.elasticsearch.action.search.SearchRequest;
+import org.elasticsearch.action.search.SearchResponse;
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.xcontent.DeprecationHandler;
+import org.elasticsearch.common.xcontent.NamedXContentRegistry;
+import org.elasticsearch.common.xcontent.XContentBuilder;
+import org.elasticsearch.common.xcontent.XContentFactory;
+import org.elasticsearch.common.xcontent.XContentParser;
+import org.elasticsearch.common.xcontent.XContentType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks iterating the records of a search with the record iterator on a canned search response, for narrow
+ * and wide documents and for few and many hits. The hits are decoded either from a response parsed beforehand, or
+ * from the response body as the client receives it, which is then parsed as part of every search.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ElasticsearchRecordIteratorBenchmark {
+
+    private static final String INDEX_NAME = "benchmark";
+    private static final String QUERY_STRING = "*:*";
+
+    @Param({"4", "48"})
+    private int attributeCount;
+
+    @Param({"10", "1000"})
+    private int hitCount;
+
+    private ElasticsearchSourceDecoder sourceDecoder;
+    private CannedSearchBatcher parsedResponseBatcher;
+    private CannedSearchBatcher responseBodyBatcher;
+
+    @Setup
+    public void setup() throws IOException {
+        List<Attribute> attributes = ElasticsearchBenchmarkSchema.createAttributes(attributeCount);
+        sourceDecoder = new ElasticsearchSourceDecoder(attributes);
+        XContentBuilder builder = XContentFactory.jsonBuilder().startObject()
+                .field("took", 1)
+                .field("timed_out", false)
+                .startObject("_shards").field("total", 1).field("successful", 1).field("skipped", 0)
+                .field("failed", 0).endObject()
+                .startObject("hits")
+                .startObject("total").field("value", hitCount).field("relation", "eq").endObject()
+                .field("max_score", 1.0F)
+                .startArray("hits");
+        for (int i = 0; i < hitCount; i++) {
+            builder.startObject().field("_index", INDEX_NAME).field("_type", "_doc").field("_id", "doc" + i)
+                    .field("_score", 1.0F).field("_source");
+            builder.copyCurrentStructure(createParser(BytesReference.bytes(ElasticsearchTableUtils.buildSource(
+                    attributes, ElasticsearchBenchmarkSchema.createRecord(attributes, i)))));
+            builder.endObject();
+        }
+        BytesReference responseBody = BytesReference.bytes(builder.endArray().endObject().endObject());
+        parsedResponseBatcher = new CannedSearchBatcher(responseBody, true);
+        responseBodyBatcher = new CannedSearchBatcher(responseBody, false);
+    }
+
+    @Benchmark
+    public void decodeParsedResponse(Blackhole blackhole) throws ElasticsearchServiceException {
+        iterate(parsedResponseBatcher, blackhole);
+    }
+
+    @Benchmark
+    public void parseAndDecodeResponse(Blackhole blackhole) throws ElasticsearchServiceException {
+        iterate(responseBodyBatcher, blackhole);
+    }
+
+    private void iterate(CannedSearchBatcher searchBatcher, Blackhole blackhole)
+            throws ElasticsearchServiceException {
+        ElasticsearchRecordIterator recordIterator = new ElasticsearchRecordIterator(INDEX_NAME, QUERY_STRING,
+                searchBatcher, sourceDecoder);
+        while (recordIterator.hasNext()) {
+            blackhole.consume(recordIterator.next());
+        }
+    }
+
+    private static XContentParser createParser(BytesReference bytes) throws IOException {
+        return XContentType.JSON.xContent().createParser(NamedXContentRegistry.EMPTY,
+                DeprecationHandler.THROW_UNSUPPORTED_OPERATION, bytes.streamInput());
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(ElasticsearchRecordIteratorBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+
+    /**
+     * Search batcher which answers every search with the canned response instead of sending it.
+     */
+    private static class CannedSearchBatcher extends ElasticsearchSearchBatcher {
+        private final BytesReference responseBody;
+        private final SearchResponse parsedResponse;
+
+        private CannedSearchBatcher(BytesReference responseBody, boolean isParsedOnce) throws IOException {
+            super(null, 1, 0);
+            this.responseBody = responseBody;
+            this.parsedResponse = isParsedOnce ? parse() : null;
+        }
+
+        @Override
+        public SearchResponse execute(SearchRequest request) throws IOException {
+            return parsedResponse != null ? parsedResponse : parse();
+        }
+
+        private SearchResponse parse() throws IOException {
+            try (XContentParser parser = createParser(responseBody)) {
+                return SearchResponse.fromXContent(parser);
+            }
+        }
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.siddhi.extension.store.elasticsearch.benchmark;
+
+import io.siddhi.extension.store.elasticsearch.ElasticsearchSourceDecoder;
+import io.siddhi.extension.store.elasticsearch.utils.ElasticsearchTableUtils;
+import io.siddhi.query.api.definition.Attribute;
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.xcontent.XContentHelper;
+import org.elasticsearch.common.xcontent.XContentType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks decoding document sources into records, through a source map as search hits expose them and with the
+ * streaming source decoder, for narrow and wide documents.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ElasticsearchSourceDecoderBenchmark {
+
+    @Param({"4", "48"})
+    private int attributeCount;
+
+    private List<Attribute> attributes;
+    private ElasticsearchSourceDecoder sourceDecoder;
+    private BytesReference source;
+
+    @Setup
+    public void setup() throws IOException {
+        attributes = ElasticsearchBenchmarkSchema.createAttributes(attributeCount);
+        source = BytesReference.bytes(ElasticsearchTableUtils.buildSource(attributes,
+                ElasticsearchBenchmarkSchema.createRecord(attributes, 1)));
+        sourceDecoder = new ElasticsearchSourceDecoder(attributes);
+    }
+
+    @Benchmark
+    public Object[] decodeThroughSourceMap() {
+        Map<String, Object> sourceMap = XContentHelper.convertToMap(source, false, XContentType.JSON).v2();
+        return convertSourceToRecord(attributes, sourceMap);
+    }
+
+    @Benchmark
+    public Object[] decodeStreaming() throws IOException {
+        return sourceDecoder.decode(source);
+    }
+
+    /**
+     * Converts a source map to a record the way search hits were decoded before the streaming source decoder.
+     */
+    private static Object[] convertSourceToRecord(List<Attribute> attributes, Map<String, Object> source) {
+        Object[] record = new Object[attributes.size()];
+        for (int i = 0; i < record.length; i++) {
+            Attribute attribute = attributes.get(i);
+            Object fieldValue = source.get(attribute.getName());
+            if (attribute.getType().equals(Attribute.Type.LONG) && fieldValue instanceof Integer) {
+                fieldValue = ((Integer) fieldValue).longValue();
+            } else if (attribute.getType().equals(Attribute.Type.FLOAT) && fieldValue instanceof Double) {
+                fieldValue = ((Double) fieldValue).floatValue();
+            }
+            record[i] = fieldValue;
+        }
+        return record;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(ElasticsearchSourceDecoderBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,263 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.siddhi.extension.store.elasticsearch;
+
+import io.siddhi.core.table.record.RecordIterator;
+import io.siddhi.extension.store.elasticsearch.exceptions.ElasticsearchEventTableException;
+import io.siddhi.extension.store.elasticsearch.exceptions.ElasticsearchServiceException;
+import io.siddhi.extension.store.elasticsearch.utils.ElasticsearchTableUtils;
+import io.siddhi.query.api.definition.Attribute;
+import org.elasticsearch.action.search.SearchRequest;
+import org.elasticsearch.action.search.SearchResponse;
+import org.elasticsearch.index.query.QueryBuilders;
+import org.elasticsearch.search.aggregations.AggregationBuilder;
+import org.elasticsearch.search.aggregations.AggregationBuilders;
+import org.elasticsearch.search.aggregations.Aggregations;
+import org.elasticsearch.search.aggregations.bucket.composite.CompositeAggregation;
+import org.elasticsearch.search.aggregations.bucket.composite.CompositeAggregationBuilder;
+import org.elasticsearch.search.aggregations.bucket.composite.CompositeValuesSourceBuilder;
+import org.elasticsearch.search.aggregations.bucket.composite.TermsValuesSourceBuilder;
+import org.elasticsearch.search.aggregations.metrics.NumericMetricsAggregation;
+import org.elasticsearch.search.builder.SearchSourceBuilder;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static io.siddhi.extension.store.elasticsearch.ElasticsearchSelectionVisitor.FUNCTION_AVG;
+import static io.siddhi.extension.store.elasticsearch.ElasticsearchSelectionVisitor.FUNCTION_COUNT;
+import static io.siddhi.extension.store.elasticsearch.ElasticsearchSelectionVisitor.FUNCTION_DISTINCT_COUNT;
+import static io.siddhi.extension.store.elasticsearch.ElasticsearchSelectionVisitor.FUNCTION_MAX;
+import static io.siddhi.extension.store.elasticsearch.ElasticsearchSelectionVisitor.FUNCTION_MIN;
+import static io.siddhi.extension.store.elasticsearch.ElasticsearchSelectionVisitor.FUNCTION_SUM;
+
+/**
+ * This class represents the iterator which streams the rows of an aggregated store query. Ungrouped selections are
+ * answered with metric aggregations over all matching documents, grouped selections with a composite aggregation
+ * whose buckets are paged through its after key. Only the aggregated rows are transferred from Elasticsearch.
+ */
+public class ElasticsearchAggregationRecordIterator implements RecordIterator<Object[]> {
+
+    private static final String GROUP_BY_AGGREGATION_NAME = "group_by";
+    private static final String GROUP_BY_KEY_PREFIX = "key_";
+    private static final String METRIC_AGGREGATION_PREFIX = "metric_";
+    private static final int CARDINALITY_PRECISION_THRESHOLD = 40000;
+
+    private String indexName;
+    private String queryString;
+    private ElasticsearchCompiledSelection compiledSelection;
+    private ElasticsearchSearchBatcher searchBatcher;
+    private Map<String, Object> parameters;
+    private Attribute[] outputAttributes;
+    private int pageSize;
+    private List<Object[]> rows = new ArrayList<>();
+    private int rowIndex;
+    private Map<String, Object> afterKey;
+    private boolean isLastPage;
+    private long remainingOffset;
+    private long remainingLimit;
+
+    /**
+     * Creates the iterator and fetches the first page of rows.
+     *
+     * @param indexName the indices to aggregate, or null if none of them can hold a matching document.
+     */
+    public ElasticsearchAggregationRecordIterator(String indexName, String queryString,
+                                                  ElasticsearchCompiledSelection compiledSelection,
+                                                  ElasticsearchSearchBatcher searchBatcher,
+                                                  Map<String, Object> parameters, Attribute[] outputAttributes,
+                                                  int pageSize) throws ElasticsearchServiceException {
+        this.indexName = indexName;
+        this.queryString = queryString;
+        this.compiledSelection = compiledSelection;
+        this.searchBatcher = searchBatcher;
+        this.parameters = parameters;
+        this.outputAttributes = outputAttributes;
+        this.pageSize = pageSize;
+        this.remainingOffset = compiledSelection.getOffset() != null ? compiledSelection.getOffset() : 0;
+        this.remainingLimit = compiledSelection.getLimit() != null ? compiledSelection.getLimit() : -1;
+        if (compiledSelection.getSortAttributes().isEmpty()) {
+            fetchPage();
+        } else {
+            while (!isLastPage) {
+                fetchPage();
+            }
+            compiledSelection.sortOutput(rows);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (remainingLimit == 0) {
+            return false;
+        }
+        while (true) {
+            while (rowIndex < rows.size() && remainingOffset > 0) {
+                rowIndex++;
+                remainingOffset--;
+            }
+            if (rowIndex < rows.size()) {
+                return true;
+            }
+            if (isLastPage) {
+                return false;
+            }
+            try {
+                rows.clear();
+                rowIndex = 0;
+                fetchPage();
+            } catch (ElasticsearchServiceException e) {
+                throw new ElasticsearchEventTableException("Error while fetching the next aggregation page of " +
+                        "the query: '" + queryString + "'", e);
+            }
+        }
+    }
+
+    @Override
+    public Object[] next() {
+        if (hasNext()) {
+            if (remainingLimit > 0) {
+                remainingLimit--;
+            }
+            return rows.get(rowIndex++);
+        }
+        return new Object[0];
+    }
+
+    private void fetchPage() throws ElasticsearchServiceException {
+        if (indexName == null) {
+            // no index can hold a matching document, which aggregates to a single row only when ungrouped
+            if (compiledSelection.getGroupByFieldNames().isEmpty()) {
+                rows.add(buildRow(null, 0, null));
+            }
+            isLastPage = true;
+            return;
+        }
+        SearchSourceBuilder searchSourceBuilder = new SearchSourceBuilder()
+                .query(QueryBuilders.queryStringQuery(queryString)).size(0);
+        List<String> groupByFieldNames = compiledSelection.getGroupByFieldNames();
+        CompositeAggregationBuilder compositeAggregationBuilder = null;
+        if (groupByFieldNames.isEmpty()) {
+            searchSourceBuilder.trackTotalHits(true);
+        } else {
+            List<CompositeValuesSourceBuilder<?>> sources = new ArrayList<>(groupByFieldNames.size());
+            for (int i = 0; i < groupByFieldNames.size(); i++) {
+                sources.add(new TermsValuesSourceBuilder(GROUP_BY_KEY_PREFIX + i).field(groupByFieldNames.get(i))
+                        .missingBucket(true));
+            }
+            compositeAggregationBuilder = new CompositeAggregationBuilder(GROUP_BY_AGGREGATION_NAME, sources)
+                    .size(pageSize);
+            if (afterKey != null) {
+                compositeAggregationBuilder.aggregateAfter(afterKey);
+            }
+            searchSourceBuilder.aggregation(compositeAggregationBuilder);
+        }
+        List<ElasticsearchCompiledSelection.SelectedAttribute> selectedAttributes =
+                compiledSelection.getSelectedAttributes();
+        for (int i = 0; i < selectedAttributes.size(); i++) {
+            AggregationBuilder metricAggregationBuilder = buildMetricAggregation(i, selectedAttributes.get(i));
+            if (metricAggregationBuilder == null) {
+                continue;
+            }
+            if (compositeAggregationBuilder != null) {
+                compositeAggregationBuilder.subAggregation(metricAggregationBuilder);
+            } else {
+                searchSourceBuilder.aggregation(metricAggregationBuilder);
+            }
+        }
+        SearchRequest searchRequest = new SearchRequest(indexName).source(searchSourceBuilder).requestCache(true);
+        SearchResponse searchResponse;
+        try {
+            searchResponse = searchBatcher.execute(searchRequest);
+        } catch (IOException e) {
+            throw new ElasticsearchServiceException("Error while performing the aggregation of the query: '" +
+                    queryString + "'", e);
+        }
+        if (compositeAggregationBuilder == null) {
+            rows.add(buildRow(null, searchResponse.getHits().getTotalHits().value,
+                    searchResponse.getAggregations()));
+            isLastPage = true;
+            return;
+        }
+        CompositeAggregation compositeAggregation = searchResponse.getAggregations().get(GROUP_BY_AGGREGATION_NAME);
+        for (CompositeAggregation.Bucket bucket : compositeAggregation.getBuckets()) {
+            rows.add(buildRow(bucket.getKey(), bucket.getDocCount(), bucket.getAggregations()));
+        }
+        afterKey = compositeAggregation.afterKey();
+        isLastPage = afterKey == null || compositeAggregation.getBuckets().size() < pageSize;
+    }
+
+    private static AggregationBuilder buildMetricAggregation(
+            int index, ElasticsearchCompiledSelection.SelectedAttribute selectedAttribute) {
+        String function = selectedAttribute.getAggregateFunction();
+        String name = METRIC_AGGREGATION_PREFIX + index;
+        String fieldName = selectedAttribute.getAggregateFieldName();
+        if (function == null || FUNCTION_COUNT.equals(function)) {
+            return null;
+        }
+        switch (function) {
+            case FUNCTION_SUM:
+                return AggregationBuilders.sum(name).field(fieldName);
+            case FUNCTION_AVG:
+                return AggregationBuilders.avg(name).field(fieldName);
+            case FUNCTION_MIN:
+                return AggregationBuilders.min(name).field(fieldName);
+            case FUNCTION_MAX:
+                return AggregationBuilders.max(name).field(fieldName);
+            case FUNCTION_DISTINCT_COUNT:
+                return AggregationBuilders.cardinality(name).field(fieldName)
+                        .precisionThreshold(CARDINALITY_PRECISION_THRESHOLD);
+            default:
+                return null;
+        }
+    }
+
+    private Object[] buildRow(Map<String, Object> key, long docCount, Aggregations aggregations) {
+        List<ElasticsearchCompiledSelection.SelectedAttribute> selectedAttributes =
+                compiledSelection.getSelectedAttributes();
+        Object[] row = new Object[selectedAttributes.size()];
+        for (int i = 0; i < row.length; i++) {
+            ElasticsearchCompiledSelection.SelectedAttribute selectedAttribute = selectedAttributes.get(i);
+            Object value;
+            if (selectedAttribute.getGroupByIndex() >= 0) {
+                value = key.get(GROUP_BY_KEY_PREFIX + selectedAttribute.getGroupByIndex());
+            } else if (FUNCTION_COUNT.equals(selectedAttribute.getAggregateFunction())) {
+                value = docCount;
+            } else if (selectedAttribute.getAggregateFunction() != null && aggregations == null) {
+                value = FUNCTION_SUM.equals(selectedAttribute.getAggregateFunction()) ||
+                        FUNCTION_DISTINCT_COUNT.equals(selectedAttribute.getAggregateFunction()) ? 0.0 : null;
+            } else if (selectedAttribute.getAggregateFunction() != null) {
+                double metric = ((NumericMetricsAggregation.SingleValue)
+                        aggregations.get(METRIC_AGGREGATION_PREFIX + i)).value();
+                value = Double.isNaN(metric) || Double.isInfinite(metric) ? null : metric;
+            } else if (selectedAttribute.getStreamVariableId() != null) {
+                value = parameters.get(selectedAttribute.getStreamVariableId());
+            } else {
+                value = selectedAttribute.getConstant();
+            }
+            row[i] = ElasticsearchTableUtils.convertToAttributeType(value, outputAttributes[i].getType());
+        }
+        return row;
+    }
+}
@@ -0,0 +1,161 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.siddhi.extension.store.elasticsearch;
+
+import org.elasticsearch.ElasticsearchStatusException;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * This class stops a table from sending requests to a cluster which keeps failing them. The breaker opens once the
+ * configured number of consecutive requests failed, after which the operations of the table fail fast instead of
+ * waiting on the sockets of an unreachable cluster. Once open for the configured duration a single probe, such as
+ * the health check of the table on reconnecting, is let through. The breaker closes when the probe succeeds, and
+ * opens for another duration when it fails.
+ * <p>
+ * Only failures which indicate that the cluster is unavailable are counted, which are IO errors and server errors.
+ * Requests the cluster rejected as invalid prove that it is reachable.
+ */
+public class ElasticsearchCircuitBreaker {
+
+    private final int failureThreshold;
+    private final long openDurationNanos;
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private long stateChangeTime;
+    private final LongAdder openCount = new LongAdder();
+    private final LongAdder rejectedCount = new LongAdder();
+
+    /**
+     * Creates a circuit breaker.
+     *
+     * @param failureThreshold   the number of consecutive failures which opens the breaker.
+     * @param openDurationMillis the time in milliseconds the breaker stays open before a probe is let through.
+     */
+    public ElasticsearchCircuitBreaker(int failureThreshold, long openDurationMillis) {
+        this.failureThreshold = failureThreshold;
+        this.openDurationNanos = TimeUnit.MILLISECONDS.toNanos(openDurationMillis);
+    }
+
+    /**
+     * Returns whether requests have to fail fast, counting the request rejected if so. This never lets a probe
+     * through.
+     *
+     * @return true if the breaker is not closed.
+     */
+    public synchronized boolean isOpen() {
+        if (state == State.CLOSED) {
+            return false;
+        }
+        rejectedCount.increment();
+        return true;
+    }
+
+    /**
+     * Lets a single probe through once the breaker was open for its duration. A probe whose outcome was not
+     * reported within the duration is given up, so that another probe can be let through.
+     *
+     * @return true if the caller is to send the probe and report its outcome.
+     */
+    public synchronized boolean tryProbe() {
+        if (state == State.CLOSED) {
+            return true;
+        }
+        if (System.nanoTime() - stateChangeTime < openDurationNanos) {
+            return false;
+        }
+        setState(State.HALF_OPEN);
+        return true;
+    }
+
+    /**
+     * Reports a request which succeeded, closing the breaker.
+     */
+    public synchronized void onSuccess() {
+        consecutiveFailures = 0;
+        if (state != State.CLOSED) {
+            setState(State.CLOSED);
+        }
+    }
+
+    /**
+     * Reports a request which failed. Failures which do not indicate that the cluster is unavailable are reported as
+     * successes.
+     *
+     * @param failure the failure of the request.
+     */
+    public synchronized void onFailure(Throwable failure) {
+        if (!isUnavailable(failure)) {
+            onSuccess();
+            return;
+        }
+        consecutiveFailures++;
+        if (state == State.HALF_OPEN || (state == State.CLOSED && consecutiveFailures >= failureThreshold)) {
+            setState(State.OPEN);
+            openCount.increment();
+        }
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    /**
+     * Returns the number of times the breaker opened.
+     *
+     * @return the number of times the breaker opened.
+     */
+    public long getOpenCount() {
+        return openCount.sum();
+    }
+
+    /**
+     * Returns the number of operations which failed fast while the breaker was not closed.
+     *
+     * @return the number of rejected operations.
+     */
+    public long getRejectedCount() {
+        return rejectedCount.sum();
+    }
+
+    private void setState(State state) {
+        this.state = state;
+        this.stateChangeTime = System.nanoTime();
+    }
+
+    private static boolean isUnavailable(Throwable failure) {
+        for (Throwable cause = failure; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ElasticsearchStatusException) {
+                return ((ElasticsearchStatusException) cause).status().getStatus() >= 500;
+            } else if (cause instanceof IOException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * The states of the circuit breaker.
+     */
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+}
@@ -0,0 +1,246 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.siddhi.extension.store.elasticsearch;
+
+import io.siddhi.extension.store.elasticsearch.exceptions.ElasticsearchEventTableException;
+import org.apache.http.HttpHost;
+import org.apache.http.HttpRequestInterceptor;
+import org.apache.http.HttpResponseInterceptor;
+import org.apache.http.auth.AuthScope;
+import org.apache.http.auth.UsernamePasswordCredentials;
+import org.apache.http.client.CredentialsProvider;
+import org.apache.http.impl.client.BasicCredentialsProvider;
+import org.apache.http.impl.nio.reactor.IOReactorConfig;
+import org.apache.http.ssl.SSLContextBuilder;
+import org.apache.http.ssl.SSLContexts;
+import org.elasticsearch.client.RestClient;
+import org.elasticsearch.client.RestClientBuilder;
+import org.elasticsearch.client.RestHighLevelClient;
+import org.elasticsearch.client.sniff.ElasticsearchNodesSniffer;
+import org.elasticsearch.client.sniff.SniffOnFailureListener;
+import org.elasticsearch.client.sniff.Sniffer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.security.KeyManagementException;
+import java.security.KeyStore;
+import java.security.KeyStoreException;
+import java.security.NoSuchAlgorithmException;
+import java.security.cert.CertificateException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * This class represents the settings a REST client to the cluster is built from. Two tables with equal client
+ * configurations are served by the same client, see {@link ElasticsearchClientRegistry}. A configuration may be
+ * dedicated to a lane of traffic, such as writes, so that the lane gets a client with its own IO threads and
+ * connection pool which it does not share with the traffic of other lanes.
+ */
+public class ElasticsearchClientConfig {
+
+    private final List<HttpHost> hosts;
+    private final String userName;
+    private final String password;
+    private final int ioThreadCount;
+    private final int maxConnectionsPerRoute;
+    private final int maxConnectionsTotal;
+    private final boolean sslEnabled;
+    private final String trustStoreType;
+    private final String trustStorePath;
+    private final String trustStorePass;
+    private final int sniffInterval;
+    private final int sniffAfterFailureDelay;
+    private final boolean isLoadAwareNodeSelection;
+    private final String lane;
+
+    public ElasticsearchClientConfig(HttpHost[] hosts, String userName, String password, int ioThreadCount,
+                                     int maxConnectionsPerRoute, int maxConnectionsTotal, boolean sslEnabled,
+                                     String trustStoreType, String trustStorePath, String trustStorePass,
+                                     int sniffInterval, int sniffAfterFailureDelay,
+                                     boolean isLoadAwareNodeSelection) {
+        this(Arrays.asList(hosts.clone()), userName, password, ioThreadCount, maxConnectionsPerRoute,
+                maxConnectionsTotal, sslEnabled, trustStoreType, trustStorePath, trustStorePass, sniffInterval,
+                sniffAfterFailureDelay, isLoadAwareNodeSelection, null);
+    }
+
+    private ElasticsearchClientConfig(List<HttpHost> hosts, String userName, String password, int ioThreadCount,
+                                      int maxConnectionsPerRoute, int maxConnectionsTotal, boolean sslEnabled,
+                                      String trustStoreType, String trustStorePath, String trustStorePass,
+                                      int sniffInterval, int sniffAfterFailureDelay,
+                                      boolean isLoadAwareNodeSelection, String lane) {
+        this.hosts = hosts;
+        this.userName = userName;
+        this.password = password;
+        this.ioThreadCount = ioThreadCount;
+        this.maxConnectionsPerRoute = maxConnectionsPerRoute;
+        this.maxConnectionsTotal = maxConnectionsTotal;
+        this.sslEnabled = sslEnabled;
+        this.trustStoreType = trustStoreType;
+        this.trustStorePath = trustStorePath;
+        this.trustStorePass = trustStorePass;
+        this.sniffInterval = sniffInterval;
+        this.sniffAfterFailureDelay = sniffAfterFailureDelay;
+        this.isLoadAwareNodeSelection = isLoadAwareNodeSelection;
+        this.lane = lane;
+    }
+
+    /**
+     * Returns a copy of the configuration dedicated to a lane of traffic, with its own IO thread count and
+     * connection limits.
+     *
+     * @param lane                   the name of the lane, such as write.
+     * @param ioThreadCount          the number of IO threads of the client of the lane.
+     * @param maxConnectionsPerRoute the maximum number of connections of the lane to a node.
+     * @param maxConnectionsTotal    the maximum number of connections of the lane.
+     * @return the configuration of the lane.
+     */
+    public ElasticsearchClientConfig forLane(String lane, int ioThreadCount, int maxConnectionsPerRoute,
+                                             int maxConnectionsTotal) {
+        return new ElasticsearchClientConfig(hosts, userName, password, ioThreadCount, maxConnectionsPerRoute,
+                maxConnectionsTotal, sslEnabled, trustStoreType, trustStorePath, trustStorePass, sniffInterval,
+                sniffAfterFailureDelay, isLoadAwareNodeSelection, lane);
+    }
+
+    public List<HttpHost> getHosts() {
+        return hosts;
+    }
+
+    public boolean isSniffing() {
+        return sniffInterval > 0;
+    }
+
+    /**
+     * Builds a new REST client from the configuration.
+     *
+     * @param tableId         the id of the table the client is built for, used in error messages.
+     * @param failureListener the listener notified when a request to a node fails, or null.
+     * @return the client.
+     */
+    public RestHighLevelClient createClient(String tableId, RestClient.FailureListener failureListener) {
+        CredentialsProvider credentialsProvider = new BasicCredentialsProvider();
+        credentialsProvider.setCredentials(AuthScope.ANY, new UsernamePasswordCredentials(userName, password));
+        RestClientBuilder restClientBuilder = RestClient.builder(hosts.toArray(new HttpHost[0]));
+        if (failureListener != null) {
+            restClientBuilder.setFailureListener(failureListener);
+        }
+        ElasticsearchNodeLatencyTracker nodeLatencyTracker = isLoadAwareNodeSelection ?
+                new ElasticsearchNodeLatencyTracker() : null;
+        restClientBuilder.setNodeSelector(new ElasticsearchNodeSelector(nodeLatencyTracker));
+        return new RestHighLevelClient(restClientBuilder.
+                setHttpClientConfigCallback(httpClientBuilder -> {
+                    httpClientBuilder.disableAuthCaching();
+                    if (nodeLatencyTracker != null) {
+                        httpClientBuilder.addInterceptorFirst((HttpRequestInterceptor) nodeLatencyTracker);
+                        httpClientBuilder.addInterceptorLast((HttpResponseInterceptor) nodeLatencyTracker);
+                    }
+                    httpClientBuilder.setDefaultIOReactorConfig(IOReactorConfig.custom().
+                            setIoThreadCount(ioThreadCount).build());
+                    httpClientBuilder.setMaxConnPerRoute(maxConnectionsPerRoute);
+                    httpClientBuilder.setMaxConnTotal(maxConnectionsTotal);
+                    if (sslEnabled) {
+                        try {
+                            KeyStore trustStore = KeyStore.getInstance(trustStoreType);
+                            if (trustStorePath == null) {
+                                throw new ElasticsearchEventTableException("Please provide a valid path for trust " +
+                                        "store location for table id : '" + tableId);
+                            } else {
+                                try (InputStream is = Files.newInputStream(Paths.get(trustStorePath))) {
+                                    trustStore.load(is, trustStorePass.toCharArray());
+                                }
+                                SSLContextBuilder sslBuilder = SSLContexts.custom().loadTrustMaterial(trustStore, null);
+                                httpClientBuilder.setSSLContext(sslBuilder.build());
+                            }
+                        } catch (NoSuchAlgorithmException e) {
+                            throw new ElasticsearchEventTableException("Algorithm used to check the integrity of the " +
+                                    "trustStore cannot be found for when loading trustStore for table id : '" +
+                                    tableId, e);
+                        } catch (KeyStoreException e) {
+                            throw new ElasticsearchEventTableException("The trustStore type truststore.type = " +
+                                    "" + trustStoreType + " defined is incorrect while creating table id : '" +
+                                    tableId, e);
+                        } catch (CertificateException e) {
+                            throw new ElasticsearchEventTableException("Any of the certificates in the keystore " +
+                                    "could not be loaded when loading trustStore for table id : '" + tableId, e);
+                        } catch (IOException e) {
+                            throw new ElasticsearchEventTableException("The trustStore password = " + trustStorePass +
+                                    " or trustStore path " + trustStorePath + " defined is incorrect while creating " +
+                                    "sslContext for table id : '" + tableId, e);
+                        } catch (KeyManagementException e) {
+                            throw new ElasticsearchEventTableException("Error occurred while builing sslContext for " +
+                                    "table id : '" + tableId, e);
+                        }
+                    }
+                    return httpClientBuilder.setDefaultCredentialsProvider(credentialsProvider);
+                }));
+    }
+
+    /**
+     * Builds the sniffer which periodically replaces the nodes of the client by the nodes of the cluster.
+     *
+     * @param client          the client.
+     * @param failureListener the listener the client was built with, which sniffs the nodes on failure.
+     * @return the sniffer.
+     */
+    public Sniffer createSniffer(RestHighLevelClient client, SniffOnFailureListener failureListener) {
+        Sniffer sniffer = Sniffer.builder(client.getLowLevelClient())
+                .setSniffIntervalMillis(sniffInterval)
+                .setSniffAfterFailureDelayMillis(sniffAfterFailureDelay)
+                .setNodesSniffer(new ElasticsearchNodesSniffer(client.getLowLevelClient(),
+                        ElasticsearchNodesSniffer.DEFAULT_SNIFF_REQUEST_TIMEOUT,
+                        sslEnabled ? ElasticsearchNodesSniffer.Scheme.HTTPS : ElasticsearchNodesSniffer.Scheme.HTTP))
+                .build();
+        failureListener.setSniffer(sniffer);
+        return sniffer;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        ElasticsearchClientConfig that = (ElasticsearchClientConfig) o;
+        return ioThreadCount == that.ioThreadCount && maxConnectionsPerRoute == that.maxConnectionsPerRoute &&
+                maxConnectionsTotal == that.maxConnectionsTotal && sslEnabled == that.sslEnabled &&
+                hosts.equals(that.hosts) && Objects.equals(userName, that.userName) &&
+                Objects.equals(password, that.password) && Objects.equals(trustStoreType, that.trustStoreType) &&
+                Objects.equals(trustStorePath, that.trustStorePath) &&
+                Objects.equals(trustStorePass, that.trustStorePass) && sniffInterval == that.sniffInterval &&
+                sniffAfterFailureDelay == that.sniffAfterFailureDelay &&
+                isLoadAwareNodeSelection == that.isLoadAwareNodeSelection && Objects.equals(lane, that.lane);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(hosts, userName, password, ioThreadCount, maxConnectionsPerRoute, maxConnectionsTotal,
+                sslEnabled, trustStoreType, trustStorePath, trustStorePass, sniffInterval, sniffAfterFailureDelay,
+                isLoadAwareNodeSelection, lane);
+    }
+
+    @Override
+    public String toString() {
+        return hosts + (userName != null ? " as " + userName : "") + (sslEnabled ? " over TLS" : "") +
+                (lane != null ? " for " + lane + "s" : "");
+    }
+}
@@ -0,0 +1,120 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.siddhi.extension.store.elasticsearch;
+
+import org.apache.log4j.Logger;
+import org.elasticsearch.client.RestHighLevelClient;
+import org.elasticsearch.client.sniff.SniffOnFailureListener;
+import org.elasticsearch.client.sniff.Sniffer;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * This class holds the REST clients shared by the tables of the process. Tables acquiring a client with an equal
+ * configuration get the same client, with its IO threads and connection pool, and the client is closed once the
+ * last of them released it.
+ */
+public final class ElasticsearchClientRegistry {
+
+    private static final Logger logger = Logger.getLogger(ElasticsearchClientRegistry.class);
+    private static final Map<ElasticsearchClientConfig, SharedClient> clients = new HashMap<>();
+    private static final Map<RestHighLevelClient, SharedClient> clientsByInstance = new IdentityHashMap<>();
+
+    private ElasticsearchClientRegistry() {
+    }
+
+    /**
+     * Returns the client of the configuration, building it if no table holds one yet. Every acquired client has
+     * to be released once.
+     *
+     * @param config  the client configuration.
+     * @param tableId the id of the acquiring table.
+     * @return the client.
+     */
+    public static synchronized RestHighLevelClient acquire(ElasticsearchClientConfig config, String tableId) {
+        SharedClient sharedClient = clients.get(config);
+        if (sharedClient == null) {
+            SniffOnFailureListener failureListener = config.isSniffing() ? new SniffOnFailureListener() : null;
+            RestHighLevelClient client = config.createClient(tableId, failureListener);
+            Sniffer sniffer = failureListener != null ? config.createSniffer(client, failureListener) : null;
+            sharedClient = new SharedClient(config, client, sniffer);
+            clients.put(config, sharedClient);
+            clientsByInstance.put(sharedClient.client, sharedClient);
+            logger.debug("Created the REST client to " + config + " for table id: " + tableId);
+        } else {
+            logger.debug("Table id: " + tableId + " shares the REST client to " + config + " with " +
+                    sharedClient.referenceCount + " other tables.");
+        }
+        sharedClient.referenceCount++;
+        return sharedClient.client;
+    }
+
+    /**
+     * Releases a client acquired from the registry, closing it if no other table holds it.
+     *
+     * @param client the client.
+     */
+    public static void release(RestHighLevelClient client) {
+        SharedClient sharedClient;
+        synchronized (ElasticsearchClientRegistry.class) {
+            sharedClient = clientsByInstance.get(client);
+            if (sharedClient == null || --sharedClient.referenceCount > 0) {
+                return;
+            }
+            clientsByInstance.remove(client);
+            clients.remove(sharedClient.config);
+        }
+        if (sharedClient.sniffer != null) {
+            sharedClient.sniffer.close();
+        }
+        try {
+            client.close();
+            logger.debug("Closed the REST client to " + sharedClient.config);
+        } catch (IOException e) {
+            logger.warn("Error while closing the REST client to " + sharedClient.config, e);
+        }
+    }
+
+    /**
+     * Returns the number of tables holding the client.
+     *
+     * @param client the client.
+     * @return the number of tables, or 0 if the client is not held by the registry.
+     */
+    public static synchronized int getReferenceCount(RestHighLevelClient client) {
+        SharedClient sharedClient = clientsByInstance.get(client);
+        return sharedClient != null ? sharedClient.referenceCount : 0;
+    }
+
+    private static class SharedClient {
+        private final ElasticsearchClientConfig config;
+        private final RestHighLevelClient client;
+        private final Sniffer sniffer;
+        private int referenceCount;
+
+        private SharedClient(ElasticsearchClientConfig config, RestHighLevelClient client, Sniffer sniffer) {
+            this.config = config;
+            this.client = client;
+            this.sniffer = sniffer;
+        }
+    }
+}
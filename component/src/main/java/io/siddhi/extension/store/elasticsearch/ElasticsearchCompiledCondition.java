@@ -20,20 +20,83 @@ package io.siddhi.extension.store.elasticsearch;
 
 import io.siddhi.core.util.collection.operator.CompiledCondition;
 
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
 /**
  * This class represents the compiled condition specific to Elasticsearch record tables.
  */
 public class ElasticsearchCompiledCondition implements CompiledCondition {
     private String compiledQuery;
+    private Map<String, String> primaryKeyStreamVariables;
+    private Map<String, Object> primaryKeyConstants;
+    private List<ElasticsearchRangeBound> timeRangeBounds = Collections.emptyList();
+    private ElasticsearchRecordPredicate recordPredicate;
 
     public ElasticsearchCompiledCondition(String compiledQuery) {
         this.compiledQuery = compiledQuery;
     }
 
+    /**
+     * Creates a compiled condition which is an equality on every primary key attribute, so that matching
+     * documents can be fetched by id instead of searching.
+     *
+     * @param compiledQuery             the query string used when a search is still required.
+     * @param primaryKeyStreamVariables primary key attributes bound to stream variable ids.
+     * @param primaryKeyConstants       primary key attributes bound to constant values.
+     */
+    public ElasticsearchCompiledCondition(String compiledQuery, Map<String, String> primaryKeyStreamVariables,
+                                          Map<String, Object> primaryKeyConstants) {
+        this.compiledQuery = compiledQuery;
+        this.primaryKeyStreamVariables = primaryKeyStreamVariables;
+        this.primaryKeyConstants = primaryKeyConstants;
+    }
+
     public String getCompiledQuery() {
         return compiledQuery;
     }
 
+    public boolean isPrimaryKeyLookup() {
+        return primaryKeyStreamVariables != null;
+    }
+
+    public Map<String, String> getPrimaryKeyStreamVariables() {
+        return primaryKeyStreamVariables;
+    }
+
+    public Map<String, Object> getPrimaryKeyConstants() {
+        return primaryKeyConstants;
+    }
+
+    public List<ElasticsearchRangeBound> getTimeRangeBounds() {
+        return timeRangeBounds;
+    }
+
+    /**
+     * Sets the bounds the condition places on the time attribute of the table, which every matching record
+     * satisfies, so that searches can skip the indices whose records all fall outside them.
+     *
+     * @param timeRangeBounds the bounds on the time attribute.
+     */
+    public void setTimeRangeBounds(List<ElasticsearchRangeBound> timeRangeBounds) {
+        this.timeRangeBounds = timeRangeBounds;
+    }
+
+    public ElasticsearchRecordPredicate getRecordPredicate() {
+        return recordPredicate;
+    }
+
+    /**
+     * Sets the in memory form of the condition, which is evaluated against the writes of the table not yet
+     * visible in the cluster.
+     *
+     * @param recordPredicate the predicate, or null if the condition cannot be evaluated in memory.
+     */
+    public void setRecordPredicate(ElasticsearchRecordPredicate recordPredicate) {
+        this.recordPredicate = recordPredicate;
+    }
+
     public String toString() {
         return getCompiledQuery();
     }
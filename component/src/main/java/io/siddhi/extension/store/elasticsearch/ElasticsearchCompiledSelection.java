@@ -0,0 +1,266 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.siddhi.extension.store.elasticsearch;
+
+import io.siddhi.core.util.collection.operator.CompiledSelection;
+import org.elasticsearch.search.builder.SearchSourceBuilder;
+import org.elasticsearch.search.sort.SortOrder;
+
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * This class represents the compiled selection specific to Elasticsearch record tables. The projection is pushed
+ * down as the source includes of the search, the order by attributes as sorts and the limit and offset as the size
+ * and from of the search. Aggregate selections are pushed down as metric aggregations, bucketed by a composite
+ * aggregation when the selection is grouped.
+ */
+public class ElasticsearchCompiledSelection implements CompiledSelection {
+
+    private List<SelectedAttribute> selectedAttributes;
+    private String[] fetchAttributeNames;
+    private List<String> groupByFieldNames;
+    private List<SortAttribute> sortAttributes;
+    private Long limit;
+    private Long offset;
+
+    public ElasticsearchCompiledSelection(List<SelectedAttribute> selectedAttributes, String[] fetchAttributeNames,
+                                          List<SortAttribute> sortAttributes, Long limit, Long offset) {
+        this(selectedAttributes, fetchAttributeNames, null, sortAttributes, limit, offset);
+    }
+
+    /**
+     * Creates a compiled selection which aggregates the matching documents.
+     *
+     * @param selectedAttributes  the select attributes, which are group by attributes, aggregates or constants.
+     * @param fetchAttributeNames the store attributes fetched by the search, empty for aggregations.
+     * @param groupByFieldNames   the document fields the selection is grouped by, null if not aggregated.
+     * @param sortAttributes      the order by attributes.
+     * @param limit               the maximum number of records to return, null if not limited.
+     * @param offset              the number of records to skip, null if not given.
+     */
+    public ElasticsearchCompiledSelection(List<SelectedAttribute> selectedAttributes, String[] fetchAttributeNames,
+                                          List<String> groupByFieldNames, List<SortAttribute> sortAttributes,
+                                          Long limit, Long offset) {
+        this.selectedAttributes = selectedAttributes;
+        this.fetchAttributeNames = fetchAttributeNames;
+        this.groupByFieldNames = groupByFieldNames;
+        this.sortAttributes = sortAttributes;
+        this.limit = limit;
+        this.offset = offset;
+    }
+
+    public List<SelectedAttribute> getSelectedAttributes() {
+        return selectedAttributes;
+    }
+
+    public String[] getFetchAttributeNames() {
+        return fetchAttributeNames;
+    }
+
+    public boolean isAggregation() {
+        return groupByFieldNames != null;
+    }
+
+    public List<String> getGroupByFieldNames() {
+        return groupByFieldNames;
+    }
+
+    public List<SortAttribute> getSortAttributes() {
+        return sortAttributes;
+    }
+
+    public Long getLimit() {
+        return limit;
+    }
+
+    public Long getOffset() {
+        return offset;
+    }
+
+    /**
+     * Applies the projection, sorts, limit and offset of the selection to the given search source.
+     *
+     * @param searchSourceBuilder the search source holding the query of the condition.
+     */
+    public void applyTo(SearchSourceBuilder searchSourceBuilder) {
+        searchSourceBuilder.fetchSource(fetchAttributeNames, null);
+        for (SortAttribute sortAttribute : sortAttributes) {
+            searchSourceBuilder.sort(sortAttribute.getFieldName(), sortAttribute.getOrder());
+        }
+        if (offset != null) {
+            searchSourceBuilder.from(offset.intValue());
+        }
+        if (limit != null) {
+            searchSourceBuilder.size(limit.intValue());
+        }
+    }
+
+    /**
+     * Builds the output record of the selection from a record of the store.
+     *
+     * @param record     the record holding a value for every store attribute.
+     * @param parameters the stream variable values of the current event.
+     * @return the output record in the order of the select attributes.
+     */
+    public Object[] select(Object[] record, Map<String, Object> parameters) {
+        Object[] output = new Object[selectedAttributes.size()];
+        for (int i = 0; i < output.length; i++) {
+            SelectedAttribute selectedAttribute = selectedAttributes.get(i);
+            if (selectedAttribute.storeAttributeIndex >= 0) {
+                output[i] = record[selectedAttribute.storeAttributeIndex];
+            } else if (selectedAttribute.streamVariableId != null) {
+                output[i] = parameters.get(selectedAttribute.streamVariableId);
+            } else {
+                output[i] = selectedAttribute.constant;
+            }
+        }
+        return output;
+    }
+
+    /**
+     * Sorts aggregated output records by the order by attributes, which refer to output positions.
+     *
+     * @param records the output records.
+     */
+    public void sortOutput(List<Object[]> records) {
+        if (sortAttributes.isEmpty()) {
+            return;
+        }
+        Collections.sort(records, new Comparator<Object[]>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public int compare(Object[] left, Object[] right) {
+                for (SortAttribute sortAttribute : sortAttributes) {
+                    Object leftValue = left[sortAttribute.getOutputIndex()];
+                    Object rightValue = right[sortAttribute.getOutputIndex()];
+                    int result;
+                    if (leftValue == null || rightValue == null) {
+                        result = leftValue == null ? (rightValue == null ? 0 : -1) : 1;
+                    } else {
+                        result = ((Comparable<Object>) leftValue).compareTo(rightValue);
+                    }
+                    if (result != 0) {
+                        return sortAttribute.getOrder() == SortOrder.DESC ? -result : result;
+                    }
+                }
+                return 0;
+            }
+        });
+    }
+
+    /**
+     * This class represents a single select attribute, which is either a store attribute, a group by attribute,
+     * an aggregate, a stream variable or a constant.
+     */
+    public static class SelectedAttribute {
+        private int storeAttributeIndex = -1;
+        private int groupByIndex = -1;
+        private String aggregateFunction;
+        private String aggregateFieldName;
+        private String streamVariableId;
+        private Object constant;
+
+        public static SelectedAttribute ofStoreAttribute(int storeAttributeIndex) {
+            SelectedAttribute selectedAttribute = new SelectedAttribute();
+            selectedAttribute.storeAttributeIndex = storeAttributeIndex;
+            return selectedAttribute;
+        }
+
+        public static SelectedAttribute ofGroupByAttribute(int groupByIndex) {
+            SelectedAttribute selectedAttribute = new SelectedAttribute();
+            selectedAttribute.groupByIndex = groupByIndex;
+            return selectedAttribute;
+        }
+
+        public static SelectedAttribute ofAggregate(String aggregateFunction, String aggregateFieldName) {
+            SelectedAttribute selectedAttribute = new SelectedAttribute();
+            selectedAttribute.aggregateFunction = aggregateFunction;
+            selectedAttribute.aggregateFieldName = aggregateFieldName;
+            return selectedAttribute;
+        }
+
+        public static SelectedAttribute ofStreamVariable(String streamVariableId) {
+            SelectedAttribute selectedAttribute = new SelectedAttribute();
+            selectedAttribute.streamVariableId = streamVariableId;
+            return selectedAttribute;
+        }
+
+        public static SelectedAttribute ofConstant(Object constant) {
+            SelectedAttribute selectedAttribute = new SelectedAttribute();
+            selectedAttribute.constant = constant;
+            return selectedAttribute;
+        }
+
+        public int getGroupByIndex() {
+            return groupByIndex;
+        }
+
+        public String getAggregateFunction() {
+            return aggregateFunction;
+        }
+
+        public String getAggregateFieldName() {
+            return aggregateFieldName;
+        }
+
+        public String getStreamVariableId() {
+            return streamVariableId;
+        }
+
+        public Object getConstant() {
+            return constant;
+        }
+    }
+
+    /**
+     * This class represents a single order by attribute, sorted either on a document field by Elasticsearch or on
+     * an output position after aggregation.
+     */
+    public static class SortAttribute {
+        private String fieldName;
+        private int outputIndex;
+        private SortOrder order;
+
+        public SortAttribute(String fieldName, SortOrder order) {
+            this.fieldName = fieldName;
+            this.outputIndex = -1;
+            this.order = order;
+        }
+
+        public SortAttribute(int outputIndex, SortOrder order) {
+            this.outputIndex = outputIndex;
+            this.order = order;
+        }
+
+        public String getFieldName() {
+            return fieldName;
+        }
+
+        public int getOutputIndex() {
+            return outputIndex;
+        }
+
+        public SortOrder getOrder() {
+            return order;
+        }
+    }
+}
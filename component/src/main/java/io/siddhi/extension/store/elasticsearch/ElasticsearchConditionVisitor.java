@@ -22,6 +22,11 @@ import io.siddhi.core.table.record.BaseExpressionVisitor;
 import io.siddhi.query.api.definition.Attribute;
 import io.siddhi.query.api.expression.condition.Compare;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
 /**
  * This class represents the Condition vistor implementation specific to Elasticsearch record tables.
  */
@@ -52,15 +57,72 @@ public class ElasticsearchConditionVisitor extends BaseExpressionVisitor {
     private String currentStoreVariable;
     private boolean isBeginCompareRightOperand;
     private boolean isStoreVariableOnRight;
+    private String currentStreamVariableId;
+    private Object currentConstant;
+    private Attribute.Type currentStreamVariableType;
+    private Attribute.Type currentStoreVariableType;
+    private boolean isCurrentStreamVariableConstant;
+    private int compareStoreVariableCount;
+    private boolean hasCompareStreamOperand;
+    private boolean isEqualityConjunction = true;
+    private Map<String, String> equalityStreamVariables = new HashMap<>();
+    private Map<String, Object> equalityConstants = new HashMap<>();
+    private boolean isRangeConjunction = true;
+    private boolean isCompareOperandExpression;
+    private Map<String, List<ElasticsearchRangeBound>> rangeBounds = new HashMap<>();
+
+    private ElasticsearchIndexMapping indexMapping;
 
     public ElasticsearchConditionVisitor() {
         condition = new StringBuilder();
     }
 
+    /**
+     * Creates a condition visitor which routes comparisons of string attributes to the fields they can be matched
+     * on exactly, as resolved by the index mapping, instead of the analyzed text fields.
+     *
+     * @param indexMapping the mapping of the index of the table.
+     */
+    public ElasticsearchConditionVisitor(ElasticsearchIndexMapping indexMapping) {
+        this();
+        this.indexMapping = indexMapping;
+    }
+
     public String returnCondition() {
         return condition.toString().trim();
     }
 
+    /**
+     * Returns the store attributes which the condition matches by equality against a stream variable, if the
+     * whole condition is a conjunction of such equalities.
+     *
+     * @return map of store attribute name to stream variable id, or null if the condition has any other form.
+     */
+    public Map<String, String> returnEqualityStreamVariables() {
+        return isEqualityConjunction ? equalityStreamVariables : null;
+    }
+
+    /**
+     * Returns the store attributes which the condition matches by equality against a constant, if the whole
+     * condition is a conjunction of such equalities.
+     *
+     * @return map of store attribute name to constant value, or null if the condition has any other form.
+     */
+    public Map<String, Object> returnEqualityConstants() {
+        return isEqualityConjunction ? equalityConstants : null;
+    }
+
+    /**
+     * Returns the bounds the condition places on each store attribute by comparing it against a stream variable or
+     * a constant, if the condition only combines its comparisons with AND, so that every bound must hold for a
+     * record to match.
+     *
+     * @return map of store attribute name to its bounds, or null if the condition uses OR or NOT.
+     */
+    public Map<String, List<ElasticsearchRangeBound>> returnRangeBounds() {
+        return isRangeConjunction ? rangeBounds : null;
+    }
+
     @Override
     public void beginVisitAnd() {
         condition.append(OPEN_PARENTHESIS);
@@ -93,6 +155,8 @@ public class ElasticsearchConditionVisitor extends BaseExpressionVisitor {
 
     @Override
     public void beginVisitOr() {
+        isEqualityConjunction = false;
+        isRangeConjunction = false;
         condition.append(OPEN_PARENTHESIS);
     }
 
@@ -123,6 +187,8 @@ public class ElasticsearchConditionVisitor extends BaseExpressionVisitor {
 
     @Override
     public void beginVisitNot() {
+        isEqualityConjunction = false;
+        isRangeConjunction = false;
         condition.append(ELASTICSEARCH_NOT).append(WHITESPACE).append(OPEN_PARENTHESIS);
     }
 
@@ -133,6 +199,12 @@ public class ElasticsearchConditionVisitor extends BaseExpressionVisitor {
 
     @Override
     public void beginVisitCompare(Compare.Operator operator) {
+        if (operator != Compare.Operator.EQUAL) {
+            isEqualityConjunction = false;
+        }
+        compareStoreVariableCount = 0;
+        hasCompareStreamOperand = false;
+        isCompareOperandExpression = false;
         condition.append(OPEN_PARENTHESIS);
     }
 
@@ -163,7 +235,11 @@ public class ElasticsearchConditionVisitor extends BaseExpressionVisitor {
 
     @Override
     public void endVisitCompareRightOperand(Compare.Operator operator) {
-        condition.append(currentStoreVariable).append(COLON);
+        if (operator == Compare.Operator.EQUAL) {
+            addEqualityOperand();
+        }
+        addRangeBound(operator);
+        condition.append(getComparedFieldName()).append(COLON);
         if (!isStoreVariableOnRight) {
             switch (operator) {
                 case LESS_THAN:
@@ -237,6 +313,7 @@ public class ElasticsearchConditionVisitor extends BaseExpressionVisitor {
 
     @Override
     public void beginVisitIsNull(String streamId) {
+        isEqualityConjunction = false;
         condition.append(OPEN_PARENTHESIS).append(SQL_MATH_SUBTRACT);
     }
 
@@ -267,11 +344,16 @@ public class ElasticsearchConditionVisitor extends BaseExpressionVisitor {
     @Override
     public void endVisitConstant(Object value, Attribute.Type type) {
         currentStreamVariable = value.toString();
+        currentStreamVariableType = type;
+        currentConstant = value;
+        isCurrentStreamVariableConstant = true;
+        hasCompareStreamOperand = true;
     }
 
     @Override
     public void beginVisitMath(MathOperator mathOperator) {
-        //Not applicable
+        isEqualityConjunction = false;
+        isCompareOperandExpression = true;
     }
 
     @Override
@@ -301,7 +383,8 @@ public class ElasticsearchConditionVisitor extends BaseExpressionVisitor {
 
     @Override
     public void beginVisitAttributeFunction(String namespace, String functionName) {
-        //Not applicable
+        isEqualityConjunction = false;
+        isCompareOperandExpression = true;
     }
 
     @Override
@@ -323,6 +406,10 @@ public class ElasticsearchConditionVisitor extends BaseExpressionVisitor {
     public void beginVisitStreamVariable(String id, String streamId, String attributeName, Attribute.Type type) {
         String placeHolder = "[" + id + "]";
         currentStreamVariable = placeHolder;
+        currentStreamVariableId = id;
+        currentStreamVariableType = type;
+        isCurrentStreamVariableConstant = false;
+        hasCompareStreamOperand = true;
     }
 
     @Override
@@ -335,11 +422,53 @@ public class ElasticsearchConditionVisitor extends BaseExpressionVisitor {
         if (isBeginCompareRightOperand) {
             isStoreVariableOnRight = true;
         }
+        compareStoreVariableCount++;
         currentStoreVariable = attributeName;
+        currentStoreVariableType = type;
     }
 
     @Override
     public void endVisitStoreVariable(String storeId, String attributeName, Attribute.Type type) {
 
     }
+
+    private String getComparedFieldName() {
+        if (indexMapping != null && currentStoreVariableType == Attribute.Type.STRING) {
+            return indexMapping.getExactMatchFieldName(currentStoreVariable);
+        }
+        return currentStoreVariable;
+    }
+
+    private void addEqualityOperand() {
+        if (!isEqualityConjunction) {
+            return;
+        }
+        // both operands must be present, one from the store and one from the stream or a constant
+        if (compareStoreVariableCount != 1 || !hasCompareStreamOperand ||
+                currentStoreVariableType != currentStreamVariableType ||
+                equalityStreamVariables.containsKey(currentStoreVariable) ||
+                equalityConstants.containsKey(currentStoreVariable)) {
+            isEqualityConjunction = false;
+            return;
+        }
+        if (isCurrentStreamVariableConstant) {
+            equalityConstants.put(currentStoreVariable, currentConstant);
+        } else {
+            equalityStreamVariables.put(currentStoreVariable, currentStreamVariableId);
+        }
+    }
+
+    private void addRangeBound(Compare.Operator operator) {
+        // only a store attribute compared as is against a stream variable or a constant bounds the attribute
+        if (operator == Compare.Operator.NOT_EQUAL || compareStoreVariableCount != 1 || !hasCompareStreamOperand ||
+                isCompareOperandExpression) {
+            return;
+        }
+        Compare.Operator storeOperator = isStoreVariableOnRight ? ElasticsearchRangeBound.mirror(operator) :
+                operator;
+        ElasticsearchRangeBound rangeBound = isCurrentStreamVariableConstant ?
+                new ElasticsearchRangeBound(storeOperator, null, currentConstant) :
+                new ElasticsearchRangeBound(storeOperator, currentStreamVariableId, null);
+        rangeBounds.computeIfAbsent(currentStoreVariable, k -> new ArrayList<>()).add(rangeBound);
+    }
 }
@@ -0,0 +1,143 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.siddhi.extension.store.elasticsearch;
+
+import org.apache.log4j.Logger;
+import org.elasticsearch.ElasticsearchException;
+import org.elasticsearch.action.search.ClearScrollRequest;
+import org.elasticsearch.action.search.SearchRequest;
+import org.elasticsearch.action.search.SearchResponse;
+import org.elasticsearch.action.search.SearchScrollRequest;
+import org.elasticsearch.client.RequestOptions;
+import org.elasticsearch.client.RestHighLevelClient;
+import org.elasticsearch.common.unit.TimeValue;
+import org.elasticsearch.index.query.QueryBuilders;
+import org.elasticsearch.rest.RestStatus;
+import org.elasticsearch.search.SearchHit;
+import org.elasticsearch.search.builder.SearchSourceBuilder;
+import org.elasticsearch.search.slice.SliceBuilder;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+
+/**
+ * This class scans the ids of all documents of an index without fetching their sources. The scan is split into
+ * slices of a scroll which are read in parallel.
+ */
+public class ElasticsearchDocumentIdScanner {
+
+    private static final Logger logger = Logger.getLogger(ElasticsearchDocumentIdScanner.class);
+    private static final int SCROLL_SIZE = 1000;
+    private static final TimeValue SCROLL_KEEP_ALIVE = TimeValue.timeValueMinutes(1);
+    private static final String DOC_SORT_FIELD = "_doc";
+
+    private RestHighLevelClient restHighLevelClient;
+    private String indexName;
+    private int sliceCount;
+
+    public ElasticsearchDocumentIdScanner(RestHighLevelClient restHighLevelClient, String indexName,
+                                          int sliceCount) {
+        this.restHighLevelClient = restHighLevelClient;
+        this.indexName = indexName;
+        this.sliceCount = sliceCount;
+    }
+
+    /**
+     * Passes the id of every document of the index to the consumer. With more than one slice the consumer is
+     * called concurrently from several threads. An index which does not exist yet, such as one created from an
+     * index template by the first write, has no documents to scan.
+     *
+     * @param idConsumer the consumer of the document ids.
+     * @throws IOException if the index could not be scanned.
+     */
+    public void scan(Consumer<String> idConsumer) throws IOException {
+        if (sliceCount <= 1) {
+            scanSlice(null, idConsumer);
+            return;
+        }
+        ExecutorService executorService = Executors.newFixedThreadPool(sliceCount);
+        try {
+            List<Future<Void>> futures = new ArrayList<>(sliceCount);
+            for (int i = 0; i < sliceCount; i++) {
+                SliceBuilder sliceBuilder = new SliceBuilder(i, sliceCount);
+                futures.add(executorService.submit(() -> {
+                    scanSlice(sliceBuilder, idConsumer);
+                    return null;
+                }));
+            }
+            for (Future<Void> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while scanning the document ids of index: " + indexName, e);
+        } catch (ExecutionException e) {
+            throw new IOException("Error while scanning the document ids of index: " + indexName, e.getCause());
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
+    private void scanSlice(SliceBuilder sliceBuilder, Consumer<String> idConsumer) throws IOException {
+        SearchSourceBuilder searchSourceBuilder = new SearchSourceBuilder().query(QueryBuilders.matchAllQuery())
+                .fetchSource(false).size(SCROLL_SIZE).sort(DOC_SORT_FIELD);
+        if (sliceBuilder != null) {
+            searchSourceBuilder.slice(sliceBuilder);
+        }
+        SearchRequest searchRequest = new SearchRequest(indexName).source(searchSourceBuilder)
+                .scroll(SCROLL_KEEP_ALIVE);
+        SearchResponse searchResponse;
+        try {
+            searchResponse = restHighLevelClient.search(searchRequest, RequestOptions.DEFAULT);
+        } catch (ElasticsearchException e) {
+            if (e.status() == RestStatus.NOT_FOUND) {
+                logger.debug("Index: " + indexName + " does not exist, so it has no document ids to scan.");
+                return;
+            }
+            throw e;
+        }
+        String scrollId = searchResponse.getScrollId();
+        try {
+            while (searchResponse.getHits().getHits().length > 0) {
+                for (SearchHit searchHit : searchResponse.getHits().getHits()) {
+                    idConsumer.accept(searchHit.getId());
+                }
+                searchResponse = restHighLevelClient.scroll(new SearchScrollRequest(scrollId)
+                        .scroll(SCROLL_KEEP_ALIVE), RequestOptions.DEFAULT);
+                scrollId = searchResponse.getScrollId();
+            }
+        } finally {
+            if (scrollId != null) {
+                ClearScrollRequest clearScrollRequest = new ClearScrollRequest();
+                clearScrollRequest.addScrollId(scrollId);
+                try {
+                    restHighLevelClient.clearScroll(clearScrollRequest, RequestOptions.DEFAULT);
+                } catch (IOException e) {
+                    logger.debug("Error while clearing the scroll of index: " + indexName, e);
+                }
+            }
+        }
+    }
+}
@@ -24,13 +24,21 @@ import io.siddhi.annotation.Parameter;
 import io.siddhi.annotation.util.DataType;
 import io.siddhi.core.exception.ConnectionUnavailableException;
 import io.siddhi.core.exception.SiddhiAppCreationException;
-import io.siddhi.core.table.record.AbstractRecordTable;
+import io.siddhi.core.table.record.AbstractQueryableRecordTable;
 import io.siddhi.core.table.record.ExpressionBuilder;
 import io.siddhi.core.table.record.RecordIterator;
 import io.siddhi.core.util.SiddhiConstants;
 import io.siddhi.core.util.collection.operator.CompiledCondition;
 import io.siddhi.core.util.collection.operator.CompiledExpression;
+import io.siddhi.core.util.collection.operator.CompiledSelection;
 import io.siddhi.core.util.config.ConfigReader;
+import io.siddhi.core.util.statistics.metrics.Level;
+import io.siddhi.extension.store.elasticsearch.cache.ElasticsearchBloomFilter;
+import io.siddhi.extension.store.elasticsearch.cache.ElasticsearchFindCache;
+import io.siddhi.extension.store.elasticsearch.cache.ElasticsearchNearCache;
+import io.siddhi.extension.store.elasticsearch.cache.ElasticsearchPendingWrites;
+import io.siddhi.extension.store.elasticsearch.cache.ElasticsearchRecentWrites;
+import io.siddhi.extension.store.elasticsearch.exceptions.ElasticsearchConditionVisitorException;
 import io.siddhi.extension.store.elasticsearch.exceptions.ElasticsearchEventTableException;
 import io.siddhi.extension.store.elasticsearch.exceptions.ElasticsearchServiceException;
 import io.siddhi.extension.store.elasticsearch.utils.ElasticsearchTableUtils;
@@ -38,67 +46,105 @@ import io.siddhi.query.api.annotation.Annotation;
 import io.siddhi.query.api.annotation.Element;
 import io.siddhi.query.api.definition.Attribute;
 import io.siddhi.query.api.definition.TableDefinition;
+import io.siddhi.query.api.execution.query.selection.OrderByAttribute;
 import io.siddhi.query.api.util.AnnotationHelper;
 import org.apache.http.HttpHost;
-import org.apache.http.auth.AuthScope;
-import org.apache.http.auth.UsernamePasswordCredentials;
-import org.apache.http.client.CredentialsProvider;
-import org.apache.http.impl.client.BasicCredentialsProvider;
-import org.apache.http.impl.nio.reactor.IOReactorConfig;
-import org.apache.http.ssl.SSLContextBuilder;
-import org.apache.http.ssl.SSLContexts;
 import org.apache.log4j.Logger;
 import org.elasticsearch.ElasticsearchStatusException;
+import org.elasticsearch.Version;
+import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.action.DocWriteRequest;
+import org.elasticsearch.action.admin.cluster.health.ClusterHealthRequest;
+import org.elasticsearch.action.admin.cluster.health.ClusterHealthResponse;
 import org.elasticsearch.action.admin.indices.alias.Alias;
-import org.elasticsearch.action.bulk.BackoffPolicy;
+import org.elasticsearch.action.bulk.BulkItemResponse;
 import org.elasticsearch.action.bulk.BulkProcessor;
 import org.elasticsearch.action.bulk.BulkRequest;
 import org.elasticsearch.action.bulk.BulkResponse;
 import org.elasticsearch.action.delete.DeleteRequest;
+import org.elasticsearch.action.get.GetRequest;
 import org.elasticsearch.action.index.IndexRequest;
+import org.elasticsearch.action.main.MainResponse;
 import org.elasticsearch.action.update.UpdateRequest;
 import org.elasticsearch.client.RequestOptions;
-import org.elasticsearch.client.RestClient;
 import org.elasticsearch.client.RestHighLevelClient;
 import org.elasticsearch.client.indices.CreateIndexRequest;
 import org.elasticsearch.client.indices.GetIndexRequest;
+import org.elasticsearch.client.indices.PutIndexTemplateRequest;
+import org.elasticsearch.cluster.health.ClusterHealthStatus;
+import org.elasticsearch.common.regex.Regex;
 import org.elasticsearch.common.settings.Settings;
-import org.elasticsearch.common.unit.ByteSizeUnit;
-import org.elasticsearch.common.unit.ByteSizeValue;
 import org.elasticsearch.common.unit.TimeValue;
-import org.elasticsearch.common.xcontent.XContentBuilder;
-import org.elasticsearch.common.xcontent.XContentFactory;
+import org.elasticsearch.index.query.QueryBuilders;
+import org.elasticsearch.search.builder.SearchSourceBuilder;
+import org.elasticsearch.search.fetch.subphase.FetchSourceContext;
+import org.elasticsearch.search.sort.SortOrder;
 
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.io.IOException;
-import java.io.InputStream;
+import java.lang.management.ManagementFactory;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.security.KeyManagementException;
-import java.security.KeyStore;
-import java.security.KeyStoreException;
-import java.security.NoSuchAlgorithmException;
-import java.security.cert.CertificateException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
 
+import static io.siddhi.extension.store.elasticsearch.utils.ElasticsearchTableConstants.
+        ANNOTATION_ELEMENT_AGGREGATION_PAGE_SIZE;
+import static io.siddhi.extension.store.elasticsearch.utils.ElasticsearchTableConstants.
+        ANNOTATION_ELEMENT_ALLOW_PARTIAL_SEARCH_RESULTS;
 import static io.siddhi.extension.store.elasticsearch.utils.ElasticsearchTableConstants.
         ANNOTATION_ELEMENT_BACKOFF_POLICY_RETRY_NO;
 import static io.siddhi.extension.store.elasticsearch.utils.ElasticsearchTableConstants.
         ANNOTATION_ELEMENT_BACKOFF_POLICY_WAIT_TIME;
+import static io.siddhi.extension.store.elasticsearch.utils.ElasticsearchTableConstants.
+        ANNOTATION_ELEMENT_BLOOM_FILTER_EXPECTED_INSERTIONS;
+import static io.siddhi.extension.store.elasticsearch.utils.ElasticsearchTableConstants.
+        ANNOTATION_ELEMENT_BLOOM_FILTER_FALSE_POSITIVE_PROBABILITY;
+import static io.siddhi.extension.store.elasticsearch.utils.ElasticsearchTableConstants.
+        ANNOTATION_ELEMENT_BLOOM_FILTER_PERSISTENCE_PATH;
 import static io.siddhi.extension.store.elasticsearch.utils.ElasticsearchTableConstants.
         ANNOTATION_ELEMENT_BULK_ACTIONS;
+import static io.siddhi.extension.store.elasticsearch.utils.ElasticsearchTableConstants.
+        ANNOTATION_ELEMENT_BULK_SHARD_ROUTING;
 import static io.siddhi.extension.store.elasticsearch.utils.ElasticsearchTableConstants.
         ANNOTATION_ELEMENT_BULK_SIZE;
+import static io.siddhi.extension.store.elasticsearch.utils.ElasticsearchTableConstants.
+        ANNOTATION_ELEMENT_CIRCUIT_BREAKER_FAILURE_THRESHOLD;
+import static io.siddhi.extension.store.elasticsearch.utils.ElasticsearchTableConstants.
+        ANNOTATION_ELEMENT_CIRCUIT_BREAKER_OPEN_DURATION;
 import static io.siddhi.extension.store.elasticsearch.utils.ElasticsearchTableConstants.
         ANNOTATION_ELEMENT_CLIENT_IO_THREAD_COUNT;
+import static io.siddhi.extension.store.elasticsearch.utils.ElasticsearchTableConstants.
+        ANNOTATION_ELEMENT_COALESCE_CONCURRENT_READS;
 import static io.siddhi.extension.store.elasticsearch.utils.ElasticsearchTableConstants.
         ANNOTATION_ELEMENT_CONCURRENT_REQUESTS;
+import static io.siddhi.extension.store.elasticsearch.utils.ElasticsearchTableConstants.
+        ANNOTATION_ELEMENT_FIND_CACHE_EXPIRY_TIME;
+import static io.siddhi.extension.store.elasticsearch.utils.ElasticsearchTableConstants.
+        ANNOTATION_ELEMENT_FIND_CACHE_MAX_SIZE;
 import static io.siddhi.extension.store.elasticsearch.utils.ElasticsearchTableConstants.
         ANNOTATION_ELEMENT_FLUSH_INTERVAL;
+import static io.siddhi.extension.store.elasticsearch.utils.ElasticsearchTableConstants.ANNOTATION_ELEMENT_HEDGE_BUDGET;
+import static io.siddhi.extension.store.elasticsearch.utils.ElasticsearchTableConstants.
+        ANNOTATION_ELEMENT_HEDGE_PERCENTILE;
 import static io.siddhi.extension.store.elasticsearch.utils.ElasticsearchTableConstants.
         ANNOTATION_ELEMENT_HOSTNAME;
 import static io.siddhi.extension.store.elasticsearch.utils.ElasticsearchTableConstants.
@@ -109,18 +155,61 @@ import static io.siddhi.extension.store.elasticsearch.utils.ElasticsearchTableCo
         ANNOTATION_ELEMENT_INDEX_NUMBER_OF_REPLICAS;
 import static io.siddhi.extension.store.elasticsearch.utils.ElasticsearchTableConstants.
         ANNOTATION_ELEMENT_INDEX_NUMBER_OF_SHARDS;
+import static io.siddhi.extension.store.elasticsearch.utils.ElasticsearchTableConstants.
+        ANNOTATION_ELEMENT_INDEX_TEMPLATE_PATTERN;
+import static io.siddhi.extension.store.elasticsearch.utils.ElasticsearchTableConstants.
+        ANNOTATION_ELEMENT_KEYWORD_EXACT_MATCH;
+import static io.siddhi.extension.store.elasticsearch.utils.ElasticsearchTableConstants.
+        ANNOTATION_ELEMENT_MAX_CONNECTIONS_PER_ROUTE;
+import static io.siddhi.extension.store.elasticsearch.utils.ElasticsearchTableConstants.
+        ANNOTATION_ELEMENT_MAX_CONNECTIONS_TOTAL;
 import static io.siddhi.extension.store.elasticsearch.utils.ElasticsearchTableConstants.
         ANNOTATION_ELEMENT_MEMBER_LIST;
+import static io.siddhi.extension.store.elasticsearch.utils.ElasticsearchTableConstants.
+        ANNOTATION_ELEMENT_NEAR_CACHE_MAX_SIZE;
+import static io.siddhi.extension.store.elasticsearch.utils.ElasticsearchTableConstants.
+        ANNOTATION_ELEMENT_NEAR_CACHE_OFF_HEAP;
+import static io.siddhi.extension.store.elasticsearch.utils.ElasticsearchTableConstants.
+        ANNOTATION_ELEMENT_NODE_SELECTION;
 import static io.siddhi.extension.store.elasticsearch.utils.ElasticsearchTableConstants.
         ANNOTATION_ELEMENT_PASSWORD;
 import static io.siddhi.extension.store.elasticsearch.utils.ElasticsearchTableConstants.
         ANNOTATION_ELEMENT_PAYLOAD_INDEX_OF_INDEX_NAME;
+import static io.siddhi.extension.store.elasticsearch.utils.ElasticsearchTableConstants.
+        ANNOTATION_ELEMENT_PENDING_WRITE_VISIBILITY_DELAY;
 import static io.siddhi.extension.store.elasticsearch.utils.ElasticsearchTableConstants.
         ANNOTATION_ELEMENT_PORT;
+import static io.siddhi.extension.store.elasticsearch.utils.ElasticsearchTableConstants.
+        ANNOTATION_ELEMENT_READ_BATCH_MAX_WAIT_TIME;
+import static io.siddhi.extension.store.elasticsearch.utils.ElasticsearchTableConstants.
+        ANNOTATION_ELEMENT_READ_BATCH_SIZE;
+import static io.siddhi.extension.store.elasticsearch.utils.ElasticsearchTableConstants.
+        ANNOTATION_ELEMENT_READ_MEMBER_LIST;
+import static io.siddhi.extension.store.elasticsearch.utils.ElasticsearchTableConstants.
+        ANNOTATION_ELEMENT_READ_PASSWORD;
+import static io.siddhi.extension.store.elasticsearch.utils.ElasticsearchTableConstants.
+        ANNOTATION_ELEMENT_READ_REPLICATION_LAG_TOLERANCE;
+import static io.siddhi.extension.store.elasticsearch.utils.ElasticsearchTableConstants.ANNOTATION_ELEMENT_READ_USER;
+import static io.siddhi.extension.store.elasticsearch.utils.ElasticsearchTableConstants.
+        ANNOTATION_ELEMENT_READ_YOUR_WRITES;
 import static io.siddhi.extension.store.elasticsearch.utils.ElasticsearchTableConstants.
         ANNOTATION_ELEMENT_SCHEME;
+import static io.siddhi.extension.store.elasticsearch.utils.ElasticsearchTableConstants.
+        ANNOTATION_ELEMENT_SEARCH_INDEX_PATTERN;
+import static io.siddhi.extension.store.elasticsearch.utils.ElasticsearchTableConstants.
+        ANNOTATION_ELEMENT_SEARCH_TIMEOUT;
+import static io.siddhi.extension.store.elasticsearch.utils.ElasticsearchTableConstants.
+        ANNOTATION_ELEMENT_SHARD_ROUTING_REFRESH_INTERVAL;
+import static io.siddhi.extension.store.elasticsearch.utils.ElasticsearchTableConstants.
+        ANNOTATION_ELEMENT_SNIFF_AFTER_FAILURE_DELAY;
+import static io.siddhi.extension.store.elasticsearch.utils.ElasticsearchTableConstants.
+        ANNOTATION_ELEMENT_SNIFF_INTERVAL;
 import static io.siddhi.extension.store.elasticsearch.utils.ElasticsearchTableConstants.
         ANNOTATION_ELEMENT_SSL_ENABLED;
+import static io.siddhi.extension.store.elasticsearch.utils.ElasticsearchTableConstants.
+        ANNOTATION_ELEMENT_TIME_ATTRIBUTE;
+import static io.siddhi.extension.store.elasticsearch.utils.ElasticsearchTableConstants.
+        ANNOTATION_ELEMENT_TIME_RANGE_REFRESH_INTERVAL;
 import static io.siddhi.extension.store.elasticsearch.utils.ElasticsearchTableConstants.
         ANNOTATION_ELEMENT_TRUSRTSTORE_PASS;
 import static io.siddhi.extension.store.elasticsearch.utils.ElasticsearchTableConstants.
@@ -128,33 +217,84 @@ import static io.siddhi.extension.store.elasticsearch.utils.ElasticsearchTableCo
 import static io.siddhi.extension.store.elasticsearch.utils.ElasticsearchTableConstants.
         ANNOTATION_ELEMENT_TRUSRTSTORE_TYPE;
 import static io.siddhi.extension.store.elasticsearch.utils.ElasticsearchTableConstants.ANNOTATION_ELEMENT_USER;
+import static io.siddhi.extension.store.elasticsearch.utils.ElasticsearchTableConstants.
+        ANNOTATION_ELEMENT_WRITE_IO_THREAD_COUNT;
+import static io.siddhi.extension.store.elasticsearch.utils.ElasticsearchTableConstants.
+        ANNOTATION_ELEMENT_WRITE_MAX_CONNECTIONS_PER_ROUTE;
+import static io.siddhi.extension.store.elasticsearch.utils.ElasticsearchTableConstants.
+        ANNOTATION_ELEMENT_WRITE_MAX_CONNECTIONS_TOTAL;
 import static io.siddhi.extension.store.elasticsearch.utils.ElasticsearchTableConstants.ANNOTATION_TYPE_MAPPINGS;
+import static io.siddhi.extension.store.elasticsearch.utils.ElasticsearchTableConstants.DEFAULT_AGGREGATION_PAGE_SIZE;
+import static io.siddhi.extension.store.elasticsearch.utils.ElasticsearchTableConstants.
+        DEFAULT_ALLOW_PARTIAL_SEARCH_RESULTS;
 import static io.siddhi.extension.store.elasticsearch.utils.ElasticsearchTableConstants.
         DEFAULT_BACKOFF_POLICY_RETRY_NO;
 import static io.siddhi.extension.store.elasticsearch.utils.ElasticsearchTableConstants.
         DEFAULT_BACKOFF_POLICY_WAIT_TIME;
+import static io.siddhi.extension.store.elasticsearch.utils.ElasticsearchTableConstants.
+        DEFAULT_BLOOM_FILTER_EXPECTED_INSERTIONS;
+import static io.siddhi.extension.store.elasticsearch.utils.ElasticsearchTableConstants.
+        DEFAULT_BLOOM_FILTER_FALSE_POSITIVE_PROBABILITY;
 import static io.siddhi.extension.store.elasticsearch.utils.ElasticsearchTableConstants.DEFAULT_BULK_ACTIONS;
+import static io.siddhi.extension.store.elasticsearch.utils.ElasticsearchTableConstants.DEFAULT_BULK_SHARD_ROUTING;
 import static io.siddhi.extension.store.elasticsearch.utils.ElasticsearchTableConstants.DEFAULT_BULK_SIZE_IN_MB;
+import static io.siddhi.extension.store.elasticsearch.utils.ElasticsearchTableConstants.
+        DEFAULT_CIRCUIT_BREAKER_FAILURE_THRESHOLD;
+import static io.siddhi.extension.store.elasticsearch.utils.ElasticsearchTableConstants.
+        DEFAULT_CIRCUIT_BREAKER_OPEN_DURATION;
+import static io.siddhi.extension.store.elasticsearch.utils.ElasticsearchTableConstants.
+        DEFAULT_COALESCE_CONCURRENT_READS;
 import static io.siddhi.extension.store.elasticsearch.utils.ElasticsearchTableConstants.
         DEFAULT_CONCURRENT_REQUESTS;
+import static io.siddhi.extension.store.elasticsearch.utils.ElasticsearchTableConstants.DEFAULT_FIND_CACHE_EXPIRY_TIME;
+import static io.siddhi.extension.store.elasticsearch.utils.ElasticsearchTableConstants.DEFAULT_FIND_CACHE_MAX_SIZE;
 import static io.siddhi.extension.store.elasticsearch.utils.ElasticsearchTableConstants.DEFAULT_FLUSH_INTERVAL;
+import static io.siddhi.extension.store.elasticsearch.utils.ElasticsearchTableConstants.DEFAULT_HEDGE_BUDGET;
+import static io.siddhi.extension.store.elasticsearch.utils.ElasticsearchTableConstants.DEFAULT_HEDGE_PERCENTILE;
 import static io.siddhi.extension.store.elasticsearch.utils.ElasticsearchTableConstants.DEFAULT_HOSTNAME;
 import static io.siddhi.extension.store.elasticsearch.utils.ElasticsearchTableConstants.DEFAULT_IO_THREAD_COUNT;
+import static io.siddhi.extension.store.elasticsearch.utils.ElasticsearchTableConstants.DEFAULT_KEYWORD_EXACT_MATCH;
+import static io.siddhi.extension.store.elasticsearch.utils.ElasticsearchTableConstants.
+        DEFAULT_MAX_CONNECTIONS_PER_ROUTE;
+import static io.siddhi.extension.store.elasticsearch.utils.ElasticsearchTableConstants.DEFAULT_MAX_CONNECTIONS_TOTAL;
+import static io.siddhi.extension.store.elasticsearch.utils.ElasticsearchTableConstants.DEFAULT_NEAR_CACHE_MAX_SIZE;
+import static io.siddhi.extension.store.elasticsearch.utils.ElasticsearchTableConstants.DEFAULT_NEAR_CACHE_OFF_HEAP;
+import static io.siddhi.extension.store.elasticsearch.utils.ElasticsearchTableConstants.DEFAULT_NODE_SELECTION;
 import static io.siddhi.extension.store.elasticsearch.utils.ElasticsearchTableConstants.
         DEFAULT_NUMBER_OF_REPLICAS;
 import static io.siddhi.extension.store.elasticsearch.utils.ElasticsearchTableConstants.DEFAULT_NUMBER_OF_SHARDS;
 import static io.siddhi.extension.store.elasticsearch.utils.ElasticsearchTableConstants.DEFAULT_PASSWORD;
 import static io.siddhi.extension.store.elasticsearch.utils.ElasticsearchTableConstants.
         DEFAULT_PAYLOAD_INDEX_OF_INDEX_NAME;
+import static io.siddhi.extension.store.elasticsearch.utils.ElasticsearchTableConstants.
+        DEFAULT_PENDING_WRITE_VISIBILITY_DELAY;
 import static io.siddhi.extension.store.elasticsearch.utils.ElasticsearchTableConstants.DEFAULT_PORT;
+import static io.siddhi.extension.store.elasticsearch.utils.ElasticsearchTableConstants.
+        DEFAULT_READ_BATCH_MAX_WAIT_TIME;
+import static io.siddhi.extension.store.elasticsearch.utils.ElasticsearchTableConstants.DEFAULT_READ_BATCH_SIZE;
+import static io.siddhi.extension.store.elasticsearch.utils.ElasticsearchTableConstants.
+        DEFAULT_READ_REPLICATION_LAG_TOLERANCE;
+import static io.siddhi.extension.store.elasticsearch.utils.ElasticsearchTableConstants.DEFAULT_READ_YOUR_WRITES;
 import static io.siddhi.extension.store.elasticsearch.utils.ElasticsearchTableConstants.DEFAULT_SCHEME;
+import static io.siddhi.extension.store.elasticsearch.utils.ElasticsearchTableConstants.DEFAULT_SEARCH_TIMEOUT;
+import static io.siddhi.extension.store.elasticsearch.utils.ElasticsearchTableConstants.
+        DEFAULT_SHARD_ROUTING_REFRESH_INTERVAL;
+import static io.siddhi.extension.store.elasticsearch.utils.ElasticsearchTableConstants.
+        DEFAULT_SNIFF_AFTER_FAILURE_DELAY;
+import static io.siddhi.extension.store.elasticsearch.utils.ElasticsearchTableConstants.DEFAULT_SNIFF_INTERVAL;
 import static io.siddhi.extension.store.elasticsearch.utils.ElasticsearchTableConstants.DEFAULT_SSL_ENABLED;
+import static io.siddhi.extension.store.elasticsearch.utils.ElasticsearchTableConstants.
+        DEFAULT_TIME_RANGE_REFRESH_INTERVAL;
 import static io.siddhi.extension.store.elasticsearch.utils.ElasticsearchTableConstants.DEFAULT_TRUSTSTORE_PASS;
 import static io.siddhi.extension.store.elasticsearch.utils.ElasticsearchTableConstants.DEFAULT_TRUSTSTORE_TYPE;
 import static io.siddhi.extension.store.elasticsearch.utils.ElasticsearchTableConstants.DEFAULT_USER_NAME;
+import static io.siddhi.extension.store.elasticsearch.utils.ElasticsearchTableConstants.DEFAULT_WRITE_IO_THREAD_COUNT;
 import static io.siddhi.extension.store.elasticsearch.utils.ElasticsearchTableConstants.
-        MAPPING_PROPERTIES_ELEMENT;
-import static io.siddhi.extension.store.elasticsearch.utils.ElasticsearchTableConstants.MAPPING_TYPE_ELEMENT;
+        DEFAULT_WRITE_MAX_CONNECTIONS_PER_ROUTE;
+import static io.siddhi.extension.store.elasticsearch.utils.ElasticsearchTableConstants.
+        DEFAULT_WRITE_MAX_CONNECTIONS_TOTAL;
+import static io.siddhi.extension.store.elasticsearch.utils.ElasticsearchTableConstants.NODE_SELECTION_LOAD_AWARE;
+import static io.siddhi.extension.store.elasticsearch.utils.ElasticsearchTableConstants.NODE_SELECTION_ROUND_ROBIN;
 import static io.siddhi.extension.store.elasticsearch.utils.ElasticsearchTableConstants.
         SETTING_INDEX_NUMBER_OF_REPLICAS;
 import static io.siddhi.extension.store.elasticsearch.utils.ElasticsearchTableConstants.
@@ -170,7 +310,12 @@ import static io.siddhi.extension.store.elasticsearch.utils.ElasticsearchTableCo
                 "data storage. The events are converted to Elasticsearch index documents when the events are " +
                 "inserted into the elasticsearch store. Elasticsearch indexing documents are converted to events when" +
                 " the documents are read from Elasticsearch indexes. The internal store is connected to the " +
-                "Elastisearch server via the Elasticsearch Java High Level REST Client library.",
+                "Elastisearch server via the Elasticsearch Java High Level REST Client library. The bulk " +
+                "settings of each table can be changed at runtime through the JMX MBean " +
+                "'io.siddhi.extension.store.elasticsearch:type=BulkProcessor,app=\"<app>\",table=\"<table>\"', " +
+                "which also shows the throughput and latency of its bulk requests. String attributes are mapped as " +
+                "text with a 'keyword' sub field, which conditions only compare on when 'keyword.exact.match' is " +
+                "enabled, so every index the table searches then needs that sub field.",
         parameters = {
                 @Parameter(name = "hostname",
                         description = "The hostname of the Elasticsearch server.",
@@ -192,6 +337,104 @@ import static io.siddhi.extension.store.elasticsearch.utils.ElasticsearchTableCo
                 @Parameter(name = "password",
                         description = "The password for the Elasticsearch server connection.",
                         type = {DataType.STRING}, optional = true, defaultValue = "changeme"),
+                @Parameter(name = "read.elasticsearch.member.list",
+                        description = "The comma separated list of the hosts of a separate cluster which serves " +
+                                "the reads of the table, such as a cross-cluster replicated follower cluster close " +
+                                "to the Siddhi nodes, for example https://reader1:9200,https://reader2:9200. " +
+                                "Writes, index creation and read-after-write lookups always go to the primary " +
+                                "cluster given by the hostname or elasticsearch.member.list. By default reads go " +
+                                "to the primary cluster as well.",
+                        type = {DataType.STRING}, optional = true, defaultValue = "null"),
+                @Parameter(name = "read.username",
+                        description = "The username for the connection to the read cluster. Defaults to the " +
+                                "username of the primary cluster.",
+                        type = {DataType.STRING}, optional = true, defaultValue = "null"),
+                @Parameter(name = "read.password",
+                        description = "The password for the connection to the read cluster. Defaults to the " +
+                                "password of the primary cluster.",
+                        type = {DataType.STRING}, optional = true, defaultValue = "null"),
+                @Parameter(name = "read.replication.lag.tolerance",
+                        description = "The replication lag of the read cluster in milliseconds which reads " +
+                                "tolerate. A document written by the table is looked up on the primary cluster " +
+                                "until this time has elapsed after its bulk request completed, and pending writes " +
+                                "stay visible to reads for this time longer, since the read cluster may not have " +
+                                "replicated them yet. Searches are served by the read cluster, and see the writes " +
+                                "of the table within this time only if read.your.writes is enabled.",
+                        type = {DataType.LONG}, optional = true, defaultValue = "5000"),
+                @Parameter(name = "max.connections.per.route",
+                        description = "The maximum number of connections the REST client keeps open to each node " +
+                                "of the cluster.",
+                        type = {DataType.INT}, optional = true, defaultValue = "10"),
+                @Parameter(name = "max.connections.total",
+                        description = "The maximum number of connections the REST client keeps open to the cluster " +
+                                "in total. Tables connecting to the same hosts with the same credentials, trust " +
+                                "store and connection settings share one REST client, whose IO threads and " +
+                                "connections serve all of them.",
+                        type = {DataType.INT}, optional = true, defaultValue = "30"),
+                @Parameter(name = "sniff.interval",
+                        description = "The interval in milliseconds at which the nodes of the cluster are sniffed, " +
+                                "so that requests are spread over the nodes which joined the cluster after the " +
+                                "table was created. Nodes are also sniffed after a request to a node fails. " +
+                                "Sniffing is disabled when this is 0, and requests are only sent to the configured " +
+                                "hosts.",
+                        type = {DataType.INT}, optional = true, defaultValue = "0"),
+                @Parameter(name = "sniff.after.failure.delay",
+                        description = "The delay in milliseconds of the next sniff after the nodes were sniffed " +
+                                "because a request to a node failed.",
+                        type = {DataType.INT}, optional = true, defaultValue = "60000"),
+                @Parameter(name = "node.selection",
+                        description = "How the node a request is sent to is chosen, either 'round-robin' over all " +
+                                "nodes or 'load-aware'. With 'load-aware' bulk requests prefer data nodes and " +
+                                "searches prefer coordinating only nodes, whose roles are known once the nodes are " +
+                                "sniffed, and nodes answering much slower than the fastest node are skipped until " +
+                                "they recover.",
+                        type = {DataType.STRING}, optional = true, defaultValue = "round-robin"),
+                @Parameter(name = "bulk.shard.routing",
+                        description = "If this parameter is set to true, bulk requests are split by the node " +
+                                "holding the primary shard of their documents and sent straight to those nodes, " +
+                                "sparing the hop through a coordinating node. The routing table of each index is " +
+                                "cached and the shard of each document is computed from its routing value or id. " +
+                                "Only nodes known to the client are written to directly, so this works best " +
+                                "together with 'sniff.interval'.",
+                        type = {DataType.BOOL}, optional = true, defaultValue = "false"),
+                @Parameter(name = "shard.routing.refresh.interval",
+                        description = "The interval in milliseconds at which the cached routing table of an index " +
+                                "is refreshed when 'bulk.shard.routing' is enabled. The routing table is refreshed " +
+                                "sooner while shards are relocating.",
+                        type = {DataType.LONG}, optional = true, defaultValue = "30000"),
+                @Parameter(name = "circuit.breaker.failure.threshold",
+                        description = "The number of consecutive requests failing for lack of a reachable cluster " +
+                                "after which the circuit breaker of the table opens. While open, the operations of " +
+                                "the table fail fast with a connection unavailable error, and Siddhi retries " +
+                                "connecting, which probes the health of the cluster and closes the breaker once " +
+                                "the probe succeeds. The value 0 disables the circuit breaker.",
+                        type = {DataType.INT}, optional = true, defaultValue = "0"),
+                @Parameter(name = "circuit.breaker.open.duration",
+                        description = "The time in milliseconds the circuit breaker stays open before a probe is " +
+                                "let through to the cluster.",
+                        type = {DataType.LONG}, optional = true, defaultValue = "30000"),
+                @Parameter(name = "write.io.thread.count",
+                        description = "The number of IO threads of a REST client dedicated to the bulk writes of " +
+                                "the table, with its own connection pool, so that bulk requests do not delay " +
+                                "searches and lookups queued behind them. The value 0 sends writes through the " +
+                                "client of the reads, whose IO threads and connections are then set by " +
+                                "'io.thread.count', 'max.connections.per.route' and 'max.connections.total'.",
+                        type = {DataType.INT}, optional = true, defaultValue = "0"),
+                @Parameter(name = "write.max.connections.per.route",
+                        description = "The maximum number of connections of the write client to a single node, " +
+                                "when 'write.io.thread.count' is greater than 0.",
+                        type = {DataType.INT}, optional = true, defaultValue = "10"),
+                @Parameter(name = "write.max.connections.total",
+                        description = "The maximum number of connections of the write client to all nodes, when " +
+                                "'write.io.thread.count' is greater than 0.",
+                        type = {DataType.INT}, optional = true, defaultValue = "30"),
+                @Parameter(name = "index.template.pattern",
+                        description = "The index pattern of an index template the table installs with the number " +
+                                "of shards, number of replicas, mapping and alias of its index, such as " +
+                                "'stocks-*'. Indices matching the pattern, including the indices named by " +
+                                "'payload.index.of.index.name', are created with these settings by the cluster on " +
+                                "their first write, so that the table does not check for and create them itself.",
+                        type = {DataType.STRING}, optional = true, defaultValue = "null"),
                 @Parameter(name = "index.name",
                         description = "The name of the Elasticsearch index.",
                         type = {DataType.STRING}, optional = true,
@@ -236,6 +479,129 @@ import static io.siddhi.extension.store.elasticsearch.utils.ElasticsearchTableCo
                         description = "The constant back off policy that initially waits until the next retry " +
                                 "in seconds.",
                         type = {DataType.LONG}, optional = true, defaultValue = "1"),
+                @Parameter(name = "read.batch.size",
+                        description = "The maximum number of concurrent find and contains operations which are " +
+                                "executed together as a single multi search or multi get request. Use 1 to " +
+                                "execute every operation as its own request",
+                        type = {DataType.INT}, optional = true, defaultValue = "1"),
+                @Parameter(name = "read.batch.max.wait.time",
+                        description = "The maximum time in milliseconds a find or contains operation waits for " +
+                                "other operations to join its batch before the batch is executed. An operation " +
+                                "only waits while other batches of the table are in flight.",
+                        type = {DataType.LONG}, optional = true, defaultValue = "5"),
+                @Parameter(name = "coalesce.concurrent.reads",
+                        description = "Whether identical find and contains operations issued concurrently share a " +
+                                "single search or get request. A read only joins a request which was sent after " +
+                                "the last write of the table, so no result older than the read is returned.",
+                        type = {DataType.BOOL}, optional = true, defaultValue = "true"),
+                @Parameter(name = "read.your.writes",
+                        description = "If this is set to true, records written to the table are visible to its " +
+                                "reads before the bulk request carrying them is executed. Such pending writes are " +
+                                "kept, keyed by their document id, until the cluster has stored them and refreshed " +
+                                "its searches; they are consulted by primary key lookups and merged over the " +
+                                "results of find and contains searches. Only tables with primary keys are " +
+                                "supported.",
+                        type = {DataType.BOOL}, optional = true, defaultValue = "false"),
+                @Parameter(name = "pending.write.visibility.delay",
+                        description = "The time in milliseconds a write stays in the pending writes overlay after " +
+                                "the bulk request carrying it succeeded, which covers the refresh interval of the " +
+                                "index before searches see the write.",
+                        type = {DataType.LONG}, optional = true, defaultValue = "1000"),
+                @Parameter(name = "find.cache.max.size",
+                        description = "The maximum number of find results cached by the table. Results are " +
+                                "evicted in least recently used order and writes through this table invalidate " +
+                                "the affected results. Use 0 to disable the cache",
+                        type = {DataType.INT}, optional = true, defaultValue = "0"),
+                @Parameter(name = "find.cache.expiry.time",
+                        description = "The time in milliseconds a cached find result is used before it is " +
+                                "fetched again.",
+                        type = {DataType.LONG}, optional = true, defaultValue = "1000"),
+                @Parameter(name = "near.cache.max.size",
+                        description = "The maximum number of documents held in the primary key near cache. The " +
+                                "cache is filled by writes through this table and by primary key lookups, and " +
+                                "evicts documents in least recently used order. It is used only when the table " +
+                                "defines a primary key. Use 0 to disable the cache",
+                        type = {DataType.INT}, optional = true, defaultValue = "0"),
+                @Parameter(name = "near.cache.off.heap",
+                        description = "Whether the documents of the near cache are held encoded in direct " +
+                                "memory outside the Java heap.",
+                        type = {DataType.BOOL}, optional = true, defaultValue = "false"),
+                @Parameter(name = "aggregation.page.size",
+                        description = "The number of groups fetched by each page of the composite aggregation " +
+                                "which answers a grouped store query.",
+                        type = {DataType.INT}, optional = true, defaultValue = "1000"),
+                @Parameter(name = "bloom.filter.expected.insertions",
+                        description = "The number of document ids the Bloom filter used to answer primary key " +
+                                "contains and find operations for absent documents is sized for. The filter is " +
+                                "seeded by scanning the ids of the index at startup and is updated by every write " +
+                                "through this table, so it must only be enabled when this table is the only writer " +
+                                "of the index. It is used only when the table defines a primary key. Use 0 to " +
+                                "disable the filter",
+                        type = {DataType.LONG}, optional = true, defaultValue = "0"),
+                @Parameter(name = "bloom.filter.false.positive.probability",
+                        description = "The target probability of the Bloom filter reporting an absent document id " +
+                                "as present, which costs a request to the cluster.",
+                        type = {DataType.DOUBLE}, optional = true, defaultValue = "0.01"),
+                @Parameter(name = "bloom.filter.persistence.path",
+                        description = "The file the Bloom filter is saved to when the table is shut down and " +
+                                "restored from at the next startup instead of scanning the index. The file is " +
+                                "removed once restored, so that a filter missing later writes is never reused.",
+                        type = {DataType.STRING}, optional = true,
+                        defaultValue = "null"),
+                @Parameter(name = "time.attribute",
+                        description = "The LONG attribute holding the event time of each record, in epoch " +
+                                "milliseconds. When set, searches whose condition bounds this attribute, for " +
+                                "example with 'timestamp > x AND timestamp <= y', only target the indices of " +
+                                "'search.index.pattern' whose time range overlaps the bounds.",
+                        type = {DataType.STRING}, optional = true, defaultValue = "null"),
+                @Parameter(name = "search.index.pattern",
+                        description = "The index or index pattern searched by find, contains and store queries, " +
+                                "such as 'stocks-*' for a table whose records are written to date-suffixed indices " +
+                                "or to indices named by 'payload.index.of.index.name'. By default the index the " +
+                                "table writes to is searched. Lookups by primary key search the pattern as well, " +
+                                "since the document may be in any of its indices, so the near cache and the " +
+                                "Bloom filter are not used when a pattern is given.",
+                        type = {DataType.STRING}, optional = true, defaultValue = "null"),
+                @Parameter(name = "keyword.exact.match",
+                        description = "If this is set to true, conditions compare string attributes on their " +
+                                "'keyword' sub field, so that an equality matches the whole value exactly instead " +
+                                "of as a phrase of the analyzed text, and ranges compare whole values. Every index " +
+                                "the table searches must then map its string attributes with a 'keyword' sub " +
+                                "field whose 'ignore_above' covers the longest value, as indices created by the " +
+                                "table do with 8191. Indices created by earlier versions of the table only index " +
+                                "values of up to 256 characters in the sub field, and indices created outside the " +
+                                "table may not have it, in which case the longer values or all values match " +
+                                "nothing. Attributes mapped through @TypeMappings are compared on the field itself.",
+                        type = {DataType.BOOL}, optional = true, defaultValue = "false"),
+                @Parameter(name = "time.range.refresh.interval",
+                        description = "The interval in milliseconds after which the cached minimum and maximum " +
+                                "time of the indices matching 'search.index.pattern' is refreshed from the " +
+                                "cluster. Records written by the table itself widen the cached ranges immediately.",
+                        type = {DataType.LONG}, optional = true, defaultValue = "60000"),
+                @Parameter(name = "search.timeout",
+                        description = "The deadline in milliseconds of each search sent by find, contains and " +
+                                "store queries. Searches are sent asynchronously and abandoned with an error once " +
+                                "the deadline passes, and shards are asked to stop collecting hits shortly before " +
+                                "it. With 0 searches wait for the cluster without a deadline.",
+                        type = {DataType.LONG}, optional = true, defaultValue = "0"),
+                @Parameter(name = "allow.partial.search.results",
+                        description = "Whether a search with a deadline may return the hits collected so far when " +
+                                "some shards time out or fail, instead of failing. Only applies when " +
+                                "'search.timeout' is set.",
+                        type = {DataType.BOOL}, optional = true, defaultValue = "false"),
+                @Parameter(name = "hedge.percentile",
+                        description = "The percentile of the latency of recent searches, such as 95, after which a " +
+                                "search which has not returned yet is sent once more with a different preference, " +
+                                "so that another copy of the shards is likely to serve it. The first response is " +
+                                "used. The preference is random, so the hedge may be served by the same copy as " +
+                                "the search it hedges. The hedges sent, won and not sent for lack of budget and the " +
+                                "time they saved are shown by the table metrics MBean. With 0 searches are not " +
+                                "hedged.",
+                        type = {DataType.DOUBLE}, optional = true, defaultValue = "0"),
+                @Parameter(name = "hedge.budget",
+                        description = "The fraction of searches which may be hedged, which caps the extra load " +
+                                "hedging puts on the cluster.",
+                        type = {DataType.DOUBLE}, optional = true, defaultValue = "0.05"),
                 @Parameter(name = "ssl.enabled",
                         description = "SSL is enabled or not.",
                         type = {DataType.BOOL}, optional = true,
@@ -299,10 +665,36 @@ import static io.siddhi.extension.store.elasticsearch.utils.ElasticsearchTableCo
 
 // for more information refer https://siddhi.io/en/v4.x/docs/query-guide/#event-table-types
 
-public class ElasticsearchEventTable extends AbstractRecordTable {
+public class ElasticsearchEventTable extends AbstractQueryableRecordTable {
 
     private static final Logger logger = Logger.getLogger(ElasticsearchEventTable.class);
+    private static final String DOCUMENT_READ_KEY_PREFIX = "document:";
+    private static final String SEARCH_READ_KEY_PREFIX = "search:";
+    private static final long BULK_PROCESSOR_CLOSE_TIMEOUT = 30;
+    private static final long HEALTH_PROBE_TIMEOUT = 10;
+    private static final String READ_LANE = "read";
+    private static final String WRITE_LANE = "write";
+    private static final String INDEX_TEMPLATE_NAME_PREFIX = "siddhi-";
+    private static final String MBEAN_DOMAIN = "io.siddhi.extension.store.elasticsearch";
     private RestHighLevelClient restHighLevelClient;
+    private RestHighLevelClient writeClient;
+    private RestHighLevelClient readClient;
+    private final ElasticsearchLaneMetrics readLaneMetrics = new ElasticsearchLaneMetrics(READ_LANE);
+    private final ElasticsearchLaneMetrics writeLaneMetrics = new ElasticsearchLaneMetrics(WRITE_LANE);
+    private ElasticsearchSearchBatcher searchBatcher;
+    private ElasticsearchSearchHedger searchHedger;
+    private ElasticsearchShardRouter shardRouter;
+    private ElasticsearchCircuitBreaker circuitBreaker;
+    private ElasticsearchIndexBootstrap indexBootstrap;
+    private ElasticsearchSingleFlight<String, List<Object[]>> readSingleFlight;
+    private ElasticsearchSingleFlight<String, Boolean> containsSingleFlight;
+    private ElasticsearchGetBatcher getBatcher;
+    private ElasticsearchGetBatcher primaryGetBatcher;
+    private ElasticsearchFindCache findCache;
+    private ElasticsearchNearCache nearCache;
+    private ElasticsearchPendingWrites pendingWrites;
+    private ElasticsearchRecentWrites recentWrites;
+    private final LongAdder primaryLookupCount = new LongAdder();
     private List<Attribute> attributes;
     private List<String> primaryKeys;
     private String hostname = DEFAULT_HOSTNAME;
@@ -314,7 +706,10 @@ public class ElasticsearchEventTable extends AbstractRecordTable {
     private String password = DEFAULT_PASSWORD;
     private int numberOfShards = DEFAULT_NUMBER_OF_SHARDS;
     private int numberOfReplicas = DEFAULT_NUMBER_OF_REPLICAS;
-    private BulkProcessor bulkProcessor;
+    private ElasticsearchTunableBulkProcessor bulkProcessor;
+    private ObjectName bulkProcessorObjectName;
+    private ElasticsearchTableMetrics tableMetrics;
+    private ObjectName tableMetricsObjectName;
     private int bulkActions = DEFAULT_BULK_ACTIONS;
     private long bulkSize = DEFAULT_BULK_SIZE_IN_MB;
     private int concurrentRequests = DEFAULT_CONCURRENT_REQUESTS;
@@ -328,7 +723,50 @@ public class ElasticsearchEventTable extends AbstractRecordTable {
     private boolean sslEnabled = DEFAULT_SSL_ENABLED;
     private int payloadIndexOfIndexName = DEFAULT_PAYLOAD_INDEX_OF_INDEX_NAME;
     private String listOfHostnames;
+    private int readBatchSize = DEFAULT_READ_BATCH_SIZE;
+    private long readBatchMaxWaitTime = DEFAULT_READ_BATCH_MAX_WAIT_TIME;
+    private int findCacheMaxSize = DEFAULT_FIND_CACHE_MAX_SIZE;
+    private long findCacheExpiryTime = DEFAULT_FIND_CACHE_EXPIRY_TIME;
+    private int nearCacheMaxSize = DEFAULT_NEAR_CACHE_MAX_SIZE;
+    private boolean nearCacheOffHeap = DEFAULT_NEAR_CACHE_OFF_HEAP;
+    private int aggregationPageSize = DEFAULT_AGGREGATION_PAGE_SIZE;
+    private long bloomFilterExpectedInsertions = DEFAULT_BLOOM_FILTER_EXPECTED_INSERTIONS;
+    private double bloomFilterFalsePositiveProbability = DEFAULT_BLOOM_FILTER_FALSE_POSITIVE_PROBABILITY;
+    private long timeRangeRefreshInterval = DEFAULT_TIME_RANGE_REFRESH_INTERVAL;
+    private long searchTimeout = DEFAULT_SEARCH_TIMEOUT;
+    private boolean allowPartialSearchResults = DEFAULT_ALLOW_PARTIAL_SEARCH_RESULTS;
+    private double hedgePercentile = DEFAULT_HEDGE_PERCENTILE;
+    private double hedgeBudget = DEFAULT_HEDGE_BUDGET;
+    private boolean coalesceConcurrentReads = DEFAULT_COALESCE_CONCURRENT_READS;
+    private boolean keywordExactMatch = DEFAULT_KEYWORD_EXACT_MATCH;
+    private boolean readYourWrites = DEFAULT_READ_YOUR_WRITES;
+    private long pendingWriteVisibilityDelay = DEFAULT_PENDING_WRITE_VISIBILITY_DELAY;
+    private int maxConnectionsPerRoute = DEFAULT_MAX_CONNECTIONS_PER_ROUTE;
+    private int maxConnectionsTotal = DEFAULT_MAX_CONNECTIONS_TOTAL;
+    private int sniffInterval = DEFAULT_SNIFF_INTERVAL;
+    private int sniffAfterFailureDelay = DEFAULT_SNIFF_AFTER_FAILURE_DELAY;
+    private String nodeSelection = DEFAULT_NODE_SELECTION;
+    private boolean isBulkShardRouting = DEFAULT_BULK_SHARD_ROUTING;
+    private long shardRoutingRefreshInterval = DEFAULT_SHARD_ROUTING_REFRESH_INTERVAL;
+    private int circuitBreakerFailureThreshold = DEFAULT_CIRCUIT_BREAKER_FAILURE_THRESHOLD;
+    private long circuitBreakerOpenDuration = DEFAULT_CIRCUIT_BREAKER_OPEN_DURATION;
+    private int writeIoThreadCount = DEFAULT_WRITE_IO_THREAD_COUNT;
+    private int writeMaxConnectionsPerRoute = DEFAULT_WRITE_MAX_CONNECTIONS_PER_ROUTE;
+    private int writeMaxConnectionsTotal = DEFAULT_WRITE_MAX_CONNECTIONS_TOTAL;
+    private String readListOfHostnames;
+    private String readUserName;
+    private String readPassword;
+    private long readReplicationLagTolerance = DEFAULT_READ_REPLICATION_LAG_TOLERANCE;
+    private String indexTemplatePattern;
+    private String bloomFilterPersistencePath;
+    private ElasticsearchBloomFilter bloomFilter;
+    private String timeAttribute;
+    private int timeAttributeIndex;
+    private String searchIndexPattern;
+    private ElasticsearchTimeRangeIndexSelector timeRangeIndexSelector;
     private Map<String, String> typeMappings = new HashMap<>();
+    private ElasticsearchIndexMapping indexMapping;
+    private ElasticsearchSourceDecoder sourceDecoder;
 
     /**
      * Initializing the Record Table
@@ -460,6 +898,299 @@ public class ElasticsearchEventTable extends AbstractRecordTable {
                         configReader.readConfig(ANNOTATION_ELEMENT_CLIENT_IO_THREAD_COUNT,
                                 String.valueOf(ioThreadCount)));
             }
+            if (!ElasticsearchTableUtils.isEmpty(storeAnnotation.getElement(ANNOTATION_ELEMENT_READ_BATCH_SIZE))) {
+                readBatchSize = Integer.parseInt(storeAnnotation.getElement(ANNOTATION_ELEMENT_READ_BATCH_SIZE));
+            } else {
+                readBatchSize = Integer.parseInt(configReader.readConfig(ANNOTATION_ELEMENT_READ_BATCH_SIZE,
+                        String.valueOf(readBatchSize)));
+            }
+            if (!ElasticsearchTableUtils.isEmpty(storeAnnotation.getElement(
+                    ANNOTATION_ELEMENT_READ_BATCH_MAX_WAIT_TIME))) {
+                readBatchMaxWaitTime = Long.parseLong(
+                        storeAnnotation.getElement(ANNOTATION_ELEMENT_READ_BATCH_MAX_WAIT_TIME));
+            } else {
+                readBatchMaxWaitTime = Long.parseLong(
+                        configReader.readConfig(ANNOTATION_ELEMENT_READ_BATCH_MAX_WAIT_TIME,
+                                String.valueOf(readBatchMaxWaitTime)));
+            }
+            if (!ElasticsearchTableUtils.isEmpty(storeAnnotation.getElement(ANNOTATION_ELEMENT_FIND_CACHE_MAX_SIZE))) {
+                findCacheMaxSize = Integer.parseInt(
+                        storeAnnotation.getElement(ANNOTATION_ELEMENT_FIND_CACHE_MAX_SIZE));
+            } else {
+                findCacheMaxSize = Integer.parseInt(configReader.readConfig(ANNOTATION_ELEMENT_FIND_CACHE_MAX_SIZE,
+                        String.valueOf(findCacheMaxSize)));
+            }
+            if (!ElasticsearchTableUtils.isEmpty(storeAnnotation.getElement(
+                    ANNOTATION_ELEMENT_FIND_CACHE_EXPIRY_TIME))) {
+                findCacheExpiryTime = Long.parseLong(
+                        storeAnnotation.getElement(ANNOTATION_ELEMENT_FIND_CACHE_EXPIRY_TIME));
+            } else {
+                findCacheExpiryTime = Long.parseLong(
+                        configReader.readConfig(ANNOTATION_ELEMENT_FIND_CACHE_EXPIRY_TIME,
+                                String.valueOf(findCacheExpiryTime)));
+            }
+            if (!ElasticsearchTableUtils.isEmpty(storeAnnotation.getElement(ANNOTATION_ELEMENT_NEAR_CACHE_MAX_SIZE))) {
+                nearCacheMaxSize = Integer.parseInt(
+                        storeAnnotation.getElement(ANNOTATION_ELEMENT_NEAR_CACHE_MAX_SIZE));
+            } else {
+                nearCacheMaxSize = Integer.parseInt(configReader.readConfig(ANNOTATION_ELEMENT_NEAR_CACHE_MAX_SIZE,
+                        String.valueOf(nearCacheMaxSize)));
+            }
+            if (!ElasticsearchTableUtils.isEmpty(storeAnnotation.getElement(ANNOTATION_ELEMENT_NEAR_CACHE_OFF_HEAP))) {
+                nearCacheOffHeap = Boolean.parseBoolean(
+                        storeAnnotation.getElement(ANNOTATION_ELEMENT_NEAR_CACHE_OFF_HEAP));
+            } else {
+                nearCacheOffHeap = Boolean.parseBoolean(configReader.readConfig(
+                        ANNOTATION_ELEMENT_NEAR_CACHE_OFF_HEAP, String.valueOf(nearCacheOffHeap)));
+            }
+            if (!ElasticsearchTableUtils.isEmpty(storeAnnotation.getElement(
+                    ANNOTATION_ELEMENT_AGGREGATION_PAGE_SIZE))) {
+                aggregationPageSize = Integer.parseInt(
+                        storeAnnotation.getElement(ANNOTATION_ELEMENT_AGGREGATION_PAGE_SIZE));
+            } else {
+                aggregationPageSize = Integer.parseInt(
+                        configReader.readConfig(ANNOTATION_ELEMENT_AGGREGATION_PAGE_SIZE,
+                                String.valueOf(aggregationPageSize)));
+            }
+            if (!ElasticsearchTableUtils.isEmpty(storeAnnotation.getElement(
+                    ANNOTATION_ELEMENT_BLOOM_FILTER_EXPECTED_INSERTIONS))) {
+                bloomFilterExpectedInsertions = Long.parseLong(
+                        storeAnnotation.getElement(ANNOTATION_ELEMENT_BLOOM_FILTER_EXPECTED_INSERTIONS));
+            } else {
+                bloomFilterExpectedInsertions = Long.parseLong(
+                        configReader.readConfig(ANNOTATION_ELEMENT_BLOOM_FILTER_EXPECTED_INSERTIONS,
+                                String.valueOf(bloomFilterExpectedInsertions)));
+            }
+            if (!ElasticsearchTableUtils.isEmpty(storeAnnotation.getElement(
+                    ANNOTATION_ELEMENT_BLOOM_FILTER_FALSE_POSITIVE_PROBABILITY))) {
+                bloomFilterFalsePositiveProbability = Double.parseDouble(
+                        storeAnnotation.getElement(ANNOTATION_ELEMENT_BLOOM_FILTER_FALSE_POSITIVE_PROBABILITY));
+            } else {
+                bloomFilterFalsePositiveProbability = Double.parseDouble(
+                        configReader.readConfig(ANNOTATION_ELEMENT_BLOOM_FILTER_FALSE_POSITIVE_PROBABILITY,
+                                String.valueOf(bloomFilterFalsePositiveProbability)));
+            }
+            if (!ElasticsearchTableUtils.isEmpty(storeAnnotation.getElement(
+                    ANNOTATION_ELEMENT_BLOOM_FILTER_PERSISTENCE_PATH))) {
+                bloomFilterPersistencePath = storeAnnotation.getElement(
+                        ANNOTATION_ELEMENT_BLOOM_FILTER_PERSISTENCE_PATH);
+            } else {
+                bloomFilterPersistencePath = configReader.readConfig(
+                        ANNOTATION_ELEMENT_BLOOM_FILTER_PERSISTENCE_PATH, bloomFilterPersistencePath);
+            }
+            if (!ElasticsearchTableUtils.isEmpty(storeAnnotation.getElement(ANNOTATION_ELEMENT_TIME_ATTRIBUTE))) {
+                timeAttribute = storeAnnotation.getElement(ANNOTATION_ELEMENT_TIME_ATTRIBUTE);
+            } else {
+                timeAttribute = configReader.readConfig(ANNOTATION_ELEMENT_TIME_ATTRIBUTE, timeAttribute);
+            }
+            if (!ElasticsearchTableUtils.isEmpty(storeAnnotation.getElement(ANNOTATION_ELEMENT_SEARCH_INDEX_PATTERN))) {
+                searchIndexPattern = storeAnnotation.getElement(ANNOTATION_ELEMENT_SEARCH_INDEX_PATTERN);
+            } else {
+                searchIndexPattern = configReader.readConfig(ANNOTATION_ELEMENT_SEARCH_INDEX_PATTERN,
+                        searchIndexPattern);
+            }
+            if (!ElasticsearchTableUtils.isEmpty(storeAnnotation.getElement(
+                    ANNOTATION_ELEMENT_TIME_RANGE_REFRESH_INTERVAL))) {
+                timeRangeRefreshInterval = Long.parseLong(
+                        storeAnnotation.getElement(ANNOTATION_ELEMENT_TIME_RANGE_REFRESH_INTERVAL));
+            } else {
+                timeRangeRefreshInterval = Long.parseLong(
+                        configReader.readConfig(ANNOTATION_ELEMENT_TIME_RANGE_REFRESH_INTERVAL,
+                                String.valueOf(timeRangeRefreshInterval)));
+            }
+            if (!ElasticsearchTableUtils.isEmpty(storeAnnotation.getElement(ANNOTATION_ELEMENT_SEARCH_TIMEOUT))) {
+                searchTimeout = Long.parseLong(storeAnnotation.getElement(ANNOTATION_ELEMENT_SEARCH_TIMEOUT));
+            } else {
+                searchTimeout = Long.parseLong(configReader.readConfig(ANNOTATION_ELEMENT_SEARCH_TIMEOUT,
+                        String.valueOf(searchTimeout)));
+            }
+            if (!ElasticsearchTableUtils.isEmpty(storeAnnotation.getElement(
+                    ANNOTATION_ELEMENT_ALLOW_PARTIAL_SEARCH_RESULTS))) {
+                allowPartialSearchResults = Boolean.parseBoolean(
+                        storeAnnotation.getElement(ANNOTATION_ELEMENT_ALLOW_PARTIAL_SEARCH_RESULTS));
+            } else {
+                allowPartialSearchResults = Boolean.parseBoolean(
+                        configReader.readConfig(ANNOTATION_ELEMENT_ALLOW_PARTIAL_SEARCH_RESULTS,
+                                String.valueOf(allowPartialSearchResults)));
+            }
+            if (!ElasticsearchTableUtils.isEmpty(storeAnnotation.getElement(ANNOTATION_ELEMENT_HEDGE_PERCENTILE))) {
+                hedgePercentile = Double.parseDouble(storeAnnotation.getElement(ANNOTATION_ELEMENT_HEDGE_PERCENTILE));
+            } else {
+                hedgePercentile = Double.parseDouble(configReader.readConfig(ANNOTATION_ELEMENT_HEDGE_PERCENTILE,
+                        String.valueOf(hedgePercentile)));
+            }
+            if (!ElasticsearchTableUtils.isEmpty(storeAnnotation.getElement(ANNOTATION_ELEMENT_HEDGE_BUDGET))) {
+                hedgeBudget = Double.parseDouble(storeAnnotation.getElement(ANNOTATION_ELEMENT_HEDGE_BUDGET));
+            } else {
+                hedgeBudget = Double.parseDouble(configReader.readConfig(ANNOTATION_ELEMENT_HEDGE_BUDGET,
+                        String.valueOf(hedgeBudget)));
+            }
+            if (!ElasticsearchTableUtils.isEmpty(storeAnnotation.getElement(
+                    ANNOTATION_ELEMENT_COALESCE_CONCURRENT_READS))) {
+                coalesceConcurrentReads = Boolean.parseBoolean(
+                        storeAnnotation.getElement(ANNOTATION_ELEMENT_COALESCE_CONCURRENT_READS));
+            } else {
+                coalesceConcurrentReads = Boolean.parseBoolean(
+                        configReader.readConfig(ANNOTATION_ELEMENT_COALESCE_CONCURRENT_READS,
+                                String.valueOf(coalesceConcurrentReads)));
+            }
+            if (!ElasticsearchTableUtils.isEmpty(storeAnnotation.getElement(ANNOTATION_ELEMENT_KEYWORD_EXACT_MATCH))) {
+                keywordExactMatch = Boolean.parseBoolean(
+                        storeAnnotation.getElement(ANNOTATION_ELEMENT_KEYWORD_EXACT_MATCH));
+            } else {
+                keywordExactMatch = Boolean.parseBoolean(configReader.readConfig(
+                        ANNOTATION_ELEMENT_KEYWORD_EXACT_MATCH, String.valueOf(keywordExactMatch)));
+            }
+            if (!ElasticsearchTableUtils.isEmpty(storeAnnotation.getElement(ANNOTATION_ELEMENT_READ_YOUR_WRITES))) {
+                readYourWrites = Boolean.parseBoolean(storeAnnotation.getElement(ANNOTATION_ELEMENT_READ_YOUR_WRITES));
+            } else {
+                readYourWrites = Boolean.parseBoolean(configReader.readConfig(ANNOTATION_ELEMENT_READ_YOUR_WRITES,
+                        String.valueOf(readYourWrites)));
+            }
+            if (!ElasticsearchTableUtils.isEmpty(storeAnnotation.getElement(
+                    ANNOTATION_ELEMENT_PENDING_WRITE_VISIBILITY_DELAY))) {
+                pendingWriteVisibilityDelay = Long.parseLong(
+                        storeAnnotation.getElement(ANNOTATION_ELEMENT_PENDING_WRITE_VISIBILITY_DELAY));
+            } else {
+                pendingWriteVisibilityDelay = Long.parseLong(
+                        configReader.readConfig(ANNOTATION_ELEMENT_PENDING_WRITE_VISIBILITY_DELAY,
+                                String.valueOf(pendingWriteVisibilityDelay)));
+            }
+            if (!ElasticsearchTableUtils.isEmpty(storeAnnotation.getElement(
+                    ANNOTATION_ELEMENT_MAX_CONNECTIONS_PER_ROUTE))) {
+                maxConnectionsPerRoute = Integer.parseInt(
+                        storeAnnotation.getElement(ANNOTATION_ELEMENT_MAX_CONNECTIONS_PER_ROUTE));
+            } else {
+                maxConnectionsPerRoute = Integer.parseInt(
+                        configReader.readConfig(ANNOTATION_ELEMENT_MAX_CONNECTIONS_PER_ROUTE,
+                                String.valueOf(maxConnectionsPerRoute)));
+            }
+            if (!ElasticsearchTableUtils.isEmpty(storeAnnotation.getElement(
+                    ANNOTATION_ELEMENT_MAX_CONNECTIONS_TOTAL))) {
+                maxConnectionsTotal = Integer.parseInt(
+                        storeAnnotation.getElement(ANNOTATION_ELEMENT_MAX_CONNECTIONS_TOTAL));
+            } else {
+                maxConnectionsTotal = Integer.parseInt(configReader.readConfig(ANNOTATION_ELEMENT_MAX_CONNECTIONS_TOTAL,
+                        String.valueOf(maxConnectionsTotal)));
+            }
+            if (!ElasticsearchTableUtils.isEmpty(storeAnnotation.getElement(ANNOTATION_ELEMENT_SNIFF_INTERVAL))) {
+                sniffInterval = Integer.parseInt(storeAnnotation.getElement(ANNOTATION_ELEMENT_SNIFF_INTERVAL));
+            } else {
+                sniffInterval = Integer.parseInt(configReader.readConfig(ANNOTATION_ELEMENT_SNIFF_INTERVAL,
+                        String.valueOf(sniffInterval)));
+            }
+            if (!ElasticsearchTableUtils.isEmpty(storeAnnotation.getElement(
+                    ANNOTATION_ELEMENT_SNIFF_AFTER_FAILURE_DELAY))) {
+                sniffAfterFailureDelay = Integer.parseInt(
+                        storeAnnotation.getElement(ANNOTATION_ELEMENT_SNIFF_AFTER_FAILURE_DELAY));
+            } else {
+                sniffAfterFailureDelay = Integer.parseInt(
+                        configReader.readConfig(ANNOTATION_ELEMENT_SNIFF_AFTER_FAILURE_DELAY,
+                                String.valueOf(sniffAfterFailureDelay)));
+            }
+            if (!ElasticsearchTableUtils.isEmpty(storeAnnotation.getElement(ANNOTATION_ELEMENT_NODE_SELECTION))) {
+                nodeSelection = storeAnnotation.getElement(ANNOTATION_ELEMENT_NODE_SELECTION);
+            } else {
+                nodeSelection = configReader.readConfig(ANNOTATION_ELEMENT_NODE_SELECTION, nodeSelection);
+            }
+            if (!NODE_SELECTION_ROUND_ROBIN.equals(nodeSelection) &&
+                    !NODE_SELECTION_LOAD_AWARE.equals(nodeSelection)) {
+                throw new SiddhiAppCreationException("Invalid value '" + nodeSelection + "' found in " +
+                        ANNOTATION_ELEMENT_NODE_SELECTION + " of table id: " + tableDefinition.getId() + ". It must " +
+                        "be either '" + NODE_SELECTION_ROUND_ROBIN + "' or '" + NODE_SELECTION_LOAD_AWARE + "'.");
+            }
+            if (!ElasticsearchTableUtils.isEmpty(storeAnnotation.getElement(ANNOTATION_ELEMENT_BULK_SHARD_ROUTING))) {
+                isBulkShardRouting = Boolean.parseBoolean(
+                        storeAnnotation.getElement(ANNOTATION_ELEMENT_BULK_SHARD_ROUTING));
+            } else {
+                isBulkShardRouting = Boolean.parseBoolean(configReader.readConfig(ANNOTATION_ELEMENT_BULK_SHARD_ROUTING,
+                        String.valueOf(isBulkShardRouting)));
+            }
+            if (!ElasticsearchTableUtils.isEmpty(storeAnnotation.getElement(
+                    ANNOTATION_ELEMENT_SHARD_ROUTING_REFRESH_INTERVAL))) {
+                shardRoutingRefreshInterval = Long.parseLong(
+                        storeAnnotation.getElement(ANNOTATION_ELEMENT_SHARD_ROUTING_REFRESH_INTERVAL));
+            } else {
+                shardRoutingRefreshInterval = Long.parseLong(
+                        configReader.readConfig(ANNOTATION_ELEMENT_SHARD_ROUTING_REFRESH_INTERVAL,
+                                String.valueOf(shardRoutingRefreshInterval)));
+            }
+            if (!ElasticsearchTableUtils.isEmpty(storeAnnotation.getElement(
+                    ANNOTATION_ELEMENT_CIRCUIT_BREAKER_FAILURE_THRESHOLD))) {
+                circuitBreakerFailureThreshold = Integer.parseInt(
+                        storeAnnotation.getElement(ANNOTATION_ELEMENT_CIRCUIT_BREAKER_FAILURE_THRESHOLD));
+            } else {
+                circuitBreakerFailureThreshold = Integer.parseInt(
+                        configReader.readConfig(ANNOTATION_ELEMENT_CIRCUIT_BREAKER_FAILURE_THRESHOLD,
+                                String.valueOf(circuitBreakerFailureThreshold)));
+            }
+            if (!ElasticsearchTableUtils.isEmpty(storeAnnotation.getElement(
+                    ANNOTATION_ELEMENT_CIRCUIT_BREAKER_OPEN_DURATION))) {
+                circuitBreakerOpenDuration = Long.parseLong(
+                        storeAnnotation.getElement(ANNOTATION_ELEMENT_CIRCUIT_BREAKER_OPEN_DURATION));
+            } else {
+                circuitBreakerOpenDuration = Long.parseLong(
+                        configReader.readConfig(ANNOTATION_ELEMENT_CIRCUIT_BREAKER_OPEN_DURATION,
+                                String.valueOf(circuitBreakerOpenDuration)));
+            }
+            if (!ElasticsearchTableUtils.isEmpty(storeAnnotation.getElement(
+                    ANNOTATION_ELEMENT_WRITE_IO_THREAD_COUNT))) {
+                writeIoThreadCount = Integer.parseInt(
+                        storeAnnotation.getElement(ANNOTATION_ELEMENT_WRITE_IO_THREAD_COUNT));
+            } else {
+                writeIoThreadCount = Integer.parseInt(configReader.readConfig(ANNOTATION_ELEMENT_WRITE_IO_THREAD_COUNT,
+                        String.valueOf(writeIoThreadCount)));
+            }
+            if (!ElasticsearchTableUtils.isEmpty(storeAnnotation.getElement(
+                    ANNOTATION_ELEMENT_WRITE_MAX_CONNECTIONS_PER_ROUTE))) {
+                writeMaxConnectionsPerRoute = Integer.parseInt(
+                        storeAnnotation.getElement(ANNOTATION_ELEMENT_WRITE_MAX_CONNECTIONS_PER_ROUTE));
+            } else {
+                writeMaxConnectionsPerRoute = Integer.parseInt(
+                        configReader.readConfig(ANNOTATION_ELEMENT_WRITE_MAX_CONNECTIONS_PER_ROUTE,
+                                String.valueOf(writeMaxConnectionsPerRoute)));
+            }
+            if (!ElasticsearchTableUtils.isEmpty(storeAnnotation.getElement(
+                    ANNOTATION_ELEMENT_WRITE_MAX_CONNECTIONS_TOTAL))) {
+                writeMaxConnectionsTotal = Integer.parseInt(
+                        storeAnnotation.getElement(ANNOTATION_ELEMENT_WRITE_MAX_CONNECTIONS_TOTAL));
+            } else {
+                writeMaxConnectionsTotal = Integer.parseInt(
+                        configReader.readConfig(ANNOTATION_ELEMENT_WRITE_MAX_CONNECTIONS_TOTAL,
+                                String.valueOf(writeMaxConnectionsTotal)));
+            }
+            if (!ElasticsearchTableUtils.isEmpty(storeAnnotation.getElement(
+                    ANNOTATION_ELEMENT_INDEX_TEMPLATE_PATTERN))) {
+                indexTemplatePattern = storeAnnotation.getElement(ANNOTATION_ELEMENT_INDEX_TEMPLATE_PATTERN);
+            } else {
+                indexTemplatePattern = configReader.readConfig(ANNOTATION_ELEMENT_INDEX_TEMPLATE_PATTERN,
+                        indexTemplatePattern);
+            }
+            if (!ElasticsearchTableUtils.isEmpty(storeAnnotation.getElement(ANNOTATION_ELEMENT_READ_MEMBER_LIST))) {
+                readListOfHostnames = storeAnnotation.getElement(ANNOTATION_ELEMENT_READ_MEMBER_LIST);
+            } else {
+                readListOfHostnames = configReader.readConfig(ANNOTATION_ELEMENT_READ_MEMBER_LIST,
+                        readListOfHostnames);
+            }
+            if (!ElasticsearchTableUtils.isEmpty(storeAnnotation.getElement(ANNOTATION_ELEMENT_READ_USER))) {
+                readUserName = storeAnnotation.getElement(ANNOTATION_ELEMENT_READ_USER);
+            } else {
+                readUserName = configReader.readConfig(ANNOTATION_ELEMENT_READ_USER, readUserName);
+            }
+            if (!ElasticsearchTableUtils.isEmpty(storeAnnotation.getElement(ANNOTATION_ELEMENT_READ_PASSWORD))) {
+                readPassword = storeAnnotation.getElement(ANNOTATION_ELEMENT_READ_PASSWORD);
+            } else {
+                readPassword = configReader.readConfig(ANNOTATION_ELEMENT_READ_PASSWORD, readPassword);
+            }
+            if (!ElasticsearchTableUtils.isEmpty(storeAnnotation.getElement(
+                    ANNOTATION_ELEMENT_READ_REPLICATION_LAG_TOLERANCE))) {
+                readReplicationLagTolerance = Long.parseLong(
+                        storeAnnotation.getElement(ANNOTATION_ELEMENT_READ_REPLICATION_LAG_TOLERANCE));
+            } else {
+                readReplicationLagTolerance = Long.parseLong(
+                        configReader.readConfig(ANNOTATION_ELEMENT_READ_REPLICATION_LAG_TOLERANCE,
+                                String.valueOf(readReplicationLagTolerance)));
+            }
             if (!ElasticsearchTableUtils.isEmpty(storeAnnotation.getElement(ANNOTATION_ELEMENT_SSL_ENABLED))) {
                 sslEnabled = Boolean.parseBoolean(storeAnnotation.getElement(ANNOTATION_ELEMENT_SSL_ENABLED));
             } else {
@@ -490,88 +1221,363 @@ public class ElasticsearchEventTable extends AbstractRecordTable {
                     typeMappings.put(element.getKey(), element.getValue());
                 }
             }
+            indexMapping = new ElasticsearchIndexMapping(attributes, typeMappings);
+            sourceDecoder = new ElasticsearchSourceDecoder(attributes);
+            if (timeAttribute != null) {
+                validateTimeAttribute(timeAttribute);
+            }
         } else {
             throw new ElasticsearchEventTableException("Elasticsearch Store annotation list null for table id : '" +
                     tableDefinition.getId() + "', required properties cannot be resolved.");
         }
-        CredentialsProvider credentialsProvider = new BasicCredentialsProvider();
-        credentialsProvider.setCredentials(AuthScope.ANY,
-                new UsernamePasswordCredentials(userName, password));
         HttpHost httpHostList[];
         if (listOfHostnames != null) {
-            String hostNameList[] = listOfHostnames.split(",");
-            httpHostList = new HttpHost[hostNameList.length];
-            for (int i = 0; i < httpHostList.length; i++) {
-                try {
-                    URL domain = new URL(hostNameList[i]);
-                    httpHostList[i] = new HttpHost(domain.getHost(), domain.getPort(), domain.getProtocol());
-                } catch (MalformedURLException e) {
-                    throw new ElasticsearchEventTableException("Provided elastic search hostname url list is " +
-                            "malformed of table id : '" + tableDefinition.getId() + ".", e);
-                }
-            }
+            httpHostList = parseHostList(listOfHostnames);
         } else {
             httpHostList = new HttpHost[1];
             httpHostList[0] = new HttpHost(hostname, port, scheme);
         }
-        restHighLevelClient = new RestHighLevelClient(RestClient.builder(httpHostList).
-                setHttpClientConfigCallback(httpClientBuilder -> {
-                    httpClientBuilder.disableAuthCaching();
-                    httpClientBuilder.setDefaultIOReactorConfig(IOReactorConfig.custom().
-                            setIoThreadCount(ioThreadCount).build());
-                    if (sslEnabled) {
-                        try {
-                            KeyStore trustStore = KeyStore.getInstance(trustStoreType);
-                            if (trustStorePath == null) {
-                                throw new ElasticsearchEventTableException("Please provide a valid path for trust " +
-                                        "store location for table id : '" + tableDefinition.getId());
-                            } else {
-                                try (InputStream is = Files.newInputStream(Paths.get(trustStorePath))) {
-                                    trustStore.load(is, trustStorePass.toCharArray());
-                                }
-                                SSLContextBuilder sslBuilder = SSLContexts.custom().loadTrustMaterial(trustStore, null);
-                                httpClientBuilder.setSSLContext(sslBuilder.build());
-                            }
-                        } catch (NoSuchAlgorithmException e) {
-                            throw new ElasticsearchEventTableException("Algorithm used to check the integrity of the " +
-                                    "trustStore cannot be found for when loading trustStore for table id : '" +
-                                    tableDefinition.getId(), e);
-                        } catch (KeyStoreException e) {
-                            throw new ElasticsearchEventTableException("The trustStore type truststore.type = " +
-                                    "" + trustStoreType + " defined is incorrect while creating table id : '" +
-                                    tableDefinition.getId(), e);
-                        } catch (CertificateException e) {
-                            throw new ElasticsearchEventTableException("Any of the certificates in the keystore " +
-                                    "could not be loaded when loading trustStore for table id : '" +
-                                    tableDefinition.getId(), e);
-                        } catch (IOException e) {
-                            throw new ElasticsearchEventTableException("The trustStore password = " + trustStorePass +
-                                    " or trustStore path " + trustStorePath + " defined is incorrect while creating " +
-                                    "sslContext for table id : '" + tableDefinition.getId(), e);
-                        } catch (KeyManagementException e) {
-                            throw new ElasticsearchEventTableException("Error occurred while builing sslContext for " +
-                                    "table id : '" + tableDefinition.getId(), e);
-                        }
+        ElasticsearchClientConfig clientConfig = new ElasticsearchClientConfig(httpHostList, userName, password,
+                ioThreadCount, maxConnectionsPerRoute, maxConnectionsTotal, sslEnabled, trustStoreType,
+                trustStorePath, trustStorePass, sniffInterval, sniffAfterFailureDelay,
+                NODE_SELECTION_LOAD_AWARE.equals(nodeSelection));
+        try {
+            restHighLevelClient = ElasticsearchClientRegistry.acquire(clientConfig, tableDefinition.getId());
+            if (writeIoThreadCount > 0) {
+                // bulk requests get IO threads and connections of their own, so that reads never queue behind them
+                writeClient = ElasticsearchClientRegistry.acquire(clientConfig.forLane(WRITE_LANE, writeIoThreadCount,
+                        writeMaxConnectionsPerRoute, writeMaxConnectionsTotal), tableDefinition.getId());
+            } else {
+                writeClient = restHighLevelClient;
+            }
+            if (readListOfHostnames != null) {
+                // reads go to a cluster of their own which replicates the primary cluster, and fall back to the
+                // primary cluster for documents written too recently to be replicated yet
+                readClient = ElasticsearchClientRegistry.acquire(new ElasticsearchClientConfig(
+                        parseHostList(readListOfHostnames), readUserName != null ? readUserName : userName,
+                        readPassword != null ? readPassword : password, ioThreadCount, maxConnectionsPerRoute,
+                        maxConnectionsTotal, sslEnabled, trustStoreType, trustStorePath, trustStorePass, sniffInterval,
+                        sniffAfterFailureDelay, NODE_SELECTION_LOAD_AWARE.equals(nodeSelection)),
+                        tableDefinition.getId());
+            } else {
+                readClient = restHighLevelClient;
+            }
+            if (hedgePercentile > 0) {
+                searchHedger = new ElasticsearchSearchHedger(readClient, hedgePercentile, hedgeBudget);
+            }
+            if (coalesceConcurrentReads) {
+                readSingleFlight = new ElasticsearchSingleFlight<>();
+                containsSingleFlight = new ElasticsearchSingleFlight<>();
+            }
+            if (circuitBreakerFailureThreshold > 0) {
+                circuitBreaker = new ElasticsearchCircuitBreaker(circuitBreakerFailureThreshold,
+                        circuitBreakerOpenDuration);
+            }
+            // the metrics are only recorded while the statistics of the app are enabled, which can be done at runtime
+            tableMetrics = new ElasticsearchTableMetrics(tableDefinition.getId(),
+                    () -> siddhiAppContext.getRootMetricsLevel() != Level.OFF);
+            searchBatcher = new ElasticsearchSearchBatcher(readClient, readBatchSize, readBatchMaxWaitTime,
+                    searchTimeout, allowPartialSearchResults, searchHedger, circuitBreaker, readLaneMetrics,
+                    tableMetrics);
+            getBatcher = new ElasticsearchGetBatcher(readClient, readBatchSize, readBatchMaxWaitTime,
+                    circuitBreaker, readLaneMetrics);
+            if (readClient != restHighLevelClient && readReplicationLagTolerance > 0 && primaryKeys != null &&
+                    !primaryKeys.isEmpty()) {
+                primaryGetBatcher = new ElasticsearchGetBatcher(restHighLevelClient, readBatchSize,
+                        readBatchMaxWaitTime, circuitBreaker, readLaneMetrics);
+                recentWrites = new ElasticsearchRecentWrites(readReplicationLagTolerance);
+            }
+            if (findCacheMaxSize > 0) {
+                findCache = new ElasticsearchFindCache(findCacheMaxSize, findCacheExpiryTime);
+            }
+            if (nearCacheMaxSize > 0 && primaryKeys != null && !primaryKeys.isEmpty()) {
+                if (searchIndexPattern != null) {
+                    logger.warn("The near cache is not used for table id: " + tableDefinition.getId() + " since " +
+                            "its records are looked up across the indices of " +
+                            ANNOTATION_ELEMENT_SEARCH_INDEX_PATTERN + ".");
+                } else {
+                    nearCache = new ElasticsearchNearCache(nearCacheMaxSize, nearCacheOffHeap);
+                }
+            }
+            if (readYourWrites) {
+                if (primaryKeys != null && !primaryKeys.isEmpty()) {
+                    // a pending write only becomes visible to reads once the read cluster replicated it
+                    pendingWrites = new ElasticsearchPendingWrites(readClient != restHighLevelClient ?
+                            pendingWriteVisibilityDelay + readReplicationLagTolerance : pendingWriteVisibilityDelay);
+                } else {
+                    logger.warn("Reads of table id: " + tableDefinition.getId() + " do not see its pending writes " +
+                            "since it has no primary keys to identify the written documents by.");
+                }
+            }
+            if (isBulkShardRouting) {
+                shardRouter = new ElasticsearchShardRouter(writeClient, httpHostList[0].getSchemeName(),
+                        shardRoutingRefreshInterval);
+            }
+            try {
+                bulkProcessor = new ElasticsearchTunableBulkProcessor(tableDefinition.getId(),
+                        (request, bulkListener) -> ElasticsearchNodeSelector.sendAs(
+                                ElasticsearchNodeSelector.RequestType.BULK, () -> {
+                                    ActionListener<BulkResponse> listener = trackBulk(bulkListener);
+                                    if (shardRouter != null) {
+                                        shardRouter.bulkAsync(request, listener);
+                                    } else {
+                                        writeClient.bulkAsync(request, RequestOptions.DEFAULT, listener);
+                                    }
+                                }),
+                        new BulkProcessorListener(findCache, nearCache, pendingWrites, recentWrites, tableMetrics),
+                        writeLaneMetrics, bulkActions, bulkSize, concurrentRequests, flushInterval,
+                        backoffPolicyRetryNo, backoffPolicyWaitTime, BULK_PROCESSOR_CLOSE_TIMEOUT);
+            } catch (IllegalArgumentException e) {
+                throw new SiddhiAppCreationException("Invalid bulk settings for table id: " + tableDefinition.getId() +
+                        ". " + e.getMessage(), e);
+            }
+            // the bulk settings can be tuned at runtime without redeploying the app and losing its buffered writes
+            bulkProcessorObjectName = registerMBean(bulkProcessor, "BulkProcessor");
+            boolean hasIndex = indexName != null && !indexName.isEmpty();
+            if (hasIndex || indexTemplatePattern != null) {
+                indexBootstrap = new ElasticsearchIndexBootstrap(restHighLevelClient, tableDefinition.getId(),
+                        indexTemplatePattern != null ? buildPutIndexTemplateRequest() : null,
+                        hasIndex && !isCoveredByIndexTemplate(indexName) ? buildCreateIndexRequest() : null);
+                indexBootstrap.start();
+            }
+            if (timeAttribute != null) {
+                if (getSearchIndexName() == null) {
+                    logger.warn("Searches of table id: " + tableDefinition.getId() + " are not limited to the " +
+                            "indices overlapping their time range since its index name is taken from the payload " +
+                            "and no " + ANNOTATION_ELEMENT_SEARCH_INDEX_PATTERN + " is given.");
+                } else {
+                    timeAttributeIndex = getAttributeIndex(timeAttribute);
+                    timeRangeIndexSelector = new ElasticsearchTimeRangeIndexSelector(searchBatcher,
+                            getSearchIndexName(), timeAttribute, timeRangeRefreshInterval);
+                }
+            }
+            if (bloomFilterExpectedInsertions > 0 && primaryKeys != null && !primaryKeys.isEmpty()) {
+                if (payloadIndexOfIndexName != -1 || searchIndexPattern != null) {
+                    logger.warn("The document id Bloom filter is not used for table id: " + tableDefinition.getId() +
+                            " since its records are not all written to one index.");
+                } else {
+                    bloomFilter = new ElasticsearchBloomFilter(bloomFilterExpectedInsertions,
+                            bloomFilterFalsePositiveProbability);
+                    Thread seedThread = new Thread(this::seedBloomFilter,
+                            "elasticsearch-bloom-filter-seed-" + tableDefinition.getId());
+                    seedThread.setDaemon(true);
+                    seedThread.start();
+                }
+            }
+            registerMetricGauges();
+            tableMetricsObjectName = registerMBean(tableMetrics, "Metrics");
+        } catch (RuntimeException e) {
+            // the table is not destroyed when its initialization fails, so the shared clients it acquired are
+            // released here to not leak their reference counts
+            closeBulkProcessor();
+            releaseClients();
+            throw e;
+        }
+    }
+
+    /**
+     * Registers the state of the parts of the table which are in use as gauges of its metrics.
+     */
+    private void registerMetricGauges() {
+        tableMetrics.counter("AddedBulkActionCount", "The number of actions added to the bulk processor.",
+                bulkProcessor::getAddedActionCount);
+        tableMetrics.counter("PendingBulkActionCount", "The number of added actions which did not complete yet.",
+                () -> Math.max(0, bulkProcessor.getAddedActionCount() -
+                        tableMetrics.getCompletedBulkActionCount()));
+        tableMetrics.counter("ReadLaneRequestCount", "The number of requests sent on the read lane.",
+                readLaneMetrics::getRequestCount);
+        tableMetrics.gauge("ReadLaneLatency99thPercentileMillis", "The 99th percentile of the latency of the " +
+                "recent requests on the read lane.", () -> readLaneMetrics.getLatencyPercentileMillis(99));
+        tableMetrics.counter("WriteLaneRequestCount", "The number of requests sent on the write lane.",
+                writeLaneMetrics::getRequestCount);
+        tableMetrics.gauge("WriteLaneLatency99thPercentileMillis", "The 99th percentile of the latency of the " +
+                "recent requests on the write lane.", () -> writeLaneMetrics.getLatencyPercentileMillis(99));
+        if (findCache != null) {
+            ElasticsearchFindCache cache = findCache;
+            tableMetrics.gauge("FindCacheHitRatio", "The ratio of lookups the find cache answered.",
+                    () -> hitRatio(cache.getHitCount(), cache.getMissCount()));
+            tableMetrics.counter("FindCacheEvictionCount", "The number of entries evicted from the find cache.",
+                    cache::getEvictionCount);
+            tableMetrics.counter("FindCacheExpiryCount", "The number of entries of the find cache which expired.",
+                    cache::getExpiryCount);
+            tableMetrics.counter("FindCacheSize", "The number of entries in the find cache.", cache::size);
+        }
+        if (nearCache != null) {
+            ElasticsearchNearCache cache = nearCache;
+            tableMetrics.gauge("NearCacheHitRatio", "The ratio of lookups the near cache answered.",
+                    () -> hitRatio(cache.getHitCount(), cache.getMissCount()));
+            tableMetrics.counter("NearCacheEvictionCount", "The number of entries evicted from the near cache.",
+                    cache::getEvictionCount);
+            tableMetrics.counter("NearCacheSize", "The number of entries in the near cache.", cache::size);
+        }
+        if (bloomFilter != null) {
+            tableMetrics.counter("BloomFilterNegativeCount", "The number of lookups the Bloom filter answered " +
+                    "without asking the cluster.", bloomFilter::getNegativeCount);
+        }
+        if (pendingWrites != null) {
+            tableMetrics.counter("PendingWriteCount", "The number of writes not yet visible to searches.",
+                    pendingWrites::size);
+        }
+        if (recentWrites != null) {
+            tableMetrics.counter("RecentWriteCount", "The number of writes which may not be replicated to the " +
+                    "read cluster yet.", recentWrites::size);
+            tableMetrics.counter("PrimaryLookupCount", "The number of lookups sent to the primary cluster.",
+                    primaryLookupCount::sum);
+        }
+        if (readSingleFlight != null) {
+            tableMetrics.counter("CoalescedReadCount", "The number of reads answered by an identical read.",
+                    () -> readSingleFlight.getCoalescedCount() + containsSingleFlight.getCoalescedCount());
+        }
+        if (shardRouter != null) {
+            tableMetrics.counter("RoutedBulkActionCount", "The number of actions routed to their shard.",
+                    shardRouter::getRoutedCount);
+            tableMetrics.counter("UnroutedBulkActionCount", "The number of actions which could not be routed.",
+                    shardRouter::getUnroutedCount);
+        }
+        if (searchHedger != null) {
+            tableMetrics.counter("HedgeCount", "The number of hedged searches.", searchHedger::getHedgeCount);
+            tableMetrics.counter("HedgeWinCount", "The number of searches answered by their hedge.",
+                    searchHedger::getHedgeWinCount);
+            tableMetrics.counter("HedgeSavedTimeMillis", "The time by which winning hedges beat the searches " +
+                    "they were sent for, in milliseconds.", searchHedger::getSavedTimeMillis);
+            tableMetrics.counter("HedgeBudgetExhaustedCount", "The number of hedges not sent for lack of hedge " +
+                    "budget.", searchHedger::getBudgetExhaustedCount);
+        }
+        if (circuitBreaker != null) {
+            tableMetrics.state("CircuitBreakerState", "The state of the circuit breaker.",
+                    () -> circuitBreaker.getState().name());
+            tableMetrics.counter("CircuitBreakerRejectedCount", "The number of operations the circuit breaker " +
+                    "failed fast.", circuitBreaker::getRejectedCount);
+        }
+    }
+
+    private static double hitRatio(long hitCount, long missCount) {
+        long lookupCount = hitCount + missCount;
+        return lookupCount == 0 ? 0 : hitCount / (double) lookupCount;
+    }
+
+    /**
+     * Wraps the listener of a bulk request to record its latency on the write lane and to report its outcome to the
+     * circuit breaker.
+     */
+    private ActionListener<BulkResponse> trackBulk(ActionListener<BulkResponse> bulkListener) {
+        long startNanos = System.nanoTime();
+        return new ActionListener<BulkResponse>() {
+            @Override
+            public void onResponse(BulkResponse response) {
+                writeLaneMetrics.record(startNanos, false);
+                if (circuitBreaker != null) {
+                    circuitBreaker.onSuccess();
+                }
+                bulkListener.onResponse(response);
+            }
+
+            @Override
+            public void onFailure(Exception e) {
+                writeLaneMetrics.record(startNanos, true);
+                if (circuitBreaker != null) {
+                    circuitBreaker.onFailure(e);
+                }
+                bulkListener.onFailure(e);
+            }
+        };
+    }
+
+    /**
+     * Fails the operation fast while the circuit breaker is open, so that Siddhi reconnects, which probes the
+     * cluster, instead of the operation waiting on the sockets of an unavailable cluster.
+     */
+    private void checkAvailable(String operation) throws ConnectionUnavailableException {
+        checkCircuitBreaker(operation);
+        awaitIndexReady();
+    }
+
+    private void checkCircuitBreaker(String operation) throws ConnectionUnavailableException {
+        if (circuitBreaker != null && circuitBreaker.isOpen()) {
+            throw new ConnectionUnavailableException("The " + operation + " operation of table id: " +
+                    tableDefinition.getId() + " failed fast since its circuit breaker is open after " +
+                    circuitBreakerFailureThreshold + " consecutive failed requests.");
+        }
+    }
+
+    /**
+     * Seeds the document id Bloom filter, either from the file it was saved to at the last shutdown or by scanning
+     * the ids of the index. Ids written meanwhile are added to the filter directly, and the filter answers
+     * lookups only once seeding completes.
+     */
+    private void seedBloomFilter() {
+        if (bloomFilterPersistencePath != null) {
+            Path path = Paths.get(bloomFilterPersistencePath);
+            if (Files.exists(path)) {
+                try (DataInputStream inputStream = new DataInputStream(new BufferedInputStream(
+                        Files.newInputStream(path)))) {
+                    ElasticsearchBloomFilter persistedBloomFilter = ElasticsearchBloomFilter.readFrom(inputStream);
+                    if (bloomFilter.merge(persistedBloomFilter)) {
+                        bloomFilter.markReady();
+                        logger.debug("Restored the document id Bloom filter of table id: " +
+                                tableDefinition.getId() + " from " + path);
+                    } else {
+                        logger.warn("The document id Bloom filter saved at " + path + " does not match the " +
+                                "configured size, and is rebuilt for table id: " + tableDefinition.getId());
                     }
-                    return httpClientBuilder.setDefaultCredentialsProvider(credentialsProvider);
-                }));
-        BulkProcessor.Builder bulkProcessorBuilder = BulkProcessor.builder(
-                (request, bulkListener) ->
-                        restHighLevelClient.bulkAsync(request, RequestOptions.DEFAULT, bulkListener),
-                new BulkProcessorListener());
-        bulkProcessorBuilder.setBulkActions(bulkActions);
-        bulkProcessorBuilder.setBulkSize(new ByteSizeValue(bulkSize, ByteSizeUnit.MB));
-        bulkProcessorBuilder.setConcurrentRequests(concurrentRequests);
-        bulkProcessorBuilder.setFlushInterval(TimeValue.timeValueSeconds(flushInterval));
-        bulkProcessorBuilder.setBackoffPolicy(BackoffPolicy.constantBackoff(
-                TimeValue.timeValueSeconds(backoffPolicyWaitTime), backoffPolicyRetryNo));
-        bulkProcessor = bulkProcessorBuilder.build();
-        if (indexName != null && !indexName.isEmpty()) {
-            createIndex();
+                } catch (IOException e) {
+                    logger.warn("Error while restoring the document id Bloom filter of table id: " +
+                            tableDefinition.getId() + " from " + path + ", it is rebuilt from the index.", e);
+                }
+                try {
+                    Files.delete(path);
+                } catch (IOException e) {
+                    logger.warn("Error while removing the restored document id Bloom filter at " + path, e);
+                }
+                if (bloomFilter.isReady()) {
+                    return;
+                }
+            }
+        }
+        try {
+            // the index of a new table is created concurrently, so it is only scanned once its bootstrap completed
+            awaitIndexReady();
+            new ElasticsearchDocumentIdScanner(restHighLevelClient, indexName, numberOfShards)
+                    .scan(bloomFilter::put);
+            bloomFilter.markReady();
+            logger.debug("Seeded the document id Bloom filter of table id: " + tableDefinition.getId());
+        } catch (IOException | ConnectionUnavailableException | RuntimeException e) {
+            logger.error("Error while seeding the document id Bloom filter of table id: " +
+                    tableDefinition.getId() + ", existence checks are sent to the cluster.", e);
+        }
+    }
+
+    private void persistBloomFilter() {
+        if (bloomFilter == null || !bloomFilter.isReady() || bloomFilterPersistencePath == null) {
+            return;
+        }
+        Path path = Paths.get(bloomFilterPersistencePath);
+        try (DataOutputStream outputStream = new DataOutputStream(new BufferedOutputStream(
+                Files.newOutputStream(path)))) {
+            bloomFilter.writeTo(outputStream);
+        } catch (IOException e) {
+            logger.error("Error while saving the document id Bloom filter of table id: " +
+                    tableDefinition.getId() + " to " + path, e);
         }
     }
 
     static class BulkProcessorListener implements BulkProcessor.Listener {
+        private ElasticsearchFindCache findCache;
+        private ElasticsearchNearCache nearCache;
+        private ElasticsearchPendingWrites pendingWrites;
+        private ElasticsearchRecentWrites recentWrites;
+        private ElasticsearchTableMetrics tableMetrics;
+
+        BulkProcessorListener(ElasticsearchFindCache findCache, ElasticsearchNearCache nearCache,
+                              ElasticsearchPendingWrites pendingWrites, ElasticsearchRecentWrites recentWrites,
+                              ElasticsearchTableMetrics tableMetrics) {
+            this.findCache = findCache;
+            this.nearCache = nearCache;
+            this.pendingWrites = pendingWrites;
+            this.recentWrites = recentWrites;
+            this.tableMetrics = tableMetrics;
+        }
+
         @Override
         public void beforeBulk(long executionId, BulkRequest request) {
             int numberOfActions = request.numberOfActions();
@@ -580,6 +1586,24 @@ public class ElasticsearchEventTable extends AbstractRecordTable {
 
         @Override
         public void afterBulk(long executionId, BulkRequest request, BulkResponse response) {
+            invalidateFindCache(request);
+            if (tableMetrics != null) {
+                tableMetrics.recordBulk(request, response);
+            }
+            if (pendingWrites != null) {
+                pendingWrites.onBulkCompleted(request, response);
+            }
+            if (recentWrites != null) {
+                recentWrites.onBulkCompleted(request);
+            }
+            if (nearCache != null && response.hasFailures()) {
+                // documents cached when they were written were not stored by the cluster
+                for (BulkItemResponse itemResponse : response.getItems()) {
+                    if (itemResponse.isFailed()) {
+                        nearCache.remove(itemResponse.getIndex(), itemResponse.getId());
+                    }
+                }
+            }
             if (response.hasFailures()) {
                 logger.warn("Bulk [{}] executed with failures for executionId: " + executionId);
             } else {
@@ -590,8 +1614,32 @@ public class ElasticsearchEventTable extends AbstractRecordTable {
 
         @Override
         public void afterBulk(long executionId, BulkRequest request, Throwable failure) {
+            invalidateFindCache(request);
+            if (tableMetrics != null) {
+                tableMetrics.recordBulkFailure(request);
+            }
+            if (pendingWrites != null) {
+                pendingWrites.onBulkFailed(request);
+            }
+            if (recentWrites != null) {
+                recentWrites.onBulkCompleted(request);
+            }
+            if (nearCache != null) {
+                for (DocWriteRequest<?> docWriteRequest : request.requests()) {
+                    nearCache.remove(docWriteRequest.index(), docWriteRequest.id());
+                }
+            }
             logger.error("Failed to execute bulk", failure);
         }
+
+        private void invalidateFindCache(BulkRequest request) {
+            if (findCache != null) {
+                // the documents only became visible to searches now, so results cached meanwhile are stale
+                for (DocWriteRequest<?> docWriteRequest : request.requests()) {
+                    findCache.invalidate(docWriteRequest.index(), docWriteRequest.id());
+                }
+            }
+        }
     }
 
     /**
@@ -602,11 +1650,14 @@ public class ElasticsearchEventTable extends AbstractRecordTable {
      */
     @Override
     protected void add(List<Object[]> records) throws ConnectionUnavailableException {
+        checkAvailable("add");
         for (Object[] record : records) {
             if (payloadIndexOfIndexName != -1 &&
                     (indexName == null || !indexName.equalsIgnoreCase((String) record[payloadIndexOfIndexName]))) {
                 indexName = (String) record[payloadIndexOfIndexName];
-                createIndex();
+                if (!isCoveredByIndexTemplate(indexName)) {
+                    createIndex();
+                }
             }
             IndexRequest indexRequest = new IndexRequest(indexName);
             if (primaryKeys != null && !primaryKeys.isEmpty()) {
@@ -614,14 +1665,14 @@ public class ElasticsearchEventTable extends AbstractRecordTable {
                         primaryKeys);
                 indexRequest.id(docId);
             }
+            invalidateFindCache(indexRequest.id());
+            writeThroughNearCache(indexRequest.id(), record);
+            addToBloomFilter(indexRequest.id());
+            recordTimeRange(record);
+            addToPendingWrites(indexRequest.id(), record, indexRequest);
+            addToRecentWrites(indexRequest.id(), indexRequest);
             try {
-                XContentBuilder builder = XContentFactory.jsonBuilder();
-                builder.startObject();
-                for (int i = 0; i < record.length; i++) {
-                    builder.field(attributes.get(i).getName(), record[i]);
-                }
-                builder.endObject();
-                indexRequest.source(builder);
+                indexRequest.source(ElasticsearchTableUtils.buildSource(attributes, record));
                 bulkProcessor.add(indexRequest);
             } catch (IOException e) {
                 throw new ElasticsearchEventTableException("Error while generating content mapping for records : '" +
@@ -641,6 +1692,8 @@ public class ElasticsearchEventTable extends AbstractRecordTable {
     @Override
     protected RecordIterator<Object[]> find(Map<String, Object> findConditionParameterMap,
                                             CompiledCondition compiledCondition) throws ConnectionUnavailableException {
+        checkAvailable("find");
+        tableMetrics.recordFind();
         try {
             return findRecords(findConditionParameterMap, compiledCondition);
         } catch (ElasticsearchServiceException e) {
@@ -649,11 +1702,278 @@ public class ElasticsearchEventTable extends AbstractRecordTable {
         }
     }
 
-    private ElasticsearchRecordIterator findRecords(Map<String, Object> findConditionParameterMap, CompiledCondition
-            compiledCondition) throws ElasticsearchServiceException {
-        String condition = ElasticsearchTableUtils.resolveCondition((ElasticsearchCompiledCondition) compiledCondition,
+    private RecordIterator<Object[]> findRecords(Map<String, Object> findConditionParameterMap,
+                                                 CompiledCondition compiledCondition)
+            throws ElasticsearchServiceException {
+        ElasticsearchCompiledCondition elasticsearchCompiledCondition =
+                (ElasticsearchCompiledCondition) compiledCondition;
+        String docId = resolveDocumentId(elasticsearchCompiledCondition, findConditionParameterMap);
+        if (docId != null) {
+            return findDocument(docId);
+        }
+        String searchIndexName = resolveSearchIndexName(elasticsearchCompiledCondition, findConditionParameterMap);
+        if (searchIndexName == null) {
+            return new ElasticsearchListRecordIterator(Collections.<Object[]>emptyList());
+        }
+        String condition = ElasticsearchTableUtils.resolveCondition(elasticsearchCompiledCondition,
                 findConditionParameterMap);
-        return new ElasticsearchRecordIterator(indexName, condition, restHighLevelClient, attributes);
+        RecordIterator<Object[]> recordIterator = searchRecords(searchIndexName, condition);
+        if (!hasPendingWrites(elasticsearchCompiledCondition)) {
+            return recordIterator;
+        }
+        return new ElasticsearchListRecordIterator(overlayPendingWrites(
+                ElasticsearchTableUtils.toRecordList(recordIterator), searchIndexName, elasticsearchCompiledCondition,
+                findConditionParameterMap));
+    }
+
+    private RecordIterator<Object[]> findDocument(String docId) throws ElasticsearchServiceException {
+        ElasticsearchPendingWrites.PendingWrite pendingWrite = pendingWrites != null ?
+                pendingWrites.get(indexName, docId) : null;
+        if (pendingWrite != null) {
+            return new ElasticsearchListRecordIterator(pendingWrite.isDelete() ?
+                    Collections.<Object[]>emptyList() : Collections.singletonList(pendingWrite.getRecord()));
+        }
+        if (bloomFilter != null && bloomFilter.isDefinitelyAbsent(docId)) {
+            return new ElasticsearchListRecordIterator(Collections.<Object[]>emptyList());
+        }
+        if (nearCache != null) {
+            Object[] cachedRecord = nearCache.get(indexName, docId);
+            if (cachedRecord != null) {
+                return new ElasticsearchListRecordIterator(Collections.singletonList(cachedRecord));
+            }
+        }
+        if (findCache == null && nearCache == null && readSingleFlight == null) {
+            return new ElasticsearchGetRecordIterator(indexName, docId, getBatcherFor(docId), sourceDecoder);
+        }
+        long nearCacheGeneration = nearCache != null ? nearCache.getWriteGeneration() : 0;
+        List<Object[]> records = findCache != null ? findCache.getDocument(indexName, docId) : null;
+        if (records == null) {
+            long generation = findCache != null ? findCache.getWriteGeneration() : 0;
+            String documentIndexName = indexName;
+            records = loadRecords(DOCUMENT_READ_KEY_PREFIX + documentIndexName + "/" + docId, () ->
+                    ElasticsearchTableUtils.toRecordList(new ElasticsearchGetRecordIterator(documentIndexName,
+                            docId, getBatcherFor(docId), sourceDecoder)));
+            if (findCache != null) {
+                findCache.putDocument(indexName, docId, records, generation);
+            }
+        }
+        if (nearCache != null && !records.isEmpty()) {
+            nearCache.putIfUnchanged(indexName, docId, records.get(0), nearCacheGeneration);
+        }
+        return new ElasticsearchListRecordIterator(records);
+    }
+
+    private RecordIterator<Object[]> searchRecords(String searchIndexName, String condition)
+            throws ElasticsearchServiceException {
+        if (findCache == null && readSingleFlight == null) {
+            return searchTimeRangeIndices(() ->
+                    new ElasticsearchRecordIterator(searchIndexName, condition, searchBatcher, sourceDecoder));
+        }
+        List<Object[]> records = findCache != null ? findCache.getQuery(getSearchIndexName(), condition) : null;
+        if (records == null) {
+            long generation = findCache != null ? findCache.getWriteGeneration() : 0;
+            records = loadRecords(SEARCH_READ_KEY_PREFIX + searchIndexName + "/" + condition, () ->
+                    ElasticsearchTableUtils.toRecordList(searchTimeRangeIndices(() ->
+                            new ElasticsearchRecordIterator(searchIndexName, condition, searchBatcher,
+                                    sourceDecoder))));
+            if (findCache != null) {
+                findCache.putQuery(getSearchIndexName(), condition, records, generation);
+            }
+        }
+        return new ElasticsearchListRecordIterator(records);
+    }
+
+    /**
+     * Loads the records of a read, sharing a load of the same read which is already in flight.
+     */
+    private List<Object[]> loadRecords(String readKey, ElasticsearchSingleFlight.Loader<List<Object[]>> loader)
+            throws ElasticsearchServiceException {
+        return readSingleFlight != null ? readSingleFlight.execute(readKey, loader) : loader.load();
+    }
+
+    private String getSearchIndexName() {
+        return searchIndexPattern != null ? searchIndexPattern : indexName;
+    }
+
+    /**
+     * Resolves the indices a search for the condition has to target. When the condition bounds the time attribute
+     * of the table, only the indices holding records within the bounds are targeted.
+     *
+     * @return comma separated names of the indices to search, or null if no index can hold a matching record.
+     */
+    private String resolveSearchIndexName(ElasticsearchCompiledCondition compiledCondition,
+                                          Map<String, Object> conditionParameterMap)
+            throws ElasticsearchServiceException {
+        if (timeRangeIndexSelector == null || compiledCondition.getTimeRangeBounds().isEmpty()) {
+            return getSearchIndexName();
+        }
+        long lowerBound = Long.MIN_VALUE;
+        long upperBound = Long.MAX_VALUE;
+        for (ElasticsearchRangeBound rangeBound : compiledCondition.getTimeRangeBounds()) {
+            Object value = rangeBound.resolveValue(conditionParameterMap);
+            if (!(value instanceof Number)) {
+                continue;
+            }
+            long time = ((Number) value).longValue();
+            switch (rangeBound.getOperator()) {
+                case GREATER_THAN:
+                case GREATER_THAN_EQUAL:
+                    lowerBound = Math.max(lowerBound, time);
+                    break;
+                case LESS_THAN:
+                case LESS_THAN_EQUAL:
+                    upperBound = Math.min(upperBound, time);
+                    break;
+                case EQUAL:
+                    lowerBound = Math.max(lowerBound, time);
+                    upperBound = Math.min(upperBound, time);
+                    break;
+                default:
+            }
+        }
+        if (lowerBound == Long.MIN_VALUE && upperBound == Long.MAX_VALUE) {
+            return getSearchIndexName();
+        }
+        try {
+            List<String> indices = timeRangeIndexSelector.selectIndices(lowerBound, upperBound);
+            return indices.isEmpty() ? null : String.join(",", indices);
+        } catch (IOException | RuntimeException e) {
+            throw new ElasticsearchServiceException("Error while resolving the indices of '" + getSearchIndexName() +
+                    "' holding records between " + lowerBound + " and " + upperBound, e);
+        }
+    }
+
+    /**
+     * Runs a search which may target indices selected by their cached time range, and discards the cached ranges
+     * if the search fails, as one of the indices may no longer exist.
+     */
+    private <T> T searchTimeRangeIndices(ElasticsearchSearch<T> search) throws ElasticsearchServiceException {
+        try {
+            return search.execute();
+        } catch (ElasticsearchServiceException | RuntimeException e) {
+            if (timeRangeIndexSelector != null) {
+                timeRangeIndexSelector.invalidate();
+            }
+            throw e;
+        }
+    }
+
+    private void recordTimeRange(Object[] record) {
+        if (timeRangeIndexSelector != null) {
+            Object time = record[timeAttributeIndex];
+            if (time instanceof Number) {
+                timeRangeIndexSelector.recordWrite(indexName, ((Number) time).longValue());
+            }
+        }
+    }
+
+    private void invalidateFindCache(String docId) {
+        if (findCache != null) {
+            findCache.invalidate(indexName, docId);
+        }
+        if (readSingleFlight != null) {
+            readSingleFlight.onWrite();
+            containsSingleFlight.onWrite();
+        }
+    }
+
+    private void writeThroughNearCache(String docId, Object[] record) {
+        if (nearCache != null) {
+            if (docId == null) {
+                nearCache.clear();
+            } else if (record == null) {
+                nearCache.remove(indexName, docId);
+            } else {
+                nearCache.put(indexName, docId, record);
+            }
+        }
+    }
+
+    private void addToPendingWrites(String docId, Object[] record, DocWriteRequest<?> request) {
+        if (pendingWrites != null && docId != null) {
+            pendingWrites.put(indexName, docId, record, request);
+        }
+    }
+
+    private void addToRecentWrites(String docId, DocWriteRequest<?> request) {
+        if (recentWrites != null && docId != null) {
+            recentWrites.put(indexName, docId, request);
+        }
+    }
+
+    /**
+     * Returns the batcher a document is looked up with, which sends the lookup to the primary cluster if the
+     * document was written too recently for the read cluster to have replicated it.
+     */
+    private ElasticsearchGetBatcher getBatcherFor(String docId) {
+        if (recentWrites != null && recentWrites.contains(indexName, docId)) {
+            primaryLookupCount.increment();
+            return primaryGetBatcher;
+        }
+        return getBatcher;
+    }
+
+    private boolean hasPendingWrites(ElasticsearchCompiledCondition compiledCondition) {
+        return pendingWrites != null && compiledCondition.getRecordPredicate() != null && !pendingWrites.isEmpty();
+    }
+
+    /**
+     * Merges the pending writes of the searched indices over the records a search returned. Records of documents
+     * with a pending write are replaced by the written record if it still matches the condition, and dropped
+     * otherwise.
+     */
+    private List<Object[]> overlayPendingWrites(List<Object[]> records, String searchIndexName,
+                                                ElasticsearchCompiledCondition compiledCondition,
+                                                Map<String, Object> conditionParameterMap) {
+        String[] searchIndexPatterns = searchIndexName.split(",");
+        Map<String, ElasticsearchPendingWrites.PendingWrite> searchedWrites = new HashMap<>();
+        for (ElasticsearchPendingWrites.PendingWrite pendingWrite : pendingWrites.getPendingWrites()) {
+            if (Regex.simpleMatch(searchIndexPatterns, pendingWrite.getIndexName())) {
+                searchedWrites.put(pendingWrite.getDocId(), pendingWrite);
+            }
+        }
+        if (searchedWrites.isEmpty()) {
+            return records;
+        }
+        List<Object[]> mergedRecords = new ArrayList<>(records.size() + searchedWrites.size());
+        for (Object[] record : records) {
+            if (!searchedWrites.containsKey(ElasticsearchTableUtils.generateRecordIdFromPrimaryKeyValues(attributes,
+                    record, primaryKeys))) {
+                mergedRecords.add(record);
+            }
+        }
+        for (ElasticsearchPendingWrites.PendingWrite pendingWrite : searchedWrites.values()) {
+            Object[] record = pendingWrite.getRecord();
+            if (record != null && compiledCondition.getRecordPredicate().test(record, conditionParameterMap)) {
+                mergedRecords.add(record);
+            }
+        }
+        return mergedRecords;
+    }
+
+    private void addToBloomFilter(String docId) {
+        if (bloomFilter != null && docId != null) {
+            bloomFilter.put(docId);
+        }
+    }
+
+    /**
+     * Resolves the id of the only document which can match the condition, if the condition is an equality on
+     * every primary key attribute. Documents are only looked up by id in the index the table writes to, so none is
+     * resolved when the table searches an index pattern, whose other indices may hold the document.
+     */
+    private String resolveDocumentId(ElasticsearchCompiledCondition compiledCondition,
+                                     Map<String, Object> conditionParameterMap) {
+        if (searchIndexPattern != null || !compiledCondition.isPrimaryKeyLookup()) {
+            return null;
+        }
+        Map<String, Object> primaryKeyValues = ElasticsearchTableUtils.resolvePrimaryKeyValues(compiledCondition,
+                conditionParameterMap);
+        if (primaryKeyValues == null) {
+            return null;
+        }
+        return ElasticsearchTableUtils.generateRecordIdFromPrimaryKeyValues(attributes, primaryKeyValues,
+                primaryKeys);
     }
 
     /**
@@ -668,10 +1988,57 @@ public class ElasticsearchEventTable extends AbstractRecordTable {
     @Override
     protected boolean contains(Map<String, Object> containsConditionParameterMap,
                                CompiledCondition compiledCondition) throws ConnectionUnavailableException {
+        checkAvailable("contains");
+        tableMetrics.recordContains();
+        ElasticsearchCompiledCondition elasticsearchCompiledCondition =
+                (ElasticsearchCompiledCondition) compiledCondition;
+        String docId = resolveDocumentId(elasticsearchCompiledCondition, containsConditionParameterMap);
         try {
-            ElasticsearchRecordIterator elasticsearchRecordIterator = findRecords(containsConditionParameterMap,
-                    compiledCondition);
-            return elasticsearchRecordIterator.hasNext();
+            ElasticsearchPendingWrites.PendingWrite pendingWrite = pendingWrites != null && docId != null ?
+                    pendingWrites.get(indexName, docId) : null;
+            if (pendingWrite != null) {
+                return !pendingWrite.isDelete();
+            }
+            if (bloomFilter != null && docId != null && bloomFilter.isDefinitelyAbsent(docId)) {
+                return false;
+            }
+            if (nearCache != null && docId != null && nearCache.get(indexName, docId) != null) {
+                return true;
+            }
+            if (findCache != null) {
+                List<Object[]> cachedRecords = docId != null ? findCache.getDocument(indexName, docId) :
+                        findCache.getQuery(getSearchIndexName(), ElasticsearchTableUtils.resolveCondition(
+                                elasticsearchCompiledCondition, containsConditionParameterMap));
+                if (cachedRecords != null && docId == null && hasPendingWrites(elasticsearchCompiledCondition)) {
+                    cachedRecords = overlayPendingWrites(cachedRecords, getSearchIndexName(),
+                            elasticsearchCompiledCondition, containsConditionParameterMap);
+                }
+                if (cachedRecords != null) {
+                    return !cachedRecords.isEmpty();
+                }
+            }
+            if (docId != null) {
+                GetRequest getRequest = new GetRequest(indexName, docId);
+                getRequest.fetchSourceContext(FetchSourceContext.DO_NOT_FETCH_SOURCE);
+                ElasticsearchGetBatcher documentGetBatcher = getBatcherFor(docId);
+                if (containsSingleFlight == null) {
+                    return documentGetBatcher.execute(getRequest).isExists();
+                }
+                String existsDocId = docId;
+                return containsSingleFlight.execute(indexName + "/" + docId, () -> {
+                    try {
+                        return documentGetBatcher.execute(getRequest).isExists();
+                    } catch (IOException e) {
+                        throw new ElasticsearchServiceException("Error while checking the document id: '" +
+                                existsDocId + "'", e);
+                    }
+                });
+            }
+            RecordIterator<Object[]> recordIterator = findRecords(containsConditionParameterMap, compiledCondition);
+            return recordIterator.hasNext();
+        } catch (IOException e) {
+            throw new ElasticsearchEventTableException("Error while checking document id: '" + docId +
+                    "' in table id: " + tableDefinition.getId(), e);
         } catch (ElasticsearchServiceException e) {
             throw new ElasticsearchEventTableException("Error while checking content mapping for '" +
                     "' table id: " + tableDefinition.getId(), e);
@@ -690,6 +2057,7 @@ public class ElasticsearchEventTable extends AbstractRecordTable {
     @Override
     protected void delete(List<Map<String, Object>> deleteConditionParameterMaps, CompiledCondition compiledCondition)
             throws ConnectionUnavailableException {
+        checkAvailable("delete");
         String docId = null;
         try {
             for (Map<String, Object> record : deleteConditionParameterMaps) {
@@ -698,6 +2066,10 @@ public class ElasticsearchEventTable extends AbstractRecordTable {
                             primaryKeys);
                 }
                 DeleteRequest deleteRequest = new DeleteRequest(indexName, docId != null ? docId : "1");
+                invalidateFindCache(docId);
+                writeThroughNearCache(docId, null);
+                addToPendingWrites(docId, null, deleteRequest);
+                addToRecentWrites(docId, deleteRequest);
                 bulkProcessor.add(deleteRequest);
             }
         } catch (Throwable throwable) {
@@ -721,6 +2093,7 @@ public class ElasticsearchEventTable extends AbstractRecordTable {
     protected void update(CompiledCondition compiledCondition, List<Map<String, Object>> list,
                           Map<String, CompiledExpression> map, List<Map<String, Object>> list1)
             throws ConnectionUnavailableException {
+        checkAvailable("update");
         String docId = null;
         try {
             for (Map<String, Object> record : list1) {
@@ -728,14 +2101,18 @@ public class ElasticsearchEventTable extends AbstractRecordTable {
                     docId = ElasticsearchTableUtils.generateRecordIdFromPrimaryKeyValues(attributes, record,
                             primaryKeys);
                 }
-                XContentBuilder builder = XContentFactory.jsonBuilder();
-                builder.startObject();
+                Object[] updatedRecord = new Object[attributes.size()];
                 for (int i = 0; i < attributes.size(); i++) {
-                    builder.field(attributes.get(i).getName(), record.get(attributes.get(i).getName()));
+                    updatedRecord[i] = record.get(attributes.get(i).getName());
                 }
-                builder.endObject();
                 UpdateRequest updateRequest = new UpdateRequest(indexName, docId != null ? docId : "1").
-                        doc(builder);
+                        doc(ElasticsearchTableUtils.buildSource(attributes, updatedRecord));
+                invalidateFindCache(docId);
+                writeThroughNearCache(docId, updatedRecord);
+                addToBloomFilter(docId);
+                recordTimeRange(updatedRecord);
+                addToPendingWrites(docId, updatedRecord, updateRequest);
+                addToRecentWrites(docId, updateRequest);
                 bulkProcessor.add(updateRequest);
             }
         } catch (Throwable throwable) {
@@ -760,6 +2137,7 @@ public class ElasticsearchEventTable extends AbstractRecordTable {
     protected void updateOrAdd(CompiledCondition compiledCondition, List<Map<String, Object>> list,
                                Map<String, CompiledExpression> map, List<Map<String, Object>> list1,
                                List<Object[]> list2) throws ConnectionUnavailableException {
+        checkAvailable("update or add");
         try {
             for (Object[] record : list2) {
                 String docId = null;
@@ -767,14 +2145,14 @@ public class ElasticsearchEventTable extends AbstractRecordTable {
                     docId = ElasticsearchTableUtils.generateRecordIdFromPrimaryKeyValues(attributes, record,
                             primaryKeys);
                 }
-                XContentBuilder builder = XContentFactory.jsonBuilder();
-                builder.startObject();
-                for (int i = 0; i < attributes.size(); i++) {
-                    builder.field(attributes.get(i).getName(), record[i]);
-                }
-                builder.endObject();
                 UpdateRequest updateRequest = new UpdateRequest(indexName, docId != null ? docId : "1").
-                        doc(builder);
+                        doc(ElasticsearchTableUtils.buildSource(attributes, record));
+                invalidateFindCache(docId);
+                writeThroughNearCache(docId, record);
+                addToBloomFilter(docId);
+                recordTimeRange(record);
+                addToPendingWrites(docId, record, updateRequest);
+                addToRecentWrites(docId, updateRequest);
                 bulkProcessor.add(updateRequest);
             }
         } catch (Throwable throwable) {
@@ -791,9 +2169,34 @@ public class ElasticsearchEventTable extends AbstractRecordTable {
      */
     @Override
     protected CompiledCondition compileCondition(ExpressionBuilder expressionBuilder) {
-        ElasticsearchConditionVisitor visitor = new ElasticsearchConditionVisitor();
+        // comparing on the keyword sub field is opt-in, as indices not created by this version may lack it
+        ElasticsearchConditionVisitor visitor = keywordExactMatch ? new ElasticsearchConditionVisitor(indexMapping) :
+                new ElasticsearchConditionVisitor();
         expressionBuilder.build(visitor);
-        return new ElasticsearchCompiledCondition(visitor.returnCondition());
+        Map<String, String> equalityStreamVariables = visitor.returnEqualityStreamVariables();
+        Map<String, Object> equalityConstants = visitor.returnEqualityConstants();
+        ElasticsearchCompiledCondition compiledCondition = null;
+        if (primaryKeys != null && !primaryKeys.isEmpty() && equalityStreamVariables != null) {
+            Set<String> equalityAttributes = new HashSet<>(equalityStreamVariables.keySet());
+            equalityAttributes.addAll(equalityConstants.keySet());
+            if (equalityAttributes.equals(new HashSet<>(primaryKeys))) {
+                compiledCondition = new ElasticsearchCompiledCondition(visitor.returnCondition(),
+                        equalityStreamVariables, equalityConstants);
+            }
+        }
+        if (compiledCondition == null) {
+            compiledCondition = new ElasticsearchCompiledCondition(visitor.returnCondition());
+        }
+        Map<String, List<ElasticsearchRangeBound>> rangeBounds = visitor.returnRangeBounds();
+        if (timeAttribute != null && rangeBounds != null && rangeBounds.containsKey(timeAttribute)) {
+            compiledCondition.setTimeRangeBounds(rangeBounds.get(timeAttribute));
+        }
+        if (pendingWrites != null) {
+            ElasticsearchRecordPredicateVisitor predicateVisitor = new ElasticsearchRecordPredicateVisitor(attributes);
+            expressionBuilder.build(predicateVisitor);
+            compiledCondition.setRecordPredicate(predicateVisitor.returnPredicate());
+        }
+        return compiledCondition;
     }
 
     /**
@@ -810,16 +2213,278 @@ public class ElasticsearchEventTable extends AbstractRecordTable {
         return new ElasticsearchCompiledCondition(visitor.returnExpression());
     }
 
+    /**
+     * Compile the selection of a store query. Store attributes, stream attributes and constants are selected,
+     * order by store attributes are pushed down as sorts, and limit and offset as the size and from of the search.
+     * Selections using the sum, count, avg, min, max and distinctCount aggregates, or grouped by store attributes,
+     * are pushed down as Elasticsearch aggregations.
+     *
+     * @param selectAttributeBuilders  the builders of the select attributes
+     * @param groupByExpressionBuilder the builders of the group by attributes, null if not grouped
+     * @param havingExpressionBuilder  the builder of the having condition, null if not given
+     * @param orderByAttributeBuilders the builders of the order by attributes, null if not ordered
+     * @param limit                    the maximum number of records to return, null if not limited
+     * @param offset                   the number of records to skip, null if not given
+     * @return compiled selection that can be used in query
+     */
+    @Override
+    protected CompiledSelection compileSelection(List<SelectAttributeBuilder> selectAttributeBuilders,
+                                                 List<ExpressionBuilder> groupByExpressionBuilder,
+                                                 ExpressionBuilder havingExpressionBuilder,
+                                                 List<OrderByAttributeBuilder> orderByAttributeBuilders,
+                                                 Long limit, Long offset) {
+        if (havingExpressionBuilder != null) {
+            throw new ElasticsearchConditionVisitorException("'having' is not supported in store queries of " +
+                    "table id: " + tableDefinition.getId());
+        }
+        List<ElasticsearchSelectionVisitor> selectVisitors = new ArrayList<>(selectAttributeBuilders.size());
+        boolean isAggregation = groupByExpressionBuilder != null;
+        for (SelectAttributeBuilder selectAttributeBuilder : selectAttributeBuilders) {
+            ElasticsearchSelectionVisitor visitor = new ElasticsearchSelectionVisitor();
+            selectAttributeBuilder.getExpressionBuilder().build(visitor);
+            if (!visitor.isSupported()) {
+                throw new ElasticsearchConditionVisitorException("Select attribute '" +
+                        selectAttributeBuilder.getRename() + "' is not supported in store queries of table id: " +
+                        tableDefinition.getId() + ". Only attributes, constants and the sum, count, avg, min, " +
+                        "max and distinctCount aggregates of attributes can be selected.");
+            }
+            isAggregation = isAggregation || visitor.isAggregate();
+            selectVisitors.add(visitor);
+        }
+        List<String> groupByAttributeNames = new ArrayList<>();
+        if (groupByExpressionBuilder != null) {
+            for (ExpressionBuilder expressionBuilder : groupByExpressionBuilder) {
+                ElasticsearchSelectionVisitor visitor = new ElasticsearchSelectionVisitor();
+                expressionBuilder.build(visitor);
+                if (!visitor.isSupported() || visitor.getStoreVariable() == null || visitor.isAggregate()) {
+                    throw new ElasticsearchConditionVisitorException("Only store attributes can be used in " +
+                            "'group by' of store queries of table id: " + tableDefinition.getId());
+                }
+                groupByAttributeNames.add(visitor.getStoreVariable());
+            }
+        }
+        List<ElasticsearchCompiledSelection.SelectedAttribute> selectedAttributes = new ArrayList<>();
+        Set<String> fetchAttributeNames = new LinkedHashSet<>();
+        for (int i = 0; i < selectVisitors.size(); i++) {
+            ElasticsearchSelectionVisitor visitor = selectVisitors.get(i);
+            if (visitor.isAggregate()) {
+                selectedAttributes.add(ElasticsearchCompiledSelection.SelectedAttribute.ofAggregate(
+                        visitor.getAggregateFunction(), visitor.getStoreVariable() == null ? null :
+                                indexMapping.getExactMatchFieldName(visitor.getStoreVariable())));
+            } else if (visitor.getStoreVariable() != null && isAggregation) {
+                int groupByIndex = groupByAttributeNames.indexOf(visitor.getStoreVariable());
+                if (groupByIndex < 0) {
+                    throw new ElasticsearchConditionVisitorException("Select attribute '" +
+                            selectAttributeBuilders.get(i).getRename() + "' of an aggregated store query of " +
+                            "table id: " + tableDefinition.getId() + " must be aggregated or used in 'group by'.");
+                }
+                selectedAttributes.add(ElasticsearchCompiledSelection.SelectedAttribute.ofGroupByAttribute(
+                        groupByIndex));
+            } else if (visitor.getStoreVariable() != null) {
+                selectedAttributes.add(ElasticsearchCompiledSelection.SelectedAttribute.ofStoreAttribute(
+                        getAttributeIndex(visitor.getStoreVariable())));
+                fetchAttributeNames.add(visitor.getStoreVariable());
+            } else if (visitor.isConstant()) {
+                selectedAttributes.add(ElasticsearchCompiledSelection.SelectedAttribute.ofConstant(
+                        visitor.getConstant()));
+            } else {
+                selectedAttributes.add(ElasticsearchCompiledSelection.SelectedAttribute.ofStreamVariable(
+                        visitor.getStreamVariableId()));
+            }
+        }
+        List<ElasticsearchCompiledSelection.SortAttribute> sortAttributes = new ArrayList<>();
+        if (orderByAttributeBuilders != null) {
+            for (OrderByAttributeBuilder orderByAttributeBuilder : orderByAttributeBuilders) {
+                ElasticsearchSelectionVisitor visitor = new ElasticsearchSelectionVisitor();
+                orderByAttributeBuilder.getExpressionBuilder().build(visitor);
+                if (!visitor.isSupported() || visitor.getStoreVariable() == null || visitor.isAggregate()) {
+                    throw new ElasticsearchConditionVisitorException("Only attributes can be used in " +
+                            "'order by' of store queries of table id: " + tableDefinition.getId());
+                }
+                SortOrder sortOrder = orderByAttributeBuilder.getOrder() == OrderByAttribute.Order.DESC ?
+                        SortOrder.DESC : SortOrder.ASC;
+                int outputIndex = getOutputIndex(visitor.getStoreVariable(), selectAttributeBuilders,
+                        selectVisitors);
+                if (isAggregation) {
+                    if (outputIndex < 0) {
+                        throw new ElasticsearchConditionVisitorException("Order by attribute '" +
+                                visitor.getStoreVariable() + "' of an aggregated store query of table id: " +
+                                tableDefinition.getId() + " must be selected.");
+                    }
+                    sortAttributes.add(new ElasticsearchCompiledSelection.SortAttribute(outputIndex, sortOrder));
+                } else {
+                    String attributeName = visitor.getStoreVariable();
+                    if (outputIndex >= 0 && selectVisitors.get(outputIndex).getStoreVariable() != null) {
+                        attributeName = selectVisitors.get(outputIndex).getStoreVariable();
+                    }
+                    sortAttributes.add(new ElasticsearchCompiledSelection.SortAttribute(
+                            indexMapping.getExactMatchFieldName(attributeName), sortOrder));
+                }
+            }
+        }
+        if (isAggregation) {
+            List<String> groupByFieldNames = new ArrayList<>(groupByAttributeNames.size());
+            for (String groupByAttributeName : groupByAttributeNames) {
+                groupByFieldNames.add(indexMapping.getExactMatchFieldName(groupByAttributeName));
+            }
+            return new ElasticsearchCompiledSelection(selectedAttributes, new String[0], groupByFieldNames,
+                    sortAttributes, limit, offset);
+        }
+        return new ElasticsearchCompiledSelection(selectedAttributes,
+                fetchAttributeNames.toArray(new String[0]), sortAttributes, limit, offset);
+    }
+
+    /**
+     * Returns the position of the select attribute an order by attribute refers to, either by its rename or by
+     * the store attribute it selects, or -1 if it is not selected.
+     */
+    private static int getOutputIndex(String name, List<SelectAttributeBuilder> selectAttributeBuilders,
+                                      List<ElasticsearchSelectionVisitor> selectVisitors) {
+        for (int i = 0; i < selectAttributeBuilders.size(); i++) {
+            if (name.equals(selectAttributeBuilders.get(i).getRename())) {
+                return i;
+            }
+        }
+        for (int i = 0; i < selectVisitors.size(); i++) {
+            if (!selectVisitors.get(i).isAggregate() && name.equals(selectVisitors.get(i).getStoreVariable())) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Query the records matching the condition and return them as selected by the compiled selection.
+     *
+     * @param parameterMap        map of matching StreamVariable Ids and their values corresponding to the
+     *                            compiled condition and selection
+     * @param compiledCondition   the compiledCondition against which records should be matched
+     * @param compiledSelection   the compiledSelection which maps the matching records to the output
+     * @param outputAttributes    the output attributes of the selection
+     * @return RecordIterator of the selected records
+     * @throws ConnectionUnavailableException if end point is unavailable the ConnectionUnavailableException thrown
+     *                                        such that the  system will take care retrying for connection
+     */
+    @Override
+    protected RecordIterator<Object[]> query(Map<String, Object> parameterMap, CompiledCondition compiledCondition,
+                                             CompiledSelection compiledSelection, Attribute[] outputAttributes)
+            throws ConnectionUnavailableException {
+        checkAvailable("query");
+        tableMetrics.recordQuery();
+        ElasticsearchCompiledCondition elasticsearchCompiledCondition =
+                (ElasticsearchCompiledCondition) compiledCondition;
+        ElasticsearchCompiledSelection elasticsearchCompiledSelection =
+                (ElasticsearchCompiledSelection) compiledSelection;
+        try {
+            if (elasticsearchCompiledSelection.isAggregation()) {
+                String searchIndexName = resolveSearchIndexName(elasticsearchCompiledCondition, parameterMap);
+                String condition = ElasticsearchTableUtils.resolveCondition(elasticsearchCompiledCondition,
+                        parameterMap);
+                return searchTimeRangeIndices(() -> new ElasticsearchAggregationRecordIterator(searchIndexName,
+                        condition, elasticsearchCompiledSelection, searchBatcher, parameterMap, outputAttributes,
+                        aggregationPageSize));
+            }
+            RecordIterator<Object[]> recordIterator;
+            String docId = resolveDocumentId(elasticsearchCompiledCondition, parameterMap);
+            if (docId != null) {
+                Long offset = elasticsearchCompiledSelection.getOffset();
+                Long limit = elasticsearchCompiledSelection.getLimit();
+                if ((offset != null && offset > 0) || (limit != null && limit == 0)) {
+                    recordIterator = new ElasticsearchListRecordIterator(Collections.<Object[]>emptyList());
+                } else {
+                    recordIterator = findDocument(docId);
+                }
+            } else {
+                String searchIndexName = resolveSearchIndexName(elasticsearchCompiledCondition, parameterMap);
+                if (searchIndexName == null) {
+                    recordIterator = new ElasticsearchListRecordIterator(Collections.<Object[]>emptyList());
+                } else {
+                    String condition = ElasticsearchTableUtils.resolveCondition(elasticsearchCompiledCondition,
+                            parameterMap);
+                    SearchSourceBuilder searchSourceBuilder = new SearchSourceBuilder()
+                            .query(QueryBuilders.queryStringQuery(condition));
+                    elasticsearchCompiledSelection.applyTo(searchSourceBuilder);
+                    recordIterator = searchTimeRangeIndices(() -> new ElasticsearchRecordIterator(searchIndexName,
+                            searchSourceBuilder, searchBatcher, sourceDecoder));
+                }
+            }
+            return new ElasticsearchSelectionRecordIterator(recordIterator, elasticsearchCompiledSelection,
+                    parameterMap);
+        } catch (ElasticsearchServiceException e) {
+            throw new ConnectionUnavailableException("Error while performing the query operation " + e.getMessage(),
+                    e);
+        }
+    }
+
+    private int getAttributeIndex(String attributeName) {
+        for (int i = 0; i < attributes.size(); i++) {
+            if (attributes.get(i).getName().equals(attributeName)) {
+                return i;
+            }
+        }
+        throw new ElasticsearchConditionVisitorException("No such attribute '" + attributeName + "' found in " +
+                "table id: " + tableDefinition.getId());
+    }
+
     /**
      * This method will be called before the processing method.
-     * Intention to establish connection to publish event.
+     * Intention to establish connection to publish event. The cluster is probed for its version and for the health
+     * of the index of the table, and the probe closes the circuit breaker of the table when it succeeds.
      *
      * @throws ConnectionUnavailableException if end point is unavailable the ConnectionUnavailableException thrown
      *                                        such that the  system will take care retrying for connection
      */
     @Override
     protected void connect() throws ConnectionUnavailableException {
+        if (circuitBreaker != null && !circuitBreaker.tryProbe()) {
+            throw new ConnectionUnavailableException("The circuit breaker of table id: " + tableDefinition.getId() +
+                    " is open, the cluster is probed again once it was open for " + circuitBreakerOpenDuration +
+                    " ms.");
+        }
+        try {
+            probeCluster();
+        } catch (IOException | ElasticsearchStatusException e) {
+            if (e instanceof ElasticsearchStatusException &&
+                    ((ElasticsearchStatusException) e).status().getStatus() < 500) {
+                // the cluster answered, but the user may not be allowed to monitor it
+                logger.warn("Could not probe the health of the cluster of table id: " + tableDefinition.getId() +
+                        ", " + e.getMessage());
+            } else {
+                if (circuitBreaker != null) {
+                    circuitBreaker.onFailure(e);
+                }
+                throw new ConnectionUnavailableException("Error while probing the cluster of table id: " +
+                        tableDefinition.getId() + ", " + e.getMessage(), e);
+            }
+        }
+        if (circuitBreaker != null) {
+            circuitBreaker.onSuccess();
+        }
+    }
 
+    private void probeCluster() throws IOException {
+        MainResponse mainResponse = restHighLevelClient.info(RequestOptions.DEFAULT);
+        if (mainResponse.getVersion().major != Version.CURRENT.major) {
+            logger.warn("The cluster '" + mainResponse.getClusterName().value() + "' of table id: " +
+                    tableDefinition.getId() + " runs version " + mainResponse.getVersion() + " which differs in " +
+                    "its major version from the client version " + Version.CURRENT + ".");
+        }
+        // indices covered by the index template of the table may only be created by their first write
+        boolean isIndexProbed = payloadIndexOfIndexName == -1 && indexName != null && !indexName.isEmpty() &&
+                !isCoveredByIndexTemplate(indexName);
+        ClusterHealthRequest healthRequest = isIndexProbed ? new ClusterHealthRequest(indexName) :
+                new ClusterHealthRequest();
+        healthRequest.timeout(TimeValue.timeValueSeconds(HEALTH_PROBE_TIMEOUT));
+        ClusterHealthResponse healthResponse = restHighLevelClient.cluster().health(healthRequest,
+                RequestOptions.DEFAULT);
+        // only unallocated primaries of the index of the table make it unavailable, and a timed out probe means
+        // that the index does not exist yet, which its first write resolves
+        if (isIndexProbed && healthResponse.getStatus() == ClusterHealthStatus.RED && !healthResponse.isTimedOut()) {
+            throw new IOException("The primary shards of index: " + indexName + " are not allocated");
+        }
+        logger.debug("Connected table id: " + tableDefinition.getId() + " to cluster '" +
+                mainResponse.getClusterName().value() + "' of version " + mainResponse.getVersion() + " with " +
+                healthResponse.getStatus() + " health.");
     }
 
     /**
@@ -837,7 +2502,106 @@ public class ElasticsearchEventTable extends AbstractRecordTable {
      */
     @Override
     protected void destroy() {
+        persistBloomFilter();
+        unregisterMBean(tableMetricsObjectName);
+        closeBulkProcessor();
+        releaseClients();
+        logger.debug("IO lanes of table id: " + tableDefinition.getId() + ", " + readLaneMetrics + "; " +
+                writeLaneMetrics);
+        if (searchHedger != null) {
+            logger.info("Hedged " + searchHedger.getHedgeCount() + " of " + searchHedger.getSearchCount() +
+                    " searches of table id: " + tableDefinition.getId() + ", " + searchHedger.getHedgeWinCount() +
+                    " hedges answered first saving " + searchHedger.getSavedTimeMillis() + " ms, and " +
+                    searchHedger.getBudgetExhaustedCount() + " were not sent for lack of hedge budget.");
+        }
+        if (circuitBreaker != null && circuitBreaker.getOpenCount() > 0) {
+            logger.info("The circuit breaker of table id: " + tableDefinition.getId() + " opened " +
+                    circuitBreaker.getOpenCount() + " times and failed " + circuitBreaker.getRejectedCount() +
+                    " operations fast.");
+        }
+        if (recentWrites != null) {
+            logger.debug("Looked up " + primaryLookupCount.sum() + " recently written documents of table id: " +
+                    tableDefinition.getId() + " on the primary cluster instead of the read cluster.");
+        }
+        if (readSingleFlight != null) {
+            logger.debug("Coalesced " + (readSingleFlight.getCoalescedCount() +
+                    containsSingleFlight.getCoalescedCount()) + " concurrent reads of table id: " +
+                    tableDefinition.getId() + " into the requests of identical reads.");
+        }
+    }
 
+    private void closeBulkProcessor() {
+        if (bulkProcessor != null) {
+            unregisterMBean(bulkProcessorObjectName);
+            try {
+                // the buffered writes are sent before the client, which other tables may share, is released
+                if (!bulkProcessor.close()) {
+                    logger.warn("Bulk requests of table id: " + tableDefinition.getId() + " were still " +
+                            "executing when its REST client was released.");
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private void releaseClients() {
+        if (writeClient != null && writeClient != restHighLevelClient) {
+            ElasticsearchClientRegistry.release(writeClient);
+        }
+        if (readClient != null && readClient != restHighLevelClient) {
+            ElasticsearchClientRegistry.release(readClient);
+        }
+        if (restHighLevelClient != null) {
+            ElasticsearchClientRegistry.release(restHighLevelClient);
+        }
+        writeClient = null;
+        readClient = null;
+        restHighLevelClient = null;
+    }
+
+    /**
+     * Registers a management bean of the table with the platform MBean server, named after the Siddhi app and the
+     * table.
+     */
+    private ObjectName registerMBean(Object mBean, String type) {
+        try {
+            ObjectName objectName = new ObjectName(MBEAN_DOMAIN + ":type=" + type + ",app=" +
+                    ObjectName.quote(siddhiAppContext.getName()) + ",table=" +
+                    ObjectName.quote(tableDefinition.getId()));
+            ManagementFactory.getPlatformMBeanServer().registerMBean(mBean, objectName);
+            return objectName;
+        } catch (JMException e) {
+            logger.warn("Error while registering the " + type + " management bean of table id: " +
+                    tableDefinition.getId() + ", it can not be managed through JMX.", e);
+            return null;
+        }
+    }
+
+    private void unregisterMBean(ObjectName objectName) {
+        if (objectName == null) {
+            return;
+        }
+        try {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+        } catch (JMException e) {
+            logger.warn("Error while unregistering the management bean " + objectName, e);
+        }
+    }
+
+    private HttpHost[] parseHostList(String hostList) {
+        String hostNameList[] = hostList.split(",");
+        HttpHost httpHostList[] = new HttpHost[hostNameList.length];
+        for (int i = 0; i < httpHostList.length; i++) {
+            try {
+                URL domain = new URL(hostNameList[i]);
+                httpHostList[i] = new HttpHost(domain.getHost(), domain.getPort(), domain.getProtocol());
+            } catch (MalformedURLException e) {
+                throw new ElasticsearchEventTableException("Provided elastic search hostname url list is " +
+                        "malformed of table id : '" + tableDefinition.getId() + ".", e);
+            }
+        }
+        return httpHostList;
     }
 
     private void createIndex() {
@@ -852,55 +2616,27 @@ public class ElasticsearchEventTable extends AbstractRecordTable {
                     tableDefinition.getId(), e);
         }
 
+        CreateIndexRequest request = buildCreateIndexRequest();
+        try {
+            restHighLevelClient.indices().create(request, RequestOptions.DEFAULT);
+            logger.debug("A table id: " + tableDefinition.getId() + " is created with the provided information.");
+        } catch (IOException e) {
+            throw new ElasticsearchEventTableException("Error while creating indices for table id : '" +
+                    tableDefinition.getId(), e);
+        } catch (ElasticsearchStatusException e) {
+            logger.error("Elasticsearch status exception occurred while creating index for table id: " +
+                    tableDefinition.getId(), e);
+        }
+    }
+
+    private CreateIndexRequest buildCreateIndexRequest() {
         CreateIndexRequest request = new CreateIndexRequest(indexName);
         request.settings(Settings.builder()
                 .put(SETTING_INDEX_NUMBER_OF_SHARDS, numberOfShards)
                 .put(SETTING_INDEX_NUMBER_OF_REPLICAS, numberOfReplicas)
         );
         try {
-            XContentBuilder builder = XContentFactory.jsonBuilder();
-            builder.startObject();
-            {
-                builder.startObject(MAPPING_PROPERTIES_ELEMENT);
-                {
-                    for (Attribute attribute : attributes) {
-                        builder.startObject(attribute.getName());
-                        {
-                            if (typeMappings.containsKey(attribute.getName())) {
-                                builder.field(MAPPING_TYPE_ELEMENT, typeMappings.get(attribute.getName()));
-                            } else if (attribute.getType().equals(Attribute.Type.STRING)) {
-                                builder.field(MAPPING_TYPE_ELEMENT, "text");
-                                builder.startObject("fields");
-                                {
-                                    builder.startObject("keyword");
-                                    {
-                                        builder.field("type", "keyword");
-                                        builder.field("ignore_above", 256);
-                                    }
-                                    builder.endObject();
-                                }
-                                builder.endObject();
-                            } else if (attribute.getType().equals(Attribute.Type.INT)) {
-                                builder.field(MAPPING_TYPE_ELEMENT, "integer");
-                            } else if (attribute.getType().equals(Attribute.Type.LONG)) {
-                                builder.field(MAPPING_TYPE_ELEMENT, "long");
-                            } else if (attribute.getType().equals(Attribute.Type.FLOAT)) {
-                                builder.field(MAPPING_TYPE_ELEMENT, "float");
-                            } else if (attribute.getType().equals(Attribute.Type.DOUBLE)) {
-                                builder.field(MAPPING_TYPE_ELEMENT, "double");
-                            } else if (attribute.getType().equals(Attribute.Type.BOOL)) {
-                                builder.field(MAPPING_TYPE_ELEMENT, "boolean");
-                            } else {
-                                builder.field(MAPPING_TYPE_ELEMENT, "object");
-                            }
-                        }
-                        builder.endObject();
-                    }
-                }
-                builder.endObject();
-            }
-            builder.endObject();
-            request.mapping(builder);
+            request.mapping(indexMapping.buildMapping());
         } catch (IOException e) {
             throw new ElasticsearchEventTableException("Error while generating mapping for table id : '" +
                     tableDefinition.getId(), e);
@@ -908,16 +2644,59 @@ public class ElasticsearchEventTable extends AbstractRecordTable {
         if (indexAlias != null) {
             request.alias(new Alias(indexAlias));
         }
+        return request;
+    }
+
+    private PutIndexTemplateRequest buildPutIndexTemplateRequest() {
+        PutIndexTemplateRequest request = new PutIndexTemplateRequest(INDEX_TEMPLATE_NAME_PREFIX +
+                tableDefinition.getId().toLowerCase(Locale.ENGLISH));
+        request.patterns(Collections.singletonList(indexTemplatePattern));
+        request.settings(Settings.builder()
+                .put(SETTING_INDEX_NUMBER_OF_SHARDS, numberOfShards)
+                .put(SETTING_INDEX_NUMBER_OF_REPLICAS, numberOfReplicas)
+        );
         try {
-            restHighLevelClient.indices().create(request, RequestOptions.DEFAULT);
-            logger.debug("A table id: " + tableDefinition.getId() + " is created with the provided information.");
+            request.mapping(indexMapping.buildMapping());
         } catch (IOException e) {
-            throw new ElasticsearchEventTableException("Error while creating indices for table id : '" +
-                    tableDefinition.getId(), e);
-        } catch (ElasticsearchStatusException e) {
-            logger.error("Elasticsearch status exception occurred while creating index for table id: " +
+            throw new ElasticsearchEventTableException("Error while generating mapping for table id : '" +
                     tableDefinition.getId(), e);
         }
+        if (indexAlias != null) {
+            request.alias(new Alias(indexAlias));
+        }
+        return request;
+    }
+
+    private boolean isCoveredByIndexTemplate(String indexName) {
+        return indexTemplatePattern != null && Regex.simpleMatch(indexTemplatePattern, indexName);
+    }
+
+    /**
+     * Waits for the index of the table to be prepared before its first operation, without blocking the deployment
+     * of the Siddhi app on it.
+     */
+    private void awaitIndexReady() throws ConnectionUnavailableException {
+        if (indexBootstrap != null && !indexBootstrap.isReady()) {
+            try {
+                indexBootstrap.awaitReady();
+            } catch (IOException e) {
+                throw new ConnectionUnavailableException(e.getMessage(), e);
+            }
+        }
+    }
+
+    private void validateTimeAttribute(String timeAttributeName) {
+        for (Attribute storeAttribute : attributes) {
+            if (storeAttribute.getName().equals(timeAttributeName)) {
+                if (storeAttribute.getType() != Attribute.Type.LONG) {
+                    throw new SiddhiAppCreationException("Invalid attribute '" + timeAttributeName + "' found in " +
+                            ANNOTATION_ELEMENT_TIME_ATTRIBUTE + ". The time attribute must be of type LONG.");
+                }
+                return;
+            }
+        }
+        throw new SiddhiAppCreationException("Invalid attribute name '" + timeAttributeName + "' found in " +
+                ANNOTATION_ELEMENT_TIME_ATTRIBUTE + ". No such attribute found in Store definition.");
     }
 
     private void validateTypeMappingAttribute(String typeMappingAttributeName) {
@@ -932,4 +2711,13 @@ public class ElasticsearchEventTable extends AbstractRecordTable {
                     + "' found in " + ANNOTATION_TYPE_MAPPINGS + ". No such attribute found in Store definition.");
         }
     }
+
+    /**
+     * A search which may fail with an {@link ElasticsearchServiceException}.
+     *
+     * @param <T> the result of the search.
+     */
+    private interface ElasticsearchSearch<T> {
+        T execute() throws ElasticsearchServiceException;
+    }
 }
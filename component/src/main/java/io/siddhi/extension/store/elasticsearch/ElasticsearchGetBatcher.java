@@ -0,0 +1,73 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.siddhi.extension.store.elasticsearch;
+
+import org.elasticsearch.action.get.GetRequest;
+import org.elasticsearch.action.get.GetResponse;
+import org.elasticsearch.action.get.MultiGetItemResponse;
+import org.elasticsearch.action.get.MultiGetRequest;
+import org.elasticsearch.action.get.MultiGetResponse;
+import org.elasticsearch.client.RequestOptions;
+import org.elasticsearch.client.RestHighLevelClient;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * This class batches get requests of concurrent primary key lookups into multi get requests.
+ */
+public class ElasticsearchGetBatcher extends ElasticsearchRequestBatcher<GetRequest, GetResponse> {
+
+    private RestHighLevelClient restHighLevelClient;
+
+    public ElasticsearchGetBatcher(RestHighLevelClient restHighLevelClient, int maxBatchSize, long maxWaitMillis) {
+        this(restHighLevelClient, maxBatchSize, maxWaitMillis, null, null);
+    }
+
+    public ElasticsearchGetBatcher(RestHighLevelClient restHighLevelClient, int maxBatchSize, long maxWaitMillis,
+                                   ElasticsearchCircuitBreaker circuitBreaker, ElasticsearchLaneMetrics laneMetrics) {
+        super(maxBatchSize, maxWaitMillis, circuitBreaker, laneMetrics);
+        this.restHighLevelClient = restHighLevelClient;
+    }
+
+    @Override
+    protected GetResponse executeSingle(GetRequest request) throws IOException {
+        return restHighLevelClient.get(request, RequestOptions.DEFAULT);
+    }
+
+    @Override
+    protected void executeBatch(List<GetRequest> requests, List<CompletableFuture<GetResponse>> futures)
+            throws IOException {
+        MultiGetRequest multiGetRequest = new MultiGetRequest();
+        for (GetRequest request : requests) {
+            multiGetRequest.add(new MultiGetRequest.Item(request.index(), request.id())
+                    .fetchSourceContext(request.fetchSourceContext()));
+        }
+        MultiGetResponse multiGetResponse = restHighLevelClient.mget(multiGetRequest, RequestOptions.DEFAULT);
+        MultiGetItemResponse[] items = multiGetResponse.getResponses();
+        for (int i = 0; i < futures.size(); i++) {
+            if (items[i].isFailed()) {
+                futures.get(i).completeExceptionally(items[i].getFailure().getFailure());
+            } else {
+                futures.get(i).complete(items[i].getResponse());
+            }
+        }
+    }
+}
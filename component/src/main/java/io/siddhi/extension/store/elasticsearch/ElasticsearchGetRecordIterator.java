@@ -0,0 +1,81 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.siddhi.extension.store.elasticsearch;
+
+import io.siddhi.core.table.record.RecordIterator;
+import io.siddhi.extension.store.elasticsearch.exceptions.ElasticsearchEventTableException;
+import io.siddhi.extension.store.elasticsearch.exceptions.ElasticsearchServiceException;
+import org.elasticsearch.action.get.GetRequest;
+import org.elasticsearch.action.get.GetResponse;
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.search.fetch.subphase.FetchSourceContext;
+
+import java.io.IOException;
+
+/**
+ * This class represents the iterator which streams the elasticsearch document fetched by its id with a realtime
+ * get request.
+ */
+public class ElasticsearchGetRecordIterator implements RecordIterator<Object[]> {
+
+    private ElasticsearchSourceDecoder sourceDecoder;
+    private String docId;
+    private BytesReference source;
+
+    public ElasticsearchGetRecordIterator(String indexName, String docId, ElasticsearchGetBatcher getBatcher,
+                                          ElasticsearchSourceDecoder sourceDecoder)
+            throws ElasticsearchServiceException {
+        this.sourceDecoder = sourceDecoder;
+        this.docId = docId;
+        GetRequest getRequest = new GetRequest(indexName, docId);
+        getRequest.fetchSourceContext(new FetchSourceContext(true, sourceDecoder.getAttributeNames(), null));
+        try {
+            GetResponse getResponse = getBatcher.execute(getRequest);
+            if (getResponse.isExists()) {
+                source = getResponse.getSourceAsBytesRef();
+            }
+        } catch (IOException e) {
+            throw new ElasticsearchServiceException("Error while fetching the document id: '" + docId + "'", e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+    }
+
+    @Override
+    public boolean hasNext() {
+        return source != null;
+    }
+
+    @Override
+    public Object[] next() {
+        if (source != null) {
+            BytesReference documentSource = source;
+            source = null;
+            try {
+                return sourceDecoder.decode(documentSource);
+            } catch (IOException e) {
+                throw new ElasticsearchEventTableException("Error while decoding the source of the document id: '" +
+                        docId + "'", e);
+            }
+        }
+        return new Object[0];
+    }
+}
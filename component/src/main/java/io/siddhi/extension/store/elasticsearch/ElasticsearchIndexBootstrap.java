@@ -0,0 +1,189 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.siddhi.extension.store.elasticsearch;
+
+import org.apache.log4j.Logger;
+import org.elasticsearch.ElasticsearchStatusException;
+import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.action.support.master.AcknowledgedResponse;
+import org.elasticsearch.client.RequestOptions;
+import org.elasticsearch.client.RestHighLevelClient;
+import org.elasticsearch.client.indices.CreateIndexRequest;
+import org.elasticsearch.client.indices.CreateIndexResponse;
+import org.elasticsearch.client.indices.GetIndexRequest;
+import org.elasticsearch.client.indices.PutIndexTemplateRequest;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * This class prepares the index of a table in the background, so that tables do not block the deployment of their
+ * Siddhi app on requests to the cluster and the indices of all tables are prepared in parallel. It installs the
+ * index template of the table if it has one, and checks for and creates the index of the table unless the template
+ * covers it, in which case the cluster creates the index with the settings of the template on its first write.
+ * <p>
+ * Operations of the table wait for the bootstrap to complete. A bootstrap which failed for lack of a reachable
+ * cluster is started again by the next operation waiting for it, while indices the cluster refused to create are
+ * logged, as the table always did.
+ */
+public class ElasticsearchIndexBootstrap {
+
+    private static final Logger logger = Logger.getLogger(ElasticsearchIndexBootstrap.class);
+    private static final String RESOURCE_ALREADY_EXISTS = "resource_already_exists_exception";
+
+    private final RestHighLevelClient restHighLevelClient;
+    private final String tableId;
+    private final PutIndexTemplateRequest putIndexTemplateRequest;
+    private final CreateIndexRequest createIndexRequest;
+    private volatile CompletableFuture<Void> ready;
+
+    /**
+     * Creates an index bootstrap.
+     *
+     * @param restHighLevelClient     the client the index is prepared with.
+     * @param tableId                 the id of the table, used in log messages.
+     * @param putIndexTemplateRequest the request installing the index template of the table, or null if it has none.
+     * @param createIndexRequest      the request creating the index of the table, or null if the table does not
+     *                                create its index itself.
+     */
+    public ElasticsearchIndexBootstrap(RestHighLevelClient restHighLevelClient, String tableId,
+                                       PutIndexTemplateRequest putIndexTemplateRequest,
+                                       CreateIndexRequest createIndexRequest) {
+        this.restHighLevelClient = restHighLevelClient;
+        this.tableId = tableId;
+        this.putIndexTemplateRequest = putIndexTemplateRequest;
+        this.createIndexRequest = createIndexRequest;
+    }
+
+    /**
+     * Starts preparing the index without waiting for it.
+     */
+    public synchronized void start() {
+        CompletableFuture<Void> bootstrap = new CompletableFuture<>();
+        ready = bootstrap;
+        if (putIndexTemplateRequest != null) {
+            putIndexTemplate(bootstrap);
+        } else {
+            verifyIndex(bootstrap);
+        }
+    }
+
+    /**
+     * Waits until the index is prepared.
+     *
+     * @throws IOException if the index could not be prepared for lack of a reachable cluster, in which case the
+     *                     bootstrap is started again.
+     */
+    public void awaitReady() throws IOException {
+        CompletableFuture<Void> bootstrap = ready;
+        try {
+            bootstrap.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for the index of table id: " + tableId, e);
+        } catch (ExecutionException e) {
+            synchronized (this) {
+                if (ready == bootstrap) {
+                    start();
+                }
+            }
+            throw new IOException("Error while preparing the index of table id: " + tableId + ", " +
+                    e.getCause().getMessage(), e.getCause());
+        }
+    }
+
+    public boolean isReady() {
+        CompletableFuture<Void> bootstrap = ready;
+        return bootstrap != null && bootstrap.isDone() && !bootstrap.isCompletedExceptionally();
+    }
+
+    private void putIndexTemplate(CompletableFuture<Void> bootstrap) {
+        restHighLevelClient.indices().putTemplateAsync(putIndexTemplateRequest, RequestOptions.DEFAULT,
+                new ActionListener<AcknowledgedResponse>() {
+                    @Override
+                    public void onResponse(AcknowledgedResponse response) {
+                        logger.debug("Index template: " + putIndexTemplateRequest.name() + " is installed for " +
+                                "table id: " + tableId + ".");
+                        verifyIndex(bootstrap);
+                    }
+
+                    @Override
+                    public void onFailure(Exception e) {
+                        if (e instanceof ElasticsearchStatusException) {
+                            logger.error("Elasticsearch status exception occurred while installing index template: " +
+                                    putIndexTemplateRequest.name() + " for table id: " + tableId, e);
+                            verifyIndex(bootstrap);
+                        } else {
+                            bootstrap.completeExceptionally(e);
+                        }
+                    }
+                });
+    }
+
+    private void verifyIndex(CompletableFuture<Void> bootstrap) {
+        if (createIndexRequest == null) {
+            bootstrap.complete(null);
+            return;
+        }
+        restHighLevelClient.indices().existsAsync(new GetIndexRequest(createIndexRequest.index()),
+                RequestOptions.DEFAULT, new ActionListener<Boolean>() {
+                    @Override
+                    public void onResponse(Boolean exists) {
+                        if (exists) {
+                            logger.debug("Index: " + createIndexRequest.index() + " has already being created for " +
+                                    "table id: " + tableId + ".");
+                            bootstrap.complete(null);
+                        } else {
+                            createIndex(bootstrap);
+                        }
+                    }
+
+                    @Override
+                    public void onFailure(Exception e) {
+                        bootstrap.completeExceptionally(e);
+                    }
+                });
+    }
+
+    private void createIndex(CompletableFuture<Void> bootstrap) {
+        restHighLevelClient.indices().createAsync(createIndexRequest, RequestOptions.DEFAULT,
+                new ActionListener<CreateIndexResponse>() {
+                    @Override
+                    public void onResponse(CreateIndexResponse response) {
+                        logger.debug("A table id: " + tableId + " is created with the provided information.");
+                        bootstrap.complete(null);
+                    }
+
+                    @Override
+                    public void onFailure(Exception e) {
+                        if (e instanceof ElasticsearchStatusException) {
+                            // another table of the same index may have created it meanwhile
+                            if (e.getMessage() == null || !e.getMessage().contains(RESOURCE_ALREADY_EXISTS)) {
+                                logger.error("Elasticsearch status exception occurred while creating index for " +
+                                        "table id: " + tableId, e);
+                            }
+                            bootstrap.complete(null);
+                        } else {
+                            bootstrap.completeExceptionally(e);
+                        }
+                    }
+                });
+    }
+}
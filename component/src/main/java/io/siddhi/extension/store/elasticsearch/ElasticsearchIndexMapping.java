@@ -0,0 +1,131 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.siddhi.extension.store.elasticsearch;
+
+import io.siddhi.query.api.definition.Attribute;
+import org.elasticsearch.common.xcontent.XContentBuilder;
+import org.elasticsearch.common.xcontent.XContentFactory;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static io.siddhi.extension.store.elasticsearch.utils.ElasticsearchTableConstants.MAPPING_PROPERTIES_ELEMENT;
+import static io.siddhi.extension.store.elasticsearch.utils.ElasticsearchTableConstants.MAPPING_TYPE_ELEMENT;
+
+/**
+ * This class represents the mapping of the index of an Elasticsearch record table. It generates the mapping used
+ * when the index is created and resolves the document field each attribute is queried on. String attributes are
+ * mapped as analyzed text with a keyword sub field, so sorts and aggregations on them are routed to the keyword sub
+ * field, as are exact matches and ranges of tables enabling 'keyword.exact.match'. The keyword sub field indexes
+ * values of up to 8191 characters, the most which always fit the term length limit of Lucene in UTF-8, so that long
+ * values still match exactly. Indices created with an earlier mapping keep the limit of 256 characters. Attributes
+ * whose type is overridden through the type mappings annotation are queried on the field itself, which keeps full
+ * text matching for attributes explicitly mapped as text.
+ */
+public class ElasticsearchIndexMapping {
+
+    private static final String TEXT_TYPE = "text";
+    private static final String KEYWORD_TYPE = "keyword";
+    private static final String KEYWORD_SUB_FIELD = "keyword";
+    private static final String FIELDS_ELEMENT = "fields";
+    private static final String IGNORE_ABOVE_ELEMENT = "ignore_above";
+    private static final int KEYWORD_IGNORE_ABOVE = 8191;
+
+    private List<Attribute> attributes;
+    private Map<String, String> typeMappings;
+    private Map<String, String> exactMatchFieldNames = new HashMap<>();
+
+    public ElasticsearchIndexMapping(List<Attribute> attributes, Map<String, String> typeMappings) {
+        this.attributes = attributes;
+        this.typeMappings = typeMappings;
+        for (Attribute attribute : attributes) {
+            String fieldName = attribute.getName();
+            if (attribute.getType() == Attribute.Type.STRING && !typeMappings.containsKey(attribute.getName())) {
+                fieldName = attribute.getName() + "." + KEYWORD_SUB_FIELD;
+            }
+            exactMatchFieldNames.put(attribute.getName(), fieldName);
+        }
+    }
+
+    /**
+     * Returns the document field on which an attribute is matched exactly, compared in ranges, sorted and
+     * aggregated.
+     *
+     * @param attributeName the name of the attribute.
+     * @return the keyword sub field for string attributes mapped as text by the table, otherwise the field itself.
+     */
+    public String getExactMatchFieldName(String attributeName) {
+        String fieldName = exactMatchFieldNames.get(attributeName);
+        return fieldName != null ? fieldName : attributeName;
+    }
+
+    /**
+     * Builds the properties of the index mapping from the attributes of the table and the type mappings.
+     *
+     * @return the mapping to be used when creating the index.
+     * @throws IOException if the mapping could not be built.
+     */
+    public XContentBuilder buildMapping() throws IOException {
+        XContentBuilder builder = XContentFactory.jsonBuilder();
+        builder.startObject();
+        {
+            builder.startObject(MAPPING_PROPERTIES_ELEMENT);
+            {
+                for (Attribute attribute : attributes) {
+                    builder.startObject(attribute.getName());
+                    {
+                        if (typeMappings.containsKey(attribute.getName())) {
+                            builder.field(MAPPING_TYPE_ELEMENT, typeMappings.get(attribute.getName()));
+                        } else if (attribute.getType().equals(Attribute.Type.STRING)) {
+                            builder.field(MAPPING_TYPE_ELEMENT, TEXT_TYPE);
+                            builder.startObject(FIELDS_ELEMENT);
+                            {
+                                builder.startObject(KEYWORD_SUB_FIELD);
+                                {
+                                    builder.field(MAPPING_TYPE_ELEMENT, KEYWORD_TYPE);
+                                    builder.field(IGNORE_ABOVE_ELEMENT, KEYWORD_IGNORE_ABOVE);
+                                }
+                                builder.endObject();
+                            }
+                            builder.endObject();
+                        } else if (attribute.getType().equals(Attribute.Type.INT)) {
+                            builder.field(MAPPING_TYPE_ELEMENT, "integer");
+                        } else if (attribute.getType().equals(Attribute.Type.LONG)) {
+                            builder.field(MAPPING_TYPE_ELEMENT, "long");
+                        } else if (attribute.getType().equals(Attribute.Type.FLOAT)) {
+                            builder.field(MAPPING_TYPE_ELEMENT, "float");
+                        } else if (attribute.getType().equals(Attribute.Type.DOUBLE)) {
+                            builder.field(MAPPING_TYPE_ELEMENT, "double");
+                        } else if (attribute.getType().equals(Attribute.Type.BOOL)) {
+                            builder.field(MAPPING_TYPE_ELEMENT, "boolean");
+                        } else {
+                            builder.field(MAPPING_TYPE_ELEMENT, "object");
+                        }
+                    }
+                    builder.endObject();
+                }
+            }
+            builder.endObject();
+        }
+        builder.endObject();
+        return builder;
+    }
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.siddhi.extension.store.elasticsearch;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * This class keeps the latency of the requests of a table on one of its IO lanes, which are its reads and its
+ * writes. The latency of a request is measured from the moment the table issues it until its response arrives, so
+ * that it includes the time the request queued for a connection of the client behind other requests.
+ */
+public class ElasticsearchLaneMetrics {
+
+    private static final int LATENCY_WINDOW_SIZE = 1024;
+
+    private final String lane;
+    private final long[] latencies = new long[LATENCY_WINDOW_SIZE];
+    private long latencyCount;
+    private final LongAdder requestCount = new LongAdder();
+    private final LongAdder failureCount = new LongAdder();
+    private final LongAdder totalLatencyNanos = new LongAdder();
+    private final LongAccumulator maxLatencyNanos = new LongAccumulator(Math::max, 0);
+
+    public ElasticsearchLaneMetrics(String lane) {
+        this.lane = lane;
+    }
+
+    /**
+     * Records a completed request.
+     *
+     * @param startNanos the time the request was issued, as returned by {@link System#nanoTime()}.
+     * @param isFailed   whether the request failed.
+     */
+    public void record(long startNanos, boolean isFailed) {
+        recordLatency(System.nanoTime() - startNanos, isFailed);
+    }
+
+    /**
+     * Records a completed request whose latency was measured elsewhere, such as by the cluster.
+     *
+     * @param latencyNanos the latency of the request in nanoseconds.
+     * @param isFailed     whether the request failed.
+     */
+    public void recordLatency(long latencyNanos, boolean isFailed) {
+        requestCount.increment();
+        if (isFailed) {
+            failureCount.increment();
+        }
+        totalLatencyNanos.add(latencyNanos);
+        maxLatencyNanos.accumulate(latencyNanos);
+        synchronized (latencies) {
+            latencies[(int) (latencyCount++ % LATENCY_WINDOW_SIZE)] = latencyNanos;
+        }
+    }
+
+    public String getLane() {
+        return lane;
+    }
+
+    public long getRequestCount() {
+        return requestCount.sum();
+    }
+
+    public long getFailureCount() {
+        return failureCount.sum();
+    }
+
+    public double getMeanLatencyMillis() {
+        long count = requestCount.sum();
+        return count == 0 ? 0 : totalLatencyNanos.sum() / (double) count / TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    public double getMaxLatencyMillis() {
+        return maxLatencyNanos.get() / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    /**
+     * Returns a percentile of the latency of the recent requests of the lane.
+     *
+     * @param percentile the percentile, such as 99.
+     * @return the latency in milliseconds, or 0 if no request completed yet.
+     */
+    public double getLatencyPercentileMillis(double percentile) {
+        long[] recentLatencies;
+        synchronized (latencies) {
+            recentLatencies = Arrays.copyOf(latencies, (int) Math.min(latencyCount, LATENCY_WINDOW_SIZE));
+        }
+        if (recentLatencies.length == 0) {
+            return 0;
+        }
+        Arrays.sort(recentLatencies);
+        int index = (int) Math.ceil(percentile / 100 * recentLatencies.length) - 1;
+        return recentLatencies[Math.max(0, Math.min(recentLatencies.length - 1, index))] /
+                (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s: %d requests, %d failed, mean %.1f ms, p99 %.1f ms, max %.1f ms", lane,
+                getRequestCount(), getFailureCount(), getMeanLatencyMillis(), getLatencyPercentileMillis(99),
+                getMaxLatencyMillis());
+    }
+}
@@ -0,0 +1,55 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.siddhi.extension.store.elasticsearch;
+
+import io.siddhi.core.table.record.RecordIterator;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * This class represents the iterator which streams records which are already held in memory. Each record is
+ * returned as a copy so that the held records are never modified by the caller.
+ */
+public class ElasticsearchListRecordIterator implements RecordIterator<Object[]> {
+
+    private Iterator<Object[]> recordIterator;
+
+    public ElasticsearchListRecordIterator(List<Object[]> records) {
+        this.recordIterator = records.iterator();
+    }
+
+    @Override
+    public void close() throws IOException {
+    }
+
+    @Override
+    public boolean hasNext() {
+        return recordIterator.hasNext();
+    }
+
+    @Override
+    public Object[] next() {
+        if (recordIterator.hasNext()) {
+            return recordIterator.next().clone();
+        }
+        return new Object[0];
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.siddhi.extension.store.elasticsearch;
+
+import org.apache.http.HttpHost;
+import org.apache.http.HttpRequest;
+import org.apache.http.HttpRequestInterceptor;
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpResponseInterceptor;
+import org.apache.http.protocol.HttpContext;
+import org.apache.http.protocol.HttpCoreContext;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This class tracks the recent latency of each node of the cluster, as an exponentially weighted moving average of
+ * the time between sending a request to the node and receiving its response head. It is installed as a request
+ * and a response interceptor of the HTTP client of the REST client.
+ */
+public class ElasticsearchNodeLatencyTracker implements HttpRequestInterceptor, HttpResponseInterceptor {
+
+    private static final String REQUEST_START_ATTRIBUTE = "siddhi.elasticsearch.request.start";
+    private static final double SMOOTHING_FACTOR = 0.2;
+    private static final long STALE_AFTER_NANOS = TimeUnit.SECONDS.toNanos(10);
+
+    private final Map<String, NodeLatency> latencies = new ConcurrentHashMap<>();
+
+    @Override
+    public void process(HttpRequest request, HttpContext context) {
+        context.setAttribute(REQUEST_START_ATTRIBUTE, System.nanoTime());
+    }
+
+    @Override
+    public void process(HttpResponse response, HttpContext context) {
+        Object start = context.getAttribute(REQUEST_START_ATTRIBUTE);
+        Object host = context.getAttribute(HttpCoreContext.HTTP_TARGET_HOST);
+        if (start instanceof Long && host instanceof HttpHost) {
+            long now = System.nanoTime();
+            latencies.computeIfAbsent(((HttpHost) host).toHostString(), key -> new NodeLatency())
+                    .record(now - (Long) start, now);
+        }
+    }
+
+    /**
+     * Returns the recent latency of the node.
+     *
+     * @param host the host of the node.
+     * @return the latency in nanoseconds, or -1 if the node did not answer a request recently.
+     */
+    public long getLatencyNanos(HttpHost host) {
+        NodeLatency nodeLatency = latencies.get(host.toHostString());
+        return nodeLatency != null ? nodeLatency.get(System.nanoTime()) : -1;
+    }
+
+    private static class NodeLatency {
+        private double averageNanos = -1;
+        private long lastRecordedAt;
+
+        private synchronized void record(long latencyNanos, long now) {
+            // a node which was not asked for a while starts over, its old average says little about it now
+            if (averageNanos < 0 || now - lastRecordedAt > STALE_AFTER_NANOS) {
+                averageNanos = latencyNanos;
+            } else {
+                averageNanos += SMOOTHING_FACTOR * (latencyNanos - averageNanos);
+            }
+            lastRecordedAt = now;
+        }
+
+        private synchronized long get(long now) {
+            return averageNanos < 0 || now - lastRecordedAt > STALE_AFTER_NANOS ? -1 : (long) averageNanos;
+        }
+    }
+}
@@ -0,0 +1,181 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.siddhi.extension.store.elasticsearch;
+
+import org.apache.http.HttpHost;
+import org.elasticsearch.client.Node;
+import org.elasticsearch.client.NodeSelector;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This class selects the nodes a request is sent to by the role of the node and its recent latency. Bulk requests
+ * go to data nodes, which hold the shards being written, and searches to coordinating only nodes, falling back to
+ * data nodes if the cluster has none. Among those, nodes answering much slower than the fastest one are skipped
+ * until their latency recovers or goes stale. Roles are only known for nodes found by sniffing, so without
+ * sniffing the nodes are selected by latency only.
+ * <p>
+ * The request options of the REST client carry no node selector, so the type of the request being sent, or the
+ * node it has to be sent to, is passed to the selector of the client through the sending thread, see
+ * {@link #sendAs(RequestType, Runnable)} and {@link #sendTo(HttpHost, Runnable)}. Without a latency tracker only
+ * the node a request has to be sent to is honoured, and the client otherwise sends to all nodes in turn.
+ */
+public class ElasticsearchNodeSelector implements NodeSelector {
+
+    private static final double LATENCY_TOLERANCE = 2;
+    private static final long LATENCY_SLACK_NANOS = TimeUnit.MILLISECONDS.toNanos(5);
+    private static final ThreadLocal<RequestType> currentRequestType =
+            ThreadLocal.withInitial(() -> RequestType.SEARCH);
+    private static final ThreadLocal<HttpHost> currentTargetHost = new ThreadLocal<>();
+
+    private final ElasticsearchNodeLatencyTracker latencyTracker;
+
+    /**
+     * Creates a node selector.
+     *
+     * @param latencyTracker the tracker of the latency of the nodes, or null to not select nodes by role and latency.
+     */
+    public ElasticsearchNodeSelector(ElasticsearchNodeLatencyTracker latencyTracker) {
+        this.latencyTracker = latencyTracker;
+    }
+
+    /**
+     * Sends a request of the given type from the current thread.
+     *
+     * @param requestType the type of the request.
+     * @param send        sends the request, and returns once the nodes to send it to have been selected, as an
+     *                    asynchronous request of the REST client does.
+     */
+    public static void sendAs(RequestType requestType, Runnable send) {
+        RequestType previousRequestType = currentRequestType.get();
+        currentRequestType.set(requestType);
+        try {
+            send.run();
+        } finally {
+            currentRequestType.set(previousRequestType);
+        }
+    }
+
+    /**
+     * Sends a request from the current thread to the given node, if the client knows the node.
+     *
+     * @param host the host of the node.
+     * @param send sends the request, and returns once the nodes to send it to have been selected.
+     */
+    public static void sendTo(HttpHost host, Runnable send) {
+        HttpHost previousTargetHost = currentTargetHost.get();
+        currentTargetHost.set(host);
+        try {
+            send.run();
+        } finally {
+            currentTargetHost.set(previousTargetHost);
+        }
+    }
+
+    @Override
+    public void select(Iterable<Node> nodes) {
+        HttpHost targetHost = currentTargetHost.get();
+        if (targetHost != null && selectHost(nodes, targetHost)) {
+            return;
+        }
+        if (latencyTracker == null) {
+            return;
+        }
+        List<Node> candidates = new ArrayList<>();
+        for (Node node : nodes) {
+            candidates.add(node);
+        }
+        List<Node> preferredNodes = selectByRole(candidates, currentRequestType.get());
+        long fastestLatency = Long.MAX_VALUE;
+        for (Node node : preferredNodes) {
+            long latency = latencyTracker.getLatencyNanos(node.getHost());
+            if (latency >= 0) {
+                fastestLatency = Math.min(fastestLatency, latency);
+            }
+        }
+        long latencyLimit = fastestLatency == Long.MAX_VALUE ? Long.MAX_VALUE :
+                (long) (fastestLatency * LATENCY_TOLERANCE) + LATENCY_SLACK_NANOS;
+        for (Iterator<Node> iterator = nodes.iterator(); iterator.hasNext(); ) {
+            Node node = iterator.next();
+            if (!preferredNodes.contains(node) || latencyTracker.getLatencyNanos(node.getHost()) > latencyLimit) {
+                iterator.remove();
+            }
+        }
+    }
+
+    /**
+     * Keeps only the node of the host, if it is one of the nodes.
+     */
+    private static boolean selectHost(Iterable<Node> nodes, HttpHost host) {
+        boolean isKnown = false;
+        for (Node node : nodes) {
+            if (node.getHost().toHostString().equalsIgnoreCase(host.toHostString())) {
+                isKnown = true;
+                break;
+            }
+        }
+        if (isKnown) {
+            for (Iterator<Node> iterator = nodes.iterator(); iterator.hasNext(); ) {
+                if (!iterator.next().getHost().toHostString().equalsIgnoreCase(host.toHostString())) {
+                    iterator.remove();
+                }
+            }
+        }
+        return isKnown;
+    }
+
+    /**
+     * Returns the nodes having the preferred role of the request type, or all nodes if none has it.
+     */
+    private static List<Node> selectByRole(List<Node> nodes, RequestType requestType) {
+        List<Node> dataNodes = new ArrayList<>();
+        List<Node> coordinatingNodes = new ArrayList<>();
+        for (Node node : nodes) {
+            Node.Roles roles = node.getRoles();
+            if (roles == null) {
+                continue;
+            }
+            if (roles.isData()) {
+                dataNodes.add(node);
+            } else if (!roles.isMasterEligible() && !roles.isIngest()) {
+                coordinatingNodes.add(node);
+            }
+        }
+        if (requestType == RequestType.SEARCH && !coordinatingNodes.isEmpty()) {
+            return coordinatingNodes;
+        }
+        return dataNodes.isEmpty() ? nodes : dataNodes;
+    }
+
+    @Override
+    public String toString() {
+        return latencyTracker != null ? "ROLE_AND_LATENCY_AWARE" : "TARGET_NODE_OR_ANY";
+    }
+
+    /**
+     * This enum represents the types of request the nodes are selected for.
+     */
+    public enum RequestType {
+        BULK,
+        SEARCH
+    }
+}
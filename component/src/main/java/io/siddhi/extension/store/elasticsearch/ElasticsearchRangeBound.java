@@ -0,0 +1,76 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.siddhi.extension.store.elasticsearch;
+
+import io.siddhi.query.api.expression.condition.Compare;
+
+import java.util.Map;
+
+/**
+ * This class represents a bound which a condition places on a store attribute by comparing it against a stream
+ * variable or a constant, with the store attribute on the left of the comparison.
+ */
+public class ElasticsearchRangeBound {
+
+    private Compare.Operator operator;
+    private String streamVariableId;
+    private Object constant;
+
+    public ElasticsearchRangeBound(Compare.Operator operator, String streamVariableId, Object constant) {
+        this.operator = operator;
+        this.streamVariableId = streamVariableId;
+        this.constant = constant;
+    }
+
+    public Compare.Operator getOperator() {
+        return operator;
+    }
+
+    /**
+     * Resolves the value the store attribute is compared against.
+     *
+     * @param parameterMap map of stream variable ids and their values.
+     * @return the constant or the value of the stream variable.
+     */
+    public Object resolveValue(Map<String, Object> parameterMap) {
+        return streamVariableId != null ? parameterMap.get(streamVariableId) : constant;
+    }
+
+    /**
+     * Returns the operator of the same comparison written with its operands swapped, so that a comparison with the
+     * store attribute on the right can be recorded with the attribute on the left.
+     *
+     * @param operator the operator of the comparison.
+     * @return the mirrored operator.
+     */
+    public static Compare.Operator mirror(Compare.Operator operator) {
+        switch (operator) {
+            case LESS_THAN:
+                return Compare.Operator.GREATER_THAN;
+            case LESS_THAN_EQUAL:
+                return Compare.Operator.GREATER_THAN_EQUAL;
+            case GREATER_THAN:
+                return Compare.Operator.LESS_THAN;
+            case GREATER_THAN_EQUAL:
+                return Compare.Operator.LESS_THAN_EQUAL;
+            default:
+                return operator;
+        }
+    }
+}
@@ -19,12 +19,10 @@
 package io.siddhi.extension.store.elasticsearch;
 
 import io.siddhi.core.table.record.RecordIterator;
+import io.siddhi.extension.store.elasticsearch.exceptions.ElasticsearchEventTableException;
 import io.siddhi.extension.store.elasticsearch.exceptions.ElasticsearchServiceException;
-import io.siddhi.query.api.definition.Attribute;
 import org.elasticsearch.action.search.SearchRequest;
 import org.elasticsearch.action.search.SearchResponse;
-import org.elasticsearch.client.RequestOptions;
-import org.elasticsearch.client.RestHighLevelClient;
 import org.elasticsearch.index.query.QueryBuilder;
 import org.elasticsearch.index.query.QueryBuilders;
 import org.elasticsearch.index.query.QueryStringQueryBuilder;
@@ -32,33 +30,42 @@ import org.elasticsearch.search.SearchHit;
 import org.elasticsearch.search.builder.SearchSourceBuilder;
 
 import java.io.IOException;
-import java.util.ArrayList;
 import java.util.Iterator;
-import java.util.List;
 
 /**
- * This class represents the iterator which streams a set elasticsearch documents
+ * This class represents the iterator which streams a set elasticsearch documents. It is meant to be consumed by a
+ * single thread.
  */
 public class ElasticsearchRecordIterator implements RecordIterator<Object[]> {
 
-    private List<Attribute> attributes;
+    private ElasticsearchSourceDecoder sourceDecoder;
     private Iterator<SearchHit> elasticsearchHitsIterator;
 
     public ElasticsearchRecordIterator(String indexName, String queryString,
-                                       RestHighLevelClient restHighLevelClient, List<Attribute> attributes)
+                                       ElasticsearchSearchBatcher searchBatcher,
+                                       ElasticsearchSourceDecoder sourceDecoder)
             throws ElasticsearchServiceException {
-        this.attributes = attributes;
-        QueryBuilder queryBuilder = getQueryBuilder(queryString);
+        this(indexName, new SearchSourceBuilder().query(getQueryBuilder(queryString))
+                .fetchSource(sourceDecoder.getAttributeNames(), null), searchBatcher, sourceDecoder);
+    }
+
+    /**
+     * Creates an iterator over the hits of a search whose source is already built, such as a search carrying the
+     * projection, sorts and size of a compiled selection.
+     */
+    public ElasticsearchRecordIterator(String indexName, SearchSourceBuilder searchSourceBuilder,
+                                       ElasticsearchSearchBatcher searchBatcher,
+                                       ElasticsearchSourceDecoder sourceDecoder)
+            throws ElasticsearchServiceException {
+        this.sourceDecoder = sourceDecoder;
         SearchRequest searchRequest = new SearchRequest(indexName);
-        SearchSourceBuilder searchSourceBuilder = new SearchSourceBuilder();
-        searchSourceBuilder.query(queryBuilder);
         searchRequest.source(searchSourceBuilder);
         try {
-            SearchResponse searchResponse = restHighLevelClient.search(searchRequest, RequestOptions.DEFAULT);
+            SearchResponse searchResponse = searchBatcher.execute(searchRequest);
             elasticsearchHitsIterator = searchResponse.getHits().iterator();
         } catch (IOException e) {
-            throw new ElasticsearchServiceException("Error while performing search the query: '" + queryString + "'",
-                    e);
+            throw new ElasticsearchServiceException("Error while performing search the query: '" +
+                    searchSourceBuilder.query() + "'", e);
         }
     }
 
@@ -68,50 +75,28 @@ public class ElasticsearchRecordIterator implements RecordIterator<Object[]> {
 
     @Override
     public boolean hasNext() {
-        synchronized (this) {
-            return elasticsearchHitsIterator != null && elasticsearchHitsIterator.hasNext();
-        }
+        return elasticsearchHitsIterator != null && elasticsearchHitsIterator.hasNext();
     }
 
     @Override
     public Object[] next() {
-        synchronized (this) {
-            List<Object> fieldValues = new ArrayList<>();
-            if (hasNext() && elasticsearchHitsIterator != null) {
-                SearchHit searchHit = elasticsearchHitsIterator.next();
-                for (Attribute attribute : attributes) {
-                    Object fieldValue;
-                    if (attribute.getType().equals(Attribute.Type.LONG)) {
-                        Object fieldValueAsObject = searchHit.getSourceAsMap().get(attribute.getName());
-                        if (fieldValueAsObject instanceof Integer) {
-                            fieldValue = ((Integer) fieldValueAsObject).longValue();
-                        } else {
-                            fieldValue = fieldValueAsObject;
-                        }
-                    } else if (attribute.getType().equals(Attribute.Type.FLOAT)) {
-                        Object fieldValueAsObject = searchHit.getSourceAsMap().get(attribute.getName());
-                        if (fieldValueAsObject instanceof Double) {
-                            fieldValue = ((Double) fieldValueAsObject).floatValue();
-                        } else {
-                            fieldValue = fieldValueAsObject;
-                        }
-                    } else {
-                        fieldValue = searchHit.getSourceAsMap().get(attribute.getName());
-                    }
-                    fieldValues.add(fieldValue);
-                }
+        if (hasNext()) {
+            SearchHit searchHit = elasticsearchHitsIterator.next();
+            try {
+                return sourceDecoder.decode(searchHit.getSourceRef());
+            } catch (IOException e) {
+                throw new ElasticsearchEventTableException("Error while decoding the source of the document id: '" +
+                        searchHit.getId() + "'", e);
             }
-            return fieldValues.toArray();
         }
+        return new Object[0];
     }
 
     public SearchHit nextSearchHit() {
-        synchronized (this) {
-            if (hasNext() && elasticsearchHitsIterator != null) {
-                return elasticsearchHitsIterator.next();
-            } else {
-                return null;
-            }
+        if (hasNext()) {
+            return elasticsearchHitsIterator.next();
+        } else {
+            return null;
         }
     }
 
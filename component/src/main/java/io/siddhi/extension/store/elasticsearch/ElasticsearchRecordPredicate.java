@@ -0,0 +1,37 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.siddhi.extension.store.elasticsearch;
+
+import java.util.Map;
+
+/**
+ * This interface represents a condition of an Elasticsearch record table evaluated in memory against a record,
+ * such as a record which is still waiting in the bulk processor.
+ */
+public interface ElasticsearchRecordPredicate {
+
+    /**
+     * Evaluates the condition against the record.
+     *
+     * @param record                the record, holding the attributes of the table in their definition order.
+     * @param conditionParameterMap map of matching stream variable ids and their values.
+     * @return true if the record matches the condition.
+     */
+    boolean test(Object[] record, Map<String, Object> conditionParameterMap);
+}
@@ -0,0 +1,210 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.siddhi.extension.store.elasticsearch;
+
+import io.siddhi.core.table.record.BaseExpressionVisitor;
+import io.siddhi.query.api.definition.Attribute;
+import io.siddhi.query.api.expression.condition.Compare;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * This class represents the condition visitor which compiles a condition of an Elasticsearch record table into a
+ * predicate evaluated in memory. Conditions using math operations, functions or IN are not supported, since their
+ * result in the cluster cannot be reproduced exactly.
+ */
+public class ElasticsearchRecordPredicateVisitor extends BaseExpressionVisitor {
+
+    private final List<Attribute> attributes;
+    private final Deque<Operand> operands = new ArrayDeque<>();
+    private boolean isSupported = true;
+
+    public ElasticsearchRecordPredicateVisitor(List<Attribute> attributes) {
+        this.attributes = attributes;
+    }
+
+    /**
+     * Returns the predicate of the visited condition.
+     *
+     * @return the predicate, or null if the condition cannot be evaluated in memory.
+     */
+    public ElasticsearchRecordPredicate returnPredicate() {
+        if (!isSupported || operands.size() != 1) {
+            return null;
+        }
+        Operand condition = operands.peek();
+        return (record, conditionParameterMap) -> Boolean.TRUE.equals(condition.evaluate(record,
+                conditionParameterMap));
+    }
+
+    @Override
+    public void endVisitAnd() {
+        if (isSupported) {
+            Operand right = operands.pop();
+            Operand left = operands.pop();
+            operands.push((record, parameters) -> Boolean.TRUE.equals(left.evaluate(record, parameters)) &&
+                    Boolean.TRUE.equals(right.evaluate(record, parameters)));
+        }
+    }
+
+    @Override
+    public void endVisitOr() {
+        if (isSupported) {
+            Operand right = operands.pop();
+            Operand left = operands.pop();
+            operands.push((record, parameters) -> Boolean.TRUE.equals(left.evaluate(record, parameters)) ||
+                    Boolean.TRUE.equals(right.evaluate(record, parameters)));
+        }
+    }
+
+    @Override
+    public void endVisitNot() {
+        if (isSupported) {
+            Operand operand = operands.pop();
+            operands.push((record, parameters) -> !Boolean.TRUE.equals(operand.evaluate(record, parameters)));
+        }
+    }
+
+    @Override
+    public void endVisitCompare(Compare.Operator operator) {
+        if (isSupported) {
+            Operand right = operands.pop();
+            Operand left = operands.pop();
+            operands.push((record, parameters) -> compare(left.evaluate(record, parameters), operator,
+                    right.evaluate(record, parameters)));
+        }
+    }
+
+    @Override
+    public void endVisitIsNull(String streamId) {
+        if (streamId != null) {
+            isSupported = false;
+        }
+        if (isSupported) {
+            Operand operand = operands.pop();
+            operands.push((record, parameters) -> operand.evaluate(record, parameters) == null);
+        }
+    }
+
+    @Override
+    public void beginVisitIn(String storeId) {
+        isSupported = false;
+    }
+
+    @Override
+    public void beginVisitMath(MathOperator mathOperator) {
+        isSupported = false;
+    }
+
+    @Override
+    public void beginVisitAttributeFunction(String namespace, String functionName) {
+        isSupported = false;
+    }
+
+    @Override
+    public void endVisitConstant(Object value, Attribute.Type type) {
+        operands.push((record, parameters) -> value);
+    }
+
+    @Override
+    public void endVisitStreamVariable(String id, String streamId, String attributeName, Attribute.Type type) {
+        operands.push((record, parameters) -> parameters.get(id));
+    }
+
+    @Override
+    public void endVisitStoreVariable(String storeId, String attributeName, Attribute.Type type) {
+        int index = -1;
+        for (int i = 0; i < attributes.size(); i++) {
+            if (attributes.get(i).getName().equals(attributeName)) {
+                index = i;
+                break;
+            }
+        }
+        if (index == -1) {
+            isSupported = false;
+            return;
+        }
+        int attributeIndex = index;
+        operands.push((record, parameters) -> record[attributeIndex]);
+    }
+
+    /**
+     * Compares two values the way the cluster matches them, so that a missing value matches nothing but a not
+     * equal comparison.
+     */
+    private static boolean compare(Object left, Compare.Operator operator, Object right) {
+        if (operator == Compare.Operator.EQUAL) {
+            return isEqual(left, right);
+        } else if (operator == Compare.Operator.NOT_EQUAL) {
+            return !isEqual(left, right);
+        }
+        Integer result = order(left, right);
+        if (result == null) {
+            return false;
+        }
+        switch (operator) {
+            case LESS_THAN:
+                return result < 0;
+            case GREATER_THAN:
+                return result > 0;
+            case LESS_THAN_EQUAL:
+                return result <= 0;
+            case GREATER_THAN_EQUAL:
+                return result >= 0;
+            default:
+                return false;
+        }
+    }
+
+    private static boolean isEqual(Object left, Object right) {
+        if (left instanceof Number && right instanceof Number) {
+            return order(left, right) == 0;
+        }
+        return left != null && left.equals(right);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Integer order(Object left, Object right) {
+        if (left instanceof Number && right instanceof Number) {
+            if (isIntegral(left) && isIntegral(right)) {
+                return Long.compare(((Number) left).longValue(), ((Number) right).longValue());
+            }
+            return Double.compare(((Number) left).doubleValue(), ((Number) right).doubleValue());
+        }
+        if (left instanceof Comparable && right != null && left.getClass() == right.getClass()) {
+            return ((Comparable<Object>) left).compareTo(right);
+        }
+        return null;
+    }
+
+    private static boolean isIntegral(Object value) {
+        return value instanceof Long || value instanceof Integer;
+    }
+
+    /**
+     * This interface represents an operand of the condition, evaluated against a record and the values of the
+     * stream variables.
+     */
+    private interface Operand {
+        Object evaluate(Object[] record, Map<String, Object> conditionParameterMap);
+    }
+}
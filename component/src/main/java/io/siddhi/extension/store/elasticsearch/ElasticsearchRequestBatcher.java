@@ -0,0 +1,260 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.siddhi.extension.store.elasticsearch;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This class collects read requests issued concurrently by several threads and executes them as a single batched
+ * request. One of the waiting callers collects the next batch: while no batch is in flight it executes the queued
+ * requests at once, so that a lone caller never waits, and otherwise it waits until either the batch is full, the
+ * maximum wait time elapses or the batches in flight complete. It then hands the collection of the following batch
+ * to the oldest caller still queued and executes its batch on behalf of every caller in it, so that each caller
+ * executes at most one batch and several batches can be in flight. With a batch size of one every request is
+ * executed directly.
+ *
+ * @param <Q> the request type.
+ * @param <R> the response type.
+ */
+public abstract class ElasticsearchRequestBatcher<Q, R> {
+
+    private final int maxBatchSize;
+    private final long maxWaitNanos;
+    private final ElasticsearchCircuitBreaker circuitBreaker;
+    private final ElasticsearchLaneMetrics laneMetrics;
+    private final Object lock = new Object();
+    private final Deque<PendingRequest<Q, R>> pendingRequests = new ArrayDeque<>();
+    private boolean hasCollector;
+    private int inFlightBatchCount;
+
+    public ElasticsearchRequestBatcher(int maxBatchSize, long maxWaitMillis) {
+        this(maxBatchSize, maxWaitMillis, null, null);
+    }
+
+    /**
+     * Creates a request batcher which reports the outcome of each executed request to a circuit breaker, and the
+     * latency each caller waited for its response to the metrics of a lane.
+     *
+     * @param circuitBreaker the circuit breaker, or null to not report outcomes.
+     * @param laneMetrics    the metrics of the lane the requests are sent on, or null to not record latencies.
+     */
+    public ElasticsearchRequestBatcher(int maxBatchSize, long maxWaitMillis,
+                                       ElasticsearchCircuitBreaker circuitBreaker,
+                                       ElasticsearchLaneMetrics laneMetrics) {
+        this.maxBatchSize = maxBatchSize;
+        this.maxWaitNanos = TimeUnit.MILLISECONDS.toNanos(maxWaitMillis);
+        this.circuitBreaker = circuitBreaker;
+        this.laneMetrics = laneMetrics;
+    }
+
+    /**
+     * Executes the request, possibly together with requests of other threads, and waits for its response.
+     *
+     * @param request the request to be executed.
+     * @return the response of the request.
+     * @throws IOException if the request or the batch it belongs to could not be executed.
+     */
+    public R execute(Q request) throws IOException {
+        if (laneMetrics == null) {
+            return executeRequest(request);
+        }
+        long startNanos = System.nanoTime();
+        boolean isFailed = true;
+        try {
+            R response = executeRequest(request);
+            isFailed = false;
+            return response;
+        } finally {
+            laneMetrics.record(startNanos, isFailed);
+        }
+    }
+
+    private R executeRequest(Q request) throws IOException {
+        if (maxBatchSize <= 1) {
+            try {
+                R response = executeSingle(request);
+                recordSuccess();
+                return response;
+            } catch (IOException | RuntimeException e) {
+                recordFailure(e);
+                throw e;
+            }
+        }
+        PendingRequest<Q, R> pendingRequest = new PendingRequest<>(request);
+        boolean isCollector;
+        synchronized (lock) {
+            pendingRequests.add(pendingRequest);
+            isCollector = !hasCollector;
+            if (isCollector) {
+                hasCollector = true;
+            } else if (pendingRequests.size() >= maxBatchSize) {
+                lock.notifyAll();
+            }
+        }
+        if (!isCollector) {
+            try {
+                // the caller is woken either by its response or by being handed the collection of the next batch
+                CompletableFuture.anyOf(pendingRequest.future, pendingRequest.collectorTurn).join();
+            } catch (CompletionException e) {
+                // the failure of the request is thrown when its response is awaited
+            }
+            isCollector = pendingRequest.collectorTurn.isDone();
+        }
+        if (isCollector) {
+            collectAndExecuteBatch();
+        }
+        return await(pendingRequest.future);
+    }
+
+    /**
+     * Collects the next batch, which starts with the request of the collecting caller, hands the collection of the
+     * following batch to the oldest request left queued, and executes the batch.
+     */
+    private void collectAndExecuteBatch() {
+        List<PendingRequest<Q, R>> batch;
+        PendingRequest<Q, R> nextCollector;
+        synchronized (lock) {
+            long deadline = System.nanoTime() + maxWaitNanos;
+            long remaining = maxWaitNanos;
+            boolean isInterrupted = false;
+            while (inFlightBatchCount > 0 && pendingRequests.size() < maxBatchSize && remaining > 0) {
+                try {
+                    TimeUnit.NANOSECONDS.timedWait(lock, remaining);
+                } catch (InterruptedException e) {
+                    isInterrupted = true;
+                    break;
+                }
+                remaining = deadline - System.nanoTime();
+            }
+            if (isInterrupted) {
+                Thread.currentThread().interrupt();
+            }
+            batch = new ArrayList<>(Math.min(pendingRequests.size(), maxBatchSize));
+            while (!pendingRequests.isEmpty() && batch.size() < maxBatchSize) {
+                batch.add(pendingRequests.poll());
+            }
+            inFlightBatchCount++;
+            nextCollector = pendingRequests.peek();
+            hasCollector = nextCollector != null;
+        }
+        if (nextCollector != null) {
+            nextCollector.collectorTurn.complete(Boolean.TRUE);
+        }
+        try {
+            executeBatch(batch);
+        } finally {
+            synchronized (lock) {
+                inFlightBatchCount--;
+                if (inFlightBatchCount == 0) {
+                    // a collector waiting for the batches in flight to complete executes its batch at once
+                    lock.notifyAll();
+                }
+            }
+        }
+    }
+
+    private void executeBatch(List<PendingRequest<Q, R>> batch) {
+        try {
+            if (batch.size() == 1) {
+                batch.get(0).future.complete(executeSingle(batch.get(0).request));
+                recordSuccess();
+                return;
+            }
+            List<Q> requests = new ArrayList<>(batch.size());
+            List<CompletableFuture<R>> futures = new ArrayList<>(batch.size());
+            for (PendingRequest<Q, R> pendingRequest : batch) {
+                requests.add(pendingRequest.request);
+                futures.add(pendingRequest.future);
+            }
+            executeBatch(requests, futures);
+            recordSuccess();
+        } catch (IOException | RuntimeException e) {
+            recordFailure(e);
+            for (PendingRequest<Q, R> pendingRequest : batch) {
+                pendingRequest.future.completeExceptionally(e);
+            }
+        }
+    }
+
+    private void recordSuccess() {
+        if (circuitBreaker != null) {
+            circuitBreaker.onSuccess();
+        }
+    }
+
+    private void recordFailure(Exception e) {
+        if (circuitBreaker != null) {
+            circuitBreaker.onFailure(e);
+        }
+    }
+
+    private R await(CompletableFuture<R> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for a batched request", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IOException("Error while executing a batched request", cause);
+        }
+    }
+
+    /**
+     * Executes a single request without batching.
+     *
+     * @param request the request.
+     * @return the response.
+     * @throws IOException if the request could not be executed.
+     */
+    protected abstract R executeSingle(Q request) throws IOException;
+
+    /**
+     * Executes several requests as one batched request and completes the future of each request with its own
+     * response or failure.
+     *
+     * @param requests the requests of the batch.
+     * @param futures  the futures of the requests, in the same order.
+     * @throws IOException if the batched request could not be executed.
+     */
+    protected abstract void executeBatch(List<Q> requests, List<CompletableFuture<R>> futures) throws IOException;
+
+    private static class PendingRequest<Q, R> {
+        private final Q request;
+        private final CompletableFuture<R> future = new CompletableFuture<>();
+        private final CompletableFuture<Boolean> collectorTurn = new CompletableFuture<>();
+
+        private PendingRequest(Q request) {
+            this.request = request;
+        }
+    }
+}
@@ -0,0 +1,187 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.siddhi.extension.store.elasticsearch;
+
+import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.action.search.MultiSearchRequest;
+import org.elasticsearch.action.search.MultiSearchResponse;
+import org.elasticsearch.action.search.SearchRequest;
+import org.elasticsearch.action.search.SearchResponse;
+import org.elasticsearch.client.RequestOptions;
+import org.elasticsearch.client.RestHighLevelClient;
+import org.elasticsearch.common.unit.TimeValue;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * This class batches search requests of concurrent find and contains operations into multi search requests.
+ * With a search timeout every search is sent asynchronously and abandoned once it passes its deadline, so that a
+ * slow shard can not stall the thread waiting for it. With a search hedger single searches are hedged when slow.
+ */
+public class ElasticsearchSearchBatcher extends ElasticsearchRequestBatcher<SearchRequest, SearchResponse> {
+
+    // shards stop collecting hits ahead of the deadline so that their partial results can still arrive in time
+    private static final double SHARD_TIMEOUT_RATIO = 0.8;
+
+    private RestHighLevelClient restHighLevelClient;
+    private long searchTimeoutMillis;
+    private boolean allowPartialSearchResults;
+    private ElasticsearchSearchHedger searchHedger;
+    private ElasticsearchTableMetrics tableMetrics;
+
+    public ElasticsearchSearchBatcher(RestHighLevelClient restHighLevelClient, int maxBatchSize,
+                                      long maxWaitMillis) {
+        this(restHighLevelClient, maxBatchSize, maxWaitMillis, 0, false, null, null, null, null);
+    }
+
+    /**
+     * Creates a search batcher whose searches have a deadline.
+     *
+     * @param searchTimeoutMillis       the deadline of each search in milliseconds, or 0 for none.
+     * @param allowPartialSearchResults whether a search may return the hits of the shards which completed in time
+     *                                  instead of failing.
+     * @param searchHedger              the hedger single searches are sent with, or null to not hedge them.
+     * @param circuitBreaker            the circuit breaker the outcome of each search is reported to, or null.
+     * @param laneMetrics               the metrics the latency of each search is recorded to, or null.
+     * @param tableMetrics              the metrics of the table each search and its response are recorded to,
+     *                                  or null.
+     */
+    public ElasticsearchSearchBatcher(RestHighLevelClient restHighLevelClient, int maxBatchSize,
+                                      long maxWaitMillis, long searchTimeoutMillis,
+                                      boolean allowPartialSearchResults, ElasticsearchSearchHedger searchHedger,
+                                      ElasticsearchCircuitBreaker circuitBreaker,
+                                      ElasticsearchLaneMetrics laneMetrics,
+                                      ElasticsearchTableMetrics tableMetrics) {
+        super(maxBatchSize, maxWaitMillis, circuitBreaker, laneMetrics);
+        this.restHighLevelClient = restHighLevelClient;
+        this.searchTimeoutMillis = searchTimeoutMillis;
+        this.allowPartialSearchResults = allowPartialSearchResults;
+        this.searchHedger = searchHedger;
+        this.tableMetrics = tableMetrics;
+    }
+
+    @Override
+    public SearchResponse execute(SearchRequest request) throws IOException {
+        if (tableMetrics == null || !tableMetrics.isEnabled()) {
+            return super.execute(request);
+        }
+        long startNanos = System.nanoTime();
+        SearchResponse response = null;
+        try {
+            response = super.execute(request);
+            return response;
+        } finally {
+            tableMetrics.recordSearch(startNanos, response);
+        }
+    }
+
+    @Override
+    protected SearchResponse executeSingle(SearchRequest request) throws IOException {
+        if (searchTimeoutMillis <= 0 && searchHedger == null) {
+            return restHighLevelClient.search(request, RequestOptions.DEFAULT);
+        }
+        if (searchTimeoutMillis > 0) {
+            applyDeadline(request);
+        }
+        CompletableFuture<SearchResponse> future;
+        if (searchHedger != null) {
+            future = searchHedger.search(request);
+        } else {
+            future = new CompletableFuture<>();
+            restHighLevelClient.searchAsync(request, RequestOptions.DEFAULT,
+                    ActionListener.wrap(future::complete, future::completeExceptionally));
+        }
+        return checkTimedOut(awaitDeadline(future));
+    }
+
+    @Override
+    protected void executeBatch(List<SearchRequest> requests, List<CompletableFuture<SearchResponse>> futures)
+            throws IOException {
+        MultiSearchRequest multiSearchRequest = new MultiSearchRequest();
+        for (SearchRequest request : requests) {
+            if (searchTimeoutMillis > 0) {
+                applyDeadline(request);
+            }
+            multiSearchRequest.add(request);
+        }
+        MultiSearchResponse multiSearchResponse;
+        if (searchTimeoutMillis <= 0) {
+            multiSearchResponse = restHighLevelClient.msearch(multiSearchRequest, RequestOptions.DEFAULT);
+        } else {
+            CompletableFuture<MultiSearchResponse> future = new CompletableFuture<>();
+            restHighLevelClient.msearchAsync(multiSearchRequest, RequestOptions.DEFAULT,
+                    ActionListener.wrap(future::complete, future::completeExceptionally));
+            multiSearchResponse = awaitDeadline(future);
+        }
+        MultiSearchResponse.Item[] items = multiSearchResponse.getResponses();
+        for (int i = 0; i < futures.size(); i++) {
+            if (items[i].isFailure()) {
+                futures.get(i).completeExceptionally(items[i].getFailure());
+            } else {
+                try {
+                    futures.get(i).complete(checkTimedOut(items[i].getResponse()));
+                } catch (IOException e) {
+                    futures.get(i).completeExceptionally(e);
+                }
+            }
+        }
+    }
+
+    private void applyDeadline(SearchRequest request) {
+        request.allowPartialSearchResults(allowPartialSearchResults);
+        if (request.source() != null && request.source().timeout() == null) {
+            request.source().timeout(TimeValue.timeValueMillis(Math.max(1,
+                    (long) (searchTimeoutMillis * SHARD_TIMEOUT_RATIO))));
+        }
+    }
+
+    private <T> T awaitDeadline(CompletableFuture<T> future) throws IOException {
+        try {
+            return searchTimeoutMillis > 0 ? future.get(searchTimeoutMillis, TimeUnit.MILLISECONDS) : future.get();
+        } catch (TimeoutException e) {
+            // the response is discarded whenever it arrives, the shard timeout bounds the work left on the cluster
+            future.cancel(false);
+            throw new IOException("The search did not complete within its deadline of " + searchTimeoutMillis +
+                    " ms", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for a search", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IOException("Error while executing a search", cause);
+        }
+    }
+
+    private SearchResponse checkTimedOut(SearchResponse searchResponse) throws IOException {
+        if (searchResponse.isTimedOut() && !allowPartialSearchResults) {
+            throw new IOException("The search timed out on some shards and partial results are not allowed");
+        }
+        return searchResponse;
+    }
+}
@@ -0,0 +1,216 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.siddhi.extension.store.elasticsearch;
+
+import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.action.search.SearchRequest;
+import org.elasticsearch.action.search.SearchResponse;
+import org.elasticsearch.client.RequestOptions;
+import org.elasticsearch.client.RestHighLevelClient;
+
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * This class sends searches asynchronously and hedges the slow ones. A search which has not returned within the
+ * configured percentile of the latency of recent searches is sent once more with a different preference, so that
+ * it is likely served by another copy of the shards, and the first response wins. The node which serves the
+ * original search is not known to the client, so the hedge can not be kept off its shard copies, and a hedge of an
+ * index with one replica lands on the same slow copy about half of the time. Hedges are limited by a budget
+ * which grows by a fixed fraction with every search, so that hedging can not amplify the load on an overloaded
+ * cluster by more than that fraction.
+ */
+public class ElasticsearchSearchHedger {
+
+    private static final int LATENCY_WINDOW_SIZE = 1024;
+    private static final int MIN_LATENCY_SAMPLES = 100;
+    private static final int PERCENTILE_RECOMPUTE_INTERVAL = 64;
+    private static final double MAX_BUDGET_TOKENS = 10;
+    private static final String HEDGE_PREFERENCE_PREFIX = "hedge-";
+    private static final ScheduledThreadPoolExecutor SCHEDULER = createScheduler();
+
+    private final RestHighLevelClient restHighLevelClient;
+    private final double percentile;
+    private final double budgetPerSearch;
+    private final long[] latencies = new long[LATENCY_WINDOW_SIZE];
+    private long latencyCount;
+    private long hedgeDelayNanos = -1;
+    private double budgetTokens;
+    private final LongAdder searchCount = new LongAdder();
+    private final LongAdder hedgeCount = new LongAdder();
+    private final LongAdder hedgeWinCount = new LongAdder();
+    private final LongAdder budgetExhaustedCount = new LongAdder();
+    private final LongAdder savedNanos = new LongAdder();
+
+    /**
+     * Creates a search hedger.
+     *
+     * @param restHighLevelClient the client the searches are sent with.
+     * @param percentile          the percentile of recent search latency after which a search is hedged, such as
+     *                            95.
+     * @param budgetPerSearch     the fraction of searches which may be hedged, such as 0.05.
+     */
+    public ElasticsearchSearchHedger(RestHighLevelClient restHighLevelClient, double percentile,
+                                     double budgetPerSearch) {
+        this.restHighLevelClient = restHighLevelClient;
+        this.percentile = percentile;
+        this.budgetPerSearch = budgetPerSearch;
+    }
+
+    /**
+     * Sends the search, hedging it if it is slow.
+     *
+     * @param searchRequest the search.
+     * @return the future completed with the first response, or with the failure once every attempt failed.
+     */
+    public CompletableFuture<SearchResponse> search(SearchRequest searchRequest) {
+        searchCount.increment();
+        HedgedSearch hedgedSearch = new HedgedSearch();
+        long hedgeDelay = addBudgetAndGetHedgeDelay();
+        send(searchRequest, hedgedSearch, false);
+        if (hedgeDelay >= 0 && !hedgedSearch.result.isDone()) {
+            ScheduledFuture<?> hedge = SCHEDULER.schedule(() -> hedge(searchRequest, hedgedSearch), hedgeDelay,
+                    TimeUnit.NANOSECONDS);
+            hedgedSearch.result.whenComplete((response, throwable) -> hedge.cancel(false));
+        }
+        return hedgedSearch.result;
+    }
+
+    public long getSearchCount() {
+        return searchCount.sum();
+    }
+
+    public long getHedgeCount() {
+        return hedgeCount.sum();
+    }
+
+    /**
+     * Returns the number of hedged searches which were answered by the hedge before the original request.
+     *
+     * @return the number of searches won by their hedge.
+     */
+    public long getHedgeWinCount() {
+        return hedgeWinCount.sum();
+    }
+
+    public long getBudgetExhaustedCount() {
+        return budgetExhaustedCount.sum();
+    }
+
+    /**
+     * Returns the time saved by hedges, which is the time by which the winning hedges beat the original requests
+     * they were sent for. Original requests which never returned are not accounted.
+     *
+     * @return the saved time in milliseconds.
+     */
+    public long getSavedTimeMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(savedNanos.sum());
+    }
+
+    private void hedge(SearchRequest searchRequest, HedgedSearch hedgedSearch) {
+        if (hedgedSearch.result.isDone()) {
+            return;
+        }
+        if (!tryAcquireBudget()) {
+            budgetExhaustedCount.increment();
+            return;
+        }
+        hedgeCount.increment();
+        SearchRequest hedgeRequest = new SearchRequest(searchRequest);
+        // a random preference picks a random copy of each shard, which may still be the copy of the original search
+        hedgeRequest.preference(HEDGE_PREFERENCE_PREFIX + ThreadLocalRandom.current().nextInt(Integer.MAX_VALUE));
+        send(hedgeRequest, hedgedSearch, true);
+    }
+
+    private void send(SearchRequest searchRequest, HedgedSearch hedgedSearch, boolean isHedge) {
+        hedgedSearch.pendingAttempts.incrementAndGet();
+        restHighLevelClient.searchAsync(searchRequest, RequestOptions.DEFAULT, new ActionListener<SearchResponse>() {
+            @Override
+            public void onResponse(SearchResponse searchResponse) {
+                long elapsedNanos = System.nanoTime() - hedgedSearch.startNanos;
+                hedgedSearch.pendingAttempts.decrementAndGet();
+                if (hedgedSearch.result.complete(searchResponse)) {
+                    hedgedSearch.winnerElapsedNanos = elapsedNanos;
+                    recordLatency(elapsedNanos);
+                    if (isHedge) {
+                        hedgeWinCount.increment();
+                    }
+                } else if (!isHedge && hedgedSearch.winnerElapsedNanos >= 0) {
+                    savedNanos.add(elapsedNanos - hedgedSearch.winnerElapsedNanos);
+                }
+            }
+
+            @Override
+            public void onFailure(Exception e) {
+                // a failed attempt only fails the search if no other attempt is still running
+                if (hedgedSearch.pendingAttempts.decrementAndGet() == 0) {
+                    hedgedSearch.result.completeExceptionally(e);
+                }
+            }
+        });
+    }
+
+    private synchronized long addBudgetAndGetHedgeDelay() {
+        budgetTokens = Math.min(MAX_BUDGET_TOKENS, budgetTokens + budgetPerSearch);
+        return hedgeDelayNanos;
+    }
+
+    private synchronized boolean tryAcquireBudget() {
+        if (budgetTokens < 1) {
+            return false;
+        }
+        budgetTokens--;
+        return true;
+    }
+
+    private synchronized void recordLatency(long latencyNanos) {
+        latencies[(int) (latencyCount % LATENCY_WINDOW_SIZE)] = latencyNanos;
+        latencyCount++;
+        if (latencyCount >= MIN_LATENCY_SAMPLES && latencyCount % PERCENTILE_RECOMPUTE_INTERVAL == 0) {
+            int size = (int) Math.min(latencyCount, LATENCY_WINDOW_SIZE);
+            long[] sortedLatencies = Arrays.copyOf(latencies, size);
+            Arrays.sort(sortedLatencies);
+            int index = (int) Math.ceil(percentile / 100 * size) - 1;
+            hedgeDelayNanos = sortedLatencies[Math.max(0, Math.min(size - 1, index))];
+        }
+    }
+
+    private static ScheduledThreadPoolExecutor createScheduler() {
+        ScheduledThreadPoolExecutor scheduler = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "elasticsearch-search-hedger");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.setRemoveOnCancelPolicy(true);
+        return scheduler;
+    }
+
+    private static class HedgedSearch {
+        private final CompletableFuture<SearchResponse> result = new CompletableFuture<>();
+        private final AtomicInteger pendingAttempts = new AtomicInteger();
+        private final long startNanos = System.nanoTime();
+        private volatile long winnerElapsedNanos = -1;
+    }
+}
@@ -0,0 +1,61 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.siddhi.extension.store.elasticsearch;
+
+import io.siddhi.core.table.record.RecordIterator;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * This class represents the iterator which streams the output records of a compiled selection, built from the
+ * store records of an underlying iterator.
+ */
+public class ElasticsearchSelectionRecordIterator implements RecordIterator<Object[]> {
+
+    private RecordIterator<Object[]> recordIterator;
+    private ElasticsearchCompiledSelection compiledSelection;
+    private Map<String, Object> parameters;
+
+    public ElasticsearchSelectionRecordIterator(RecordIterator<Object[]> recordIterator,
+                                                ElasticsearchCompiledSelection compiledSelection,
+                                                Map<String, Object> parameters) {
+        this.recordIterator = recordIterator;
+        this.compiledSelection = compiledSelection;
+        this.parameters = parameters;
+    }
+
+    @Override
+    public void close() throws IOException {
+        recordIterator.close();
+    }
+
+    @Override
+    public boolean hasNext() {
+        return recordIterator.hasNext();
+    }
+
+    @Override
+    public Object[] next() {
+        if (recordIterator.hasNext()) {
+            return compiledSelection.select(recordIterator.next(), parameters);
+        }
+        return new Object[0];
+    }
+}
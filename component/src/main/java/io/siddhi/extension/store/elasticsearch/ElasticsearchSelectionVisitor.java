@@ -0,0 +1,161 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.siddhi.extension.store.elasticsearch;
+
+import io.siddhi.core.table.record.BaseExpressionVisitor;
+import io.siddhi.query.api.definition.Attribute;
+import io.siddhi.query.api.expression.condition.Compare;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * This class represents the selection visitor implementation specific to Elasticsearch record tables. It visits a
+ * single select, group by or order by expression and records whether it is a plain store variable, stream variable
+ * or constant, or an aggregate function over a store variable, which are the expressions that can be pushed down to
+ * Elasticsearch.
+ */
+public class ElasticsearchSelectionVisitor extends BaseExpressionVisitor {
+
+    public static final String FUNCTION_SUM = "sum";
+    public static final String FUNCTION_COUNT = "count";
+    public static final String FUNCTION_AVG = "avg";
+    public static final String FUNCTION_MIN = "min";
+    public static final String FUNCTION_MAX = "max";
+    public static final String FUNCTION_DISTINCT_COUNT = "distinctCount";
+    private static final Set<String> AGGREGATE_FUNCTIONS = new HashSet<>(Arrays.asList(FUNCTION_SUM,
+            FUNCTION_COUNT, FUNCTION_AVG, FUNCTION_MIN, FUNCTION_MAX, FUNCTION_DISTINCT_COUNT));
+
+    private String storeVariable;
+    private Attribute.Type storeVariableType;
+    private String streamVariableId;
+    private Object constant;
+    private boolean isConstant;
+    private String aggregateFunction;
+    private int operandCount;
+    private boolean isSupported = true;
+
+    /**
+     * Returns whether the visited expression consists of a single store variable, stream variable or constant, or
+     * of an aggregate function over a single store variable.
+     *
+     * @return true if the expression can be pushed down to Elasticsearch.
+     */
+    public boolean isSupported() {
+        if (aggregateFunction != null) {
+            return isSupported && (operandCount == 1 ? storeVariable != null :
+                    operandCount == 0 && FUNCTION_COUNT.equals(aggregateFunction));
+        }
+        return isSupported && operandCount == 1;
+    }
+
+    public boolean isAggregate() {
+        return aggregateFunction != null;
+    }
+
+    public String getAggregateFunction() {
+        return aggregateFunction;
+    }
+
+    public String getStoreVariable() {
+        return storeVariable;
+    }
+
+    public Attribute.Type getStoreVariableType() {
+        return storeVariableType;
+    }
+
+    public String getStreamVariableId() {
+        return streamVariableId;
+    }
+
+    public Object getConstant() {
+        return constant;
+    }
+
+    public boolean isConstant() {
+        return isConstant;
+    }
+
+    @Override
+    public void beginVisitAnd() {
+        isSupported = false;
+    }
+
+    @Override
+    public void beginVisitOr() {
+        isSupported = false;
+    }
+
+    @Override
+    public void beginVisitNot() {
+        isSupported = false;
+    }
+
+    @Override
+    public void beginVisitCompare(Compare.Operator operator) {
+        isSupported = false;
+    }
+
+    @Override
+    public void beginVisitIsNull(String streamId) {
+        isSupported = false;
+    }
+
+    @Override
+    public void beginVisitIn(String storeId) {
+        isSupported = false;
+    }
+
+    @Override
+    public void beginVisitMath(MathOperator mathOperator) {
+        isSupported = false;
+    }
+
+    @Override
+    public void beginVisitAttributeFunction(String namespace, String functionName) {
+        if (aggregateFunction != null || operandCount > 0 || (namespace != null && !namespace.isEmpty()) ||
+                !AGGREGATE_FUNCTIONS.contains(functionName)) {
+            isSupported = false;
+        } else {
+            aggregateFunction = functionName;
+        }
+    }
+
+    @Override
+    public void beginVisitConstant(Object value, Attribute.Type type) {
+        operandCount++;
+        constant = value;
+        isConstant = true;
+    }
+
+    @Override
+    public void beginVisitStreamVariable(String id, String streamId, String attributeName, Attribute.Type type) {
+        operandCount++;
+        streamVariableId = id;
+    }
+
+    @Override
+    public void beginVisitStoreVariable(String storeId, String attributeName, Attribute.Type type) {
+        operandCount++;
+        storeVariable = attributeName;
+        storeVariableType = type;
+    }
+}
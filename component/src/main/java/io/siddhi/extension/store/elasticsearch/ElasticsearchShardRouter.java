@@ -0,0 +1,352 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.siddhi.extension.store.elasticsearch;
+
+import org.apache.http.HttpHost;
+import org.apache.log4j.Logger;
+import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.action.DocWriteRequest;
+import org.elasticsearch.action.DocWriteResponse;
+import org.elasticsearch.action.bulk.BulkItemResponse;
+import org.elasticsearch.action.bulk.BulkRequest;
+import org.elasticsearch.action.bulk.BulkResponse;
+import org.elasticsearch.client.Request;
+import org.elasticsearch.client.RequestOptions;
+import org.elasticsearch.client.Response;
+import org.elasticsearch.client.ResponseListener;
+import org.elasticsearch.client.RestHighLevelClient;
+import org.elasticsearch.cluster.routing.Murmur3HashFunction;
+import org.elasticsearch.common.xcontent.XContentHelper;
+import org.elasticsearch.common.xcontent.XContentType;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * This class sends bulk requests straight to the nodes holding the primary shards of their documents, sparing the
+ * cluster the hop through a coordinating node. It caches the routing table of each index written, computes the
+ * shard of every document from its routing value or id the way the cluster does, and splits each bulk request by
+ * the node holding the primary shard of its documents. The responses of the parts are merged back into a single
+ * response in the order of the original request.
+ * <p>
+ * The routing table of an index is loaded asynchronously when the index is first written and refreshed
+ * periodically, and sooner while shards are relocating or after a part of a bulk request failed. Documents whose
+ * node is not known yet, or is not one of the nodes of the client, are sent the usual way. A document sent to a
+ * node which no longer holds its primary shard is forwarded by that node, so a stale routing table only costs the
+ * hop this class saves.
+ */
+public class ElasticsearchShardRouter {
+
+    private static final Logger logger = Logger.getLogger(ElasticsearchShardRouter.class);
+    private static final long RELOCATION_REFRESH_DELAY_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final RestHighLevelClient restHighLevelClient;
+    private final String scheme;
+    private final long refreshIntervalNanos;
+    private final Map<String, IndexRouting> indexRoutings = new ConcurrentHashMap<>();
+    private final Set<String> refreshingIndices = ConcurrentHashMap.newKeySet();
+    private final LongAdder routedCount = new LongAdder();
+    private final LongAdder unroutedCount = new LongAdder();
+
+    /**
+     * Creates a shard router.
+     *
+     * @param restHighLevelClient   the client the bulk requests are sent with.
+     * @param scheme                the scheme of the HTTP addresses of the nodes.
+     * @param refreshIntervalMillis the interval at which the routing table of an index is refreshed.
+     */
+    public ElasticsearchShardRouter(RestHighLevelClient restHighLevelClient, String scheme,
+                                    long refreshIntervalMillis) {
+        this.restHighLevelClient = restHighLevelClient;
+        this.scheme = scheme;
+        this.refreshIntervalNanos = TimeUnit.MILLISECONDS.toNanos(refreshIntervalMillis);
+    }
+
+    /**
+     * Sends the bulk request, split by the node holding the primary shard of each document.
+     *
+     * @param request  the bulk request.
+     * @param listener the listener notified with the merged response.
+     */
+    public void bulkAsync(BulkRequest request, ActionListener<BulkResponse> listener) {
+        List<DocWriteRequest<?>> requests = request.requests();
+        Map<HttpHost, List<Integer>> positionsByHost = new LinkedHashMap<>();
+        for (int i = 0; i < requests.size(); i++) {
+            HttpHost host = route(requests.get(i));
+            positionsByHost.computeIfAbsent(host, key -> new ArrayList<>()).add(i);
+        }
+        if (positionsByHost.size() == 1) {
+            HttpHost host = positionsByHost.keySet().iterator().next();
+            send(host, request, listener);
+            return;
+        }
+        BulkItemResponse[] itemResponses = new BulkItemResponse[requests.size()];
+        AtomicInteger pendingParts = new AtomicInteger(positionsByHost.size());
+        AtomicInteger failedParts = new AtomicInteger();
+        AtomicReference<Exception> partFailure = new AtomicReference<>();
+        long[] tookMillis = new long[positionsByHost.size()];
+        int part = 0;
+        for (Map.Entry<HttpHost, List<Integer>> entry : positionsByHost.entrySet()) {
+            List<Integer> positions = entry.getValue();
+            BulkRequest partRequest = new BulkRequest();
+            partRequest.timeout(request.timeout());
+            partRequest.setRefreshPolicy(request.getRefreshPolicy());
+            partRequest.waitForActiveShards(request.waitForActiveShards());
+            for (int position : positions) {
+                partRequest.add(requests.get(position));
+            }
+            int partIndex = part++;
+            send(entry.getKey(), partRequest, new ActionListener<BulkResponse>() {
+                @Override
+                public void onResponse(BulkResponse response) {
+                    BulkItemResponse[] partItemResponses = response.getItems();
+                    for (int i = 0; i < positions.size(); i++) {
+                        BulkItemResponse itemResponse = partItemResponses[i];
+                        itemResponses[positions.get(i)] = itemResponse.isFailed() ?
+                                new BulkItemResponse(positions.get(i), itemResponse.getOpType(),
+                                        itemResponse.getFailure()) :
+                                new BulkItemResponse(positions.get(i), itemResponse.getOpType(),
+                                        itemResponse.<DocWriteResponse>getResponse());
+                    }
+                    tookMillis[partIndex] = response.getTook().getMillis();
+                    onPartCompleted();
+                }
+
+                @Override
+                public void onFailure(Exception e) {
+                    for (int position : positions) {
+                        DocWriteRequest<?> docWriteRequest = requests.get(position);
+                        itemResponses[position] = new BulkItemResponse(position, docWriteRequest.opType(),
+                                new BulkItemResponse.Failure(docWriteRequest.index(), docWriteRequest.type(),
+                                        docWriteRequest.id(), e));
+                    }
+                    failedParts.incrementAndGet();
+                    partFailure.compareAndSet(null, e);
+                    invalidate();
+                    onPartCompleted();
+                }
+
+                private void onPartCompleted() {
+                    if (pendingParts.decrementAndGet() > 0) {
+                        return;
+                    }
+                    if (failedParts.get() == tookMillis.length) {
+                        listener.onFailure(partFailure.get());
+                        return;
+                    }
+                    long maxTookMillis = 0;
+                    for (long partTookMillis : tookMillis) {
+                        maxTookMillis = Math.max(maxTookMillis, partTookMillis);
+                    }
+                    listener.onResponse(new BulkResponse(itemResponses, maxTookMillis));
+                }
+            });
+        }
+    }
+
+    /**
+     * Discards the cached routing tables, so that they are loaded again on the next write to their index.
+     */
+    public void invalidate() {
+        for (IndexRouting indexRouting : indexRoutings.values()) {
+            indexRouting.refreshAt = System.nanoTime();
+        }
+    }
+
+    public long getRoutedCount() {
+        return routedCount.sum();
+    }
+
+    public long getUnroutedCount() {
+        return unroutedCount.sum();
+    }
+
+    private void send(HttpHost host, BulkRequest request, ActionListener<BulkResponse> listener) {
+        if (host == null) {
+            unroutedCount.add(request.numberOfActions());
+            restHighLevelClient.bulkAsync(request, RequestOptions.DEFAULT, listener);
+        } else {
+            routedCount.add(request.numberOfActions());
+            ElasticsearchNodeSelector.sendTo(host, () ->
+                    restHighLevelClient.bulkAsync(request, RequestOptions.DEFAULT, listener));
+        }
+    }
+
+    /**
+     * Returns the HTTP address of the node holding the primary shard of the document.
+     *
+     * @return the address, or null if it is not known.
+     */
+    private HttpHost route(DocWriteRequest<?> request) {
+        String indexName = request.index();
+        IndexRouting indexRouting = indexRoutings.get(indexName);
+        if (indexRouting == null || System.nanoTime() - indexRouting.refreshAt >= 0) {
+            refresh(indexName);
+        }
+        String routing = request.routing() != null ? request.routing() : request.id();
+        if (indexRouting == null || indexRouting.primaryHosts == null || routing == null) {
+            return null;
+        }
+        return indexRouting.primaryHosts[indexRouting.shardOf(routing, request.id())];
+    }
+
+    private void refresh(String indexName) {
+        if (!refreshingIndices.add(indexName)) {
+            return;
+        }
+        restHighLevelClient.getLowLevelClient().performRequestAsync(new Request("GET", "/_nodes/http"),
+                new ResponseListener() {
+                    @Override
+                    public void onSuccess(Response nodesResponse) {
+                        Map<String, HttpHost> nodeHosts;
+                        try {
+                            nodeHosts = readNodeHosts(nodesResponse);
+                        } catch (IOException | RuntimeException e) {
+                            onFailure(e);
+                            return;
+                        }
+                        restHighLevelClient.getLowLevelClient().performRequestAsync(new Request("GET",
+                                "/_cluster/state/metadata,routing_table/" + indexName), new ResponseListener() {
+                            @Override
+                            public void onSuccess(Response stateResponse) {
+                                try {
+                                    indexRoutings.put(indexName, readIndexRouting(stateResponse, indexName,
+                                            nodeHosts));
+                                    refreshingIndices.remove(indexName);
+                                } catch (IOException | RuntimeException e) {
+                                    onFailure(e);
+                                }
+                            }
+
+                            @Override
+                            public void onFailure(Exception e) {
+                                onRefreshFailure(indexName, e);
+                            }
+                        });
+                    }
+
+                    @Override
+                    public void onFailure(Exception e) {
+                        onRefreshFailure(indexName, e);
+                    }
+                });
+    }
+
+    private void onRefreshFailure(String indexName, Exception e) {
+        logger.debug("Error while loading the routing table of index: " + indexName + ", its documents are not " +
+                "routed to their shards until the next refresh.", e);
+        indexRoutings.put(indexName, new IndexRouting(0, 0, 0, null, System.nanoTime() + refreshIntervalNanos));
+        refreshingIndices.remove(indexName);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, HttpHost> readNodeHosts(Response response) throws IOException {
+        Map<String, HttpHost> nodeHosts = new HashMap<>();
+        Map<String, Object> nodes = (Map<String, Object>) readMap(response).get("nodes");
+        for (Map.Entry<String, Object> node : nodes.entrySet()) {
+            Map<String, Object> http = (Map<String, Object>) ((Map<String, Object>) node.getValue()).get("http");
+            if (http != null && http.get("publish_address") != null) {
+                URI publishAddress = URI.create(scheme + "://" + http.get("publish_address"));
+                nodeHosts.put(node.getKey(), new HttpHost(publishAddress.getHost(), publishAddress.getPort(),
+                        publishAddress.getScheme()));
+            }
+        }
+        return nodeHosts;
+    }
+
+    @SuppressWarnings("unchecked")
+    private IndexRouting readIndexRouting(Response response, String indexName, Map<String, HttpHost> nodeHosts)
+            throws IOException {
+        Map<String, Object> state = readMap(response);
+        Map<String, Object> indexMetadata = (Map<String, Object>) ((Map<String, Object>) ((Map<String, Object>)
+                state.get("metadata")).get("indices")).get(indexName);
+        Map<String, Object> indexRoutingTable = (Map<String, Object>) ((Map<String, Object>) ((Map<String, Object>)
+                state.get("routing_table")).get("indices")).get(indexName);
+        if (indexMetadata == null || indexRoutingTable == null) {
+            throw new IOException("No routing table found for index: " + indexName);
+        }
+        Map<String, Object> settings = (Map<String, Object>) ((Map<String, Object>) indexMetadata.get("settings"))
+                .get("index");
+        int numberOfShards = Integer.parseInt(String.valueOf(settings.get("number_of_shards")));
+        int routingNumShards = ((Number) indexMetadata.get("routing_num_shards")).intValue();
+        int routingPartitionSize = settings.containsKey("routing_partition_size") ?
+                Integer.parseInt(String.valueOf(settings.get("routing_partition_size"))) : 1;
+        HttpHost[] primaryHosts = new HttpHost[numberOfShards];
+        boolean isRelocating = false;
+        Map<String, Object> shards = (Map<String, Object>) indexRoutingTable.get("shards");
+        for (Map.Entry<String, Object> shard : shards.entrySet()) {
+            for (Map<String, Object> shardCopy : (List<Map<String, Object>>) shard.getValue()) {
+                isRelocating |= shardCopy.get("relocating_node") != null;
+                if (Boolean.TRUE.equals(shardCopy.get("primary")) && shardCopy.get("node") != null) {
+                    primaryHosts[Integer.parseInt(shard.getKey())] = nodeHosts.get(shardCopy.get("node"));
+                }
+            }
+        }
+        long refreshAt = System.nanoTime() + (isRelocating ? RELOCATION_REFRESH_DELAY_NANOS : refreshIntervalNanos);
+        return new IndexRouting(numberOfShards, routingNumShards, routingPartitionSize, primaryHosts, refreshAt);
+    }
+
+    private static Map<String, Object> readMap(Response response) throws IOException {
+        try (InputStream inputStream = response.getEntity().getContent()) {
+            return XContentHelper.convertToMap(XContentType.JSON.xContent(), inputStream, false);
+        }
+    }
+
+    /**
+     * This class represents the cached routing of an index.
+     */
+    private static class IndexRouting {
+        private final int routingNumShards;
+        private final int routingFactor;
+        private final int routingPartitionSize;
+        private final HttpHost[] primaryHosts;
+        private volatile long refreshAt;
+
+        private IndexRouting(int numberOfShards, int routingNumShards, int routingPartitionSize,
+                             HttpHost[] primaryHosts, long refreshAt) {
+            this.routingNumShards = routingNumShards;
+            this.routingFactor = numberOfShards > 0 ? routingNumShards / numberOfShards : 0;
+            this.routingPartitionSize = routingPartitionSize;
+            this.primaryHosts = primaryHosts;
+            this.refreshAt = refreshAt;
+        }
+
+        /**
+         * Returns the shard of a document, as computed by the operation routing of the cluster.
+         */
+        private int shardOf(String routing, String id) {
+            int partitionOffset = routingPartitionSize > 1 && id != null ?
+                    Math.floorMod(Murmur3HashFunction.hash(id), routingPartitionSize) : 0;
+            int hash = Murmur3HashFunction.hash(routing) + partitionOffset;
+            return Math.floorMod(hash, routingNumShards) / routingFactor;
+        }
+    }
+}
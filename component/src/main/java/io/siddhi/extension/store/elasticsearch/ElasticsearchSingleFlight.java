@@ -0,0 +1,127 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.siddhi.extension.store.elasticsearch;
+
+import io.siddhi.extension.store.elasticsearch.exceptions.ElasticsearchServiceException;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * This class coalesces identical reads issued concurrently. The first caller of a key loads the value, and callers
+ * of the same key arriving while it is loading wait for and share its value instead of loading it again. A read
+ * only joins a load which started after the last write to the table, so that a caller never receives a value
+ * older than its own view of the table. Nothing is kept once a load completes.
+ *
+ * @param <K> the key type.
+ * @param <V> the value type.
+ */
+public class ElasticsearchSingleFlight<K, V> {
+
+    private final ConcurrentMap<K, Flight<V>> flights = new ConcurrentHashMap<>();
+    private final AtomicLong writeGeneration = new AtomicLong();
+    private final LongAdder coalescedCount = new LongAdder();
+
+    /**
+     * Returns the value of the key, loading it unless an identical load which started after the last write is
+     * in flight.
+     *
+     * @param key    the key of the read, such as the resolved condition of a search.
+     * @param loader the loader of the value.
+     * @return the value, shared with the other callers of the load.
+     * @throws ElasticsearchServiceException if the load failed.
+     */
+    public V execute(K key, Loader<V> loader) throws ElasticsearchServiceException {
+        Flight<V> flight = new Flight<>(writeGeneration.get());
+        Flight<V> existingFlight = flights.putIfAbsent(key, flight);
+        if (existingFlight != null) {
+            if (existingFlight.generation == flight.generation) {
+                coalescedCount.increment();
+                return await(existingFlight.future);
+            }
+            // the load in flight may miss a write this caller has seen, so it is superseded
+            flights.put(key, flight);
+        }
+        try {
+            V value = loader.load();
+            flight.future.complete(value);
+            return value;
+        } catch (ElasticsearchServiceException | RuntimeException e) {
+            flight.future.completeExceptionally(e);
+            throw e;
+        } finally {
+            flights.remove(key, flight);
+        }
+    }
+
+    /**
+     * Records a write to the table, after which reads no longer join the loads in flight.
+     */
+    public void onWrite() {
+        writeGeneration.incrementAndGet();
+    }
+
+    /**
+     * Returns the number of reads which shared the value of a load in flight instead of loading it.
+     *
+     * @return the number of coalesced reads.
+     */
+    public long getCoalescedCount() {
+        return coalescedCount.sum();
+    }
+
+    private V await(CompletableFuture<V> future) throws ElasticsearchServiceException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ElasticsearchServiceException("Interrupted while waiting for a coalesced read", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof ElasticsearchServiceException) {
+                throw (ElasticsearchServiceException) cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new ElasticsearchServiceException("Error while executing a coalesced read", cause);
+        }
+    }
+
+    /**
+     * Loads the value of a read.
+     *
+     * @param <V> the value type.
+     */
+    public interface Loader<V> {
+        V load() throws ElasticsearchServiceException;
+    }
+
+    private static class Flight<V> {
+        private final CompletableFuture<V> future = new CompletableFuture<>();
+        private final long generation;
+
+        private Flight(long generation) {
+            this.generation = generation;
+        }
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.siddhi.extension.store.elasticsearch;
+
+import io.siddhi.extension.store.elasticsearch.utils.ElasticsearchTableUtils;
+import io.siddhi.query.api.definition.Attribute;
+import org.apache.lucene.util.BytesRef;
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.xcontent.DeprecationHandler;
+import org.elasticsearch.common.xcontent.NamedXContentRegistry;
+import org.elasticsearch.common.xcontent.XContentParser;
+import org.elasticsearch.common.xcontent.XContentType;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * This class decodes the source of documents into records of a table schema. The source is read with a streaming
+ * parser straight into a record of the exact size, converting each field to the java type of its attribute, so
+ * that no intermediate source map is built. Fields which are not attributes of the table are skipped. Sources are
+ * expected in JSON, the content type of the responses of the REST client.
+ */
+public class ElasticsearchSourceDecoder {
+
+    private final Attribute.Type[] attributeTypes;
+    private final Map<String, Integer> attributeIndices;
+    private final String[] attributeNames;
+
+    public ElasticsearchSourceDecoder(List<Attribute> attributes) {
+        this.attributeTypes = new Attribute.Type[attributes.size()];
+        this.attributeIndices = new HashMap<>(attributes.size() * 2);
+        for (int i = 0; i < attributes.size(); i++) {
+            attributeTypes[i] = attributes.get(i).getType();
+            attributeIndices.put(attributes.get(i).getName(), i);
+        }
+        this.attributeNames = ElasticsearchTableUtils.getAttributeNames(attributes);
+    }
+
+    /**
+     * Returns the names of the attributes, which are the source fields to be fetched for decoding.
+     *
+     * @return the attribute names.
+     */
+    public String[] getAttributeNames() {
+        return attributeNames;
+    }
+
+    /**
+     * Decodes the source of a document.
+     *
+     * @param source the source of the document, may be null.
+     * @return the record, with null values for the attributes missing in the source.
+     * @throws IOException if the source could not be parsed.
+     */
+    public Object[] decode(BytesReference source) throws IOException {
+        Object[] record = new Object[attributeTypes.length];
+        if (source == null) {
+            return record;
+        }
+        // the bytes of a single array source are parsed in place instead of through a stream
+        BytesRef bytes = source.toBytesRef();
+        try (XContentParser parser = XContentType.JSON.xContent().createParser(NamedXContentRegistry.EMPTY,
+                DeprecationHandler.THROW_UNSUPPORTED_OPERATION, bytes.bytes, bytes.offset, bytes.length)) {
+            if (parser.nextToken() != XContentParser.Token.START_OBJECT) {
+                throw new IOException("The document source is not an object");
+            }
+            XContentParser.Token token;
+            while ((token = parser.nextToken()) == XContentParser.Token.FIELD_NAME) {
+                Integer index = attributeIndices.get(parser.currentName());
+                token = parser.nextToken();
+                if (index == null) {
+                    parser.skipChildren();
+                } else if (token != XContentParser.Token.VALUE_NULL) {
+                    record[index] = readValue(parser, token, attributeTypes[index]);
+                }
+            }
+        }
+        return record;
+    }
+
+    private static Object readValue(XContentParser parser, XContentParser.Token token, Attribute.Type type)
+            throws IOException {
+        if (token == XContentParser.Token.START_OBJECT) {
+            return type == Attribute.Type.OBJECT ? parser.map() : skip(parser);
+        } else if (token == XContentParser.Token.START_ARRAY) {
+            return type == Attribute.Type.OBJECT ? parser.list() : skip(parser);
+        }
+        switch (type) {
+            case STRING:
+                return parser.text();
+            case INT:
+                return parser.intValue();
+            case LONG:
+                return parser.longValue();
+            case FLOAT:
+                return parser.floatValue();
+            case DOUBLE:
+                return parser.doubleValue();
+            case BOOL:
+                return parser.booleanValue();
+            default:
+                return parser.objectText();
+        }
+    }
+
+    private static Object skip(XContentParser parser) throws IOException {
+        parser.skipChildren();
+        return null;
+    }
+}
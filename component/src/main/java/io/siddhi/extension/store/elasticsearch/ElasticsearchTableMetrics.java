@@ -0,0 +1,306 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.siddhi.extension.store.elasticsearch;
+
+import org.elasticsearch.action.bulk.BulkItemResponse;
+import org.elasticsearch.action.bulk.BulkRequest;
+import org.elasticsearch.action.bulk.BulkResponse;
+import org.elasticsearch.action.search.SearchResponse;
+import org.elasticsearch.rest.RestStatus;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BooleanSupplier;
+import java.util.function.DoubleSupplier;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+import javax.management.Attribute;
+import javax.management.AttributeList;
+import javax.management.AttributeNotFoundException;
+import javax.management.DynamicMBean;
+import javax.management.MBeanAttributeInfo;
+import javax.management.MBeanConstructorInfo;
+import javax.management.MBeanInfo;
+import javax.management.MBeanNotificationInfo;
+import javax.management.MBeanOperationInfo;
+import javax.management.ReflectionException;
+
+/**
+ * This class keeps the metrics of a table and exposes them as the read only attributes of a management bean. The
+ * table records its bulk requests, searches and operations here while recording is enabled, which follows the
+ * statistics level of the Siddhi app so that it can be switched at runtime. The state of the caches and of the
+ * other parts of the table is registered as gauges, which are read when the attribute is.
+ */
+public class ElasticsearchTableMetrics implements DynamicMBean {
+
+    private final String tableId;
+    private final BooleanSupplier isEnabled;
+    private final Map<String, MetricAttribute> attributes = new LinkedHashMap<>();
+    private MBeanInfo mBeanInfo;
+    private final LongAdder completedBulkActionCount = new LongAdder();
+    private final LongAdder bulkActionCount = new LongAdder();
+    private final LongAdder bulkBytes = new LongAdder();
+    private final LongAdder failedBulkItemCount = new LongAdder();
+    private final LongAdder rejectedBulkItemCount = new LongAdder();
+    private final ElasticsearchLaneMetrics bulkTook = new ElasticsearchLaneMetrics("bulk took");
+    private final ElasticsearchLaneMetrics searchLatency = new ElasticsearchLaneMetrics("search");
+    private final ElasticsearchLaneMetrics searchTook = new ElasticsearchLaneMetrics("search took");
+    private final LongAdder searchHitCount = new LongAdder();
+    private final LongAdder findCount = new LongAdder();
+    private final LongAdder containsCount = new LongAdder();
+    private final LongAdder queryCount = new LongAdder();
+
+    /**
+     * Creates the metrics of a table.
+     *
+     * @param tableId   the id of the table.
+     * @param isEnabled tells whether bulk requests, searches and operations are recorded at the moment.
+     */
+    public ElasticsearchTableMetrics(String tableId, BooleanSupplier isEnabled) {
+        this.tableId = tableId;
+        this.isEnabled = isEnabled;
+        counter("BulkActionCount", "The number of actions sent in bulk requests.", bulkActionCount::sum);
+        counter("BulkBytes", "The estimated size in bytes of the actions sent in bulk requests.", bulkBytes::sum);
+        counter("FailedBulkItemCount", "The number of actions the cluster failed.", failedBulkItemCount::sum);
+        counter("RejectedBulkItemCount", "The number of actions the cluster rejected since it was overloaded.",
+                rejectedBulkItemCount::sum);
+        gauge("MeanBulkTookMillis", "The mean time the cluster took to execute a bulk request.",
+                bulkTook::getMeanLatencyMillis);
+        gauge("BulkTook99thPercentileMillis", "The 99th percentile of the time the cluster took to execute the " +
+                "recent bulk requests.", () -> bulkTook.getLatencyPercentileMillis(99));
+        counter("SearchCount", "The number of searches.", searchLatency::getRequestCount);
+        counter("FailedSearchCount", "The number of searches which failed.", searchLatency::getFailureCount);
+        gauge("MeanSearchLatencyMillis", "The mean latency of a search, including the time it waited to be " +
+                "batched.", searchLatency::getMeanLatencyMillis);
+        gauge("SearchLatency99thPercentileMillis", "The 99th percentile of the latency of the recent searches.",
+                () -> searchLatency.getLatencyPercentileMillis(99));
+        gauge("MeanSearchTookMillis", "The mean time the cluster took to execute a search.",
+                searchTook::getMeanLatencyMillis);
+        gauge("SearchTook99thPercentileMillis", "The 99th percentile of the time the cluster took to execute the " +
+                "recent searches.", () -> searchTook.getLatencyPercentileMillis(99));
+        gauge("MeanHitsPerSearch", "The mean number of hits a search returned.", () -> {
+            long count = searchTook.getRequestCount();
+            return count == 0 ? 0 : searchHitCount.sum() / (double) count;
+        });
+        counter("FindCount", "The number of find operations.", findCount::sum);
+        counter("ContainsCount", "The number of contains operations.", containsCount::sum);
+        counter("QueryCount", "The number of on-demand queries.", queryCount::sum);
+    }
+
+    public boolean isEnabled() {
+        return isEnabled.getAsBoolean();
+    }
+
+    /**
+     * Registers a counter, which is read whenever the attribute is.
+     *
+     * @param name        the name of the attribute.
+     * @param description the description of the attribute.
+     * @param value       the function returning the value of the counter.
+     */
+    public synchronized void counter(String name, String description, LongSupplier value) {
+        addAttribute(name, Long.class, description, value::getAsLong);
+    }
+
+    /**
+     * Registers a gauge, which is read whenever the attribute is.
+     *
+     * @param name        the name of the attribute.
+     * @param description the description of the attribute.
+     * @param value       the function returning the value of the gauge.
+     */
+    public synchronized void gauge(String name, String description, DoubleSupplier value) {
+        addAttribute(name, Double.class, description, value::getAsDouble);
+    }
+
+    /**
+     * Registers a gauge of a state, which is read whenever the attribute is.
+     *
+     * @param name        the name of the attribute.
+     * @param description the description of the attribute.
+     * @param value       the function returning the state.
+     */
+    public synchronized void state(String name, String description, Supplier<String> value) {
+        addAttribute(name, String.class, description, value::get);
+    }
+
+    public void recordFind() {
+        if (isEnabled()) {
+            findCount.increment();
+        }
+    }
+
+    public void recordContains() {
+        if (isEnabled()) {
+            containsCount.increment();
+        }
+    }
+
+    public void recordQuery() {
+        if (isEnabled()) {
+            queryCount.increment();
+        }
+    }
+
+    /**
+     * Records a bulk request which the cluster executed, possibly failing some of its actions.
+     *
+     * @param request  the bulk request.
+     * @param response the response of the bulk request.
+     */
+    public void recordBulk(BulkRequest request, BulkResponse response) {
+        completedBulkActionCount.add(request.numberOfActions());
+        if (!isEnabled()) {
+            return;
+        }
+        bulkActionCount.add(request.numberOfActions());
+        bulkBytes.add(request.estimatedSizeInBytes());
+        bulkTook.recordLatency(TimeUnit.MILLISECONDS.toNanos(response.getTook().millis()), false);
+        if (response.hasFailures()) {
+            for (BulkItemResponse itemResponse : response.getItems()) {
+                if (itemResponse.isFailed()) {
+                    failedBulkItemCount.increment();
+                    if (itemResponse.status() == RestStatus.TOO_MANY_REQUESTS) {
+                        rejectedBulkItemCount.increment();
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Records a bulk request which could not be executed.
+     *
+     * @param request the bulk request.
+     */
+    public void recordBulkFailure(BulkRequest request) {
+        completedBulkActionCount.add(request.numberOfActions());
+        if (isEnabled()) {
+            bulkActionCount.add(request.numberOfActions());
+            bulkBytes.add(request.estimatedSizeInBytes());
+            failedBulkItemCount.add(request.numberOfActions());
+        }
+    }
+
+    /**
+     * Records a completed search.
+     *
+     * @param startNanos the time the search was issued, as returned by {@link System#nanoTime()}.
+     * @param response   the response of the search, or null if it failed.
+     */
+    public void recordSearch(long startNanos, SearchResponse response) {
+        if (!isEnabled()) {
+            return;
+        }
+        searchLatency.record(startNanos, response == null);
+        if (response != null) {
+            searchTook.recordLatency(TimeUnit.MILLISECONDS.toNanos(response.getTook().millis()), false);
+            searchHitCount.add(response.getHits().getHits().length);
+        }
+    }
+
+    /**
+     * Returns the number of bulk actions which completed, whether recording is enabled or not, so that the
+     * actions still waiting to be sent can be told from the actions added.
+     *
+     * @return the number of completed bulk actions.
+     */
+    public long getCompletedBulkActionCount() {
+        return completedBulkActionCount.sum();
+    }
+
+    @Override
+    public Object getAttribute(String attribute) throws AttributeNotFoundException {
+        MetricAttribute metricAttribute;
+        synchronized (this) {
+            metricAttribute = attributes.get(attribute);
+        }
+        if (metricAttribute == null) {
+            throw new AttributeNotFoundException("No metric named " + attribute + " is kept for table id: " +
+                    tableId);
+        }
+        return metricAttribute.value.get();
+    }
+
+    @Override
+    public void setAttribute(Attribute attribute) throws AttributeNotFoundException {
+        throw new AttributeNotFoundException("The metric " + attribute.getName() + " of table id: " + tableId +
+                " is read only");
+    }
+
+    @Override
+    public AttributeList getAttributes(String[] names) {
+        AttributeList attributeList = new AttributeList();
+        for (String name : names) {
+            try {
+                attributeList.add(new Attribute(name, getAttribute(name)));
+            } catch (AttributeNotFoundException e) {
+                // attributes which are not found are left out of the list, as the interface requires
+            }
+        }
+        return attributeList;
+    }
+
+    @Override
+    public AttributeList setAttributes(AttributeList attributeList) {
+        return new AttributeList();
+    }
+
+    @Override
+    public Object invoke(String actionName, Object[] params, String[] signature) throws ReflectionException {
+        throw new ReflectionException(new NoSuchMethodException(actionName), "The metrics of table id: " +
+                tableId + " have no operations");
+    }
+
+    @Override
+    public synchronized MBeanInfo getMBeanInfo() {
+        if (mBeanInfo == null) {
+            List<MBeanAttributeInfo> attributeInfos = new ArrayList<>(attributes.size());
+            for (Map.Entry<String, MetricAttribute> entry : attributes.entrySet()) {
+                attributeInfos.add(new MBeanAttributeInfo(entry.getKey(), entry.getValue().type.getName(),
+                        entry.getValue().description, true, false, false));
+            }
+            mBeanInfo = new MBeanInfo(getClass().getName(), "The metrics of the Elasticsearch table " + tableId,
+                    attributeInfos.toArray(new MBeanAttributeInfo[0]), new MBeanConstructorInfo[0],
+                    new MBeanOperationInfo[0], new MBeanNotificationInfo[0]);
+        }
+        return mBeanInfo;
+    }
+
+    private void addAttribute(String name, Class<?> type, String description, Supplier<Object> value) {
+        attributes.put(name, new MetricAttribute(type, description, value));
+        mBeanInfo = null;
+    }
+
+    private static class MetricAttribute {
+        private final Class<?> type;
+        private final String description;
+        private final Supplier<Object> value;
+
+        private MetricAttribute(Class<?> type, String description, Supplier<Object> value) {
+            this.type = type;
+            this.description = description;
+            this.value = value;
+        }
+    }
+}
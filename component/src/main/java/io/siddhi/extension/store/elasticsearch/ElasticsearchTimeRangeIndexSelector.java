@@ -0,0 +1,193 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.siddhi.extension.store.elasticsearch;
+
+import org.elasticsearch.action.search.SearchRequest;
+import org.elasticsearch.action.search.SearchResponse;
+import org.elasticsearch.action.support.IndicesOptions;
+import org.elasticsearch.search.aggregations.AggregationBuilders;
+import org.elasticsearch.search.aggregations.Aggregations;
+import org.elasticsearch.search.aggregations.bucket.terms.Terms;
+import org.elasticsearch.search.aggregations.metrics.Max;
+import org.elasticsearch.search.aggregations.metrics.Min;
+import org.elasticsearch.search.builder.SearchSourceBuilder;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This class selects the concrete indices matching an index pattern which hold records within a time range. It
+ * caches the minimum and maximum time of the records of each index, fetched with a single aggregation over the
+ * pattern and refreshed periodically. Records written through the table widen the cached range of their index
+ * immediately, so that they are found before the next refresh. Cached ranges only ever cover more than the
+ * records of an index, which at worst costs searching an index with no matching records. The aggregation is sent
+ * through the search batcher of the table, so that it is bound by the search deadline and reported to the circuit
+ * breaker like any other search.
+ */
+public class ElasticsearchTimeRangeIndexSelector {
+
+    private static final String INDICES_AGGREGATION_NAME = "indices";
+    private static final String INDEX_FIELD = "_index";
+    private static final String MIN_TIME_AGGREGATION_NAME = "min_time";
+    private static final String MAX_TIME_AGGREGATION_NAME = "max_time";
+    private static final int MAX_INDICES = 10000;
+
+    private final ElasticsearchSearchBatcher searchBatcher;
+    private final String indexPattern;
+    private final String timeAttribute;
+    private final long refreshIntervalNanos;
+    private final Object refreshLock = new Object();
+    private final Object lock = new Object();
+    private Map<String, long[]> timeRanges = new HashMap<>();
+    private Map<String, long[]> writtenTimeRanges = new HashMap<>();
+    private Map<String, long[]> previouslyWrittenTimeRanges = new HashMap<>();
+    private boolean isRefreshed;
+    private long lastRefreshTime;
+
+    public ElasticsearchTimeRangeIndexSelector(ElasticsearchSearchBatcher searchBatcher, String indexPattern,
+                                               String timeAttribute, long refreshIntervalMillis) {
+        this.searchBatcher = searchBatcher;
+        this.indexPattern = indexPattern;
+        this.timeAttribute = timeAttribute;
+        this.refreshIntervalNanos = TimeUnit.MILLISECONDS.toNanos(refreshIntervalMillis);
+    }
+
+    /**
+     * Returns the indices holding records whose time may fall within the given range.
+     *
+     * @param lowerBound the inclusive lower bound of the range.
+     * @param upperBound the inclusive upper bound of the range.
+     * @return the names of the overlapping indices, empty if no index holds records within the range.
+     * @throws IOException if the time ranges of the indices could not be refreshed.
+     */
+    public List<String> selectIndices(long lowerBound, long upperBound) throws IOException {
+        refreshIfStale();
+        List<String> indices = new ArrayList<>();
+        if (lowerBound > upperBound) {
+            return indices;
+        }
+        synchronized (lock) {
+            for (Map.Entry<String, long[]> entry : timeRanges.entrySet()) {
+                long[] timeRange = entry.getValue();
+                if (timeRange[0] <= upperBound && timeRange[1] >= lowerBound) {
+                    indices.add(entry.getKey());
+                }
+            }
+        }
+        return indices;
+    }
+
+    /**
+     * Widens the cached time range of an index to cover a record written to it.
+     *
+     * @param indexName the index the record is written to.
+     * @param time      the time of the record.
+     */
+    public void recordWrite(String indexName, long time) {
+        synchronized (lock) {
+            widen(timeRanges, indexName, time, time);
+            widen(writtenTimeRanges, indexName, time, time);
+        }
+    }
+
+    /**
+     * Discards the cached time ranges at the next selection, such as after records were updated in place or an
+     * index disappeared.
+     */
+    public void invalidate() {
+        synchronized (lock) {
+            isRefreshed = false;
+        }
+    }
+
+    private void refreshIfStale() throws IOException {
+        synchronized (refreshLock) {
+            synchronized (lock) {
+                if (isRefreshed && System.nanoTime() - lastRefreshTime < refreshIntervalNanos) {
+                    return;
+                }
+            }
+            long refreshTime = System.nanoTime();
+            Map<String, long[]> fetchedTimeRanges = fetchTimeRanges();
+            synchronized (lock) {
+                // records written shortly before the fetch may not have been searchable yet, so the ranges
+                // written since the previous refresh are kept on top of the fetched ones
+                widenAll(fetchedTimeRanges, previouslyWrittenTimeRanges);
+                widenAll(fetchedTimeRanges, writtenTimeRanges);
+                previouslyWrittenTimeRanges = writtenTimeRanges;
+                writtenTimeRanges = new HashMap<>();
+                timeRanges = fetchedTimeRanges;
+                lastRefreshTime = refreshTime;
+                isRefreshed = true;
+            }
+        }
+    }
+
+    private Map<String, long[]> fetchTimeRanges() throws IOException {
+        SearchSourceBuilder searchSourceBuilder = new SearchSourceBuilder().size(0)
+                .aggregation(AggregationBuilders.terms(INDICES_AGGREGATION_NAME).field(INDEX_FIELD).size(MAX_INDICES)
+                        .subAggregation(AggregationBuilders.min(MIN_TIME_AGGREGATION_NAME).field(timeAttribute))
+                        .subAggregation(AggregationBuilders.max(MAX_TIME_AGGREGATION_NAME).field(timeAttribute)));
+        SearchRequest searchRequest = new SearchRequest(indexPattern).source(searchSourceBuilder)
+                .indicesOptions(IndicesOptions.lenientExpandOpen());
+        SearchResponse searchResponse = searchBatcher.execute(searchRequest);
+        if (searchResponse.isTimedOut() || searchResponse.getFailedShards() > 0) {
+            // the ranges aggregated over the shards which answered could leave out indices holding matching records
+            throw new IOException("The time ranges of the indices of '" + indexPattern + "' were only partially " +
+                    "fetched, as " + searchResponse.getFailedShards() + " shards failed" +
+                    (searchResponse.isTimedOut() ? " and the search timed out" : ""));
+        }
+        Map<String, long[]> fetchedTimeRanges = new HashMap<>();
+        Aggregations aggregations = searchResponse.getAggregations();
+        if (aggregations == null) {
+            return fetchedTimeRanges;
+        }
+        Terms indices = aggregations.get(INDICES_AGGREGATION_NAME);
+        for (Terms.Bucket bucket : indices.getBuckets()) {
+            Min min = bucket.getAggregations().get(MIN_TIME_AGGREGATION_NAME);
+            Max max = bucket.getAggregations().get(MAX_TIME_AGGREGATION_NAME);
+            // an index without any record holding the time attribute can not match a time range
+            if (!Double.isInfinite(min.getValue()) && !Double.isInfinite(max.getValue())) {
+                fetchedTimeRanges.put(bucket.getKeyAsString(),
+                        new long[]{(long) Math.floor(min.getValue()), (long) Math.ceil(max.getValue())});
+            }
+        }
+        return fetchedTimeRanges;
+    }
+
+    private static void widenAll(Map<String, long[]> timeRanges, Map<String, long[]> writtenTimeRanges) {
+        for (Map.Entry<String, long[]> entry : writtenTimeRanges.entrySet()) {
+            widen(timeRanges, entry.getKey(), entry.getValue()[0], entry.getValue()[1]);
+        }
+    }
+
+    private static void widen(Map<String, long[]> timeRanges, String indexName, long minTime, long maxTime) {
+        long[] timeRange = timeRanges.get(indexName);
+        if (timeRange == null) {
+            timeRanges.put(indexName, new long[]{minTime, maxTime});
+        } else {
+            timeRange[0] = Math.min(timeRange[0], minTime);
+            timeRange[1] = Math.max(timeRange[1], maxTime);
+        }
+    }
+}
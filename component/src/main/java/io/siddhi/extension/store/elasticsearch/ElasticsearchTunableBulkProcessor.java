@@ -0,0 +1,329 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.siddhi.extension.store.elasticsearch;
+
+import org.apache.log4j.Logger;
+import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.action.DocWriteRequest;
+import org.elasticsearch.action.bulk.BackoffPolicy;
+import org.elasticsearch.action.bulk.BulkProcessor;
+import org.elasticsearch.action.bulk.BulkRequest;
+import org.elasticsearch.action.bulk.BulkResponse;
+import org.elasticsearch.common.unit.ByteSizeUnit;
+import org.elasticsearch.common.unit.ByteSizeValue;
+import org.elasticsearch.common.unit.TimeValue;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
+
+/**
+ * This class wraps the bulk processor of a table so that its settings can be changed at runtime, such as through
+ * JMX. The bulk processor of the elasticsearch client can not be reconfigured, so a change builds a new bulk
+ * processor with the new settings and closes the previous one, which sends the actions still buffered in it. The
+ * new bulk processor only takes the writes once the bulk requests of the previous one completed, so that writes of
+ * the same document still reach the cluster in order. No buffered write is lost, and writers only wait for those
+ * bulk requests while a change is applied.
+ */
+public class ElasticsearchTunableBulkProcessor implements ElasticsearchTunableBulkProcessorMBean {
+
+    private static final Logger logger = Logger.getLogger(ElasticsearchTunableBulkProcessor.class);
+
+    private final String tableId;
+    private final BiConsumer<BulkRequest, ActionListener<BulkResponse>> consumer;
+    private final BulkProcessor.Listener listener;
+    private final ElasticsearchLaneMetrics writeLaneMetrics;
+    private final long closeTimeoutSeconds;
+    private final Object replacementLock = new Object();
+    private int bulkActions;
+    private long bulkSizeInMb;
+    private int concurrentRequests;
+    private long flushIntervalSeconds;
+    private int backoffPolicyRetryNo;
+    private long backoffPolicyWaitTimeSeconds;
+    private int replacementCount;
+    private volatile BulkProcessor bulkProcessor;
+    private volatile long replacedAtNanos = System.nanoTime();
+    private volatile long addedActionCountAtReplacement;
+    private final LongAdder addedActionCount = new LongAdder();
+
+    /**
+     * Creates the bulk processor of a table.
+     *
+     * @param tableId                      the id of the table, for logging.
+     * @param consumer                     the function bulk requests are sent with.
+     * @param listener                     the listener notified of every bulk request.
+     * @param writeLaneMetrics             the metrics the latency of bulk requests is recorded in.
+     * @param bulkActions                  the number of actions which flush a bulk request, or -1.
+     * @param bulkSizeInMb                 the size of the actions in MB which flushes a bulk request, or -1.
+     * @param concurrentRequests           the number of bulk requests executed concurrently.
+     * @param flushIntervalSeconds         the interval in seconds after which pending actions are flushed.
+     * @param backoffPolicyRetryNo         the number of retries of a bulk request rejected by the cluster.
+     * @param backoffPolicyWaitTimeSeconds the time in seconds waited before such a retry.
+     * @param closeTimeoutSeconds          the time in seconds a replaced bulk processor is given to send its
+     *                                     actions.
+     */
+    public ElasticsearchTunableBulkProcessor(String tableId,
+                                             BiConsumer<BulkRequest, ActionListener<BulkResponse>> consumer,
+                                             BulkProcessor.Listener listener,
+                                             ElasticsearchLaneMetrics writeLaneMetrics, int bulkActions,
+                                             long bulkSizeInMb, int concurrentRequests, long flushIntervalSeconds,
+                                             int backoffPolicyRetryNo, long backoffPolicyWaitTimeSeconds,
+                                             long closeTimeoutSeconds) {
+        this.tableId = tableId;
+        this.consumer = consumer;
+        this.listener = listener;
+        this.writeLaneMetrics = writeLaneMetrics;
+        this.closeTimeoutSeconds = closeTimeoutSeconds;
+        validate(bulkActions, bulkSizeInMb, concurrentRequests, flushIntervalSeconds, backoffPolicyRetryNo,
+                backoffPolicyWaitTimeSeconds);
+        this.bulkActions = bulkActions;
+        this.bulkSizeInMb = bulkSizeInMb;
+        this.concurrentRequests = concurrentRequests;
+        this.flushIntervalSeconds = flushIntervalSeconds;
+        this.backoffPolicyRetryNo = backoffPolicyRetryNo;
+        this.backoffPolicyWaitTimeSeconds = backoffPolicyWaitTimeSeconds;
+        this.bulkProcessor = build();
+    }
+
+    /**
+     * Adds a write to the current bulk processor.
+     *
+     * @param request the write.
+     */
+    public void add(DocWriteRequest<?> request) {
+        while (true) {
+            BulkProcessor processor = bulkProcessor;
+            try {
+                processor.add(request);
+                break;
+            } catch (IllegalStateException e) {
+                // the processor was closed by a change of the settings after it was read, and its successor
+                // takes the write once it is published
+                synchronized (replacementLock) {
+                    if (processor == bulkProcessor) {
+                        throw e;
+                    }
+                }
+            }
+        }
+        addedActionCount.increment();
+    }
+
+    /**
+     * Closes the bulk processor, sending the actions buffered in it.
+     *
+     * @return true if the bulk requests completed within the close timeout.
+     * @throws InterruptedException if interrupted while waiting for the bulk requests.
+     */
+    public boolean close() throws InterruptedException {
+        synchronized (replacementLock) {
+            return bulkProcessor.awaitClose(closeTimeoutSeconds, TimeUnit.SECONDS);
+        }
+    }
+
+    @Override
+    public synchronized int getBulkActions() {
+        return bulkActions;
+    }
+
+    @Override
+    public void setBulkActions(int bulkActions) {
+        synchronized (replacementLock) {
+            updateSettings(bulkActions, bulkSizeInMb, concurrentRequests, flushIntervalSeconds, backoffPolicyRetryNo,
+                    backoffPolicyWaitTimeSeconds);
+        }
+    }
+
+    @Override
+    public synchronized long getBulkSizeInMb() {
+        return bulkSizeInMb;
+    }
+
+    @Override
+    public void setBulkSizeInMb(long bulkSizeInMb) {
+        synchronized (replacementLock) {
+            updateSettings(bulkActions, bulkSizeInMb, concurrentRequests, flushIntervalSeconds, backoffPolicyRetryNo,
+                    backoffPolicyWaitTimeSeconds);
+        }
+    }
+
+    @Override
+    public synchronized int getConcurrentRequests() {
+        return concurrentRequests;
+    }
+
+    @Override
+    public void setConcurrentRequests(int concurrentRequests) {
+        synchronized (replacementLock) {
+            updateSettings(bulkActions, bulkSizeInMb, concurrentRequests, flushIntervalSeconds, backoffPolicyRetryNo,
+                    backoffPolicyWaitTimeSeconds);
+        }
+    }
+
+    @Override
+    public synchronized long getFlushIntervalSeconds() {
+        return flushIntervalSeconds;
+    }
+
+    @Override
+    public void setFlushIntervalSeconds(long flushIntervalSeconds) {
+        synchronized (replacementLock) {
+            updateSettings(bulkActions, bulkSizeInMb, concurrentRequests, flushIntervalSeconds, backoffPolicyRetryNo,
+                    backoffPolicyWaitTimeSeconds);
+        }
+    }
+
+    @Override
+    public synchronized int getBackoffPolicyRetryNo() {
+        return backoffPolicyRetryNo;
+    }
+
+    @Override
+    public void setBackoffPolicyRetryNo(int backoffPolicyRetryNo) {
+        synchronized (replacementLock) {
+            updateSettings(bulkActions, bulkSizeInMb, concurrentRequests, flushIntervalSeconds, backoffPolicyRetryNo,
+                    backoffPolicyWaitTimeSeconds);
+        }
+    }
+
+    @Override
+    public synchronized long getBackoffPolicyWaitTimeSeconds() {
+        return backoffPolicyWaitTimeSeconds;
+    }
+
+    @Override
+    public void setBackoffPolicyWaitTimeSeconds(long backoffPolicyWaitTimeSeconds) {
+        synchronized (replacementLock) {
+            updateSettings(bulkActions, bulkSizeInMb, concurrentRequests, flushIntervalSeconds, backoffPolicyRetryNo,
+                    backoffPolicyWaitTimeSeconds);
+        }
+    }
+
+    @Override
+    public void updateSettings(int bulkActions, long bulkSizeInMb, int concurrentRequests, long flushIntervalSeconds,
+                               int backoffPolicyRetryNo, long backoffPolicyWaitTimeSeconds) {
+        validate(bulkActions, bulkSizeInMb, concurrentRequests, flushIntervalSeconds, backoffPolicyRetryNo,
+                backoffPolicyWaitTimeSeconds);
+        // the replacement lock, unlike the monitor of the settings, is held while the replaced bulk processor drains,
+        // so that the settings can still be read meanwhile
+        synchronized (replacementLock) {
+            BulkProcessor replacedBulkProcessor;
+            synchronized (this) {
+                this.bulkActions = bulkActions;
+                this.bulkSizeInMb = bulkSizeInMb;
+                this.concurrentRequests = concurrentRequests;
+                this.flushIntervalSeconds = flushIntervalSeconds;
+                this.backoffPolicyRetryNo = backoffPolicyRetryNo;
+                this.backoffPolicyWaitTimeSeconds = backoffPolicyWaitTimeSeconds;
+                replacedBulkProcessor = bulkProcessor;
+            }
+            try {
+                // writes arriving meanwhile wait for the successor, which is only published once the bulk requests
+                // of the replaced processor completed, so that no write overtakes an earlier write of its document
+                if (!replacedBulkProcessor.awaitClose(closeTimeoutSeconds, TimeUnit.SECONDS)) {
+                    logger.warn("Bulk requests of the replaced bulk processor of table id: " + tableId + " were " +
+                            "still executing after " + closeTimeoutSeconds + " seconds.");
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            synchronized (this) {
+                addedActionCountAtReplacement = addedActionCount.sum();
+                replacedAtNanos = System.nanoTime();
+                bulkProcessor = build();
+                replacementCount++;
+            }
+        }
+        logger.info("Replaced the bulk processor of table id: " + tableId + " to apply bulk.actions=" +
+                bulkActions + ", bulk.size=" + bulkSizeInMb + ", concurrent.requests=" + concurrentRequests +
+                ", flush.interval=" + flushIntervalSeconds + ", backoff.policy.retry.no=" + backoffPolicyRetryNo +
+                ", backoff.policy.wait.time=" + backoffPolicyWaitTimeSeconds);
+    }
+
+    @Override
+    public long getAddedActionCount() {
+        return addedActionCount.sum();
+    }
+
+    @Override
+    public double getAddedActionsPerSecond() {
+        long elapsedNanos = System.nanoTime() - replacedAtNanos;
+        return elapsedNanos > 0 ? (addedActionCount.sum() - addedActionCountAtReplacement) *
+                (double) TimeUnit.SECONDS.toNanos(1) / elapsedNanos : 0;
+    }
+
+    @Override
+    public long getBulkRequestCount() {
+        return writeLaneMetrics.getRequestCount();
+    }
+
+    @Override
+    public long getFailedBulkRequestCount() {
+        return writeLaneMetrics.getFailureCount();
+    }
+
+    @Override
+    public double getMeanBulkLatencyMillis() {
+        return writeLaneMetrics.getMeanLatencyMillis();
+    }
+
+    @Override
+    public double getBulkLatency99thPercentileMillis() {
+        return writeLaneMetrics.getLatencyPercentileMillis(99);
+    }
+
+    @Override
+    public synchronized int getReplacementCount() {
+        return replacementCount;
+    }
+
+    private BulkProcessor build() {
+        BulkProcessor.Builder bulkProcessorBuilder = BulkProcessor.builder(consumer, listener);
+        bulkProcessorBuilder.setBulkActions(bulkActions);
+        bulkProcessorBuilder.setBulkSize(new ByteSizeValue(bulkSizeInMb, ByteSizeUnit.MB));
+        bulkProcessorBuilder.setConcurrentRequests(concurrentRequests);
+        bulkProcessorBuilder.setFlushInterval(TimeValue.timeValueSeconds(flushIntervalSeconds));
+        bulkProcessorBuilder.setBackoffPolicy(BackoffPolicy.constantBackoff(
+                TimeValue.timeValueSeconds(backoffPolicyWaitTimeSeconds), backoffPolicyRetryNo));
+        return bulkProcessorBuilder.build();
+    }
+
+    private static void validate(int bulkActions, long bulkSizeInMb, int concurrentRequests,
+                                 long flushIntervalSeconds, int backoffPolicyRetryNo,
+                                 long backoffPolicyWaitTimeSeconds) {
+        if (bulkActions < -1) {
+            throw new IllegalArgumentException("bulk.actions must not be negative unless -1, but is " + bulkActions);
+        }
+        if (bulkSizeInMb < -1) {
+            throw new IllegalArgumentException("bulk.size must not be negative unless -1, but is " + bulkSizeInMb);
+        }
+        if (concurrentRequests < 0) {
+            throw new IllegalArgumentException("concurrent.requests must not be negative, but is " +
+                    concurrentRequests);
+        }
+        if (flushIntervalSeconds <= 0) {
+            throw new IllegalArgumentException("flush.interval must be positive, but is " + flushIntervalSeconds);
+        }
+        if (backoffPolicyRetryNo < 0 || backoffPolicyWaitTimeSeconds < 0) {
+            throw new IllegalArgumentException("backoff.policy.retry.no and backoff.policy.wait.time must not be " +
+                    "negative, but are " + backoffPolicyRetryNo + " and " + backoffPolicyWaitTimeSeconds);
+        }
+    }
+}
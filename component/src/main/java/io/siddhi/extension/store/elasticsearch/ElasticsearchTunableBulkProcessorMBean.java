@@ -0,0 +1,82 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.siddhi.extension.store.elasticsearch;
+
+/**
+ * The management interface of the bulk processor of a table, which shows its settings next to its throughput and
+ * applies changed settings at runtime.
+ */
+public interface ElasticsearchTunableBulkProcessorMBean {
+
+    int getBulkActions();
+
+    void setBulkActions(int bulkActions);
+
+    long getBulkSizeInMb();
+
+    void setBulkSizeInMb(long bulkSizeInMb);
+
+    int getConcurrentRequests();
+
+    void setConcurrentRequests(int concurrentRequests);
+
+    long getFlushIntervalSeconds();
+
+    void setFlushIntervalSeconds(long flushIntervalSeconds);
+
+    int getBackoffPolicyRetryNo();
+
+    void setBackoffPolicyRetryNo(int backoffPolicyRetryNo);
+
+    long getBackoffPolicyWaitTimeSeconds();
+
+    void setBackoffPolicyWaitTimeSeconds(long backoffPolicyWaitTimeSeconds);
+
+    /**
+     * Applies several settings at once, replacing the bulk processor only once.
+     *
+     * @param bulkActions                  the number of actions which flush a bulk request, or -1.
+     * @param bulkSizeInMb                 the size of the actions in MB which flushes a bulk request, or -1.
+     * @param concurrentRequests           the number of bulk requests executed concurrently.
+     * @param flushIntervalSeconds         the interval in seconds after which pending actions are flushed.
+     * @param backoffPolicyRetryNo         the number of retries of a bulk request rejected by the cluster.
+     * @param backoffPolicyWaitTimeSeconds the time in seconds waited before such a retry.
+     */
+    void updateSettings(int bulkActions, long bulkSizeInMb, int concurrentRequests, long flushIntervalSeconds,
+                        int backoffPolicyRetryNo, long backoffPolicyWaitTimeSeconds);
+
+    long getAddedActionCount();
+
+    /**
+     * Returns the rate at which actions were added since the bulk processor was last replaced.
+     *
+     * @return the actions added per second.
+     */
+    double getAddedActionsPerSecond();
+
+    long getBulkRequestCount();
+
+    long getFailedBulkRequestCount();
+
+    double getMeanBulkLatencyMillis();
+
+    double getBulkLatency99thPercentileMillis();
+
+    int getReplacementCount();
+}
@@ -0,0 +1,198 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.siddhi.extension.store.elasticsearch.cache;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * This class represents a Bloom filter of the document ids of a table, used as a negative cache for primary key
+ * existence checks. An id which the filter does not contain has never been written through the table nor found by
+ * the startup scan, so it can be answered as absent without a request to the cluster. Deleted ids are not removed,
+ * which only makes them false positives that are checked against the cluster. The filter answers queries only once
+ * it is marked ready, after it has been seeded.
+ */
+public class ElasticsearchBloomFilter {
+
+    private static final int MAGIC = 0x53424631;
+
+    private final AtomicLongArray words;
+    private final long bitCount;
+    private final int hashCount;
+    private volatile boolean isReady;
+    private final LongAdder negativeCount = new LongAdder();
+
+    /**
+     * Creates an empty filter sized for the expected number of ids and the target false positive probability.
+     *
+     * @param expectedInsertions       the expected number of document ids.
+     * @param falsePositiveProbability the target probability of reporting an absent id as present.
+     */
+    public ElasticsearchBloomFilter(long expectedInsertions, double falsePositiveProbability) {
+        long bits = (long) Math.ceil(-expectedInsertions * Math.log(falsePositiveProbability) /
+                (Math.log(2) * Math.log(2)));
+        bits = Math.max(64, bits);
+        int wordCount = (int) Math.min(Integer.MAX_VALUE - 8, (bits + 63) / 64);
+        this.words = new AtomicLongArray(wordCount);
+        this.bitCount = (long) wordCount * 64;
+        this.hashCount = Math.max(1, (int) Math.round((double) bitCount / Math.max(1, expectedInsertions) *
+                Math.log(2)));
+    }
+
+    private ElasticsearchBloomFilter(long[] words, int hashCount) {
+        this.words = new AtomicLongArray(words);
+        this.bitCount = (long) words.length * 64;
+        this.hashCount = hashCount;
+    }
+
+    /**
+     * Adds a document id to the filter. Safe to call concurrently with other adds and lookups.
+     *
+     * @param docId the document id.
+     */
+    public void put(String docId) {
+        long hash1 = hash(docId);
+        long hash2 = mix(hash1 + 0x9E3779B97F4A7C15L);
+        for (int i = 0; i < hashCount; i++) {
+            long bitIndex = ((hash1 + i * hash2) & Long.MAX_VALUE) % bitCount;
+            int wordIndex = (int) (bitIndex >>> 6);
+            long mask = 1L << bitIndex;
+            long word = words.get(wordIndex);
+            while ((word & mask) == 0 && !words.compareAndSet(wordIndex, word, word | mask)) {
+                word = words.get(wordIndex);
+            }
+        }
+    }
+
+    /**
+     * Returns whether the document id may have been added to the filter.
+     *
+     * @param docId the document id.
+     * @return false if the id was definitely never added, true otherwise.
+     */
+    public boolean mightContain(String docId) {
+        long hash1 = hash(docId);
+        long hash2 = mix(hash1 + 0x9E3779B97F4A7C15L);
+        for (int i = 0; i < hashCount; i++) {
+            long bitIndex = ((hash1 + i * hash2) & Long.MAX_VALUE) % bitCount;
+            if ((words.get((int) (bitIndex >>> 6)) & (1L << bitIndex)) == 0) {
+                negativeCount.increment();
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns whether the document id is known to be absent, which is only the case once the filter is ready.
+     *
+     * @param docId the document id.
+     * @return true if the id can be answered as absent without asking the cluster.
+     */
+    public boolean isDefinitelyAbsent(String docId) {
+        return isReady && !mightContain(docId);
+    }
+
+    public boolean isReady() {
+        return isReady;
+    }
+
+    public void markReady() {
+        isReady = true;
+    }
+
+    public long getNegativeCount() {
+        return negativeCount.sum();
+    }
+
+    /**
+     * Merges the ids of another filter of the same size into this filter.
+     *
+     * @param other the other filter.
+     * @return true if the filters had the same size and were merged.
+     */
+    public boolean merge(ElasticsearchBloomFilter other) {
+        if (other.bitCount != bitCount || other.hashCount != hashCount) {
+            return false;
+        }
+        for (int i = 0; i < words.length(); i++) {
+            long otherWord = other.words.get(i);
+            long word = words.get(i);
+            while ((word | otherWord) != word && !words.compareAndSet(i, word, word | otherWord)) {
+                word = words.get(i);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Writes the filter so that it can be restored with {@link #readFrom(DataInputStream)}.
+     *
+     * @param outputStream the stream to write to.
+     * @throws IOException if the filter could not be written.
+     */
+    public void writeTo(DataOutputStream outputStream) throws IOException {
+        outputStream.writeInt(MAGIC);
+        outputStream.writeInt(hashCount);
+        outputStream.writeInt(words.length());
+        for (int i = 0; i < words.length(); i++) {
+            outputStream.writeLong(words.get(i));
+        }
+    }
+
+    /**
+     * Reads a filter written by {@link #writeTo(DataOutputStream)}.
+     *
+     * @param inputStream the stream to read from.
+     * @return the filter, which is not marked ready.
+     * @throws IOException if the stream does not hold a filter.
+     */
+    public static ElasticsearchBloomFilter readFrom(DataInputStream inputStream) throws IOException {
+        if (inputStream.readInt() != MAGIC) {
+            throw new IOException("The stream does not hold a document id filter");
+        }
+        int hashCount = inputStream.readInt();
+        long[] words = new long[inputStream.readInt()];
+        for (int i = 0; i < words.length; i++) {
+            words[i] = inputStream.readLong();
+        }
+        return new ElasticsearchBloomFilter(words, hashCount);
+    }
+
+    private static long hash(String docId) {
+        long hash = 0xCBF29CE484222325L;
+        for (int i = 0; i < docId.length(); i++) {
+            hash ^= docId.charAt(i);
+            hash *= 0x100000001B3L;
+        }
+        return mix(hash);
+    }
+
+    private static long mix(long hash) {
+        hash ^= hash >>> 33;
+        hash *= 0xFF51AFD7ED558CCDL;
+        hash ^= hash >>> 33;
+        hash *= 0xC4CEB9FE1A85EC53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
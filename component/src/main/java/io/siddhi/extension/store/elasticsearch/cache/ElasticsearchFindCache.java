@@ -0,0 +1,178 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.siddhi.extension.store.elasticsearch.cache;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This class represents a bounded, least recently used cache of find results with a time to live. Results of
+ * primary key lookups are cached by document id and results of searches by index name and resolved query.
+ * Writes through the table invalidate the written document and every cached search result, and results which
+ * were being fetched while a write happened are not cached.
+ */
+public class ElasticsearchFindCache {
+
+    private static final String DOCUMENT_KEY_PREFIX = "id:";
+    private static final String QUERY_KEY_PREFIX = "query:";
+
+    private final long expiryNanos;
+    private final Map<String, CacheEntry> entries;
+    private long writeGeneration;
+    private long hitCount;
+    private long missCount;
+    private long evictionCount;
+    private long expiryCount;
+
+    public ElasticsearchFindCache(int maxSize, long expiryTimeMillis) {
+        this.expiryNanos = TimeUnit.MILLISECONDS.toNanos(expiryTimeMillis);
+        this.entries = new LeastRecentlyUsedEntries(this, maxSize);
+    }
+
+    public synchronized List<Object[]> getDocument(String indexName, String docId) {
+        return get(DOCUMENT_KEY_PREFIX + indexName + "/" + docId, false);
+    }
+
+    public synchronized List<Object[]> getQuery(String indexName, String query) {
+        return get(QUERY_KEY_PREFIX + indexName + "/" + query, true);
+    }
+
+    public synchronized void putDocument(String indexName, String docId, List<Object[]> records,
+                                         long generation) {
+        put(DOCUMENT_KEY_PREFIX + indexName + "/" + docId, records, generation);
+    }
+
+    public synchronized void putQuery(String indexName, String query, List<Object[]> records, long generation) {
+        put(QUERY_KEY_PREFIX + indexName + "/" + query, records, generation);
+    }
+
+    /**
+     * Returns the current write generation, which has to be passed when caching a result fetched afterwards.
+     *
+     * @return the write generation.
+     */
+    public synchronized long getWriteGeneration() {
+        return writeGeneration;
+    }
+
+    /**
+     * Invalidates the cached document with the given id and all cached search results.
+     *
+     * @param indexName the index of the document.
+     * @param docId     the id of the written document, or null if it is not known.
+     */
+    public synchronized void invalidate(String indexName, String docId) {
+        writeGeneration++;
+        if (docId != null) {
+            entries.remove(DOCUMENT_KEY_PREFIX + indexName + "/" + docId);
+        } else {
+            entries.clear();
+        }
+    }
+
+    public synchronized long getHitCount() {
+        return hitCount;
+    }
+
+    public synchronized long getMissCount() {
+        return missCount;
+    }
+
+    public synchronized long getEvictionCount() {
+        return evictionCount;
+    }
+
+    public synchronized long getExpiryCount() {
+        return expiryCount;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    private List<Object[]> get(String key, boolean isQuery) {
+        CacheEntry entry = entries.get(key);
+        if (entry == null) {
+            missCount++;
+            return null;
+        }
+        if (System.nanoTime() - entry.createdTime > expiryNanos) {
+            entries.remove(key);
+            expiryCount++;
+            missCount++;
+            return null;
+        }
+        if (isQuery && entry.generation != writeGeneration) {
+            // a write happened after this search result was cached
+            entries.remove(key);
+            missCount++;
+            return null;
+        }
+        hitCount++;
+        return entry.records;
+    }
+
+    private void put(String key, List<Object[]> records, long generation) {
+        if (generation != writeGeneration) {
+            return;
+        }
+        entries.put(key, new CacheEntry(records, generation, System.nanoTime()));
+    }
+
+    /**
+     * The entries of the cache in least recently accessed order, which evict the eldest entry once the cache is
+     * full.
+     */
+    private static class LeastRecentlyUsedEntries extends LinkedHashMap<String, CacheEntry> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final transient ElasticsearchFindCache findCache;
+        private final int maxSize;
+
+        private LeastRecentlyUsedEntries(ElasticsearchFindCache findCache, int maxSize) {
+            super(16, 0.75f, true);
+            this.findCache = findCache;
+            this.maxSize = maxSize;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, CacheEntry> eldest) {
+            if (size() > maxSize) {
+                findCache.evictionCount++;
+                return true;
+            }
+            return false;
+        }
+    }
+
+    private static class CacheEntry {
+        private final List<Object[]> records;
+        private final long generation;
+        private final long createdTime;
+
+        private CacheEntry(List<Object[]> records, long generation, long createdTime) {
+            this.records = records;
+            this.generation = generation;
+            this.createdTime = createdTime;
+        }
+    }
+}
@@ -0,0 +1,195 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.siddhi.extension.store.elasticsearch.cache;
+
+import org.apache.log4j.Logger;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * This class represents a bounded, least recently used cache of documents keyed by their primary key document id.
+ * It is populated when records are written through the table and when primary key lookups read from the
+ * cluster. When off heap storage is enabled the records are held encoded in a few large direct byte buffers, so
+ * that large caches add little to the work of the garbage collector.
+ */
+public class ElasticsearchNearCache {
+
+    private static final Logger logger = Logger.getLogger(ElasticsearchNearCache.class);
+    private static final int SLAB_SIZE = 1 << 20;
+
+    private final ElasticsearchSlabRecordStore offHeapStore;
+    private final Map<String, Object> entries;
+    private long writeGeneration;
+    private long hitCount;
+    private long missCount;
+    private long evictionCount;
+
+    public ElasticsearchNearCache(int maxSize, boolean isOffHeap) {
+        this.offHeapStore = isOffHeap ? new ElasticsearchSlabRecordStore(SLAB_SIZE) : null;
+        this.entries = new LeastRecentlyUsedEntries(this, maxSize);
+    }
+
+    /**
+     * Returns a copy of the cached record of the document.
+     *
+     * @param indexName the index of the document.
+     * @param docId     the document id.
+     * @return the record, or null if the document is not cached.
+     */
+    public synchronized Object[] get(String indexName, String docId) {
+        Object value = entries.get(indexName + "/" + docId);
+        if (value == null) {
+            missCount++;
+            return null;
+        }
+        if (value instanceof Object[]) {
+            hitCount++;
+            return ((Object[]) value).clone();
+        }
+        try {
+            Object[] record = offHeapStore.get((Long) value);
+            hitCount++;
+            return record;
+        } catch (IOException e) {
+            logger.warn("Error while decoding the cached document id: " + docId + ", evicting it.", e);
+            released(entries.remove(indexName + "/" + docId));
+            missCount++;
+            return null;
+        }
+    }
+
+    /**
+     * Returns the current write generation, which has to be passed when caching a record read afterwards.
+     *
+     * @return the write generation.
+     */
+    public synchronized long getWriteGeneration() {
+        return writeGeneration;
+    }
+
+    /**
+     * Caches a record which is being written to the cluster.
+     *
+     * @param indexName the index of the document.
+     * @param docId     the document id.
+     * @param record    the record.
+     */
+    public synchronized void put(String indexName, String docId, Object[] record) {
+        writeGeneration++;
+        store(indexName + "/" + docId, record);
+    }
+
+    /**
+     * Caches a record read from the cluster, unless a write happened since the read started.
+     *
+     * @param indexName  the index of the document.
+     * @param docId      the document id.
+     * @param record     the record.
+     * @param generation the write generation obtained before the read started.
+     */
+    public synchronized void putIfUnchanged(String indexName, String docId, Object[] record, long generation) {
+        if (generation == writeGeneration) {
+            store(indexName + "/" + docId, record);
+        }
+    }
+
+    public synchronized void remove(String indexName, String docId) {
+        writeGeneration++;
+        released(entries.remove(indexName + "/" + docId));
+    }
+
+    public synchronized void clear() {
+        writeGeneration++;
+        entries.clear();
+        if (offHeapStore != null) {
+            offHeapStore.clear();
+        }
+    }
+
+    public synchronized long getHitCount() {
+        return hitCount;
+    }
+
+    public synchronized long getMissCount() {
+        return missCount;
+    }
+
+    public synchronized long getEvictionCount() {
+        return evictionCount;
+    }
+
+    public synchronized long getOffHeapBytes() {
+        return offHeapStore != null ? offHeapStore.getUsedBytes() : 0;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    private void store(String key, Object[] record) {
+        if (offHeapStore == null) {
+            entries.put(key, record.clone());
+            return;
+        }
+        try {
+            long handle = offHeapStore.put(record);
+            // a record too large for a slab is held on the heap
+            released(entries.put(key, handle != ElasticsearchSlabRecordStore.NOT_STORED ? handle : record.clone()));
+        } catch (IOException e) {
+            logger.warn("Error while encoding the record of document " + key + ", it is not cached.", e);
+            released(entries.remove(key));
+        }
+    }
+
+    private void released(Object value) {
+        if (value instanceof Long) {
+            offHeapStore.remove((Long) value);
+        }
+    }
+
+    /**
+     * The entries of the cache in least recently accessed order, which evict the eldest entry once the cache is
+     * full.
+     */
+    private static class LeastRecentlyUsedEntries extends LinkedHashMap<String, Object> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final transient ElasticsearchNearCache nearCache;
+        private final int maxSize;
+
+        private LeastRecentlyUsedEntries(ElasticsearchNearCache nearCache, int maxSize) {
+            super(16, 0.75f, true);
+            this.nearCache = nearCache;
+            this.maxSize = maxSize;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Object> eldest) {
+            if (size() > maxSize) {
+                nearCache.evictionCount++;
+                nearCache.released(eldest.getValue());
+                return true;
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,194 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.siddhi.extension.store.elasticsearch.cache;
+
+import org.elasticsearch.action.DocWriteRequest;
+import org.elasticsearch.action.bulk.BulkItemResponse;
+import org.elasticsearch.action.bulk.BulkRequest;
+import org.elasticsearch.action.bulk.BulkResponse;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This class represents the writes of a table which the cluster may not show to reads yet, keyed by their
+ * document id. A write is pending from the moment it is added to the bulk processor until the bulk request
+ * carrying it succeeded and the visibility delay, which covers the refresh of the index, has elapsed. A write
+ * which the cluster rejected is dropped as soon as the bulk request completes.
+ */
+public class ElasticsearchPendingWrites {
+
+    private final long visibilityDelayNanos;
+    private final Map<String, PendingWrite> pendingWrites = new HashMap<>();
+    private final Deque<PendingWrite> flushedWrites = new ArrayDeque<>();
+
+    public ElasticsearchPendingWrites(long visibilityDelayMillis) {
+        this.visibilityDelayNanos = TimeUnit.MILLISECONDS.toNanos(visibilityDelayMillis);
+    }
+
+    /**
+     * Records a write which is being added to the bulk processor, replacing any earlier write of the document.
+     *
+     * @param indexName the index of the document.
+     * @param docId     the document id.
+     * @param record    the record written, or null if the document is deleted.
+     * @param request   the request carrying the write.
+     */
+    public synchronized void put(String indexName, String docId, Object[] record, DocWriteRequest<?> request) {
+        purgeVisibleWrites();
+        pendingWrites.put(indexName + "/" + docId, new PendingWrite(indexName, docId,
+                record != null ? record.clone() : null, request));
+    }
+
+    /**
+     * Returns the pending write of the document.
+     *
+     * @param indexName the index of the document.
+     * @param docId     the document id.
+     * @return the pending write, or null if no write of the document is pending.
+     */
+    public synchronized PendingWrite get(String indexName, String docId) {
+        purgeVisibleWrites();
+        return pendingWrites.get(indexName + "/" + docId);
+    }
+
+    /**
+     * Returns a snapshot of all pending writes.
+     *
+     * @return the pending writes.
+     */
+    public synchronized List<PendingWrite> getPendingWrites() {
+        purgeVisibleWrites();
+        return new ArrayList<>(pendingWrites.values());
+    }
+
+    public synchronized boolean isEmpty() {
+        purgeVisibleWrites();
+        return pendingWrites.isEmpty();
+    }
+
+    public synchronized int size() {
+        return pendingWrites.size();
+    }
+
+    /**
+     * Marks the writes stored by a completed bulk request as flushed, so that they are dropped once the visibility
+     * delay elapsed, and drops the writes the cluster rejected.
+     *
+     * @param request  the bulk request.
+     * @param response the response of the bulk request.
+     */
+    public synchronized void onBulkCompleted(BulkRequest request, BulkResponse response) {
+        List<DocWriteRequest<?>> requests = request.requests();
+        BulkItemResponse[] itemResponses = response.getItems();
+        long now = System.nanoTime();
+        for (int i = 0; i < requests.size(); i++) {
+            PendingWrite pendingWrite = find(requests.get(i));
+            if (pendingWrite == null) {
+                continue;
+            }
+            if (i < itemResponses.length && itemResponses[i].isFailed()) {
+                pendingWrites.remove(pendingWrite.getKey());
+            } else {
+                pendingWrite.flushedAt = now;
+                flushedWrites.add(pendingWrite);
+            }
+        }
+    }
+
+    /**
+     * Drops the writes of a bulk request which could not be executed.
+     *
+     * @param request the bulk request.
+     */
+    public synchronized void onBulkFailed(BulkRequest request) {
+        for (DocWriteRequest<?> docWriteRequest : request.requests()) {
+            PendingWrite pendingWrite = find(docWriteRequest);
+            if (pendingWrite != null) {
+                pendingWrites.remove(pendingWrite.getKey());
+            }
+        }
+    }
+
+    /**
+     * Returns the pending write carried by the request, unless a later write of the document replaced it.
+     */
+    private PendingWrite find(DocWriteRequest<?> request) {
+        PendingWrite pendingWrite = pendingWrites.get(request.index() + "/" + request.id());
+        return pendingWrite != null && pendingWrite.request == request ? pendingWrite : null;
+    }
+
+    private void purgeVisibleWrites() {
+        long now = System.nanoTime();
+        PendingWrite flushedWrite;
+        while ((flushedWrite = flushedWrites.peek()) != null &&
+                now - flushedWrite.flushedAt >= visibilityDelayNanos) {
+            flushedWrites.poll();
+            pendingWrites.remove(flushedWrite.getKey(), flushedWrite);
+        }
+    }
+
+    /**
+     * This class represents a write of a document which reads may not see in the cluster yet.
+     */
+    public static class PendingWrite {
+        private final String indexName;
+        private final String docId;
+        private final Object[] record;
+        private final DocWriteRequest<?> request;
+        private long flushedAt;
+
+        private PendingWrite(String indexName, String docId, Object[] record, DocWriteRequest<?> request) {
+            this.indexName = indexName;
+            this.docId = docId;
+            this.record = record;
+            this.request = request;
+        }
+
+        public String getIndexName() {
+            return indexName;
+        }
+
+        public String getDocId() {
+            return docId;
+        }
+
+        /**
+         * Returns a copy of the record written.
+         *
+         * @return the record, or null if the write deletes the document.
+         */
+        public Object[] getRecord() {
+            return record != null ? record.clone() : null;
+        }
+
+        public boolean isDelete() {
+            return record == null;
+        }
+
+        private String getKey() {
+            return indexName + "/" + docId;
+        }
+    }
+}
@@ -0,0 +1,113 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.siddhi.extension.store.elasticsearch.cache;
+
+import org.elasticsearch.action.DocWriteRequest;
+import org.elasticsearch.action.bulk.BulkRequest;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This class represents the documents a table wrote to the primary cluster so recently that a read cluster
+ * replicating from it may not have them yet, keyed by their document id. A document is recent from the moment its
+ * write is added to the bulk processor until the replication lag tolerance has elapsed after the bulk request
+ * carrying it completed. A bulk request which failed is treated alike, since the cluster may have applied it
+ * before the failure was noticed.
+ */
+public class ElasticsearchRecentWrites {
+
+    private final long replicationLagNanos;
+    private final Map<String, RecentWrite> recentWrites = new HashMap<>();
+    private final Deque<RecentWrite> completedWrites = new ArrayDeque<>();
+
+    public ElasticsearchRecentWrites(long replicationLagMillis) {
+        this.replicationLagNanos = TimeUnit.MILLISECONDS.toNanos(replicationLagMillis);
+    }
+
+    /**
+     * Records a write which is being added to the bulk processor, replacing any earlier write of the document.
+     *
+     * @param indexName the index of the document.
+     * @param docId     the document id.
+     * @param request   the request carrying the write.
+     */
+    public synchronized void put(String indexName, String docId, DocWriteRequest<?> request) {
+        purgeReplicatedWrites();
+        String key = indexName + "/" + docId;
+        recentWrites.put(key, new RecentWrite(key, request));
+    }
+
+    /**
+     * Returns whether the document was written so recently that the read cluster may not have it yet.
+     *
+     * @param indexName the index of the document.
+     * @param docId     the document id.
+     * @return true if the document has to be read from the primary cluster.
+     */
+    public synchronized boolean contains(String indexName, String docId) {
+        purgeReplicatedWrites();
+        return recentWrites.containsKey(indexName + "/" + docId);
+    }
+
+    public synchronized int size() {
+        return recentWrites.size();
+    }
+
+    /**
+     * Starts the replication lag of the writes of a bulk request which completed, whether it succeeded or not.
+     *
+     * @param request the bulk request.
+     */
+    public synchronized void onBulkCompleted(BulkRequest request) {
+        long now = System.nanoTime();
+        for (DocWriteRequest<?> docWriteRequest : request.requests()) {
+            RecentWrite recentWrite = recentWrites.get(docWriteRequest.index() + "/" + docWriteRequest.id());
+            // a later write of the document replaced this one and is still in flight
+            if (recentWrite != null && recentWrite.request == docWriteRequest) {
+                recentWrite.completedAt = now;
+                completedWrites.add(recentWrite);
+            }
+        }
+    }
+
+    private void purgeReplicatedWrites() {
+        long now = System.nanoTime();
+        RecentWrite completedWrite;
+        while ((completedWrite = completedWrites.peek()) != null &&
+                now - completedWrite.completedAt >= replicationLagNanos) {
+            completedWrites.poll();
+            recentWrites.remove(completedWrite.key, completedWrite);
+        }
+    }
+
+    private static class RecentWrite {
+        private final String key;
+        private final DocWriteRequest<?> request;
+        private long completedAt;
+
+        private RecentWrite(String key, DocWriteRequest<?> request) {
+            this.key = key;
+            this.request = request;
+        }
+    }
+}
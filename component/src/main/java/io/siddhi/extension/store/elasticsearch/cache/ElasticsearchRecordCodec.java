@@ -0,0 +1,163 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.siddhi.extension.store.elasticsearch.cache;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * This class encodes records into byte buffers and decodes them back, so that cached records can be held outside
+ * the Java heap. Values of the Siddhi primitive types are written in a compact tagged form and any other value falls
+ * back to Java serialization. A codec encodes into a buffer of its own which is reused for every record, so an
+ * instance must not be shared by threads, while records are decoded straight from the buffer they are held in.
+ */
+public class ElasticsearchRecordCodec {
+
+    private static final byte TYPE_NULL = 0;
+    private static final byte TYPE_STRING = 1;
+    private static final byte TYPE_INT = 2;
+    private static final byte TYPE_LONG = 3;
+    private static final byte TYPE_FLOAT = 4;
+    private static final byte TYPE_DOUBLE = 5;
+    private static final byte TYPE_BOOL = 6;
+    private static final byte TYPE_SERIALIZED = 7;
+
+    private ByteBuffer encodeBuffer = ByteBuffer.allocate(256);
+
+    /**
+     * Encodes the record into the buffer of the codec, which is valid until the next record is encoded.
+     *
+     * @param record the record.
+     * @return the buffer holding the encoded record between its position and limit.
+     * @throws IOException if a value could not be serialized.
+     */
+    public ByteBuffer encode(Object[] record) throws IOException {
+        encodeBuffer.clear();
+        ensureCapacity(4);
+        encodeBuffer.putInt(record.length);
+        for (Object value : record) {
+            if (value == null) {
+                ensureCapacity(1);
+                encodeBuffer.put(TYPE_NULL);
+            } else if (value instanceof String) {
+                byte[] stringBytes = ((String) value).getBytes(StandardCharsets.UTF_8);
+                ensureCapacity(5 + stringBytes.length);
+                encodeBuffer.put(TYPE_STRING).putInt(stringBytes.length).put(stringBytes);
+            } else if (value instanceof Integer) {
+                ensureCapacity(5);
+                encodeBuffer.put(TYPE_INT).putInt((Integer) value);
+            } else if (value instanceof Long) {
+                ensureCapacity(9);
+                encodeBuffer.put(TYPE_LONG).putLong((Long) value);
+            } else if (value instanceof Float) {
+                ensureCapacity(5);
+                encodeBuffer.put(TYPE_FLOAT).putFloat((Float) value);
+            } else if (value instanceof Double) {
+                ensureCapacity(9);
+                encodeBuffer.put(TYPE_DOUBLE).putDouble((Double) value);
+            } else if (value instanceof Boolean) {
+                ensureCapacity(2);
+                encodeBuffer.put(TYPE_BOOL).put((byte) ((Boolean) value ? 1 : 0));
+            } else {
+                ByteArrayOutputStream objectBytes = new ByteArrayOutputStream();
+                try (ObjectOutputStream objectOut = new ObjectOutputStream(objectBytes)) {
+                    objectOut.writeObject(value);
+                }
+                ensureCapacity(5 + objectBytes.size());
+                encodeBuffer.put(TYPE_SERIALIZED).putInt(objectBytes.size()).put(objectBytes.toByteArray());
+            }
+        }
+        encodeBuffer.flip();
+        return encodeBuffer;
+    }
+
+    /**
+     * Decodes a record straight from the buffer it is held in, without moving the position of the buffer.
+     *
+     * @param buffer the buffer.
+     * @param offset the offset of the encoded record in the buffer.
+     * @return the record.
+     * @throws IOException if the encoded record is corrupt.
+     */
+    public static Object[] decode(ByteBuffer buffer, int offset) throws IOException {
+        ByteBuffer in = buffer.duplicate();
+        in.position(offset);
+        try {
+            Object[] record = new Object[in.getInt()];
+            for (int i = 0; i < record.length; i++) {
+                byte type = in.get();
+                switch (type) {
+                    case TYPE_NULL:
+                        break;
+                    case TYPE_STRING:
+                        byte[] stringBytes = new byte[in.getInt()];
+                        in.get(stringBytes);
+                        record[i] = new String(stringBytes, StandardCharsets.UTF_8);
+                        break;
+                    case TYPE_INT:
+                        record[i] = in.getInt();
+                        break;
+                    case TYPE_LONG:
+                        record[i] = in.getLong();
+                        break;
+                    case TYPE_FLOAT:
+                        record[i] = in.getFloat();
+                        break;
+                    case TYPE_DOUBLE:
+                        record[i] = in.getDouble();
+                        break;
+                    case TYPE_BOOL:
+                        record[i] = in.get() != 0;
+                        break;
+                    case TYPE_SERIALIZED:
+                        byte[] objectBytes = new byte[in.getInt()];
+                        in.get(objectBytes);
+                        try (ObjectInputStream objectIn =
+                                     new ObjectInputStream(new ByteArrayInputStream(objectBytes))) {
+                            record[i] = objectIn.readObject();
+                        } catch (ClassNotFoundException e) {
+                            throw new IOException("Cannot decode cached value of class not found", e);
+                        }
+                        break;
+                    default:
+                        throw new IOException("Unknown cached value type: " + type);
+                }
+            }
+            return record;
+        } catch (BufferUnderflowException | NegativeArraySizeException e) {
+            throw new IOException("Cached record is truncated", e);
+        }
+    }
+
+    private void ensureCapacity(int length) {
+        if (encodeBuffer.remaining() < length) {
+            ByteBuffer grownBuffer = ByteBuffer.allocate(Math.max(encodeBuffer.capacity() * 2,
+                    encodeBuffer.position() + length));
+            encodeBuffer.flip();
+            grownBuffer.put(encodeBuffer);
+            encodeBuffer = grownBuffer;
+        }
+    }
+}
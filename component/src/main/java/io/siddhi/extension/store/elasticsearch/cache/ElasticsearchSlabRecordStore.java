@@ -0,0 +1,191 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package io.siddhi.extension.store.elasticsearch.cache;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * This class holds encoded records in a few large direct byte buffers, the slabs, instead of a direct buffer per
+ * record, which would each add a cleaner to the Java heap and make the JVM trigger a garbage collection whenever
+ * direct memory runs short. Each record takes a slot of the power of two size fitting it, and freed slots are kept
+ * in a free list per size to be reused by later records. A record is referred to by a handle made of the index of
+ * its slab and its offset in it. The slabs are only released when the store is cleared. This class is not thread
+ * safe.
+ */
+public class ElasticsearchSlabRecordStore {
+
+    public static final long NOT_STORED = -1;
+    private static final int MIN_SLOT_SHIFT = 5;
+    private static final int SLOT_HEADER_SIZE = 4;
+
+    private final int slabSize;
+    private final ElasticsearchRecordCodec codec = new ElasticsearchRecordCodec();
+    private final List<ByteBuffer> slabs = new ArrayList<>();
+    private final long[][] freeSlots;
+    private final int[] freeSlotCounts;
+    private int slabPosition;
+    private long usedBytes;
+
+    /**
+     * Creates a store whose slabs are allocated as needed.
+     *
+     * @param slabSize the size of each slab in bytes, which is a power of two and bounds the size of a record.
+     */
+    public ElasticsearchSlabRecordStore(int slabSize) {
+        if (Integer.bitCount(slabSize) != 1 || slabSize < (1 << MIN_SLOT_SHIFT)) {
+            throw new IllegalArgumentException("The slab size must be a power of two of at least " +
+                    (1 << MIN_SLOT_SHIFT) + " bytes, but is " + slabSize);
+        }
+        this.slabSize = slabSize;
+        int sizeClassCount = Integer.numberOfTrailingZeros(slabSize) - MIN_SLOT_SHIFT + 1;
+        this.freeSlots = new long[sizeClassCount][];
+        this.freeSlotCounts = new int[sizeClassCount];
+        for (int i = 0; i < sizeClassCount; i++) {
+            freeSlots[i] = new long[8];
+        }
+    }
+
+    /**
+     * Encodes the record into a free slot.
+     *
+     * @param record the record.
+     * @return the handle of the stored record, or {@link #NOT_STORED} if the encoded record does not fit a slab.
+     * @throws IOException if a value of the record could not be serialized.
+     */
+    public long put(Object[] record) throws IOException {
+        ByteBuffer encodedRecord = codec.encode(record);
+        int length = SLOT_HEADER_SIZE + encodedRecord.remaining();
+        if (length > slabSize) {
+            return NOT_STORED;
+        }
+        int slotSize = slotSize(length);
+        int sizeClass = sizeClass(slotSize);
+        long handle = freeSlotCounts[sizeClass] > 0 ? freeSlots[sizeClass][--freeSlotCounts[sizeClass]] :
+                allocate(slotSize);
+        ByteBuffer slot = slabs.get(slabIndex(handle)).duplicate();
+        slot.position(offset(handle));
+        slot.putInt(encodedRecord.remaining());
+        slot.put(encodedRecord);
+        usedBytes += slotSize;
+        return handle;
+    }
+
+    /**
+     * Decodes a stored record straight from its slab.
+     *
+     * @param handle the handle of the record.
+     * @return the record.
+     * @throws IOException if the stored record is corrupt.
+     */
+    public Object[] get(long handle) throws IOException {
+        return ElasticsearchRecordCodec.decode(slabs.get(slabIndex(handle)), offset(handle) + SLOT_HEADER_SIZE);
+    }
+
+    /**
+     * Frees the slot of a stored record for reuse.
+     *
+     * @param handle the handle of the record.
+     */
+    public void remove(long handle) {
+        int slotSize = slotSize(SLOT_HEADER_SIZE + slabs.get(slabIndex(handle)).getInt(offset(handle)));
+        free(handle, slotSize);
+        usedBytes -= slotSize;
+    }
+
+    /**
+     * Removes every record and releases the slabs.
+     */
+    public void clear() {
+        slabs.clear();
+        Arrays.fill(freeSlotCounts, 0);
+        slabPosition = 0;
+        usedBytes = 0;
+    }
+
+    /**
+     * Returns the number of bytes taken by the slots of the stored records.
+     *
+     * @return the used bytes.
+     */
+    public long getUsedBytes() {
+        return usedBytes;
+    }
+
+    /**
+     * Returns the number of bytes of direct memory taken by the slabs.
+     *
+     * @return the reserved bytes.
+     */
+    public long getReservedBytes() {
+        return (long) slabs.size() * slabSize;
+    }
+
+    private long allocate(int slotSize) {
+        if (slabs.isEmpty() || slabPosition + slotSize > slabSize) {
+            if (!slabs.isEmpty()) {
+                // the tail of the full slab is split into the largest slots it fits, so that it is not lost
+                int tailSize = slabSize - slabPosition;
+                while (tailSize >= (1 << MIN_SLOT_SHIFT)) {
+                    int tailSlotSize = Integer.highestOneBit(tailSize);
+                    free(handle(slabs.size() - 1, slabPosition), tailSlotSize);
+                    slabPosition += tailSlotSize;
+                    tailSize -= tailSlotSize;
+                }
+            }
+            slabs.add(ByteBuffer.allocateDirect(slabSize));
+            slabPosition = 0;
+        }
+        long handle = handle(slabs.size() - 1, slabPosition);
+        slabPosition += slotSize;
+        return handle;
+    }
+
+    private void free(long handle, int slotSize) {
+        int sizeClass = sizeClass(slotSize);
+        if (freeSlotCounts[sizeClass] == freeSlots[sizeClass].length) {
+            freeSlots[sizeClass] = Arrays.copyOf(freeSlots[sizeClass], freeSlots[sizeClass].length * 2);
+        }
+        freeSlots[sizeClass][freeSlotCounts[sizeClass]++] = handle;
+    }
+
+    private static int slotSize(int length) {
+        return length <= (1 << MIN_SLOT_SHIFT) ? 1 << MIN_SLOT_SHIFT : Integer.highestOneBit(length - 1) << 1;
+    }
+
+    private static int sizeClass(int slotSize) {
+        return Integer.numberOfTrailingZeros(slotSize) - MIN_SLOT_SHIFT;
+    }
+
+    private static long handle(int slabIndex, int offset) {
+        return ((long) slabIndex << 32) | offset;
+    }
+
+    private static int slabIndex(long handle) {
+        return (int) (handle >>> 32);
+    }
+
+    private static int offset(long handle) {
+        return (int) handle;
+    }
+}
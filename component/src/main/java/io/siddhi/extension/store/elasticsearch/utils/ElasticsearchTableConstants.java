@@ -46,6 +46,46 @@ public class ElasticsearchTableConstants {
     public static final String ANNOTATION_ELEMENT_TRUSRTSTORE_PASS = "trust.store.pass";
     public static final String ANNOTATION_ELEMENT_PAYLOAD_INDEX_OF_INDEX_NAME = "payload.index.of.index.name";
     public static final String ANNOTATION_ELEMENT_MEMBER_LIST = "elasticsearch.member.list";
+    public static final String ANNOTATION_ELEMENT_READ_BATCH_SIZE = "read.batch.size";
+    public static final String ANNOTATION_ELEMENT_READ_BATCH_MAX_WAIT_TIME = "read.batch.max.wait.time";
+    public static final String ANNOTATION_ELEMENT_FIND_CACHE_MAX_SIZE = "find.cache.max.size";
+    public static final String ANNOTATION_ELEMENT_FIND_CACHE_EXPIRY_TIME = "find.cache.expiry.time";
+    public static final String ANNOTATION_ELEMENT_NEAR_CACHE_MAX_SIZE = "near.cache.max.size";
+    public static final String ANNOTATION_ELEMENT_NEAR_CACHE_OFF_HEAP = "near.cache.off.heap";
+    public static final String ANNOTATION_ELEMENT_AGGREGATION_PAGE_SIZE = "aggregation.page.size";
+    public static final String ANNOTATION_ELEMENT_BLOOM_FILTER_EXPECTED_INSERTIONS = "bloom.filter.expected.insertions";
+    public static final String ANNOTATION_ELEMENT_BLOOM_FILTER_FALSE_POSITIVE_PROBABILITY =
+            "bloom.filter.false.positive.probability";
+    public static final String ANNOTATION_ELEMENT_BLOOM_FILTER_PERSISTENCE_PATH = "bloom.filter.persistence.path";
+    public static final String ANNOTATION_ELEMENT_TIME_ATTRIBUTE = "time.attribute";
+    public static final String ANNOTATION_ELEMENT_SEARCH_INDEX_PATTERN = "search.index.pattern";
+    public static final String ANNOTATION_ELEMENT_KEYWORD_EXACT_MATCH = "keyword.exact.match";
+    public static final String ANNOTATION_ELEMENT_TIME_RANGE_REFRESH_INTERVAL = "time.range.refresh.interval";
+    public static final String ANNOTATION_ELEMENT_SEARCH_TIMEOUT = "search.timeout";
+    public static final String ANNOTATION_ELEMENT_ALLOW_PARTIAL_SEARCH_RESULTS = "allow.partial.search.results";
+    public static final String ANNOTATION_ELEMENT_HEDGE_PERCENTILE = "hedge.percentile";
+    public static final String ANNOTATION_ELEMENT_HEDGE_BUDGET = "hedge.budget";
+    public static final String ANNOTATION_ELEMENT_COALESCE_CONCURRENT_READS = "coalesce.concurrent.reads";
+    public static final String ANNOTATION_ELEMENT_READ_YOUR_WRITES = "read.your.writes";
+    public static final String ANNOTATION_ELEMENT_PENDING_WRITE_VISIBILITY_DELAY = "pending.write.visibility.delay";
+    public static final String ANNOTATION_ELEMENT_MAX_CONNECTIONS_PER_ROUTE = "max.connections.per.route";
+    public static final String ANNOTATION_ELEMENT_MAX_CONNECTIONS_TOTAL = "max.connections.total";
+    public static final String ANNOTATION_ELEMENT_SNIFF_INTERVAL = "sniff.interval";
+    public static final String ANNOTATION_ELEMENT_SNIFF_AFTER_FAILURE_DELAY = "sniff.after.failure.delay";
+    public static final String ANNOTATION_ELEMENT_NODE_SELECTION = "node.selection";
+    public static final String ANNOTATION_ELEMENT_BULK_SHARD_ROUTING = "bulk.shard.routing";
+    public static final String ANNOTATION_ELEMENT_SHARD_ROUTING_REFRESH_INTERVAL = "shard.routing.refresh.interval";
+    public static final String ANNOTATION_ELEMENT_CIRCUIT_BREAKER_FAILURE_THRESHOLD =
+            "circuit.breaker.failure.threshold";
+    public static final String ANNOTATION_ELEMENT_CIRCUIT_BREAKER_OPEN_DURATION = "circuit.breaker.open.duration";
+    public static final String ANNOTATION_ELEMENT_WRITE_IO_THREAD_COUNT = "write.io.thread.count";
+    public static final String ANNOTATION_ELEMENT_WRITE_MAX_CONNECTIONS_PER_ROUTE = "write.max.connections.per.route";
+    public static final String ANNOTATION_ELEMENT_WRITE_MAX_CONNECTIONS_TOTAL = "write.max.connections.total";
+    public static final String ANNOTATION_ELEMENT_INDEX_TEMPLATE_PATTERN = "index.template.pattern";
+    public static final String ANNOTATION_ELEMENT_READ_MEMBER_LIST = "read.elasticsearch.member.list";
+    public static final String ANNOTATION_ELEMENT_READ_USER = "read.username";
+    public static final String ANNOTATION_ELEMENT_READ_PASSWORD = "read.password";
+    public static final String ANNOTATION_ELEMENT_READ_REPLICATION_LAG_TOLERANCE = "read.replication.lag.tolerance";
     public static final String ANNOTATION_TYPE_MAPPINGS = "TypeMappings";
 
     public static final String DEFAULT_HOSTNAME = "localhost";
@@ -67,6 +107,39 @@ public class ElasticsearchTableConstants {
     public static final String DEFAULT_TRUSTSTORE_PASS = "wso2carbon";
     public static final String DEFAULT_TRUSTSTORE_TYPE = "jks";
     public static final int DEFAULT_PAYLOAD_INDEX_OF_INDEX_NAME = -1;
+    public static final int DEFAULT_READ_BATCH_SIZE = 1;
+    public static final long DEFAULT_READ_BATCH_MAX_WAIT_TIME = 5;
+    public static final int DEFAULT_FIND_CACHE_MAX_SIZE = 0;
+    public static final long DEFAULT_FIND_CACHE_EXPIRY_TIME = 1000;
+    public static final int DEFAULT_NEAR_CACHE_MAX_SIZE = 0;
+    public static final boolean DEFAULT_NEAR_CACHE_OFF_HEAP = false;
+    public static final int DEFAULT_AGGREGATION_PAGE_SIZE = 1000;
+    public static final long DEFAULT_BLOOM_FILTER_EXPECTED_INSERTIONS = 0;
+    public static final double DEFAULT_BLOOM_FILTER_FALSE_POSITIVE_PROBABILITY = 0.01;
+    public static final long DEFAULT_TIME_RANGE_REFRESH_INTERVAL = 60000;
+    public static final boolean DEFAULT_KEYWORD_EXACT_MATCH = false;
+    public static final long DEFAULT_SEARCH_TIMEOUT = 0;
+    public static final boolean DEFAULT_ALLOW_PARTIAL_SEARCH_RESULTS = false;
+    public static final double DEFAULT_HEDGE_PERCENTILE = 0;
+    public static final double DEFAULT_HEDGE_BUDGET = 0.05;
+    public static final boolean DEFAULT_COALESCE_CONCURRENT_READS = true;
+    public static final boolean DEFAULT_READ_YOUR_WRITES = false;
+    public static final long DEFAULT_PENDING_WRITE_VISIBILITY_DELAY = 1000;
+    public static final int DEFAULT_MAX_CONNECTIONS_PER_ROUTE = 10;
+    public static final int DEFAULT_MAX_CONNECTIONS_TOTAL = 30;
+    public static final int DEFAULT_SNIFF_INTERVAL = 0;
+    public static final int DEFAULT_SNIFF_AFTER_FAILURE_DELAY = 60000;
+    public static final String NODE_SELECTION_ROUND_ROBIN = "round-robin";
+    public static final String NODE_SELECTION_LOAD_AWARE = "load-aware";
+    public static final String DEFAULT_NODE_SELECTION = NODE_SELECTION_ROUND_ROBIN;
+    public static final boolean DEFAULT_BULK_SHARD_ROUTING = false;
+    public static final long DEFAULT_SHARD_ROUTING_REFRESH_INTERVAL = 30000;
+    public static final int DEFAULT_CIRCUIT_BREAKER_FAILURE_THRESHOLD = 0;
+    public static final long DEFAULT_CIRCUIT_BREAKER_OPEN_DURATION = 30000;
+    public static final int DEFAULT_WRITE_IO_THREAD_COUNT = 0;
+    public static final int DEFAULT_WRITE_MAX_CONNECTIONS_PER_ROUTE = 10;
+    public static final int DEFAULT_WRITE_MAX_CONNECTIONS_TOTAL = 30;
+    public static final long DEFAULT_READ_REPLICATION_LAG_TOLERANCE = 5000;
     public static final String SETTING_INDEX_NUMBER_OF_SHARDS = "index.number_of_shards";
     public static final String SETTING_INDEX_NUMBER_OF_REPLICAS = "index.number_of_replicas";
 
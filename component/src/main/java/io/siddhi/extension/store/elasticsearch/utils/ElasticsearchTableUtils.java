@@ -18,12 +18,18 @@
 
 package io.siddhi.extension.store.elasticsearch.utils;
 
+import io.siddhi.core.table.record.RecordIterator;
 import io.siddhi.extension.store.elasticsearch.ElasticsearchCompiledCondition;
 import io.siddhi.query.api.definition.Attribute;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import org.elasticsearch.common.xcontent.XContentBuilder;
+import org.elasticsearch.common.xcontent.XContentFactory;
 
+import java.io.IOException;
 import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
@@ -58,6 +64,98 @@ public class ElasticsearchTableUtils {
         return condition;
     }
 
+    /**
+     * Utility method which resolves the primary key values of a primary key lookup condition.
+     *
+     * @param compiledCondition the compiled condition which is a primary key lookup.
+     * @param parameters        the stream variable values of the current event.
+     * @return map of primary key attribute name to value, or null if any of the values is null.
+     */
+    public static Map<String, Object> resolvePrimaryKeyValues(ElasticsearchCompiledCondition compiledCondition,
+                                                              Map<String, Object> parameters) {
+        Map<String, Object> primaryKeyValues = new HashMap<>(compiledCondition.getPrimaryKeyConstants());
+        for (Map.Entry<String, String> entry : compiledCondition.getPrimaryKeyStreamVariables().entrySet()) {
+            Object value = parameters.get(entry.getValue());
+            if (value == null) {
+                return null;
+            }
+            primaryKeyValues.put(entry.getKey(), value);
+        }
+        return primaryKeyValues;
+    }
+
+    /**
+     * Utility method which converts a numeric value returned by Elasticsearch, such as an aggregation result, to
+     * the java type of the given attribute type.
+     *
+     * @param value the value, may be null.
+     * @param type  the attribute type.
+     * @return the converted value, or the value itself if it is not numeric.
+     */
+    public static Object convertToAttributeType(Object value, Attribute.Type type) {
+        if (!(value instanceof Number)) {
+            return value;
+        }
+        Number number = (Number) value;
+        switch (type) {
+            case INT:
+                return number.intValue();
+            case LONG:
+                return number.longValue();
+            case FLOAT:
+                return number.floatValue();
+            case DOUBLE:
+                return number.doubleValue();
+            default:
+                return value;
+        }
+    }
+
+    /**
+     * Utility method which reads all the records of a record iterator into a list.
+     *
+     * @param recordIterator the record iterator.
+     * @return the list of records.
+     */
+    public static List<Object[]> toRecordList(RecordIterator<Object[]> recordIterator) {
+        List<Object[]> records = new ArrayList<>();
+        while (recordIterator.hasNext()) {
+            records.add(recordIterator.next());
+        }
+        return records;
+    }
+
+    /**
+     * Utility method which returns the attribute names of the store, used as the source includes of requests.
+     *
+     * @param attributes the attribute list of the store.
+     * @return the attribute names.
+     */
+    public static String[] getAttributeNames(List<Attribute> attributes) {
+        String[] names = new String[attributes.size()];
+        for (int i = 0; i < names.length; i++) {
+            names[i] = attributes.get(i).getName();
+        }
+        return names;
+    }
+
+    /**
+     * Utility method which builds the JSON source of the document a record is stored as.
+     *
+     * @param attributes the attribute list of the store.
+     * @param record     the record object array.
+     * @return the builder holding the source of the document.
+     * @throws IOException if the source could not be built.
+     */
+    public static XContentBuilder buildSource(List<Attribute> attributes, Object[] record) throws IOException {
+        XContentBuilder builder = XContentFactory.jsonBuilder();
+        builder.startObject();
+        for (int i = 0; i < record.length; i++) {
+            builder.field(attributes.get(i).getName(), record[i]);
+        }
+        return builder.endObject();
+    }
+
     /**
      * Utility method which can be used to check if a given string instance is null or empty.
      *
@@ -0,0 +1,100 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.siddhi.extension.store.elasticsearch.test;
+
+import io.siddhi.extension.store.elasticsearch.ElasticsearchCircuitBreaker;
+import io.siddhi.extension.store.elasticsearch.ElasticsearchClientConfig;
+import io.siddhi.extension.store.elasticsearch.ElasticsearchClientRegistry;
+import io.siddhi.extension.store.elasticsearch.ElasticsearchGetBatcher;
+import io.siddhi.extension.store.elasticsearch.test.utils.ElasticsearchStandInCluster;
+import io.siddhi.extension.store.elasticsearch.test.utils.ElasticsearchStandInCluster.StandInNode;
+import org.apache.log4j.Logger;
+import org.elasticsearch.action.get.GetRequest;
+import org.elasticsearch.client.RestHighLevelClient;
+import org.testng.AssertJUnit;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+
+import static io.siddhi.extension.store.elasticsearch.test.utils.ElasticsearchStandInCluster.INDEX;
+import static io.siddhi.extension.store.elasticsearch.test.utils.ElasticsearchStandInCluster.createConfig;
+
+/**
+ * Tests the circuit breaker which fails operations fast while the cluster is unavailable.
+ */
+public class ElasticsearchCircuitBreakerTestCase {
+    private static final Logger log = Logger.getLogger(ElasticsearchCircuitBreakerTestCase.class);
+
+    private ElasticsearchStandInCluster cluster = new ElasticsearchStandInCluster();
+
+    @AfterMethod
+    public void stopCluster() {
+        cluster.stop();
+    }
+
+    @Test(description = "Testing that the circuit breaker opens on consecutive failures and closes on a probe.")
+    public void circuitBreakerOpensOnConsecutiveFailures() throws Exception {
+        log.info("circuitBreakerOpensOnConsecutiveFailures");
+        StandInNode node = cluster.startNode("data", 0);
+        ElasticsearchClientConfig config = createConfig(node, 0, false);
+        RestHighLevelClient client = ElasticsearchClientRegistry.acquire(config, "breaker_table");
+        try {
+            ElasticsearchCircuitBreaker circuitBreaker = new ElasticsearchCircuitBreaker(2, 200);
+            ElasticsearchGetBatcher getBatcher = new ElasticsearchGetBatcher(client, 1, 0, circuitBreaker, null);
+            node.setStatus(400);
+            for (int i = 0; i < 3; i++) {
+                executeGet(getBatcher);
+            }
+            AssertJUnit.assertEquals("Rejected requests opened the breaker", ElasticsearchCircuitBreaker.State.CLOSED,
+                    circuitBreaker.getState());
+            node.setStatus(503);
+            executeGet(getBatcher);
+            AssertJUnit.assertFalse(circuitBreaker.isOpen());
+            executeGet(getBatcher);
+            AssertJUnit.assertTrue(circuitBreaker.isOpen());
+            AssertJUnit.assertFalse("A probe was let through before the open duration elapsed",
+                    circuitBreaker.tryProbe());
+            Thread.sleep(250);
+            AssertJUnit.assertTrue(circuitBreaker.tryProbe());
+            AssertJUnit.assertEquals(ElasticsearchCircuitBreaker.State.HALF_OPEN, circuitBreaker.getState());
+            AssertJUnit.assertFalse("A second probe was let through", circuitBreaker.tryProbe());
+            executeGet(getBatcher);
+            AssertJUnit.assertEquals("A failed probe did not open the breaker again",
+                    ElasticsearchCircuitBreaker.State.OPEN, circuitBreaker.getState());
+            Thread.sleep(250);
+            AssertJUnit.assertTrue(circuitBreaker.tryProbe());
+            node.setStatus(200);
+            executeGet(getBatcher);
+            AssertJUnit.assertEquals(ElasticsearchCircuitBreaker.State.CLOSED, circuitBreaker.getState());
+            AssertJUnit.assertEquals(2, circuitBreaker.getOpenCount());
+            AssertJUnit.assertEquals(1, circuitBreaker.getRejectedCount());
+        } finally {
+            ElasticsearchClientRegistry.release(client);
+        }
+    }
+
+    private static void executeGet(ElasticsearchGetBatcher getBatcher) {
+        try {
+            getBatcher.execute(new GetRequest(INDEX, "doc"));
+        } catch (IOException | RuntimeException e) {
+            log.info("The get request failed: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package io.siddhi.extension.store.elasticsearch.test;
+
+import io.siddhi.extension.store.elasticsearch.cache.ElasticsearchFindCache;
+import org.apache.log4j.Logger;
+import org.testng.AssertJUnit;
+import org.testng.annotations.Test;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Tests the cache of find results.
+ */
+public class ElasticsearchFindCacheTestCase {
+    private static final Logger log = Logger.getLogger(ElasticsearchFindCacheTestCase.class);
+
+    private static final List<Object[]> RECORDS = Collections.singletonList(new Object[]{"WSO2", 100L});
+
+    @Test(description = "Testing that cached results expire after their time to live.")
+    public void cachedResultsExpire() throws Exception {
+        log.info("cachedResultsExpire");
+        ElasticsearchFindCache findCache = new ElasticsearchFindCache(10, 100);
+        findCache.putDocument("stock", "WSO2", RECORDS, findCache.getWriteGeneration());
+        findCache.putQuery("stock", "symbol:WSO2", RECORDS, findCache.getWriteGeneration());
+        AssertJUnit.assertSame(RECORDS, findCache.getDocument("stock", "WSO2"));
+        AssertJUnit.assertSame(RECORDS, findCache.getQuery("stock", "symbol:WSO2"));
+        Thread.sleep(150);
+        AssertJUnit.assertNull(findCache.getDocument("stock", "WSO2"));
+        AssertJUnit.assertNull(findCache.getQuery("stock", "symbol:WSO2"));
+        AssertJUnit.assertEquals(2, findCache.getExpiryCount());
+        AssertJUnit.assertEquals(2, findCache.getHitCount());
+        AssertJUnit.assertEquals(2, findCache.getMissCount());
+        AssertJUnit.assertEquals(0, findCache.size());
+    }
+
+    @Test(description = "Testing that the least recently used result is evicted once the cache is full.")
+    public void leastRecentlyUsedResultIsEvicted() {
+        log.info("leastRecentlyUsedResultIsEvicted");
+        ElasticsearchFindCache findCache = new ElasticsearchFindCache(2, 60000);
+        findCache.putDocument("stock", "WSO2", RECORDS, findCache.getWriteGeneration());
+        findCache.putDocument("stock", "IBM", RECORDS, findCache.getWriteGeneration());
+        AssertJUnit.assertNotNull(findCache.getDocument("stock", "WSO2"));
+        findCache.putDocument("stock", "ORCL", RECORDS, findCache.getWriteGeneration());
+        AssertJUnit.assertNull("The least recently used result was not evicted",
+                findCache.getDocument("stock", "IBM"));
+        AssertJUnit.assertNotNull(findCache.getDocument("stock", "WSO2"));
+        AssertJUnit.assertNotNull(findCache.getDocument("stock", "ORCL"));
+        AssertJUnit.assertEquals(1, findCache.getEvictionCount());
+        AssertJUnit.assertEquals(2, findCache.size());
+    }
+
+    @Test(description = "Testing that results fetched before a write are not cached, that a write invalidates its " +
+            "document and every search result, and that other documents stay cached.")
+    public void writesInvalidateResults() {
+        log.info("writesInvalidateResults");
+        ElasticsearchFindCache findCache = new ElasticsearchFindCache(10, 60000);
+        long generation = findCache.getWriteGeneration();
+        findCache.putDocument("stock", "IBM", RECORDS, generation);
+        findCache.putDocument("stock", "ORCL", RECORDS, generation);
+        findCache.putQuery("stock", "symbol:WSO2", RECORDS, generation);
+        findCache.invalidate("stock", "WSO2");
+        findCache.putDocument("stock", "WSO2", RECORDS, generation);
+        findCache.putQuery("stock", "price:100", RECORDS, generation);
+        AssertJUnit.assertNull("A document fetched before a write was cached", findCache.getDocument("stock", "WSO2"));
+        AssertJUnit.assertNull("A search fetched before a write was cached", findCache.getQuery("stock", "price:100"));
+        AssertJUnit.assertNull("A search cached before a write was returned",
+                findCache.getQuery("stock", "symbol:WSO2"));
+        AssertJUnit.assertNotNull(findCache.getDocument("stock", "IBM"));
+        findCache.invalidate("stock", "IBM");
+        AssertJUnit.assertNull(findCache.getDocument("stock", "IBM"));
+        AssertJUnit.assertNotNull(findCache.getDocument("stock", "ORCL"));
+        findCache.invalidate("stock", null);
+        AssertJUnit.assertNull("A write of an unknown document kept cached documents",
+                findCache.getDocument("stock", "ORCL"));
+    }
+}
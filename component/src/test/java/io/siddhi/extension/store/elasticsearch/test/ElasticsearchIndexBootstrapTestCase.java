@@ -0,0 +1,110 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.siddhi.extension.store.elasticsearch.test;
+
+import io.siddhi.extension.store.elasticsearch.ElasticsearchClientConfig;
+import io.siddhi.extension.store.elasticsearch.ElasticsearchClientRegistry;
+import io.siddhi.extension.store.elasticsearch.ElasticsearchDocumentIdScanner;
+import io.siddhi.extension.store.elasticsearch.ElasticsearchIndexBootstrap;
+import io.siddhi.extension.store.elasticsearch.test.utils.ElasticsearchStandInCluster;
+import io.siddhi.extension.store.elasticsearch.test.utils.ElasticsearchStandInCluster.StandInNode;
+import org.apache.log4j.Logger;
+import org.elasticsearch.client.RestHighLevelClient;
+import org.elasticsearch.client.indices.CreateIndexRequest;
+import org.testng.AssertJUnit;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static io.siddhi.extension.store.elasticsearch.test.utils.ElasticsearchStandInCluster.INDEX;
+import static io.siddhi.extension.store.elasticsearch.test.utils.ElasticsearchStandInCluster.createConfig;
+
+/**
+ * Tests the preparation of the indices of tables in the background, and the scan of their document ids.
+ */
+public class ElasticsearchIndexBootstrapTestCase {
+    private static final Logger log = Logger.getLogger(ElasticsearchIndexBootstrapTestCase.class);
+
+    private ElasticsearchStandInCluster cluster = new ElasticsearchStandInCluster();
+
+    @AfterMethod
+    public void stopCluster() {
+        cluster.stop();
+    }
+
+    @Test(description = "Testing that an index bootstrap which failed is started again by the next wait for it.")
+    public void indexBootstrapIsRetriedAfterFailure() throws Exception {
+        log.info("indexBootstrapIsRetriedAfterFailure");
+        StandInNode node = cluster.startNode("data", 0);
+        ElasticsearchClientConfig config = createConfig(node, 0, false);
+        RestHighLevelClient client = ElasticsearchClientRegistry.acquire(config, "bootstrap_table");
+        try {
+            node.setStatus(503);
+            ElasticsearchIndexBootstrap bootstrap = new ElasticsearchIndexBootstrap(client, "bootstrap_table", null,
+                    new CreateIndexRequest(INDEX));
+            bootstrap.start();
+            try {
+                bootstrap.awaitReady();
+                AssertJUnit.fail("The bootstrap succeeded against an unavailable cluster");
+            } catch (IOException e) {
+                log.info("The bootstrap failed: " + e.getMessage());
+            }
+            AssertJUnit.assertFalse(bootstrap.isReady());
+            node.setStatus(200);
+            try {
+                bootstrap.awaitReady();
+            } catch (IOException e) {
+                // the bootstrap started again by the failure above may have reached the node before it recovered,
+                // in which case the bootstrap started by this failure is the one which sees the recovered node
+                log.info("The bootstrap failed before the node recovered: " + e.getMessage());
+                bootstrap.awaitReady();
+            }
+            AssertJUnit.assertTrue(bootstrap.isReady());
+        } finally {
+            ElasticsearchClientRegistry.release(client);
+        }
+    }
+
+    @Test(description = "Testing that scanning the document ids of an index which does not exist yet finds none " +
+            "instead of failing, so that the Bloom filter of a new table becomes ready.")
+    public void missingIndexIsScannedAsEmpty() throws Exception {
+        log.info("missingIndexIsScannedAsEmpty");
+        StandInNode node = cluster.startNode("data", 0);
+        ElasticsearchClientConfig config = createConfig(node, 0, false);
+        RestHighLevelClient client = ElasticsearchClientRegistry.acquire(config, "scan_table");
+        try {
+            node.setStatus(404);
+            List<String> docIds = new ArrayList<>();
+            new ElasticsearchDocumentIdScanner(client, INDEX, 2).scan(docIds::add);
+            AssertJUnit.assertTrue(docIds.isEmpty());
+            node.setStatus(503);
+            try {
+                new ElasticsearchDocumentIdScanner(client, INDEX, 1).scan(docIds::add);
+                AssertJUnit.fail("The scan succeeded against an unavailable cluster");
+            } catch (IOException | RuntimeException e) {
+                log.info("The scan failed: " + e.getMessage());
+            }
+        } finally {
+            ElasticsearchClientRegistry.release(client);
+        }
+    }
+}
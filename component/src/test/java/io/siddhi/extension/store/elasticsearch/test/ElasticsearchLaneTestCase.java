@@ -0,0 +1,97 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.siddhi.extension.store.elasticsearch.test;
+
+import io.siddhi.extension.store.elasticsearch.ElasticsearchClientConfig;
+import io.siddhi.extension.store.elasticsearch.ElasticsearchClientRegistry;
+import io.siddhi.extension.store.elasticsearch.ElasticsearchGetBatcher;
+import io.siddhi.extension.store.elasticsearch.ElasticsearchLaneMetrics;
+import io.siddhi.extension.store.elasticsearch.test.utils.ElasticsearchStandInCluster;
+import io.siddhi.extension.store.elasticsearch.test.utils.ElasticsearchStandInCluster.StandInNode;
+import org.apache.http.HttpHost;
+import org.apache.log4j.Logger;
+import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.action.bulk.BulkRequest;
+import org.elasticsearch.action.bulk.BulkResponse;
+import org.elasticsearch.action.get.GetRequest;
+import org.elasticsearch.action.index.IndexRequest;
+import org.elasticsearch.client.RequestOptions;
+import org.elasticsearch.client.RestHighLevelClient;
+import org.testng.AssertJUnit;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.Test;
+
+import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static io.siddhi.extension.store.elasticsearch.test.utils.ElasticsearchStandInCluster.INDEX;
+
+/**
+ * Tests that reads sent on their own IO lane do not queue behind bulk requests.
+ */
+public class ElasticsearchLaneTestCase {
+    private static final Logger log = Logger.getLogger(ElasticsearchLaneTestCase.class);
+
+    private ElasticsearchStandInCluster cluster = new ElasticsearchStandInCluster();
+
+    @AfterMethod
+    public void stopCluster() {
+        cluster.stop();
+    }
+
+    @Test(description = "Testing that reads on their own lane do not queue behind slow bulk requests.")
+    public void readsDoNotQueueBehindBulksOnTheirOwnLane() throws Exception {
+        log.info("readsDoNotQueueBehindBulksOnTheirOwnLane");
+        StandInNode node = cluster.startNode("data", 0);
+        node.setBulkDelayMillis(500);
+        ElasticsearchClientConfig config = new ElasticsearchClientConfig(new HttpHost[]{node.getHttpHost()},
+                "elastic", "changeme", 1, 1, 1, false, null, null, null, 0, 60000, false);
+        RestHighLevelClient readClient = ElasticsearchClientRegistry.acquire(config, "lane_table");
+        RestHighLevelClient writeClient = ElasticsearchClientRegistry.acquire(config.forLane("write", 1, 1, 1),
+                "lane_table");
+        try {
+            AssertJUnit.assertNotSame(readClient, writeClient);
+            ElasticsearchLaneMetrics sharedLaneMetrics = new ElasticsearchLaneMetrics("read");
+            readDuringBulk(readClient, readClient, sharedLaneMetrics);
+            AssertJUnit.assertTrue("Read latency on a shared lane: " + sharedLaneMetrics,
+                    sharedLaneMetrics.getMaxLatencyMillis() >= 250);
+            ElasticsearchLaneMetrics readLaneMetrics = new ElasticsearchLaneMetrics("read");
+            readDuringBulk(readClient, writeClient, readLaneMetrics);
+            AssertJUnit.assertTrue("Read latency on its own lane: " + readLaneMetrics,
+                    readLaneMetrics.getMaxLatencyMillis() < 250);
+            AssertJUnit.assertEquals(1, readLaneMetrics.getRequestCount());
+        } finally {
+            ElasticsearchClientRegistry.release(writeClient);
+            ElasticsearchClientRegistry.release(readClient);
+        }
+    }
+
+    private static void readDuringBulk(RestHighLevelClient readClient, RestHighLevelClient writeClient,
+                                       ElasticsearchLaneMetrics readLaneMetrics) throws Exception {
+        CompletableFuture<BulkResponse> bulkResponse = new CompletableFuture<>();
+        writeClient.bulkAsync(new BulkRequest().add(new IndexRequest(INDEX).id("bulk")
+                        .source(Collections.singletonMap("id", "bulk"))), RequestOptions.DEFAULT,
+                ActionListener.wrap(bulkResponse::complete, bulkResponse::completeExceptionally));
+        Thread.sleep(100);
+        new ElasticsearchGetBatcher(readClient, 1, 0, null, readLaneMetrics)
+                .execute(new GetRequest(INDEX, "doc"));
+        bulkResponse.get(10, TimeUnit.SECONDS);
+    }
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package io.siddhi.extension.store.elasticsearch.test;
+
+import io.siddhi.extension.store.elasticsearch.cache.ElasticsearchNearCache;
+import org.apache.log4j.Logger;
+import org.testng.AssertJUnit;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.util.Arrays;
+
+/**
+ * Tests the primary key near cache, both with records held on the Java heap and off it.
+ */
+public class ElasticsearchNearCacheTestCase {
+    private static final Logger log = Logger.getLogger(ElasticsearchNearCacheTestCase.class);
+
+    @DataProvider(name = "offHeap")
+    public Object[][] offHeap() {
+        return new Object[][]{{false}, {true}};
+    }
+
+    @Test(description = "Testing that the near cache returns copies of the cached records.",
+            dataProvider = "offHeap")
+    public void cachedRecordsAreCopied(boolean isOffHeap) {
+        log.info("cachedRecordsAreCopied offHeap=" + isOffHeap);
+        ElasticsearchNearCache nearCache = new ElasticsearchNearCache(10, isOffHeap);
+        Object[] record = new Object[]{"WSO2", 55.6f, 100L};
+        nearCache.put("stock", "WSO2", record);
+        record[2] = 200L;
+        Object[] cachedRecord = nearCache.get("stock", "WSO2");
+        AssertJUnit.assertTrue(Arrays.equals(new Object[]{"WSO2", 55.6f, 100L}, cachedRecord));
+        cachedRecord[2] = 300L;
+        AssertJUnit.assertEquals(100L, nearCache.get("stock", "WSO2")[2]);
+        AssertJUnit.assertNull(nearCache.get("other", "WSO2"));
+        AssertJUnit.assertEquals(2, nearCache.getHitCount());
+        AssertJUnit.assertEquals(1, nearCache.getMissCount());
+    }
+
+    @Test(description = "Testing that the least recently used record is evicted once the near cache is full, and " +
+            "that its off heap slot is freed.", dataProvider = "offHeap")
+    public void leastRecentlyUsedRecordIsEvicted(boolean isOffHeap) {
+        log.info("leastRecentlyUsedRecordIsEvicted offHeap=" + isOffHeap);
+        ElasticsearchNearCache nearCache = new ElasticsearchNearCache(2, isOffHeap);
+        nearCache.put("stock", "WSO2", new Object[]{"WSO2", 100L});
+        nearCache.put("stock", "IBM", new Object[]{"IBM", 200L});
+        AssertJUnit.assertNotNull(nearCache.get("stock", "WSO2"));
+        long offHeapBytes = nearCache.getOffHeapBytes();
+        nearCache.put("stock", "ORCL", new Object[]{"ORCL", 300L});
+        AssertJUnit.assertNull("The least recently used record was not evicted", nearCache.get("stock", "IBM"));
+        AssertJUnit.assertNotNull(nearCache.get("stock", "WSO2"));
+        AssertJUnit.assertNotNull(nearCache.get("stock", "ORCL"));
+        AssertJUnit.assertEquals(2, nearCache.size());
+        AssertJUnit.assertEquals(1, nearCache.getEvictionCount());
+        AssertJUnit.assertEquals("The slot of the evicted record was not freed", offHeapBytes,
+                nearCache.getOffHeapBytes());
+        nearCache.remove("stock", "WSO2");
+        nearCache.clear();
+        AssertJUnit.assertEquals(0, nearCache.getOffHeapBytes());
+        AssertJUnit.assertEquals(0, nearCache.size());
+    }
+
+    @Test(description = "Testing that a record read before a write is not cached over the written record.",
+            dataProvider = "offHeap")
+    public void readBeforeWriteIsNotCached(boolean isOffHeap) {
+        log.info("readBeforeWriteIsNotCached offHeap=" + isOffHeap);
+        ElasticsearchNearCache nearCache = new ElasticsearchNearCache(10, isOffHeap);
+        long generation = nearCache.getWriteGeneration();
+        nearCache.put("stock", "WSO2", new Object[]{"WSO2", 200L});
+        nearCache.putIfUnchanged("stock", "WSO2", new Object[]{"WSO2", 100L}, generation);
+        AssertJUnit.assertEquals(200L, nearCache.get("stock", "WSO2")[1]);
+        nearCache.putIfUnchanged("stock", "IBM", new Object[]{"IBM", 300L}, nearCache.getWriteGeneration());
+        AssertJUnit.assertEquals(300L, nearCache.get("stock", "IBM")[1]);
+    }
+
+    @Test(description = "Testing that a record too large for a slab is still cached when held off heap.")
+    public void largeRecordIsCachedOffHeap() {
+        log.info("largeRecordIsCachedOffHeap");
+        ElasticsearchNearCache nearCache = new ElasticsearchNearCache(10, true);
+        char[] largeString = new char[2 << 20];
+        Arrays.fill(largeString, 'a');
+        Object[] record = new Object[]{new String(largeString), 100L};
+        nearCache.put("stock", "WSO2", record);
+        AssertJUnit.assertTrue(Arrays.equals(record, nearCache.get("stock", "WSO2")));
+        AssertJUnit.assertEquals(0, nearCache.getOffHeapBytes());
+    }
+}
@@ -0,0 +1,135 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.siddhi.extension.store.elasticsearch.test;
+
+import io.siddhi.extension.store.elasticsearch.ElasticsearchClientConfig;
+import io.siddhi.extension.store.elasticsearch.ElasticsearchClientRegistry;
+import io.siddhi.extension.store.elasticsearch.ElasticsearchNodeSelector;
+import io.siddhi.extension.store.elasticsearch.test.utils.ElasticsearchStandInCluster;
+import io.siddhi.extension.store.elasticsearch.test.utils.ElasticsearchStandInCluster.StandInNode;
+import org.apache.log4j.Logger;
+import org.elasticsearch.client.Request;
+import org.elasticsearch.client.Response;
+import org.elasticsearch.client.ResponseListener;
+import org.elasticsearch.client.RestHighLevelClient;
+import org.testng.AssertJUnit;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static io.siddhi.extension.store.elasticsearch.test.utils.ElasticsearchStandInCluster.createConfig;
+import static io.siddhi.extension.store.elasticsearch.test.utils.ElasticsearchStandInCluster.waitForNodes;
+
+/**
+ * Tests the sharing of REST clients between tables and the node sniffing and node selection of the shared
+ * clients against a stand-in cluster.
+ */
+public class ElasticsearchNodeSelectionTestCase {
+    private static final Logger log = Logger.getLogger(ElasticsearchNodeSelectionTestCase.class);
+
+    private ElasticsearchStandInCluster cluster = new ElasticsearchStandInCluster();
+
+    @AfterMethod
+    public void stopCluster() {
+        cluster.stop();
+    }
+
+    @Test(description = "Testing that tables with the same client configuration share one client.")
+    public void sharedClientIsReferenceCounted() throws IOException {
+        log.info("sharedClientIsReferenceCounted");
+        StandInNode node = cluster.startNode("data", 0);
+        ElasticsearchClientConfig config = createConfig(node, 0, false);
+        RestHighLevelClient firstClient = ElasticsearchClientRegistry.acquire(config, "first_table");
+        RestHighLevelClient secondClient = ElasticsearchClientRegistry.acquire(createConfig(node, 0, false),
+                "second_table");
+        AssertJUnit.assertSame(firstClient, secondClient);
+        AssertJUnit.assertEquals(2, ElasticsearchClientRegistry.getReferenceCount(firstClient));
+        ElasticsearchClientRegistry.release(firstClient);
+        firstClient.getLowLevelClient().performRequest(new Request("GET", "/"));
+        ElasticsearchClientRegistry.release(secondClient);
+        AssertJUnit.assertEquals(0, ElasticsearchClientRegistry.getReferenceCount(firstClient));
+        try {
+            firstClient.getLowLevelClient().performRequest(new Request("GET", "/"));
+            AssertJUnit.fail("The client was not closed on its last release");
+        } catch (RuntimeException e) {
+            log.info("The client was closed on its last release: " + e.getMessage());
+        }
+    }
+
+    @Test(description = "Testing that sniffed nodes are selected by their roles.")
+    public void sniffedNodesAreSelectedByRole() throws Exception {
+        log.info("sniffedNodesAreSelectedByRole");
+        StandInNode dataNode = cluster.startNode("data", 0);
+        StandInNode coordinatingNode = cluster.startNode("coordinating", 0);
+        ElasticsearchClientConfig config = createConfig(dataNode, 60000, true);
+        RestHighLevelClient client = ElasticsearchClientRegistry.acquire(config, "sniffed_table");
+        try {
+            waitForNodes(client, 2);
+            for (int i = 0; i < 10; i++) {
+                client.getLowLevelClient().performRequest(new Request("GET", "/_search"));
+                sendBulk(client);
+            }
+            AssertJUnit.assertEquals("Searches sent to the coordinating node", 10,
+                    coordinatingNode.getRequestCount());
+            AssertJUnit.assertEquals("Bulk requests sent to the data node", 10, dataNode.getRequestCount());
+        } finally {
+            ElasticsearchClientRegistry.release(client);
+        }
+    }
+
+    @Test(description = "Testing that slow nodes are skipped.")
+    public void slowNodesAreSkipped() throws Exception {
+        log.info("slowNodesAreSkipped");
+        StandInNode fastNode = cluster.startNode("data", 0);
+        StandInNode slowNode = cluster.startNode("data", 100);
+        ElasticsearchClientConfig config = createConfig(fastNode, 60000, true);
+        RestHighLevelClient client = ElasticsearchClientRegistry.acquire(config, "latency_table");
+        try {
+            waitForNodes(client, 2);
+            for (int i = 0; i < 20; i++) {
+                client.getLowLevelClient().performRequest(new Request("GET", "/_search"));
+            }
+            AssertJUnit.assertTrue("Searches sent to the slow node: " + slowNode.getRequestCount(),
+                    slowNode.getRequestCount() <= 2);
+        } finally {
+            ElasticsearchClientRegistry.release(client);
+        }
+    }
+
+    private static void sendBulk(RestHighLevelClient client) throws InterruptedException {
+        CountDownLatch latch = new CountDownLatch(1);
+        ElasticsearchNodeSelector.sendAs(ElasticsearchNodeSelector.RequestType.BULK, () ->
+                client.getLowLevelClient().performRequestAsync(new Request("POST", "/_bulk"),
+                        new ResponseListener() {
+                            @Override
+                            public void onSuccess(Response response) {
+                                latch.countDown();
+                            }
+
+                            @Override
+                            public void onFailure(Exception exception) {
+                                latch.countDown();
+                            }
+                        }));
+        AssertJUnit.assertTrue(latch.await(10, TimeUnit.SECONDS));
+    }
+}
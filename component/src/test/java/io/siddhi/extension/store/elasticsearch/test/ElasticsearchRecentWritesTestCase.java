@@ -0,0 +1,59 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.siddhi.extension.store.elasticsearch.test;
+
+import io.siddhi.extension.store.elasticsearch.cache.ElasticsearchRecentWrites;
+import org.apache.log4j.Logger;
+import org.elasticsearch.action.bulk.BulkRequest;
+import org.elasticsearch.action.index.IndexRequest;
+import org.testng.AssertJUnit;
+import org.testng.annotations.Test;
+
+import static io.siddhi.extension.store.elasticsearch.test.utils.ElasticsearchStandInCluster.INDEX;
+
+/**
+ * Tests the tracking of writes which may not be replicated to the read cluster yet.
+ */
+public class ElasticsearchRecentWritesTestCase {
+    private static final Logger log = Logger.getLogger(ElasticsearchRecentWritesTestCase.class);
+
+    @Test(description = "Testing that written documents stay recent until the replication lag elapsed after " +
+            "their bulk request completed.")
+    public void recentWritesExpireAfterTheReplicationLag() throws Exception {
+        log.info("recentWritesExpireAfterTheReplicationLag");
+        ElasticsearchRecentWrites recentWrites = new ElasticsearchRecentWrites(200);
+        IndexRequest firstWrite = new IndexRequest(INDEX).id("doc1");
+        IndexRequest secondWrite = new IndexRequest(INDEX).id("doc2");
+        recentWrites.put(INDEX, "doc1", firstWrite);
+        recentWrites.put(INDEX, "doc2", secondWrite);
+        IndexRequest laterWrite = new IndexRequest(INDEX).id("doc2");
+        recentWrites.put(INDEX, "doc2", laterWrite);
+        recentWrites.onBulkCompleted(new BulkRequest().add(firstWrite).add(secondWrite));
+        AssertJUnit.assertTrue(recentWrites.contains(INDEX, "doc1"));
+        AssertJUnit.assertFalse(recentWrites.contains(INDEX, "doc3"));
+        Thread.sleep(300);
+        AssertJUnit.assertFalse(recentWrites.contains(INDEX, "doc1"));
+        // the later write of the document is still in flight
+        AssertJUnit.assertTrue(recentWrites.contains(INDEX, "doc2"));
+        recentWrites.onBulkCompleted(new BulkRequest().add(laterWrite));
+        Thread.sleep(300);
+        AssertJUnit.assertFalse(recentWrites.contains(INDEX, "doc2"));
+        AssertJUnit.assertEquals(0, recentWrites.size());
+    }
+}
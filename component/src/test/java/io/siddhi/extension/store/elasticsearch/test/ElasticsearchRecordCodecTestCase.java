@@ -0,0 +1,97 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package io.siddhi.extension.store.elasticsearch.test;
+
+import io.siddhi.extension.store.elasticsearch.cache.ElasticsearchRecordCodec;
+import io.siddhi.extension.store.elasticsearch.cache.ElasticsearchSlabRecordStore;
+import org.apache.log4j.Logger;
+import org.testng.AssertJUnit;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Collections;
+
+/**
+ * Tests the encoding of cached records and the slabs the encoded records are held in outside the Java heap.
+ */
+public class ElasticsearchRecordCodecTestCase {
+    private static final Logger log = Logger.getLogger(ElasticsearchRecordCodecTestCase.class);
+
+    @Test(description = "Testing that records of every value type are decoded as they were encoded.")
+    public void recordsAreDecodedAsEncoded() throws Exception {
+        log.info("recordsAreDecodedAsEncoded");
+        char[] longString = new char[1000];
+        Arrays.fill(longString, 'é');
+        Object[] record = new Object[]{"WSO2", 55.6f, 100L, 10, 12.5, true, null, new String(longString),
+                Collections.singletonMap("symbol", "IBM")};
+        ElasticsearchRecordCodec codec = new ElasticsearchRecordCodec();
+        ByteBuffer encodedRecord = codec.encode(record);
+        ByteBuffer buffer = ByteBuffer.allocateDirect(encodedRecord.remaining() + 10);
+        buffer.position(10);
+        buffer.put(encodedRecord);
+        AssertJUnit.assertTrue(Arrays.equals(record, ElasticsearchRecordCodec.decode(buffer, 10)));
+        AssertJUnit.assertTrue("Decoding moved the position of the buffer", Arrays.equals(record,
+                ElasticsearchRecordCodec.decode(buffer, 10)));
+    }
+
+    @Test(description = "Testing that a truncated record fails to decode instead of returning a partial record.")
+    public void truncatedRecordFailsToDecode() throws Exception {
+        log.info("truncatedRecordFailsToDecode");
+        ByteBuffer encodedRecord = new ElasticsearchRecordCodec().encode(new Object[]{"WSO2", 100L});
+        encodedRecord.limit(encodedRecord.limit() - 4);
+        try {
+            ElasticsearchRecordCodec.decode(encodedRecord.slice(), 0);
+            AssertJUnit.fail("A truncated record was decoded");
+        } catch (IOException e) {
+            log.info("Truncated record failed to decode: " + e.getMessage());
+        }
+    }
+
+    @Test(description = "Testing that the slab store reuses freed slots instead of allocating more slabs, and does " +
+            "not store records which do not fit a slab.")
+    public void slabStoreReusesFreedSlots() throws Exception {
+        log.info("slabStoreReusesFreedSlots");
+        ElasticsearchSlabRecordStore store = new ElasticsearchSlabRecordStore(1024);
+        long[] handles = new long[100];
+        for (int round = 0; round < 10; round++) {
+            for (int i = 0; i < handles.length; i++) {
+                handles[i] = store.put(new Object[]{"symbol" + i, (long) round});
+            }
+            for (int i = 0; i < handles.length; i++) {
+                AssertJUnit.assertTrue(Arrays.equals(new Object[]{"symbol" + i, (long) round},
+                        store.get(handles[i])));
+            }
+            AssertJUnit.assertEquals(100 * 32, store.getUsedBytes());
+            for (long handle : handles) {
+                store.remove(handle);
+            }
+        }
+        AssertJUnit.assertEquals(0, store.getUsedBytes());
+        AssertJUnit.assertEquals("Freed slots were not reused", 4 * 1024, store.getReservedBytes());
+        char[] largeString = new char[1024];
+        Arrays.fill(largeString, 'a');
+        AssertJUnit.assertEquals(ElasticsearchSlabRecordStore.NOT_STORED,
+                store.put(new Object[]{new String(largeString)}));
+        store.clear();
+        AssertJUnit.assertEquals(0, store.getReservedBytes());
+    }
+}
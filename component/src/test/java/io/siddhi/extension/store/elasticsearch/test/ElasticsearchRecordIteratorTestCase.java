@@ -0,0 +1,97 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package io.siddhi.extension.store.elasticsearch.test;
+
+import io.siddhi.extension.store.elasticsearch.ElasticsearchRecordIterator;
+import io.siddhi.extension.store.elasticsearch.ElasticsearchSearchBatcher;
+import io.siddhi.extension.store.elasticsearch.ElasticsearchSourceDecoder;
+import io.siddhi.query.api.definition.Attribute;
+import org.apache.log4j.Logger;
+import org.elasticsearch.action.search.SearchRequest;
+import org.elasticsearch.action.search.SearchResponse;
+import org.elasticsearch.common.bytes.BytesArray;
+import org.elasticsearch.common.xcontent.DeprecationHandler;
+import org.elasticsearch.common.xcontent.NamedXContentRegistry;
+import org.elasticsearch.common.xcontent.XContentParser;
+import org.elasticsearch.common.xcontent.XContentType;
+import org.elasticsearch.search.fetch.subphase.FetchSourceContext;
+import org.testng.AssertJUnit;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Tests decoding the records of a search from the sources of its hits.
+ */
+public class ElasticsearchRecordIteratorTestCase {
+    private static final Logger log = Logger.getLogger(ElasticsearchRecordIteratorTestCase.class);
+
+    private static final String RESPONSE_BODY = "{\"took\":1,\"timed_out\":false,\"_shards\":{\"total\":1," +
+            "\"successful\":1,\"skipped\":0,\"failed\":0},\"hits\":{\"total\":{\"value\":2,\"relation\":\"eq\"}," +
+            "\"max_score\":1.0,\"hits\":[" +
+            "{\"_index\":\"stock\",\"_type\":\"_doc\",\"_id\":\"WSO2\",\"_score\":1.0,\"_source\":" +
+            "{\"volume\":100,\"extra\":{\"nested\":[1,2]},\"symbol\":\"WSO2\",\"price\":55.6,\"other\":\"x\"}}," +
+            "{\"_index\":\"stock\",\"_type\":\"_doc\",\"_id\":\"IBM\",\"_score\":1.0,\"_source\":" +
+            "{\"symbol\":\"IBM\",\"extra\":\"y\"}}]}}";
+
+    @Test(description = "Testing that searches only fetch the attributes of the table from the document sources, " +
+            "and that other fields of the documents are dropped.")
+    public void searchFetchesOnlyTableAttributes() throws Exception {
+        log.info("searchFetchesOnlyTableAttributes");
+        List<Attribute> attributes = Arrays.asList(new Attribute("symbol", Attribute.Type.STRING),
+                new Attribute("price", Attribute.Type.FLOAT), new Attribute("volume", Attribute.Type.LONG));
+        CapturingSearchBatcher searchBatcher = new CapturingSearchBatcher();
+        ElasticsearchRecordIterator recordIterator = new ElasticsearchRecordIterator("stock", "symbol:*",
+                searchBatcher, new ElasticsearchSourceDecoder(attributes));
+        FetchSourceContext fetchSourceContext = searchBatcher.request.source().fetchSource();
+        AssertJUnit.assertTrue(fetchSourceContext.fetchSource());
+        AssertJUnit.assertEquals(Arrays.asList("symbol", "price", "volume"),
+                Arrays.asList(fetchSourceContext.includes()));
+        AssertJUnit.assertEquals(0, fetchSourceContext.excludes().length);
+        AssertJUnit.assertTrue(recordIterator.hasNext());
+        AssertJUnit.assertTrue(Arrays.equals(new Object[]{"WSO2", 55.6f, 100L}, recordIterator.next()));
+        AssertJUnit.assertTrue(recordIterator.hasNext());
+        AssertJUnit.assertTrue("A missing attribute was not decoded as null",
+                Arrays.equals(new Object[]{"IBM", null, null}, recordIterator.next()));
+        AssertJUnit.assertFalse(recordIterator.hasNext());
+    }
+
+    /**
+     * Search batcher which keeps the search it is asked to execute and answers it with a canned response.
+     */
+    private static class CapturingSearchBatcher extends ElasticsearchSearchBatcher {
+        private SearchRequest request;
+
+        private CapturingSearchBatcher() {
+            super(null, 1, 0);
+        }
+
+        @Override
+        public SearchResponse execute(SearchRequest request) throws IOException {
+            this.request = request;
+            try (XContentParser parser = XContentType.JSON.xContent().createParser(NamedXContentRegistry.EMPTY,
+                    DeprecationHandler.THROW_UNSUPPORTED_OPERATION, new BytesArray(RESPONSE_BODY).streamInput())) {
+                return SearchResponse.fromXContent(parser);
+            }
+        }
+    }
+}
@@ -0,0 +1,178 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package io.siddhi.extension.store.elasticsearch.test;
+
+import io.siddhi.extension.store.elasticsearch.ElasticsearchRequestBatcher;
+import org.apache.log4j.Logger;
+import org.testng.AssertJUnit;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tests the request batcher which executes read requests of concurrent callers as batched requests.
+ */
+public class ElasticsearchRequestBatcherTestCase {
+    private static final Logger log = Logger.getLogger(ElasticsearchRequestBatcherTestCase.class);
+
+    private ExecutorService executorService = Executors.newCachedThreadPool();
+
+    @AfterMethod
+    public void shutdownExecutor() {
+        executorService.shutdownNow();
+        executorService = Executors.newCachedThreadPool();
+    }
+
+    @Test(description = "Testing that a lone caller is executed at once instead of waiting for a batch to fill.")
+    public void loneCallerIsExecutedAtOnce() throws Exception {
+        log.info("loneCallerIsExecutedAtOnce");
+        RecordingBatcher batcher = new RecordingBatcher(10, 10000);
+        long startNanos = System.nanoTime();
+        AssertJUnit.assertEquals("response-a", batcher.execute("a"));
+        AssertJUnit.assertEquals("response-b", batcher.execute("b"));
+        AssertJUnit.assertTrue("A lone caller waited for the batch to fill",
+                System.nanoTime() - startNanos < TimeUnit.SECONDS.toNanos(5));
+        AssertJUnit.assertEquals(2, batcher.singleRequests.size());
+        AssertJUnit.assertTrue(batcher.batches.isEmpty());
+    }
+
+    @Test(description = "Testing that callers arriving while a request is in flight are executed as one batch, " +
+            "without waiting for the request in flight to complete.")
+    public void concurrentCallersAreBatched() throws Exception {
+        log.info("concurrentCallersAreBatched");
+        RecordingBatcher batcher = new RecordingBatcher(4, 10000);
+        batcher.blockSingleRequests();
+        Future<String> blocked = executorService.submit(() -> batcher.execute("blocked"));
+        AssertJUnit.assertTrue(batcher.singleRequestStarted.await(5, TimeUnit.SECONDS));
+        List<Future<String>> responses = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            String request = "request-" + i;
+            responses.add(executorService.submit(() -> batcher.execute(request)));
+        }
+        for (int i = 0; i < 4; i++) {
+            AssertJUnit.assertEquals("response-request-" + i, responses.get(i).get(5, TimeUnit.SECONDS));
+        }
+        AssertJUnit.assertFalse("The batch waited for the request in flight", blocked.isDone());
+        AssertJUnit.assertEquals(1, batcher.batches.size());
+        AssertJUnit.assertEquals(4, batcher.batches.get(0).size());
+        batcher.releaseSingleRequests();
+        AssertJUnit.assertEquals("response-blocked", blocked.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test(description = "Testing that the failure of a request in a batch is only reported to its own caller, " +
+            "and that the failure of a whole batch is reported to every caller in it.")
+    public void failuresAreFannedOutToCallers() throws Exception {
+        log.info("failuresAreFannedOutToCallers");
+        RecordingBatcher batcher = new RecordingBatcher(2, 10000);
+        batcher.blockSingleRequests();
+        Future<String> blocked = executorService.submit(() -> batcher.execute("blocked"));
+        AssertJUnit.assertTrue(batcher.singleRequestStarted.await(5, TimeUnit.SECONDS));
+        Future<String> succeeded = executorService.submit(() -> batcher.execute("ok"));
+        Future<String> failed = executorService.submit(() -> batcher.execute("fail"));
+        AssertJUnit.assertEquals("response-ok", succeeded.get(5, TimeUnit.SECONDS));
+        assertFailure(failed, "fail");
+
+        batcher.failBatches();
+        Future<String> first = executorService.submit(() -> batcher.execute("first"));
+        Future<String> second = executorService.submit(() -> batcher.execute("second"));
+        assertFailure(first, "batch");
+        assertFailure(second, "batch");
+        AssertJUnit.assertEquals(2, batcher.batches.size());
+        batcher.releaseSingleRequests();
+        AssertJUnit.assertEquals("response-blocked", blocked.get(5, TimeUnit.SECONDS));
+    }
+
+    private static void assertFailure(Future<String> response, String message) throws Exception {
+        try {
+            response.get(5, TimeUnit.SECONDS);
+            AssertJUnit.fail("The request did not fail");
+        } catch (ExecutionException e) {
+            AssertJUnit.assertTrue(e.getCause() instanceof IOException);
+            AssertJUnit.assertEquals(message, e.getCause().getMessage());
+        }
+    }
+
+    private static class RecordingBatcher extends ElasticsearchRequestBatcher<String, String> {
+        private final List<String> singleRequests = Collections.synchronizedList(new ArrayList<>());
+        private final List<List<String>> batches = Collections.synchronizedList(new ArrayList<>());
+        private final CountDownLatch singleRequestStarted = new CountDownLatch(1);
+        private volatile CountDownLatch singleRequestRelease;
+        private volatile boolean isBatchFailing;
+
+        private RecordingBatcher(int maxBatchSize, long maxWaitMillis) {
+            super(maxBatchSize, maxWaitMillis);
+        }
+
+        private void blockSingleRequests() {
+            singleRequestRelease = new CountDownLatch(1);
+        }
+
+        private void releaseSingleRequests() {
+            singleRequestRelease.countDown();
+        }
+
+        private void failBatches() {
+            isBatchFailing = true;
+        }
+
+        @Override
+        protected String executeSingle(String request) throws IOException {
+            singleRequests.add(request);
+            singleRequestStarted.countDown();
+            CountDownLatch release = singleRequestRelease;
+            if (release != null) {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException("Interrupted", e);
+                }
+            }
+            return "response-" + request;
+        }
+
+        @Override
+        protected void executeBatch(List<String> requests, List<CompletableFuture<String>> futures)
+                throws IOException {
+            batches.add(new ArrayList<>(requests));
+            if (isBatchFailing) {
+                throw new IOException("batch");
+            }
+            for (int i = 0; i < requests.size(); i++) {
+                if (requests.get(i).startsWith("fail")) {
+                    futures.get(i).completeExceptionally(new IOException(requests.get(i)));
+                } else {
+                    futures.get(i).complete("response-" + requests.get(i));
+                }
+            }
+        }
+    }
+}
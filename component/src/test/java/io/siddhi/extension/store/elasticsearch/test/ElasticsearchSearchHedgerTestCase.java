@@ -0,0 +1,115 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.siddhi.extension.store.elasticsearch.test;
+
+import io.siddhi.extension.store.elasticsearch.ElasticsearchClientRegistry;
+import io.siddhi.extension.store.elasticsearch.ElasticsearchSearchHedger;
+import io.siddhi.extension.store.elasticsearch.test.utils.ElasticsearchStandInCluster;
+import io.siddhi.extension.store.elasticsearch.test.utils.ElasticsearchStandInCluster.StandInNode;
+import org.apache.log4j.Logger;
+import org.elasticsearch.action.search.SearchRequest;
+import org.elasticsearch.client.RestHighLevelClient;
+import org.testng.AssertJUnit;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.Test;
+
+import static io.siddhi.extension.store.elasticsearch.test.utils.ElasticsearchStandInCluster.INDEX;
+import static io.siddhi.extension.store.elasticsearch.test.utils.ElasticsearchStandInCluster.createConfig;
+
+/**
+ * Tests the hedging of slow searches against a node which answers searches with a preference faster than the
+ * others.
+ */
+public class ElasticsearchSearchHedgerTestCase {
+    private static final Logger log = Logger.getLogger(ElasticsearchSearchHedgerTestCase.class);
+    // the hedge delay is computed with the latency of the 128th search, which is recorded only after its future
+    // completed, so one more search is sent on the single I/O thread of the client to make sure it is in place
+    private static final int WARM_UP_SEARCH_COUNT = 129;
+    private static final long SLOW_SEARCH_DELAY_MILLIS = 500;
+
+    private ElasticsearchStandInCluster cluster = new ElasticsearchStandInCluster();
+
+    @AfterMethod
+    public void stopCluster() {
+        cluster.stop();
+    }
+
+    @Test(description = "Testing that slow searches are hedged and answered by the hedge.")
+    public void slowSearchesAreAnsweredByHedges() throws Exception {
+        log.info("slowSearchesAreAnsweredByHedges");
+        StandInNode node = cluster.startNode("data", 0);
+        RestHighLevelClient client = ElasticsearchClientRegistry.acquire(createConfig(node, 0, false),
+                "hedged_table");
+        try {
+            ElasticsearchSearchHedger searchHedger = new ElasticsearchSearchHedger(client, 95, 0.1);
+            warmUp(searchHedger);
+            AssertJUnit.assertEquals("Searches were hedged before the hedge delay was known", 0,
+                    searchHedger.getHedgeCount());
+            node.setSearchDelayMillis(SLOW_SEARCH_DELAY_MILLIS, 0);
+            for (int i = 0; i < 3; i++) {
+                long startNanos = System.nanoTime();
+                searchHedger.search(new SearchRequest(INDEX)).get();
+                AssertJUnit.assertTrue("The search waited for the slow node",
+                        (System.nanoTime() - startNanos) / 1000000 < SLOW_SEARCH_DELAY_MILLIS);
+            }
+            // the slow original requests return after the hedges, which accounts the time saved by them
+            Thread.sleep(SLOW_SEARCH_DELAY_MILLIS + 200);
+            AssertJUnit.assertEquals(WARM_UP_SEARCH_COUNT + 3, searchHedger.getSearchCount());
+            AssertJUnit.assertEquals(3, searchHedger.getHedgeCount());
+            AssertJUnit.assertEquals(3, searchHedger.getHedgeWinCount());
+            AssertJUnit.assertEquals(3, node.getPreferredSearchCount());
+            AssertJUnit.assertEquals(0, searchHedger.getBudgetExhaustedCount());
+            AssertJUnit.assertTrue("The time saved by the hedges was not accounted",
+                    searchHedger.getSavedTimeMillis() > 0);
+        } finally {
+            ElasticsearchClientRegistry.release(client);
+        }
+    }
+
+    @Test(description = "Testing that hedges are not sent once the hedge budget is exhausted.")
+    public void hedgesAreLimitedByTheBudget() throws Exception {
+        log.info("hedgesAreLimitedByTheBudget");
+        StandInNode node = cluster.startNode("data", 0);
+        RestHighLevelClient client = ElasticsearchClientRegistry.acquire(createConfig(node, 0, false),
+                "hedged_table");
+        try {
+            // the warm up earns a little more than the one hedge the budget allows
+            ElasticsearchSearchHedger searchHedger = new ElasticsearchSearchHedger(client, 95, 0.01);
+            warmUp(searchHedger);
+            node.setSearchDelayMillis(SLOW_SEARCH_DELAY_MILLIS, 0);
+            searchHedger.search(new SearchRequest(INDEX)).get();
+            long startNanos = System.nanoTime();
+            searchHedger.search(new SearchRequest(INDEX)).get();
+            AssertJUnit.assertTrue("The search without a hedge did not wait for the slow node",
+                    (System.nanoTime() - startNanos) / 1000000 >= SLOW_SEARCH_DELAY_MILLIS);
+            AssertJUnit.assertEquals(1, searchHedger.getHedgeCount());
+            AssertJUnit.assertEquals(1, searchHedger.getHedgeWinCount());
+            AssertJUnit.assertEquals(1, searchHedger.getBudgetExhaustedCount());
+            AssertJUnit.assertEquals(1, node.getPreferredSearchCount());
+        } finally {
+            ElasticsearchClientRegistry.release(client);
+        }
+    }
+
+    private static void warmUp(ElasticsearchSearchHedger searchHedger) throws Exception {
+        for (int i = 0; i < WARM_UP_SEARCH_COUNT; i++) {
+            searchHedger.search(new SearchRequest(INDEX)).get();
+        }
+    }
+}
@@ -0,0 +1,113 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.siddhi.extension.store.elasticsearch.test;
+
+import io.siddhi.extension.store.elasticsearch.ElasticsearchClientConfig;
+import io.siddhi.extension.store.elasticsearch.ElasticsearchClientRegistry;
+import io.siddhi.extension.store.elasticsearch.ElasticsearchNodeSelector;
+import io.siddhi.extension.store.elasticsearch.ElasticsearchShardRouter;
+import io.siddhi.extension.store.elasticsearch.test.utils.ElasticsearchStandInCluster;
+import io.siddhi.extension.store.elasticsearch.test.utils.ElasticsearchStandInCluster.StandInNode;
+import org.apache.log4j.Logger;
+import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.action.bulk.BulkItemResponse;
+import org.elasticsearch.action.bulk.BulkRequest;
+import org.elasticsearch.action.bulk.BulkResponse;
+import org.elasticsearch.action.index.IndexRequest;
+import org.elasticsearch.client.RestHighLevelClient;
+import org.elasticsearch.cluster.routing.Murmur3HashFunction;
+import org.testng.AssertJUnit;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static io.siddhi.extension.store.elasticsearch.test.utils.ElasticsearchStandInCluster.INDEX;
+import static io.siddhi.extension.store.elasticsearch.test.utils.ElasticsearchStandInCluster.createConfig;
+import static io.siddhi.extension.store.elasticsearch.test.utils.ElasticsearchStandInCluster.waitForNodes;
+
+/**
+ * Tests the routing of bulk items to the nodes holding their primary shards against a stand-in cluster.
+ */
+public class ElasticsearchShardRouterTestCase {
+    private static final Logger log = Logger.getLogger(ElasticsearchShardRouterTestCase.class);
+
+    private ElasticsearchStandInCluster cluster = new ElasticsearchStandInCluster();
+
+    @AfterMethod
+    public void stopCluster() {
+        cluster.stop();
+    }
+
+    @Test(description = "Testing that bulk items are sent to the nodes holding their primary shards.")
+    public void bulkItemsAreRoutedToPrimaryShards() throws Exception {
+        log.info("bulkItemsAreRoutedToPrimaryShards");
+        StandInNode firstNode = cluster.startNode("data", 0);
+        StandInNode secondNode = cluster.startNode("data", 0);
+        ElasticsearchClientConfig config = createConfig(firstNode, 60000, false);
+        RestHighLevelClient client = ElasticsearchClientRegistry.acquire(config, "routed_table");
+        try {
+            waitForNodes(client, 2);
+            ElasticsearchShardRouter shardRouter = new ElasticsearchShardRouter(client, "http", 60000);
+            for (int i = 0; i < 100 && shardRouter.getRoutedCount() == 0; i++) {
+                sendRoutedBulk(shardRouter, Collections.singletonList("warm-up"));
+                Thread.sleep(50);
+            }
+            AssertJUnit.assertTrue("The routing table was not loaded", shardRouter.getRoutedCount() > 0);
+            firstNode.getDocIds().clear();
+            secondNode.getDocIds().clear();
+            List<String> docIds = new ArrayList<>();
+            for (int i = 0; i < 20; i++) {
+                docIds.add("doc" + i);
+            }
+            BulkResponse response = sendRoutedBulk(shardRouter, docIds);
+            AssertJUnit.assertFalse(response.hasFailures());
+            AssertJUnit.assertEquals(docIds.size(), response.getItems().length);
+            for (int i = 0; i < docIds.size(); i++) {
+                BulkItemResponse item = response.getItems()[i];
+                AssertJUnit.assertEquals(i, item.getItemId());
+                AssertJUnit.assertEquals(docIds.get(i), item.getId());
+                StandInNode owner = Math.floorMod(Murmur3HashFunction.hash(docIds.get(i)), 2) == 0 ?
+                        firstNode : secondNode;
+                AssertJUnit.assertTrue("Document " + docIds.get(i) + " was not sent to its primary shard",
+                        owner.getDocIds().contains(docIds.get(i)));
+            }
+            AssertJUnit.assertEquals(docIds.size(), firstNode.getDocIds().size() + secondNode.getDocIds().size());
+        } finally {
+            ElasticsearchClientRegistry.release(client);
+        }
+    }
+
+    private static BulkResponse sendRoutedBulk(ElasticsearchShardRouter shardRouter, List<String> docIds)
+            throws Exception {
+        BulkRequest request = new BulkRequest();
+        for (String docId : docIds) {
+            request.add(new IndexRequest(INDEX).id(docId).source(Collections.singletonMap("id", docId)));
+        }
+        CompletableFuture<BulkResponse> response = new CompletableFuture<>();
+        ElasticsearchNodeSelector.sendAs(ElasticsearchNodeSelector.RequestType.BULK, () ->
+                shardRouter.bulkAsync(request, ActionListener.wrap(response::complete,
+                        response::completeExceptionally)));
+        return response.get(10, TimeUnit.SECONDS);
+    }
+}
@@ -0,0 +1,166 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package io.siddhi.extension.store.elasticsearch.test;
+
+import io.siddhi.extension.store.elasticsearch.ElasticsearchSingleFlight;
+import io.siddhi.extension.store.elasticsearch.exceptions.ElasticsearchServiceException;
+import org.apache.log4j.Logger;
+import org.testng.AssertJUnit;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Tests the coalescing of identical concurrent reads.
+ */
+public class ElasticsearchSingleFlightTestCase {
+    private static final Logger log = Logger.getLogger(ElasticsearchSingleFlightTestCase.class);
+
+    private ExecutorService executorService = Executors.newCachedThreadPool();
+
+    @AfterMethod
+    public void shutdownExecutor() {
+        executorService.shutdownNow();
+        executorService = Executors.newCachedThreadPool();
+    }
+
+    @Test(description = "Testing that identical concurrent reads share a single load.")
+    public void identicalReadsShareLoad() throws Exception {
+        log.info("identicalReadsShareLoad");
+        ElasticsearchSingleFlight<String, String> singleFlight = new ElasticsearchSingleFlight<>();
+        AtomicInteger loadCount = new AtomicInteger();
+        CountDownLatch loadStarted = new CountDownLatch(1);
+        CountDownLatch loadRelease = new CountDownLatch(1);
+        Future<String> leader = executorService.submit(() -> singleFlight.execute("symbol:WSO2", () -> {
+            loadCount.incrementAndGet();
+            loadStarted.countDown();
+            await(loadRelease);
+            return "WSO2";
+        }));
+        AssertJUnit.assertTrue(loadStarted.await(5, TimeUnit.SECONDS));
+        List<Future<String>> followers = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            followers.add(executorService.submit(() -> singleFlight.execute("symbol:WSO2", () -> {
+                loadCount.incrementAndGet();
+                return "loaded again";
+            })));
+        }
+        waitForCoalescedCount(singleFlight, 4);
+        loadRelease.countDown();
+        AssertJUnit.assertEquals("WSO2", leader.get(5, TimeUnit.SECONDS));
+        for (Future<String> follower : followers) {
+            AssertJUnit.assertEquals("WSO2", follower.get(5, TimeUnit.SECONDS));
+        }
+        AssertJUnit.assertEquals(1, loadCount.get());
+        AssertJUnit.assertEquals("A read after the load completed was coalesced", "IBM",
+                singleFlight.execute("symbol:WSO2", () -> "IBM"));
+    }
+
+    @Test(description = "Testing that a read after a write does not join a load which started before the write, " +
+            "and that later reads join the load which superseded it.")
+    public void writeSupersedesLoad() throws Exception {
+        log.info("writeSupersedesLoad");
+        ElasticsearchSingleFlight<String, String> singleFlight = new ElasticsearchSingleFlight<>();
+        CountDownLatch staleLoadStarted = new CountDownLatch(1);
+        CountDownLatch staleLoadRelease = new CountDownLatch(1);
+        Future<String> staleRead = executorService.submit(() -> singleFlight.execute("symbol:WSO2", () -> {
+            staleLoadStarted.countDown();
+            await(staleLoadRelease);
+            return "before write";
+        }));
+        AssertJUnit.assertTrue(staleLoadStarted.await(5, TimeUnit.SECONDS));
+        singleFlight.onWrite();
+        CountDownLatch freshLoadStarted = new CountDownLatch(1);
+        CountDownLatch freshLoadRelease = new CountDownLatch(1);
+        Future<String> freshRead = executorService.submit(() -> singleFlight.execute("symbol:WSO2", () -> {
+            freshLoadStarted.countDown();
+            await(freshLoadRelease);
+            return "after write";
+        }));
+        AssertJUnit.assertTrue("A read after a write joined the load which started before it",
+                freshLoadStarted.await(5, TimeUnit.SECONDS));
+        Future<String> joiningRead = executorService.submit(() -> singleFlight.execute("symbol:WSO2",
+                () -> "loaded again"));
+        waitForCoalescedCount(singleFlight, 1);
+        staleLoadRelease.countDown();
+        AssertJUnit.assertEquals("before write", staleRead.get(5, TimeUnit.SECONDS));
+        freshLoadRelease.countDown();
+        AssertJUnit.assertEquals("after write", freshRead.get(5, TimeUnit.SECONDS));
+        AssertJUnit.assertEquals("after write", joiningRead.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test(description = "Testing that the failure of a load is thrown to every read which joined it.")
+    public void failureIsPropagatedToJoinedReads() throws Exception {
+        log.info("failureIsPropagatedToJoinedReads");
+        ElasticsearchSingleFlight<String, String> singleFlight = new ElasticsearchSingleFlight<>();
+        CountDownLatch loadStarted = new CountDownLatch(1);
+        CountDownLatch loadRelease = new CountDownLatch(1);
+        Future<String> leader = executorService.submit(() -> singleFlight.execute("symbol:WSO2", () -> {
+            loadStarted.countDown();
+            await(loadRelease);
+            throw new ElasticsearchServiceException("search failed");
+        }));
+        AssertJUnit.assertTrue(loadStarted.await(5, TimeUnit.SECONDS));
+        Future<String> follower = executorService.submit(() -> singleFlight.execute("symbol:WSO2",
+                () -> "loaded again"));
+        waitForCoalescedCount(singleFlight, 1);
+        loadRelease.countDown();
+        assertFailure(leader);
+        assertFailure(follower);
+        AssertJUnit.assertEquals("A failed load was kept", "WSO2", singleFlight.execute("symbol:WSO2", () -> "WSO2"));
+    }
+
+    private static void assertFailure(Future<String> read) throws Exception {
+        try {
+            read.get(5, TimeUnit.SECONDS);
+            AssertJUnit.fail("The read did not fail");
+        } catch (ExecutionException e) {
+            AssertJUnit.assertTrue(e.getCause() instanceof ElasticsearchServiceException);
+            AssertJUnit.assertEquals("search failed", e.getCause().getMessage());
+        }
+    }
+
+    private static void waitForCoalescedCount(ElasticsearchSingleFlight<?, ?> singleFlight, long count)
+            throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (singleFlight.getCoalescedCount() < count && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        AssertJUnit.assertEquals(count, singleFlight.getCoalescedCount());
+    }
+
+    private static void await(CountDownLatch latch) throws ElasticsearchServiceException {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ElasticsearchServiceException("Interrupted", e);
+        }
+    }
+}
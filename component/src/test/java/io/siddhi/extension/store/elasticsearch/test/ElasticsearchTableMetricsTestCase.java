@@ -0,0 +1,91 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.siddhi.extension.store.elasticsearch.test;
+
+import io.siddhi.extension.store.elasticsearch.ElasticsearchTableMetrics;
+import org.apache.log4j.Logger;
+import org.elasticsearch.action.DocWriteRequest;
+import org.elasticsearch.action.bulk.BulkItemResponse;
+import org.elasticsearch.action.bulk.BulkRequest;
+import org.elasticsearch.action.bulk.BulkResponse;
+import org.elasticsearch.action.index.IndexRequest;
+import org.elasticsearch.rest.RestStatus;
+import org.testng.AssertJUnit;
+import org.testng.annotations.Test;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import java.lang.management.ManagementFactory;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static io.siddhi.extension.store.elasticsearch.test.utils.ElasticsearchStandInCluster.INDEX;
+
+/**
+ * Tests the metrics of a table and their exposure through JMX.
+ */
+public class ElasticsearchTableMetricsTestCase {
+    private static final Logger log = Logger.getLogger(ElasticsearchTableMetricsTestCase.class);
+
+    @Test(description = "Testing that the table metrics are recorded while enabled and read through JMX.")
+    public void tableMetricsAreExposedThroughJmx() throws Exception {
+        log.info("tableMetricsAreExposedThroughJmx");
+        AtomicBoolean isEnabled = new AtomicBoolean(false);
+        ElasticsearchTableMetrics tableMetrics = new ElasticsearchTableMetrics("metered_table", isEnabled::get);
+        tableMetrics.gauge("FindCacheHitRatio", "The ratio of lookups the find cache answered.", () -> 0.75);
+        MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+        ObjectName objectName = new ObjectName("io.siddhi.extension.store.elasticsearch:type=Metrics," +
+                "table=metered_table");
+        mBeanServer.registerMBean(tableMetrics, objectName);
+        try {
+            BulkRequest request = new BulkRequest().add(new IndexRequest(INDEX).id("doc1")
+                    .source(Collections.singletonMap("id", 1))).add(new IndexRequest(INDEX).id("doc2")
+                    .source(Collections.singletonMap("id", 2)));
+            BulkResponse response = new BulkResponse(new BulkItemResponse[]{
+                    new BulkItemResponse(0, DocWriteRequest.OpType.INDEX, new BulkItemResponse.Failure(
+                            INDEX, "_doc", "doc1", new IllegalStateException("rejected"),
+                            RestStatus.TOO_MANY_REQUESTS)),
+                    new BulkItemResponse(1, DocWriteRequest.OpType.INDEX, new BulkItemResponse.Failure(
+                            INDEX, "_doc", "doc2", new IllegalArgumentException("mapping"),
+                            RestStatus.BAD_REQUEST))}, 12);
+            tableMetrics.recordBulk(request, response);
+            tableMetrics.recordFind();
+            AssertJUnit.assertEquals(0L, mBeanServer.getAttribute(objectName, "BulkActionCount"));
+            AssertJUnit.assertEquals(0L, mBeanServer.getAttribute(objectName, "FindCount"));
+            // the completed actions are counted regardless, as the pending bulk actions are derived from them
+            AssertJUnit.assertEquals(2, tableMetrics.getCompletedBulkActionCount());
+            isEnabled.set(true);
+            tableMetrics.recordBulk(request, response);
+            tableMetrics.recordFind();
+            AssertJUnit.assertEquals(2L, mBeanServer.getAttribute(objectName, "BulkActionCount"));
+            AssertJUnit.assertEquals(request.estimatedSizeInBytes(),
+                    (long) (Long) mBeanServer.getAttribute(objectName, "BulkBytes"));
+            AssertJUnit.assertEquals(2L, mBeanServer.getAttribute(objectName, "FailedBulkItemCount"));
+            AssertJUnit.assertEquals(1L, mBeanServer.getAttribute(objectName, "RejectedBulkItemCount"));
+            AssertJUnit.assertEquals(12.0, (Double) mBeanServer.getAttribute(objectName, "MeanBulkTookMillis"),
+                    0.01);
+            AssertJUnit.assertEquals(1L, mBeanServer.getAttribute(objectName, "FindCount"));
+            AssertJUnit.assertEquals(0.75, mBeanServer.getAttribute(objectName, "FindCacheHitRatio"));
+            AssertJUnit.assertEquals(4, tableMetrics.getCompletedBulkActionCount());
+        } finally {
+            mBeanServer.unregisterMBean(objectName);
+        }
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package io.siddhi.extension.store.elasticsearch.test;
+
+import io.siddhi.extension.store.elasticsearch.ElasticsearchCircuitBreaker;
+import io.siddhi.extension.store.elasticsearch.ElasticsearchClientConfig;
+import io.siddhi.extension.store.elasticsearch.ElasticsearchClientRegistry;
+import io.siddhi.extension.store.elasticsearch.ElasticsearchSearchBatcher;
+import io.siddhi.extension.store.elasticsearch.ElasticsearchTimeRangeIndexSelector;
+import io.siddhi.extension.store.elasticsearch.test.utils.ElasticsearchStandInCluster;
+import io.siddhi.extension.store.elasticsearch.test.utils.ElasticsearchStandInCluster.StandInNode;
+import org.apache.log4j.Logger;
+import org.elasticsearch.client.RestHighLevelClient;
+import org.testng.AssertJUnit;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import static io.siddhi.extension.store.elasticsearch.test.utils.ElasticsearchStandInCluster.INDEX;
+import static io.siddhi.extension.store.elasticsearch.test.utils.ElasticsearchStandInCluster.createConfig;
+
+/**
+ * Tests the selection of the indices of a pattern by the time range of their records.
+ */
+public class ElasticsearchTimeRangeIndexSelectorTestCase {
+    private static final Logger log = Logger.getLogger(ElasticsearchTimeRangeIndexSelectorTestCase.class);
+
+    private ElasticsearchStandInCluster cluster = new ElasticsearchStandInCluster();
+
+    @AfterMethod
+    public void stopCluster() {
+        cluster.stop();
+    }
+
+    @Test(description = "Testing that the refresh of the time ranges is bound by the search deadline and reported " +
+            "to the circuit breaker.")
+    public void timeRangeRefreshHasSearchDeadline() throws Exception {
+        log.info("timeRangeRefreshHasSearchDeadline");
+        StandInNode node = cluster.startNode("data", 0);
+        ElasticsearchClientConfig config = createConfig(node, 0, false);
+        RestHighLevelClient client = ElasticsearchClientRegistry.acquire(config, "time_range_table");
+        try {
+            ElasticsearchCircuitBreaker circuitBreaker = new ElasticsearchCircuitBreaker(1, 60000);
+            ElasticsearchSearchBatcher searchBatcher = new ElasticsearchSearchBatcher(client, 1, 0, 200, false,
+                    null, circuitBreaker, null, null);
+            ElasticsearchTimeRangeIndexSelector selector = new ElasticsearchTimeRangeIndexSelector(searchBatcher,
+                    INDEX + "*", "time", 60000);
+            selector.recordWrite(INDEX + "-1", 1000);
+            AssertJUnit.assertEquals(1, selector.selectIndices(0, 2000).size());
+            AssertJUnit.assertTrue(selector.selectIndices(3000, 4000).isEmpty());
+            selector.invalidate();
+            node.setSearchDelayMillis(2000, 2000);
+            long startNanos = System.nanoTime();
+            try {
+                selector.selectIndices(0, 2000);
+                AssertJUnit.fail("The time ranges were refreshed past the search deadline");
+            } catch (IOException e) {
+                log.info("The refresh failed: " + e.getMessage());
+            }
+            AssertJUnit.assertTrue("The refresh waited past the search deadline",
+                    System.nanoTime() - startNanos < TimeUnit.MILLISECONDS.toNanos(1500));
+            AssertJUnit.assertTrue("The failed refresh was not reported to the circuit breaker",
+                    circuitBreaker.isOpen());
+        } finally {
+            ElasticsearchClientRegistry.release(client);
+        }
+    }
+}
@@ -0,0 +1,172 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.siddhi.extension.store.elasticsearch.test;
+
+import io.siddhi.extension.store.elasticsearch.ElasticsearchClientConfig;
+import io.siddhi.extension.store.elasticsearch.ElasticsearchClientRegistry;
+import io.siddhi.extension.store.elasticsearch.ElasticsearchLaneMetrics;
+import io.siddhi.extension.store.elasticsearch.ElasticsearchTunableBulkProcessor;
+import io.siddhi.extension.store.elasticsearch.test.utils.ElasticsearchStandInCluster;
+import io.siddhi.extension.store.elasticsearch.test.utils.ElasticsearchStandInCluster.StandInNode;
+import org.apache.log4j.Logger;
+import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.action.bulk.BulkProcessor;
+import org.elasticsearch.action.bulk.BulkRequest;
+import org.elasticsearch.action.bulk.BulkResponse;
+import org.elasticsearch.action.index.IndexRequest;
+import org.elasticsearch.client.RequestOptions;
+import org.elasticsearch.client.RestHighLevelClient;
+import org.testng.AssertJUnit;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.Test;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static io.siddhi.extension.store.elasticsearch.test.utils.ElasticsearchStandInCluster.INDEX;
+import static io.siddhi.extension.store.elasticsearch.test.utils.ElasticsearchStandInCluster.createConfig;
+
+/**
+ * Tests changing the bulk settings of a table at runtime.
+ */
+public class ElasticsearchTunableBulkProcessorTestCase {
+    private static final Logger log = Logger.getLogger(ElasticsearchTunableBulkProcessorTestCase.class);
+
+    private ElasticsearchStandInCluster cluster = new ElasticsearchStandInCluster();
+
+    @AfterMethod
+    public void stopCluster() {
+        cluster.stop();
+    }
+
+    @Test(description = "Testing that changing the bulk settings at runtime loses no buffered write.")
+    public void bulkSettingsChangeWithoutLosingWrites() throws Exception {
+        log.info("bulkSettingsChangeWithoutLosingWrites");
+        StandInNode node = cluster.startNode("data", 0);
+        node.setBulkDelayMillis(20);
+        ElasticsearchClientConfig config = createConfig(node, 0, false);
+        RestHighLevelClient client = ElasticsearchClientRegistry.acquire(config, "tunable_table");
+        AtomicInteger failedBulkCount = new AtomicInteger();
+        try {
+            ElasticsearchTunableBulkProcessor bulkProcessor = new ElasticsearchTunableBulkProcessor("tunable_table",
+                    (request, listener) -> client.bulkAsync(request, RequestOptions.DEFAULT, listener),
+                    new BulkProcessor.Listener() {
+                        @Override
+                        public void beforeBulk(long executionId, BulkRequest request) {
+                        }
+
+                        @Override
+                        public void afterBulk(long executionId, BulkRequest request, BulkResponse response) {
+                        }
+
+                        @Override
+                        public void afterBulk(long executionId, BulkRequest request, Throwable failure) {
+                            failedBulkCount.incrementAndGet();
+                        }
+                    }, new ElasticsearchLaneMetrics("write"), 1000, 5, 1, 60, 0, 0, 30);
+            int docCount = 2000;
+            Thread writer = new Thread(() -> {
+                for (int i = 0; i < docCount; i++) {
+                    bulkProcessor.add(new IndexRequest(INDEX).id("doc" + i)
+                            .source(Collections.singletonMap("id", i)));
+                }
+            });
+            writer.start();
+            for (int i = 0; writer.isAlive(); i++) {
+                bulkProcessor.setBulkActions(i % 2 == 0 ? 50 : 1000);
+                bulkProcessor.setConcurrentRequests(i % 3);
+            }
+            writer.join();
+            AssertJUnit.assertTrue(bulkProcessor.close());
+            AssertJUnit.assertTrue(bulkProcessor.getReplacementCount() > 0);
+            AssertJUnit.assertEquals(docCount, bulkProcessor.getAddedActionCount());
+            AssertJUnit.assertEquals(docCount, new HashSet<>(node.getDocIds()).size());
+            AssertJUnit.assertEquals(0, failedBulkCount.get());
+            try {
+                bulkProcessor.setFlushIntervalSeconds(0);
+                AssertJUnit.fail("An invalid flush interval was accepted");
+            } catch (IllegalArgumentException e) {
+                AssertJUnit.assertEquals(60, bulkProcessor.getFlushIntervalSeconds());
+            }
+        } finally {
+            ElasticsearchClientRegistry.release(client);
+        }
+    }
+
+    @Test(description = "Testing that the bulk requests of a replaced bulk processor complete before its successor " +
+            "sends any, so that writes of the same document are not reordered by a change of the settings.")
+    public void bulkSettingsChangeKeepsWritesInOrder() throws Exception {
+        log.info("bulkSettingsChangeKeepsWritesInOrder");
+        StandInNode node = cluster.startNode("data", 0);
+        node.setBulkDelayMillis(20);
+        ElasticsearchClientConfig config = createConfig(node, 0, false);
+        RestHighLevelClient client = ElasticsearchClientRegistry.acquire(config, "ordered_table");
+        AtomicInteger inFlightBulkCount = new AtomicInteger();
+        AtomicInteger maxInFlightBulkCount = new AtomicInteger();
+        try {
+            ElasticsearchTunableBulkProcessor bulkProcessor = new ElasticsearchTunableBulkProcessor("ordered_table",
+                    (request, listener) -> {
+                        maxInFlightBulkCount.accumulateAndGet(inFlightBulkCount.incrementAndGet(), Math::max);
+                        client.bulkAsync(request, RequestOptions.DEFAULT, ActionListener.wrap(response -> {
+                            inFlightBulkCount.decrementAndGet();
+                            listener.onResponse(response);
+                        }, e -> {
+                            inFlightBulkCount.decrementAndGet();
+                            listener.onFailure(e);
+                        }));
+                    }, new NoOpBulkListener(), new ElasticsearchLaneMetrics("write"), 10, 5, 1, 60, 0, 0, 30);
+            int docCount = 500;
+            Thread writer = new Thread(() -> {
+                for (int i = 0; i < docCount; i++) {
+                    bulkProcessor.add(new IndexRequest(INDEX).id("doc" + i)
+                            .source(Collections.singletonMap("id", i)));
+                }
+            });
+            writer.start();
+            for (int i = 0; writer.isAlive(); i++) {
+                bulkProcessor.setBulkActions(i % 2 == 0 ? 10 : 20);
+                AssertJUnit.assertEquals("The settings could not be read while a change was applied",
+                        i % 2 == 0 ? 10 : 20, bulkProcessor.getBulkActions());
+            }
+            writer.join();
+            AssertJUnit.assertTrue(bulkProcessor.close());
+            AssertJUnit.assertTrue(bulkProcessor.getReplacementCount() > 0);
+            AssertJUnit.assertEquals(docCount, new HashSet<>(node.getDocIds()).size());
+            AssertJUnit.assertEquals("Bulk requests of a replaced and its successor bulk processor overlapped", 1,
+                    maxInFlightBulkCount.get());
+        } finally {
+            ElasticsearchClientRegistry.release(client);
+        }
+    }
+
+    private static class NoOpBulkListener implements BulkProcessor.Listener {
+        @Override
+        public void beforeBulk(long executionId, BulkRequest request) {
+        }
+
+        @Override
+        public void afterBulk(long executionId, BulkRequest request, BulkResponse response) {
+        }
+
+        @Override
+        public void afterBulk(long executionId, BulkRequest request, Throwable failure) {
+        }
+    }
+}
@@ -32,6 +32,12 @@ import org.testng.annotations.BeforeClass;
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
 
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
 public class TestCaseOfElasticsearchEventTableIT {
     private static final Logger log = Logger.getLogger(TestCaseOfElasticsearchEventTableIT.class);
     private static String hostname;
@@ -477,5 +483,777 @@ public class TestCaseOfElasticsearchEventTableIT {
         AssertJUnit.assertEquals("Event arrived", true, eventArrived);
         siddhiAppRuntime.shutdown();
     }
-}
 
+    @Test(testName = "elasticsearchRecordsJoinOnNonPrimaryKey", description = "Testing join on a non primary key " +
+            "attribute.")
+    public void elasticsearchRecordsJoinOnNonPrimaryKey() throws InterruptedException {
+        log.info("elasticsearchRecordsJoinOnNonPrimaryKey");
+        SiddhiManager siddhiManager = new SiddhiManager();
+        String streams =
+                "define stream StockStream (symbol string, price float, volume long); \n" +
+                        "define stream TestStream(volume long); \n" +
+                        "\n" +
+                        "@store(type='elasticsearch', host='" + hostname + "', port='" + port + "', " +
+                        "index.name='stock_volume_index')\n" +
+                        "@primaryKey('symbol') \n" +
+                        "define table stock_table(symbol string, price float, volume long);";
+        String query = "" +
+                "@info(name = 'query1')\n" +
+                "from StockStream \n" +
+                "select symbol, price, volume \n" +
+                "insert into stock_table;";
+        String query2 = "" +
+                "@info(name = 'query2')\n" +
+                "from TestStream as a join stock_table as b on a.volume == b.volume\n" +
+                "select symbol, price, b.volume\n" +
+                "insert into AlertStream;";
+
+        log.info(streams + query);
+
+        SiddhiAppRuntime siddhiAppRuntime = siddhiManager.createSiddhiAppRuntime(streams + query + query2);
+        InputHandler insertStockStream = siddhiAppRuntime.getInputHandler("StockStream");
+        InputHandler insertTestStream = siddhiAppRuntime.getInputHandler("TestStream");
+        siddhiAppRuntime.addCallback("query2", new QueryCallback() {
+            @Override
+            public void receive(long timeStamp, Event[] inEvents, Event[] removeEvents) {
+                EventPrinter.print(timeStamp, inEvents, removeEvents);
+                if (inEvents != null) {
+                    for (Event event : inEvents) {
+                        inEventCount++;
+                        switch (inEventCount) {
+                            case 1:
+                                Assert.assertEquals(event.getData(), new Object[]{"IBM", 75.6F, 1006L});
+                                break;
+                            default:
+                                Assert.assertSame(1, inEventCount);
+                        }
+                    }
+                    eventArrived = true;
+                }
+                if (removeEvents != null) {
+                    removeEventCount = removeEventCount + removeEvents.length;
+                }
+                eventArrived = true;
+            }
+        });
+        siddhiAppRuntime.start();
+
+        insertStockStream.send(new Object[]{"WSO2", 55.6F, 1005L});
+        insertStockStream.send(new Object[]{"IBM", 75.6F, 1006L});
+        insertStockStream.send(new Object[]{"MSFT", 57.6F, 1007L});
+        Thread.sleep(1000);
+        insertTestStream.send(new Object[]{1006L});
+        Thread.sleep(1000);
+        AssertJUnit.assertEquals("Number of success events", 1, inEventCount);
+        AssertJUnit.assertEquals("Number of remove events", 0, removeEventCount);
+        AssertJUnit.assertEquals("Event arrived", true, eventArrived);
+        siddhiAppRuntime.shutdown();
+    }
+
+    @Test(testName = "elasticsearchStoreQueryWithOrderByAndLimit", description = "Testing store query with " +
+            "projection, order by and limit.")
+    public void elasticsearchStoreQueryWithOrderByAndLimit() throws InterruptedException {
+        log.info("elasticsearchStoreQueryWithOrderByAndLimit");
+        SiddhiManager siddhiManager = new SiddhiManager();
+        String streams =
+                "define stream StockStream (symbol string, price float, volume long); \n" +
+                        "\n" +
+                        "@store(type='elasticsearch', host='" + hostname + "', port='" + port + "', " +
+                        "index.name='stock_query_index')\n" +
+                        "@primaryKey('symbol') \n" +
+                        "define table stock_table(symbol string, price float, volume long);";
+        String query = "" +
+                "@info(name = 'query1')\n" +
+                "from StockStream \n" +
+                "select symbol, price, volume \n" +
+                "insert into stock_table;";
+
+        SiddhiAppRuntime siddhiAppRuntime = siddhiManager.createSiddhiAppRuntime(streams + query);
+        InputHandler insertStockStream = siddhiAppRuntime.getInputHandler("StockStream");
+        siddhiAppRuntime.start();
+
+        insertStockStream.send(new Object[]{"WSO2", 55.6F, 1005L});
+        insertStockStream.send(new Object[]{"IBM", 75.6F, 1006L});
+        insertStockStream.send(new Object[]{"MSFT", 57.6F, 1007L});
+        Thread.sleep(1000);
+        Event[] events = siddhiAppRuntime.query("" +
+                "from stock_table on price > 56 \n" +
+                "select volume, symbol \n" +
+                "order by price desc \n" +
+                "limit 1");
+        EventPrinter.print(events);
+        AssertJUnit.assertEquals("Number of selected events", 1, events.length);
+        Assert.assertEquals(events[0].getData(), new Object[]{1006L, "IBM"});
+
+        events = siddhiAppRuntime.query("" +
+                "from stock_table \n" +
+                "select symbol \n" +
+                "order by symbol \n" +
+                "limit 2 \n" +
+                "offset 1");
+        EventPrinter.print(events);
+        AssertJUnit.assertEquals("Number of selected events", 2, events.length);
+        Assert.assertEquals(events[0].getData(), new Object[]{"MSFT"});
+        Assert.assertEquals(events[1].getData(), new Object[]{"WSO2"});
+        siddhiAppRuntime.shutdown();
+    }
+
+    @Test(testName = "elasticsearchStoreQueryWithAggregation", description = "Testing store query with " +
+            "aggregations grouped by an attribute.")
+    public void elasticsearchStoreQueryWithAggregation() throws InterruptedException {
+        log.info("elasticsearchStoreQueryWithAggregation");
+        SiddhiManager siddhiManager = new SiddhiManager();
+        String streams =
+                "define stream StockStream (symbol string, price float, volume long); \n" +
+                        "\n" +
+                        "@store(type='elasticsearch', host='" + hostname + "', port='" + port + "', " +
+                        "index.name='stock_aggregation_index', aggregation.page.size='1')\n" +
+                        "define table stock_table(symbol string, price float, volume long);";
+        String query = "" +
+                "@info(name = 'query1')\n" +
+                "from StockStream \n" +
+                "select symbol, price, volume \n" +
+                "insert into stock_table;";
+
+        SiddhiAppRuntime siddhiAppRuntime = siddhiManager.createSiddhiAppRuntime(streams + query);
+        InputHandler insertStockStream = siddhiAppRuntime.getInputHandler("StockStream");
+        siddhiAppRuntime.start();
+
+        insertStockStream.send(new Object[]{"WSO2", 55.6F, 100L});
+        insertStockStream.send(new Object[]{"IBM", 75.6F, 200L});
+        insertStockStream.send(new Object[]{"WSO2", 57.6F, 300L});
+        Thread.sleep(1000);
+        Event[] events = siddhiAppRuntime.query("" +
+                "from stock_table \n" +
+                "select symbol, sum(volume) as totalVolume, count() as trades, max(price) as maxPrice \n" +
+                "group by symbol \n" +
+                "order by totalVolume desc");
+        EventPrinter.print(events);
+        AssertJUnit.assertEquals("Number of selected events", 2, events.length);
+        Assert.assertEquals(events[0].getData(), new Object[]{"WSO2", 400L, 2L, 57.6F});
+        Assert.assertEquals(events[1].getData(), new Object[]{"IBM", 200L, 1L, 75.6F});
+
+        events = siddhiAppRuntime.query("" +
+                "from stock_table on volume > 150 \n" +
+                "select count() as trades, distinctCount(symbol) as symbols");
+        EventPrinter.print(events);
+        AssertJUnit.assertEquals("Number of selected events", 1, events.length);
+        Assert.assertEquals(events[0].getData(), new Object[]{2L, 2L});
+        siddhiAppRuntime.shutdown();
+    }
+
+    @Test(testName = "elasticsearchStringEqualityMatchesExactly", description = "Testing that string equality " +
+            "does not match documents which only contain the value as a phrase.")
+    public void elasticsearchStringEqualityMatchesExactly() throws InterruptedException {
+        log.info("elasticsearchStringEqualityMatchesExactly");
+        SiddhiManager siddhiManager = new SiddhiManager();
+        String streams =
+                "define stream StockStream (symbol string, price float, volume long); \n" +
+                        "\n" +
+                        "@store(type='elasticsearch', host='" + hostname + "', port='" + port + "', " +
+                        "index.name='stock_exact_match_index', keyword.exact.match='true')\n" +
+                        "define table stock_table(symbol string, price float, volume long);";
+        String query = "" +
+                "@info(name = 'query1')\n" +
+                "from StockStream \n" +
+                "select symbol, price, volume \n" +
+                "insert into stock_table;";
+
+        SiddhiAppRuntime siddhiAppRuntime = siddhiManager.createSiddhiAppRuntime(streams + query);
+        InputHandler insertStockStream = siddhiAppRuntime.getInputHandler("StockStream");
+        siddhiAppRuntime.start();
+
+        insertStockStream.send(new Object[]{"IBM", 75.6F, 100L});
+        insertStockStream.send(new Object[]{"IBM Corp", 76.6F, 200L});
+        insertStockStream.send(new Object[]{"ibm", 77.6F, 300L});
+        Thread.sleep(1000);
+        Event[] events = siddhiAppRuntime.query("" +
+                "from stock_table on symbol == 'IBM' \n" +
+                "select symbol, volume");
+        EventPrinter.print(events);
+        AssertJUnit.assertEquals("Number of selected events", 1, events.length);
+        Assert.assertEquals(events[0].getData(), new Object[]{"IBM", 100L});
+
+        // values longer than the 256 characters earlier mappings indexed in the keyword sub field still match
+        String longSymbol = new String(new char[300]).replace('\0', 'X');
+        insertStockStream.send(new Object[]{longSymbol, 78.6F, 400L});
+        Thread.sleep(1000);
+        events = siddhiAppRuntime.query("" +
+                "from stock_table on symbol == '" + longSymbol + "' \n" +
+                "select volume");
+        EventPrinter.print(events);
+        AssertJUnit.assertEquals("Number of selected events", 1, events.length);
+        Assert.assertEquals(events[0].getData(), new Object[]{400L});
+        siddhiAppRuntime.shutdown();
+    }
+
+    @Test(testName = "elasticsearchRecordsContainWithBloomFilter", description = "Testing Records contain with " +
+            "the document id Bloom filter seeded from existing documents.")
+    public void elasticsearchRecordsContainWithBloomFilter() throws InterruptedException {
+        log.info("elasticsearchRecordsContainWithBloomFilter");
+        SiddhiManager siddhiManager = new SiddhiManager();
+        String streams =
+                "define stream StockStream (symbol string, price float, volume long); \n" +
+                        "define stream TestStream(symbol string); \n" +
+                        "\n" +
+                        "@store(type='elasticsearch', host='" + hostname + "', port='" + port + "', " +
+                        "index.name='stock_bloom_filter_index', bloom.filter.expected.insertions='1000')\n" +
+                        "@primaryKey('symbol') \n" +
+                        "define table stock_table(symbol string, price float, volume long);";
+        String query = "" +
+                "@info(name = 'query1')\n" +
+                "from StockStream \n" +
+                "select symbol, price, volume \n" +
+                "insert into stock_table;";
+        String query2 = "" +
+                "@info(name = 'query2')\n" +
+                "from TestStream[stock_table.symbol == symbol in stock_table]\n" +
+                "select symbol \n" +
+                "insert into AlertStream;";
+
+        SiddhiAppRuntime siddhiAppRuntime = siddhiManager.createSiddhiAppRuntime(streams + query);
+        siddhiAppRuntime.start();
+        siddhiAppRuntime.getInputHandler("StockStream").send(new Object[]{"WSO2", 55.6F, 1005L});
+        Thread.sleep(1000);
+        siddhiAppRuntime.shutdown();
+
+        siddhiAppRuntime = siddhiManager.createSiddhiAppRuntime(streams + query + query2);
+        InputHandler insertStockStream = siddhiAppRuntime.getInputHandler("StockStream");
+        InputHandler insertTestStream = siddhiAppRuntime.getInputHandler("TestStream");
+        siddhiAppRuntime.addCallback("query2", new QueryCallback() {
+            @Override
+            public void receive(long timeStamp, Event[] inEvents, Event[] removeEvents) {
+                EventPrinter.print(timeStamp, inEvents, removeEvents);
+                if (inEvents != null) {
+                    for (Event event : inEvents) {
+                        inEventCount++;
+                        switch (inEventCount) {
+                            case 1:
+                                Assert.assertEquals(event.getData(), new Object[]{"WSO2"});
+                                break;
+                            case 2:
+                                Assert.assertEquals(event.getData(), new Object[]{"MSFT"});
+                                break;
+                            default:
+                                Assert.assertSame(2, inEventCount);
+                        }
+                    }
+                }
+                eventArrived = true;
+            }
+        });
+        siddhiAppRuntime.start();
+
+        insertStockStream.send(new Object[]{"MSFT", 57.6F, 1005L});
+        Thread.sleep(1000);
+        insertTestStream.send(new Object[]{"WSO2"});
+        insertTestStream.send(new Object[]{"IBM"});
+        insertTestStream.send(new Object[]{"MSFT"});
+        Thread.sleep(1000);
+        AssertJUnit.assertEquals("Number of success events", 2, inEventCount);
+        AssertJUnit.assertEquals("Event arrived", true, eventArrived);
+        siddhiAppRuntime.shutdown();
+    }
+
+    @Test(testName = "elasticsearchStoreQueryWithTimeRangeOverRolledIndices", description = "Testing store queries " +
+            "bounding the time attribute over records written to several indices.")
+    public void elasticsearchStoreQueryWithTimeRangeOverRolledIndices() throws InterruptedException {
+        log.info("elasticsearchStoreQueryWithTimeRangeOverRolledIndices");
+        SiddhiManager siddhiManager = new SiddhiManager();
+        String streams =
+                "define stream StockStream (symbol string, price float, eventTime long, stockIndex string); \n" +
+                        "\n" +
+                        "@store(type='elasticsearch', host='" + hostname + "', port='" + port + "', " +
+                        "payload.index.of.index.name='3', search.index.pattern='stock_time_*', " +
+                        "time.attribute='eventTime')\n" +
+                        "define table stock_table(symbol string, price float, eventTime long, stockIndex string);";
+        String query = "" +
+                "@info(name = 'query1')\n" +
+                "from StockStream \n" +
+                "select symbol, price, eventTime, stockIndex \n" +
+                "insert into stock_table;";
+
+        SiddhiAppRuntime siddhiAppRuntime = siddhiManager.createSiddhiAppRuntime(streams + query);
+        InputHandler insertStockStream = siddhiAppRuntime.getInputHandler("StockStream");
+        siddhiAppRuntime.start();
+
+        insertStockStream.send(new Object[]{"WSO2", 55.6F, 1000L, "stock_time_1"});
+        insertStockStream.send(new Object[]{"IBM", 75.6F, 1500L, "stock_time_1"});
+        insertStockStream.send(new Object[]{"MSFT", 57.6F, 2000L, "stock_time_2"});
+        Thread.sleep(1000);
+        Event[] events = siddhiAppRuntime.query("" +
+                "from stock_table on eventTime >= 1800 and eventTime < 2500 \n" +
+                "select symbol, stockIndex");
+        EventPrinter.print(events);
+        AssertJUnit.assertEquals("Number of selected events", 1, events.length);
+        Assert.assertEquals(events[0].getData(), new Object[]{"MSFT", "stock_time_2"});
+
+        events = siddhiAppRuntime.query("" +
+                "from stock_table on eventTime <= 1500 \n" +
+                "select symbol \n" +
+                "order by symbol");
+        EventPrinter.print(events);
+        AssertJUnit.assertEquals("Number of selected events", 2, events.length);
+        Assert.assertEquals(events[0].getData(), new Object[]{"IBM"});
+        Assert.assertEquals(events[1].getData(), new Object[]{"WSO2"});
+
+        events = siddhiAppRuntime.query("" +
+                "from stock_table on eventTime > 3000 \n" +
+                "select count() as count");
+        EventPrinter.print(events);
+        AssertJUnit.assertEquals("Number of selected events", 1, events.length);
+        Assert.assertEquals(events[0].getData(), new Object[]{0L});
+        siddhiAppRuntime.shutdown();
+    }
+
+    @Test(testName = "elasticsearchStoreQueryWithSearchTimeout", description = "Testing store queries with a " +
+            "search deadline.")
+    public void elasticsearchStoreQueryWithSearchTimeout() throws InterruptedException {
+        log.info("elasticsearchStoreQueryWithSearchTimeout");
+        SiddhiManager siddhiManager = new SiddhiManager();
+        String streams =
+                "define stream StockStream (symbol string, price float, volume long); \n" +
+                        "\n" +
+                        "@store(type='elasticsearch', host='" + hostname + "', port='" + port + "', " +
+                        "index.name='stock_search_timeout_index', search.timeout='5000', " +
+                        "allow.partial.search.results='true')\n" +
+                        "define table stock_table(symbol string, price float, volume long);";
+        String query = "" +
+                "@info(name = 'query1')\n" +
+                "from StockStream \n" +
+                "select symbol, price, volume \n" +
+                "insert into stock_table;";
+
+        SiddhiAppRuntime siddhiAppRuntime = siddhiManager.createSiddhiAppRuntime(streams + query);
+        InputHandler insertStockStream = siddhiAppRuntime.getInputHandler("StockStream");
+        siddhiAppRuntime.start();
+
+        insertStockStream.send(new Object[]{"WSO2", 55.6F, 1005L});
+        insertStockStream.send(new Object[]{"IBM", 75.6F, 1006L});
+        Thread.sleep(1000);
+        Event[] events = siddhiAppRuntime.query("" +
+                "from stock_table on price > 60 \n" +
+                "select symbol, volume");
+        EventPrinter.print(events);
+        AssertJUnit.assertEquals("Number of selected events", 1, events.length);
+        Assert.assertEquals(events[0].getData(), new Object[]{"IBM", 1006L});
+        siddhiAppRuntime.shutdown();
+    }
+
+    @Test(testName = "elasticsearchStoreQueryWithHedging", description = "Testing store queries with hedged " +
+            "searches.")
+    public void elasticsearchStoreQueryWithHedging() throws InterruptedException, JMException {
+        log.info("elasticsearchStoreQueryWithHedging");
+        SiddhiManager siddhiManager = new SiddhiManager();
+        String streams =
+                "@app:name('HedgingApp') \n" +
+                        "define stream StockStream (symbol string, price float, volume long); \n" +
+                        "\n" +
+                        "@store(type='elasticsearch', host='" + hostname + "', port='" + port + "', " +
+                        "index.name='stock_hedging_index', hedge.percentile='50', hedge.budget='0.5')\n" +
+                        "define table stock_table(symbol string, price float, volume long);";
+        String query = "" +
+                "@info(name = 'query1')\n" +
+                "from StockStream \n" +
+                "select symbol, price, volume \n" +
+                "insert into stock_table;";
+
+        SiddhiAppRuntime siddhiAppRuntime = siddhiManager.createSiddhiAppRuntime(streams + query);
+        InputHandler insertStockStream = siddhiAppRuntime.getInputHandler("StockStream");
+        siddhiAppRuntime.start();
+
+        insertStockStream.send(new Object[]{"WSO2", 55.6F, 1005L});
+        insertStockStream.send(new Object[]{"IBM", 75.6F, 1006L});
+        Thread.sleep(1000);
+        // enough searches to establish the latency percentile the later searches are hedged at
+        for (int i = 0; i < 200; i++) {
+            Event[] events = siddhiAppRuntime.query("" +
+                    "from stock_table on volume == 1006 \n" +
+                    "select symbol");
+            AssertJUnit.assertEquals("Number of selected events", 1, events.length);
+            Assert.assertEquals(events[0].getData(), new Object[]{"IBM"});
+        }
+        long hedgeCount = getTableMetric("HedgingApp", "HedgeCount");
+        AssertJUnit.assertTrue(getTableMetric("HedgingApp", "HedgeWinCount") <= hedgeCount);
+        AssertJUnit.assertTrue(getTableMetric("HedgingApp", "HedgeSavedTimeMillis") >= 0);
+        AssertJUnit.assertTrue(getTableMetric("HedgingApp", "HedgeBudgetExhaustedCount") >= 0);
+        siddhiAppRuntime.shutdown();
+    }
+
+    @Test(testName = "elasticsearchRecordsReadYourWrites", description = "Testing that reads see records still " +
+            "waiting in the bulk processor.")
+    public void elasticsearchRecordsReadYourWrites() throws InterruptedException {
+        log.info("elasticsearchRecordsReadYourWrites");
+        SiddhiManager siddhiManager = new SiddhiManager();
+        String streams =
+                "define stream StockStream (symbol string, price float, volume long); \n" +
+                        "define stream TestStream(volume long); \n" +
+                        "\n" +
+                        "@store(type='elasticsearch', host='" + hostname + "', port='" + port + "', " +
+                        "index.name='stock_read_your_writes_index', bulk.actions='1000', flush.interval='60', " +
+                        "read.your.writes='true')\n" +
+                        "@primaryKey('symbol') \n" +
+                        "define table stock_table(symbol string, price float, volume long);";
+        String query = "" +
+                "@info(name = 'query1')\n" +
+                "from StockStream \n" +
+                "select symbol, price, volume \n" +
+                "insert into stock_table;";
+        String query2 = "" +
+                "@info(name = 'query2')\n" +
+                "from TestStream as a join stock_table as b on a.volume == b.volume\n" +
+                "select symbol, price, b.volume\n" +
+                "insert into AlertStream;";
+
+        SiddhiAppRuntime siddhiAppRuntime = siddhiManager.createSiddhiAppRuntime(streams + query + query2);
+        InputHandler insertStockStream = siddhiAppRuntime.getInputHandler("StockStream");
+        InputHandler insertTestStream = siddhiAppRuntime.getInputHandler("TestStream");
+        siddhiAppRuntime.addCallback("query2", new QueryCallback() {
+            @Override
+            public void receive(long timeStamp, Event[] inEvents, Event[] removeEvents) {
+                EventPrinter.print(timeStamp, inEvents, removeEvents);
+                if (inEvents != null) {
+                    for (Event event : inEvents) {
+                        inEventCount++;
+                        Assert.assertEquals(event.getData(), new Object[]{"IBM", 75.6F, 1006L});
+                    }
+                    eventArrived = true;
+                }
+            }
+        });
+        siddhiAppRuntime.start();
+
+        insertStockStream.send(new Object[]{"WSO2", 55.6F, 1005L});
+        insertStockStream.send(new Object[]{"IBM", 75.6F, 1006L});
+        // the bulk request is neither full nor due, so the records are only visible through the pending writes
+        insertTestStream.send(new Object[]{1006L});
+        Event[] events = siddhiAppRuntime.query("" +
+                "from stock_table on symbol == 'WSO2' \n" +
+                "select symbol, volume");
+        AssertJUnit.assertEquals("Number of selected events", 1, events.length);
+        Assert.assertEquals(events[0].getData(), new Object[]{"WSO2", 1005L});
+        Thread.sleep(1000);
+        AssertJUnit.assertEquals("Number of success events", 1, inEventCount);
+        AssertJUnit.assertEquals("Event arrived", true, eventArrived);
+        siddhiAppRuntime.shutdown();
+    }
+
+    @Test(testName = "elasticsearchTablesShareClient", description = "Testing that a table keeps working when " +
+            "another table sharing its REST client is shut down.")
+    public void elasticsearchTablesShareClient() throws InterruptedException {
+        log.info("elasticsearchTablesShareClient");
+        SiddhiManager siddhiManager = new SiddhiManager();
+        String table = "" +
+                "define stream StockStream (symbol string, price float, volume long); \n" +
+                "\n" +
+                "@store(type='elasticsearch', host='" + hostname + "', port='" + port + "', " +
+                "index.name='stock_shared_client_index', max.connections.per.route='4', " +
+                "max.connections.total='8')\n" +
+                "@primaryKey('symbol') \n" +
+                "define table stock_table(symbol string, price float, volume long);";
+        String query = "" +
+                "@info(name = 'query1')\n" +
+                "from StockStream \n" +
+                "select symbol, price, volume \n" +
+                "insert into stock_table;";
+
+        SiddhiAppRuntime firstAppRuntime = siddhiManager.createSiddhiAppRuntime("@app:name('FirstApp')\n" +
+                table + query);
+        SiddhiAppRuntime secondAppRuntime = siddhiManager.createSiddhiAppRuntime("@app:name('SecondApp')\n" +
+                table + query);
+        firstAppRuntime.start();
+        secondAppRuntime.start();
+        firstAppRuntime.getInputHandler("StockStream").send(new Object[]{"WSO2", 55.6F, 1005L});
+        firstAppRuntime.shutdown();
+
+        secondAppRuntime.getInputHandler("StockStream").send(new Object[]{"IBM", 75.6F, 1006L});
+        Thread.sleep(1000);
+        Event[] events = secondAppRuntime.query("" +
+                "from stock_table \n" +
+                "select symbol \n" +
+                "order by symbol");
+        AssertJUnit.assertEquals("Number of selected events", 2, events.length);
+        Assert.assertEquals(events[0].getData(), new Object[]{"IBM"});
+        Assert.assertEquals(events[1].getData(), new Object[]{"WSO2"});
+        secondAppRuntime.shutdown();
+    }
+
+    @Test(testName = "elasticsearchRecordsJoinOnPrimaryKeyWithoutSearch", description = "Testing that a join on the " +
+            "primary key is served by document lookups instead of searches.")
+    public void elasticsearchRecordsJoinOnPrimaryKeyWithoutSearch() throws InterruptedException, JMException {
+        log.info("elasticsearchRecordsJoinOnPrimaryKeyWithoutSearch");
+        SiddhiManager siddhiManager = new SiddhiManager();
+        String streams =
+                "@app:name('PrimaryKeyJoinApp') \n" +
+                        "@app:statistics(enable='true') \n" +
+                        "define stream StockStream (symbol string, price float, volume long); \n" +
+                        "define stream TestStream(symbol string); \n" +
+                        "\n" +
+                        "@store(type='elasticsearch', host='" + hostname + "', port='" + port + "', " +
+                        "index.name='stock_primary_key_join_index')\n" +
+                        "@primaryKey('symbol') \n" +
+                        "define table stock_table(symbol string, price float, volume long);";
+        String query = "" +
+                "@info(name = 'query1')\n" +
+                "from StockStream \n" +
+                "select symbol, price, volume \n" +
+                "insert into stock_table;";
+        String query2 = "" +
+                "@info(name = 'query2')\n" +
+                "from TestStream as a join stock_table as b on b.symbol == a.symbol\n" +
+                "select b.symbol, price, volume\n" +
+                "insert into AlertStream;";
+
+        SiddhiAppRuntime siddhiAppRuntime = siddhiManager.createSiddhiAppRuntime(streams + query + query2);
+        InputHandler insertStockStream = siddhiAppRuntime.getInputHandler("StockStream");
+        InputHandler insertTestStream = siddhiAppRuntime.getInputHandler("TestStream");
+        siddhiAppRuntime.addCallback("query2", new QueryCallback() {
+            @Override
+            public void receive(long timeStamp, Event[] inEvents, Event[] removeEvents) {
+                EventPrinter.print(timeStamp, inEvents, removeEvents);
+                if (inEvents != null) {
+                    for (Event event : inEvents) {
+                        inEventCount++;
+                        Assert.assertEquals(event.getData(), new Object[]{"IBM", 75.6F, 1006L});
+                    }
+                    eventArrived = true;
+                }
+            }
+        });
+        siddhiAppRuntime.start();
+
+        insertStockStream.send(new Object[]{"WSO2", 55.6F, 1005L});
+        insertStockStream.send(new Object[]{"IBM", 75.6F, 1006L});
+        Thread.sleep(1000);
+        insertTestStream.send(new Object[]{"IBM"});
+        insertTestStream.send(new Object[]{"ORCL"});
+        Thread.sleep(1000);
+        AssertJUnit.assertEquals("Number of success events", 1, inEventCount);
+        AssertJUnit.assertEquals("Event arrived", true, eventArrived);
+        AssertJUnit.assertEquals("Number of finds", 2L, getTableMetric("PrimaryKeyJoinApp", "FindCount"));
+        AssertJUnit.assertEquals("Number of searches", 0L, getTableMetric("PrimaryKeyJoinApp", "SearchCount"));
+        siddhiAppRuntime.shutdown();
+    }
+
+    @Test(testName = "elasticsearchRecordsContainWithoutSearch", description = "Testing that a contains check on the " +
+            "primary key is served by document lookups instead of searches.")
+    public void elasticsearchRecordsContainWithoutSearch() throws InterruptedException, JMException {
+        log.info("elasticsearchRecordsContainWithoutSearch");
+        SiddhiManager siddhiManager = new SiddhiManager();
+        String streams =
+                "@app:name('PrimaryKeyContainsApp') \n" +
+                        "@app:statistics(enable='true') \n" +
+                        "define stream StockStream (symbol string, price float, volume long); \n" +
+                        "define stream TestStream(symbol string); \n" +
+                        "\n" +
+                        "@store(type='elasticsearch', host='" + hostname + "', port='" + port + "', " +
+                        "index.name='stock_primary_key_contains_index')\n" +
+                        "@primaryKey('symbol') \n" +
+                        "define table stock_table(symbol string, price float, volume long);";
+        String query = "" +
+                "@info(name = 'query1')\n" +
+                "from StockStream \n" +
+                "select symbol, price, volume \n" +
+                "insert into stock_table;";
+        String query2 = "" +
+                "@info(name = 'query2')\n" +
+                "from TestStream[stock_table.symbol == symbol in stock_table]\n" +
+                "select symbol \n" +
+                "insert into AlertStream;";
+
+        SiddhiAppRuntime siddhiAppRuntime = siddhiManager.createSiddhiAppRuntime(streams + query + query2);
+        InputHandler insertStockStream = siddhiAppRuntime.getInputHandler("StockStream");
+        InputHandler insertTestStream = siddhiAppRuntime.getInputHandler("TestStream");
+        siddhiAppRuntime.addCallback("query2", new QueryCallback() {
+            @Override
+            public void receive(long timeStamp, Event[] inEvents, Event[] removeEvents) {
+                EventPrinter.print(timeStamp, inEvents, removeEvents);
+                if (inEvents != null) {
+                    for (Event event : inEvents) {
+                        inEventCount++;
+                        switch (inEventCount) {
+                            case 1:
+                                Assert.assertEquals(event.getData(), new Object[]{"WSO2"});
+                                break;
+                            case 2:
+                                Assert.assertEquals(event.getData(), new Object[]{"MSFT"});
+                                break;
+                            default:
+                                Assert.assertSame(2, inEventCount);
+                        }
+                    }
+                    eventArrived = true;
+                }
+            }
+        });
+        siddhiAppRuntime.start();
+
+        insertStockStream.send(new Object[]{"WSO2", 55.6F, 1005L});
+        insertStockStream.send(new Object[]{"MSFT", 57.6F, 1005L});
+        Thread.sleep(1000);
+        insertTestStream.send(new Object[]{"WSO2"});
+        insertTestStream.send(new Object[]{"IBM"});
+        insertTestStream.send(new Object[]{"MSFT"});
+        Thread.sleep(1000);
+        AssertJUnit.assertEquals("Number of success events", 2, inEventCount);
+        AssertJUnit.assertEquals("Event arrived", true, eventArrived);
+        AssertJUnit.assertEquals("Number of contains checks", 3L,
+                getTableMetric("PrimaryKeyContainsApp", "ContainsCount"));
+        AssertJUnit.assertEquals("Number of searches", 0L, getTableMetric("PrimaryKeyContainsApp", "SearchCount"));
+        siddhiAppRuntime.shutdown();
+    }
+
+    @Test(testName = "elasticsearchRecordsJoinOnMismatchedPrimaryKeyType", description = "Testing that a join " +
+            "comparing the primary key with a value of another type falls back to a search.")
+    public void elasticsearchRecordsJoinOnMismatchedPrimaryKeyType() throws InterruptedException, JMException {
+        log.info("elasticsearchRecordsJoinOnMismatchedPrimaryKeyType");
+        SiddhiManager siddhiManager = new SiddhiManager();
+        String streams =
+                "@app:name('MismatchedPrimaryKeyJoinApp') \n" +
+                        "@app:statistics(enable='true') \n" +
+                        "define stream StockStream (symbol string, price float, volume long); \n" +
+                        "define stream TestStream(volume int); \n" +
+                        "\n" +
+                        "@store(type='elasticsearch', host='" + hostname + "', port='" + port + "', " +
+                        "index.name='stock_mismatched_primary_key_join_index')\n" +
+                        "@primaryKey('volume') \n" +
+                        "define table stock_table(symbol string, price float, volume long);";
+        String query = "" +
+                "@info(name = 'query1')\n" +
+                "from StockStream \n" +
+                "select symbol, price, volume \n" +
+                "insert into stock_table;";
+        String query2 = "" +
+                "@info(name = 'query2')\n" +
+                "from TestStream as a join stock_table as b on b.volume == a.volume\n" +
+                "select symbol, price, b.volume\n" +
+                "insert into AlertStream;";
+
+        SiddhiAppRuntime siddhiAppRuntime = siddhiManager.createSiddhiAppRuntime(streams + query + query2);
+        InputHandler insertStockStream = siddhiAppRuntime.getInputHandler("StockStream");
+        InputHandler insertTestStream = siddhiAppRuntime.getInputHandler("TestStream");
+        siddhiAppRuntime.addCallback("query2", new QueryCallback() {
+            @Override
+            public void receive(long timeStamp, Event[] inEvents, Event[] removeEvents) {
+                EventPrinter.print(timeStamp, inEvents, removeEvents);
+                if (inEvents != null) {
+                    for (Event event : inEvents) {
+                        inEventCount++;
+                        Assert.assertEquals(event.getData(), new Object[]{"IBM", 75.6F, 1006L});
+                    }
+                    eventArrived = true;
+                }
+            }
+        });
+        siddhiAppRuntime.start();
+
+        insertStockStream.send(new Object[]{"WSO2", 55.6F, 1005L});
+        insertStockStream.send(new Object[]{"IBM", 75.6F, 1006L});
+        Thread.sleep(1000);
+        // an int is not the document id of a long key, so the lookup has to be answered by a search
+        insertTestStream.send(new Object[]{1006});
+        Thread.sleep(1000);
+        AssertJUnit.assertEquals("Number of success events", 1, inEventCount);
+        AssertJUnit.assertEquals("Event arrived", true, eventArrived);
+        AssertJUnit.assertTrue("Searches were sent",
+                getTableMetric("MismatchedPrimaryKeyJoinApp", "SearchCount") > 0);
+        siddhiAppRuntime.shutdown();
+    }
+
+    @Test(testName = "elasticsearchRecordsLookupByPrimaryKeyOverIndexPattern", description = "Testing that joins, " +
+            "contains checks and store queries on the primary key find records of every index of the search " +
+            "index pattern.")
+    public void elasticsearchRecordsLookupByPrimaryKeyOverIndexPattern() throws InterruptedException {
+        log.info("elasticsearchRecordsLookupByPrimaryKeyOverIndexPattern");
+        SiddhiManager siddhiManager = new SiddhiManager();
+        String streams =
+                "define stream StockStream (symbol string, price float, stockIndex string); \n" +
+                        "define stream TestStream(symbol string); \n" +
+                        "define stream ContainsStream(symbol string); \n" +
+                        "\n" +
+                        "@store(type='elasticsearch', host='" + hostname + "', port='" + port + "', " +
+                        "payload.index.of.index.name='2', search.index.pattern='stock_pattern_*')\n" +
+                        "@primaryKey('symbol') \n" +
+                        "define table stock_table(symbol string, price float, stockIndex string);";
+        String query = "" +
+                "@info(name = 'query1')\n" +
+                "from StockStream \n" +
+                "select symbol, price, stockIndex \n" +
+                "insert into stock_table;";
+        String query2 = "" +
+                "@info(name = 'query2')\n" +
+                "from TestStream as a join stock_table as b on b.symbol == a.symbol\n" +
+                "select b.symbol, stockIndex\n" +
+                "insert into AlertStream;";
+        String query3 = "" +
+                "@info(name = 'query3')\n" +
+                "from ContainsStream[stock_table.symbol == symbol in stock_table]\n" +
+                "select symbol \n" +
+                "insert into ContainsAlertStream;";
+
+        SiddhiAppRuntime siddhiAppRuntime = siddhiManager.createSiddhiAppRuntime(streams + query + query2 +
+                query3);
+        InputHandler insertStockStream = siddhiAppRuntime.getInputHandler("StockStream");
+        InputHandler insertTestStream = siddhiAppRuntime.getInputHandler("TestStream");
+        InputHandler insertContainsStream = siddhiAppRuntime.getInputHandler("ContainsStream");
+        AtomicInteger containedEventCount = new AtomicInteger();
+        siddhiAppRuntime.addCallback("query2", new QueryCallback() {
+            @Override
+            public void receive(long timeStamp, Event[] inEvents, Event[] removeEvents) {
+                EventPrinter.print(timeStamp, inEvents, removeEvents);
+                if (inEvents != null) {
+                    for (Event event : inEvents) {
+                        inEventCount++;
+                        switch (inEventCount) {
+                            case 1:
+                                Assert.assertEquals(event.getData(), new Object[]{"WSO2", "stock_pattern_1"});
+                                break;
+                            case 2:
+                                Assert.assertEquals(event.getData(), new Object[]{"MSFT", "stock_pattern_2"});
+                                break;
+                            default:
+                                Assert.assertSame(2, inEventCount);
+                        }
+                    }
+                    eventArrived = true;
+                }
+            }
+        });
+        siddhiAppRuntime.addCallback("query3", new QueryCallback() {
+            @Override
+            public void receive(long timeStamp, Event[] inEvents, Event[] removeEvents) {
+                EventPrinter.print(timeStamp, inEvents, removeEvents);
+                if (inEvents != null) {
+                    containedEventCount.addAndGet(inEvents.length);
+                }
+            }
+        });
+        siddhiAppRuntime.start();
+
+        insertStockStream.send(new Object[]{"WSO2", 55.6F, "stock_pattern_1"});
+        insertStockStream.send(new Object[]{"MSFT", 57.6F, "stock_pattern_2"});
+        Thread.sleep(1000);
+        // the table last wrote to the second index, so the first record is only found by searching the pattern
+        insertTestStream.send(new Object[]{"WSO2"});
+        insertTestStream.send(new Object[]{"MSFT"});
+        insertTestStream.send(new Object[]{"IBM"});
+        insertContainsStream.send(new Object[]{"WSO2"});
+        insertContainsStream.send(new Object[]{"IBM"});
+        Event[] events = siddhiAppRuntime.query("" +
+                "from stock_table on symbol == 'WSO2' \n" +
+                "select symbol, stockIndex");
+        AssertJUnit.assertEquals("Number of selected events", 1, events.length);
+        Assert.assertEquals(events[0].getData(), new Object[]{"WSO2", "stock_pattern_1"});
+        Thread.sleep(1000);
+        AssertJUnit.assertEquals("Number of success events", 2, inEventCount);
+        AssertJUnit.assertEquals("Number of contained events", 1, containedEventCount.get());
+        AssertJUnit.assertEquals("Event arrived", true, eventArrived);
+        siddhiAppRuntime.shutdown();
+    }
+
+    private static long getTableMetric(String appName, String attribute) throws JMException {
+        ObjectName objectName = new ObjectName("io.siddhi.extension.store.elasticsearch:type=Metrics,app=" +
+                ObjectName.quote(appName) + ",table=" + ObjectName.quote("stock_table"));
+        return (Long) ManagementFactory.getPlatformMBeanServer().getAttribute(objectName, attribute);
+    }
+}
@@ -0,0 +1,257 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.siddhi.extension.store.elasticsearch.test.utils;
+
+import com.sun.net.httpserver.HttpServer;
+import io.siddhi.extension.store.elasticsearch.ElasticsearchClientConfig;
+import org.apache.http.HttpHost;
+import org.elasticsearch.client.Node;
+import org.elasticsearch.client.RestHighLevelClient;
+import org.testng.AssertJUnit;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Stand-in cluster of HTTP servers, which answer the nodes info request of the sniffer, the cluster state request
+ * of the shard router, bulk requests, searches and gets of the index {@link #INDEX} like a cluster would.
+ */
+public class ElasticsearchStandInCluster {
+    public static final String INDEX = "routed";
+    private static final Pattern DOC_ID_PATTERN = Pattern.compile("\"_id\":\"([^\"]+)\"");
+    private final List<StandInNode> nodes = new ArrayList<>();
+
+    /**
+     * Starts a node of the cluster.
+     *
+     * @param role        the role of the node, "data" or "coordinating".
+     * @param delayMillis the time the node takes to answer requests other than bulk requests.
+     * @return the node.
+     * @throws IOException if the node could not be started.
+     */
+    public StandInNode startNode(String role, long delayMillis) throws IOException {
+        StandInNode node = new StandInNode(role, HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0));
+        node.server.setExecutor(node.executor);
+        node.setSearchDelayMillis(delayMillis, delayMillis);
+        node.server.createContext("/", exchange -> {
+            byte[] body;
+            String path = exchange.getRequestURI().getPath();
+            if (path.equals("/_nodes/http")) {
+                body = nodesInfo().getBytes(StandardCharsets.UTF_8);
+            } else if (path.startsWith("/_cluster/state")) {
+                body = clusterState().getBytes(StandardCharsets.UTF_8);
+            } else if (path.equals("/_bulk") && exchange.getRequestHeaders().containsKey("Content-Type")) {
+                node.requestCount.incrementAndGet();
+                sleep(node.bulkDelayMillis);
+                body = bulkResponse(node, new BufferedReader(new InputStreamReader(exchange.getRequestBody(),
+                        StandardCharsets.UTF_8))).getBytes(StandardCharsets.UTF_8);
+            } else if (path.endsWith("/_search")) {
+                node.requestCount.incrementAndGet();
+                String query = exchange.getRequestURI().getQuery();
+                if (query != null && query.contains("preference=")) {
+                    node.preferredSearchCount.incrementAndGet();
+                    sleep(node.preferredSearchDelayMillis);
+                } else {
+                    sleep(node.searchDelayMillis);
+                }
+                body = ("{\"took\":1,\"timed_out\":false,\"_shards\":{\"total\":1,\"successful\":1," +
+                        "\"skipped\":0,\"failed\":0},\"hits\":{\"total\":{\"value\":0,\"relation\":\"eq\"}," +
+                        "\"max_score\":null,\"hits\":[]}}").getBytes(StandardCharsets.UTF_8);
+            } else {
+                node.requestCount.incrementAndGet();
+                sleep(delayMillis);
+                body = (path.startsWith("/" + INDEX + "/_doc/") ? "{\"_index\":\"" + INDEX +
+                        "\",\"_type\":\"_doc\",\"_id\":\"doc\",\"found\":false}" : "{}")
+                        .getBytes(StandardCharsets.UTF_8);
+            }
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(node.status, body.length);
+            try (OutputStream outputStream = exchange.getResponseBody()) {
+                outputStream.write(body);
+            }
+        });
+        node.server.start();
+        nodes.add(node);
+        return node;
+    }
+
+    /**
+     * Stops every node of the cluster.
+     */
+    public void stop() {
+        for (StandInNode node : nodes) {
+            node.server.stop(0);
+            node.executor.shutdownNow();
+        }
+        nodes.clear();
+    }
+
+    public static ElasticsearchClientConfig createConfig(StandInNode node, int sniffInterval,
+                                                         boolean isLoadAware) {
+        return new ElasticsearchClientConfig(new HttpHost[]{node.getHttpHost()}, "elastic", "changeme", 1, 10, 30,
+                false, null, null, null, sniffInterval, 60000, isLoadAware);
+    }
+
+    public static void waitForNodes(RestHighLevelClient client, int count) throws InterruptedException {
+        for (int i = 0; i < 100; i++) {
+            List<Node> nodes = client.getLowLevelClient().getNodes();
+            if (nodes.size() == count && nodes.get(0).getRoles() != null) {
+                return;
+            }
+            Thread.sleep(50);
+        }
+        AssertJUnit.fail("The nodes of the stand-in cluster were not sniffed");
+    }
+
+    private String nodesInfo() {
+        StringBuilder builder = new StringBuilder("{\"nodes\":{");
+        for (int i = 0; i < nodes.size(); i++) {
+            StandInNode node = nodes.get(i);
+            String address = "127.0.0.1:" + node.server.getAddress().getPort();
+            builder.append(i > 0 ? "," : "").append("\"node").append(i).append("\":{\"name\":\"node").append(i)
+                    .append("\",\"version\":\"7.0.0\",\"roles\":[")
+                    .append(node.role.equals("data") ? "\"master\",\"data\",\"ingest\"" : "")
+                    .append("],\"http\":{\"bound_address\":[\"").append(address)
+                    .append("\"],\"publish_address\":\"").append(address).append("\"}}");
+        }
+        return builder.append("}}").toString();
+    }
+
+    private static String clusterState() {
+        StringBuilder builder = new StringBuilder("{\"metadata\":{\"indices\":{\"").append(INDEX)
+                .append("\":{\"settings\":{\"index\":{\"number_of_shards\":\"2\"}},")
+                .append("\"routing_num_shards\":2}}},\"routing_table\":{\"indices\":{\"").append(INDEX)
+                .append("\":{\"shards\":{");
+        for (int i = 0; i < 2; i++) {
+            builder.append(i > 0 ? "," : "").append("\"").append(i).append("\":[{\"state\":\"STARTED\",")
+                    .append("\"primary\":true,\"node\":\"node").append(i)
+                    .append("\",\"relocating_node\":null}]");
+        }
+        return builder.append("}}}}}").toString();
+    }
+
+    private static String bulkResponse(StandInNode node, BufferedReader reader) throws IOException {
+        StringBuilder builder = new StringBuilder("{\"took\":1,\"errors\":false,\"items\":[");
+        boolean isFirst = true;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            Matcher matcher = DOC_ID_PATTERN.matcher(line);
+            if (!line.startsWith("{\"index\"") || !matcher.find()) {
+                continue;
+            }
+            node.docIds.add(matcher.group(1));
+            builder.append(isFirst ? "" : ",").append("{\"index\":{\"_index\":\"").append(INDEX)
+                    .append("\",\"_type\":\"_doc\",\"_id\":\"").append(matcher.group(1))
+                    .append("\",\"_version\":1,\"result\":\"created\",\"_seq_no\":0,")
+                    .append("\"_primary_term\":1,\"status\":201}}");
+            isFirst = false;
+        }
+        return builder.append("]}").toString();
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Node of the stand-in cluster, whose answers can be delayed and failed by the tests.
+     */
+    public static class StandInNode {
+        private final String role;
+        private final HttpServer server;
+        private final AtomicInteger requestCount = new AtomicInteger();
+        private final AtomicInteger preferredSearchCount = new AtomicInteger();
+        private volatile int status = 200;
+        private volatile long bulkDelayMillis;
+        private volatile long searchDelayMillis;
+        private volatile long preferredSearchDelayMillis;
+        private final ExecutorService executor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "stand-in-node");
+            thread.setDaemon(true);
+            return thread;
+        });
+        private final List<String> docIds = Collections.synchronizedList(new ArrayList<>());
+
+        private StandInNode(String role, HttpServer server) {
+            this.role = role;
+            this.server = server;
+        }
+
+        public HttpHost getHttpHost() {
+            return new HttpHost("127.0.0.1", server.getAddress().getPort(), "http");
+        }
+
+        public int getRequestCount() {
+            return requestCount.get();
+        }
+
+        /**
+         * Returns the number of searches with a preference, such as the hedges of slow searches.
+         *
+         * @return the number of searches with a preference.
+         */
+        public int getPreferredSearchCount() {
+            return preferredSearchCount.get();
+        }
+
+        public void setStatus(int status) {
+            this.status = status;
+        }
+
+        public void setBulkDelayMillis(long bulkDelayMillis) {
+            this.bulkDelayMillis = bulkDelayMillis;
+        }
+
+        /**
+         * Sets the time the node takes to answer searches, separately for searches without and with a preference.
+         *
+         * @param searchDelayMillis          the time taken for searches without a preference.
+         * @param preferredSearchDelayMillis the time taken for searches with a preference.
+         */
+        public void setSearchDelayMillis(long searchDelayMillis, long preferredSearchDelayMillis) {
+            this.searchDelayMillis = searchDelayMillis;
+            this.preferredSearchDelayMillis = preferredSearchDelayMillis;
+        }
+
+        /**
+         * Returns the ids of the documents the node received in bulk requests.
+         *
+         * @return the document ids, which the tests may clear.
+         */
+        public List<String> getDocIds() {
+            return docIds;
+        }
+    }
+}